@@ -21,6 +21,9 @@ public enum HTTPCode {
   /** Error 400, "Multiple context values specified.". */
   MULTIPLE_CONTEXT_X(SC_BAD_REQUEST, "Multiple context values specified."),
 
+  /** Error: 403 (forbidden). */
+  FORBIDDEN_X(SC_FORBIDDEN, "%"),
+
   /** Error: 404 (not found). */
   NOT_FOUND_X(SC_NOT_FOUND, "%"),
   /** Error: 404, "No path specified.". */
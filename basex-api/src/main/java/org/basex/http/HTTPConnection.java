@@ -54,6 +54,8 @@ public final class HTTPConnection implements ClientInfo {
   private SerializerOptions serializer;
   /** User name. */
   private String username;
+  /** Path template of the invoked function (can be {@code null}). */
+  private String template;
 
   /**
    * Constructor.
@@ -215,12 +217,24 @@ public final class HTTPConnection implements ClientInfo {
     return serializer;
   }
 
+  /**
+   * Assigns the path template of the invoked function. The template will be used to record the
+   * metrics of the request, as the request paths can have an arbitrary number of variants.
+   * @param tmpl path template
+   */
+  public void template(final String tmpl) {
+    template = tmpl.startsWith("/") ? tmpl : '/' + tmpl;
+  }
+
   /**
    * Writes a log message.
    * @param type log type
    * @param info info string (can be {@code null})
    */
   void log(final int type, final String info) {
+    final String servlet = req.getServletPath();
+    context.metrics.record(Metrics.Category.HTTP, template != null ? servlet + template : servlet,
+        System.nanoTime() - perf.start());
     context.log.write(address(), user(), type, info, perf);
   }
 
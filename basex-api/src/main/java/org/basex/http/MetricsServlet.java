@@ -0,0 +1,31 @@
+package org.basex.http;
+
+import static org.basex.util.Token.*;
+
+import java.io.*;
+
+import org.basex.core.users.*;
+import org.basex.util.*;
+import org.basex.util.http.*;
+
+/**
+ * <p>This servlet returns execution times and other metrics of the database context in the
+ * Prometheus text format. Admin permissions are required.</p>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class MetricsServlet extends BaseXServlet {
+  /** Content type of the Prometheus text format. */
+  private static final String TYPE = MediaType.TEXT_PLAIN + "; version=0.0.4";
+
+  @Override
+  protected void run(final HTTPConnection conn) throws IOException {
+    if(!conn.context.user().has(Perm.ADMIN))
+      throw HTTPCode.FORBIDDEN_X.get("Admin permissions required.");
+
+    conn.res.setCharacterEncoding(Strings.UTF8);
+    conn.res.setContentType(TYPE);
+    conn.res.getOutputStream().write(token(conn.context.metrics.prometheus()));
+  }
+}
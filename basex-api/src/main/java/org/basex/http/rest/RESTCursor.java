@@ -0,0 +1,183 @@
+package org.basex.http.rest;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.http.*;
+import org.basex.io.out.*;
+import org.basex.query.*;
+import org.basex.query.value.type.*;
+import org.basex.server.*;
+import org.basex.util.*;
+
+/**
+ * Evaluates queries via REST and returns their results in pages.
+ * The query is evaluated by a {@link ServerCursor}. If more results are available,
+ * the cursor id is returned in the {@link RESTText#CURSOR_HEADER} header, and the next page
+ * can be requested with the {@link RESTText#CURSOR} parameter. Cursors are closed after the
+ * idle timeout (see {@link StaticOptions#CURSORTIMEOUT}; if no positive timeout is assigned,
+ * a default of 60 seconds is applied), and closed cursors are discarded in regular intervals.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+final class RESTCursor extends RESTCmd {
+  /** Default page size. */
+  private static final int PAGESIZE = 1000;
+  /** Idle timeout in seconds, used if no positive timeout has been assigned. */
+  private static final int TIMEOUT = 60;
+  /** Interval for discarding closed cursors (milliseconds). */
+  private static final long PURGE = 10000;
+  /** Open cursors, indexed by user and cursor id. */
+  private static final ConcurrentHashMap<String, ServerCursor> CURSORS =
+      new ConcurrentHashMap<>();
+
+  static {
+    // discard cursors that have been closed after their idle timeout
+    new Timer(true).scheduleAtFixedRate(new TimerTask() {
+      @Override
+      public void run() {
+        CURSORS.values().removeIf(cursor -> !cursor.more());
+      }
+    }, PURGE, PURGE);
+  }
+
+  /** Query (if {@code null}, the cursor id will be used). */
+  private final String query;
+  /** Cursor id. */
+  private final String id;
+  /** External variables. */
+  private final Map<String, String[]> vars;
+  /** Optional context value. */
+  private final String value;
+  /** Page size. */
+  private final int size;
+
+  /**
+   * Constructor.
+   * @param session REST Session
+   * @param query query (if {@code null}, the cursor id will be used)
+   * @param id cursor id
+   * @param vars external variables
+   * @param value context value
+   * @param size page size
+   */
+  private RESTCursor(final RESTSession session, final String query, final String id,
+      final Map<String, String[]> vars, final String value, final int size) {
+    super(session);
+    this.query = query;
+    this.id = id;
+    this.vars = vars;
+    this.value = value;
+    this.size = size;
+  }
+
+  @Override
+  public void addLocks() {
+    // locks will be acquired by the cursor
+  }
+
+  @Override
+  public boolean updating(final Context ctx) {
+    return false;
+  }
+
+  @Override
+  protected void run0() throws IOException {
+    final HTTPConnection conn = session.conn;
+    final String key = conn.user() + '/' + id;
+    final ServerCursor cursor = query != null ? cursor(conn) : CURSORS.remove(key);
+    if(cursor == null) {
+      code = HTTPCode.NOT_FOUND_X;
+      throw HTTPCode.NOT_FOUND_X.get("Unknown cursor: " + id);
+    }
+
+    final ArrayOutput page = cursor.page(size);
+    if(cursor.more()) {
+      CURSORS.put(key, cursor);
+      conn.res.setHeader(RESTText.CURSOR_HEADER, id);
+    }
+    conn.initResponse();
+    conn.res.getOutputStream().write(page.buffer(), 0, (int) page.size());
+  }
+
+  /**
+   * Creates a new cursor.
+   * @param conn HTTP connection
+   * @return cursor
+   * @throws IOException I/O exception
+   */
+  private ServerCursor cursor(final HTTPConnection conn) throws IOException {
+    final Context ctx = conn.context;
+    ctx.options.set(MainOptions.SERIALIZER, conn.sopts());
+
+    final String uri = ctx.soptions.get(StaticOptions.WEBPATH);
+    final QueryProcessor qp = new QueryProcessor(query, uri, ctx);
+    try {
+      // bind HTTP context, context value and external variables
+      qp.http(conn);
+      if(value != null) qp.context(value, NodeType.DOC.toString());
+      for(final Map.Entry<String, String[]> var : vars.entrySet()) {
+        qp.bind(var.getKey(), var.getValue()[0]);
+      }
+      qp.parse();
+    } catch(final QueryException ex) {
+      qp.close();
+      throw new BaseXException(ex);
+    }
+
+    // initializes the response with query serialization options
+    conn.sopts().assign(qp.qc.serParams());
+    // cursors that are not requested anymore must always be closed
+    final int timeout = ctx.soptions.get(StaticOptions.CURSORTIMEOUT);
+    return new ServerCursor(qp, ctx, false, timeout > 0 ? timeout : TIMEOUT);
+  }
+
+  /**
+   * Creates a new cursor command.
+   * @param session REST session
+   * @param query query
+   * @param vars external variables
+   * @param value context value
+   * @param page page size
+   * @return command
+   * @throws HTTPException HTTP exception
+   */
+  static RESTCursor get(final RESTSession session, final String query,
+      final Map<String, String[]> vars, final String value, final String page)
+      throws HTTPException {
+
+    if(!session.conn.db().isEmpty())
+      throw HTTPCode.BAD_REQUEST_X.get("Paged results cannot be requested for database paths.");
+    return new RESTCursor(session, query, UUID.randomUUID().toString(), vars, value,
+        size(page));
+  }
+
+  /**
+   * Creates a command for retrieving the next page of a cursor.
+   * @param session REST session
+   * @param id cursor id
+   * @param page page size (can be {@code null})
+   * @return command
+   * @throws HTTPException HTTP exception
+   */
+  static RESTCursor next(final RESTSession session, final String id, final String page)
+      throws HTTPException {
+    return new RESTCursor(session, null, id, null, null, size(page));
+  }
+
+  /**
+   * Parses the page size.
+   * @param page page size (can be {@code null})
+   * @return page size
+   * @throws HTTPException HTTP exception
+   */
+  private static int size(final String page) throws HTTPException {
+    if(page == null) return PAGESIZE;
+    final int size = Strings.toInt(page);
+    if(size < 1) throw HTTPCode.BAD_REQUEST_X.get("Invalid page size: " + page);
+    return size;
+  }
+}
@@ -30,7 +30,7 @@ final class RESTGet {
     final Map<String, String[]> vars = new HashMap<>();
 
     // parse query string
-    String op = null, input = null, value = null;
+    String op = null, input = null, value = null, page = null;
     final HTTPConnection conn = session.conn;
     final SerializerOptions sopts = conn.sopts();
     for(final Entry<String, String[]> param : conn.params.stringMap().entrySet()) {
@@ -38,13 +38,16 @@ final class RESTGet {
       final String[] vals = param.getValue();
       final String val = vals[0];
 
-      if(Strings.eqic(key, COMMAND, QUERY, RUN)) {
+      if(Strings.eqic(key, COMMAND, QUERY, RUN, CURSOR)) {
         if(op != null || vals.length > 1) throw HTTPCode.ONEOP.get();
         op = key;
         input = val;
       } else if(key.equalsIgnoreCase(CONTEXT)) {
         // context parameter
         value = val;
+      } else if(key.equalsIgnoreCase(PAGE)) {
+        // page size (results will be returned by a cursor)
+        page = val;
       } else if(sopts.option(key) != null) {
         // serialization parameters
         for(final String v : vals) sopts.assign(key, v);
@@ -55,7 +58,9 @@ final class RESTGet {
     }
 
     if(op == null) return RESTRetrieve.get(session);
-    if(op.equals(QUERY)) return RESTQuery.get(session, input, vars, value);
+    if(op.equals(CURSOR)) return RESTCursor.next(session, input, page);
+    if(op.equals(QUERY)) return page != null ? RESTCursor.get(session, input, vars, value, page) :
+      RESTQuery.get(session, input, vars, value);
     if(op.equals(RUN)) return RESTRun.get(session, input, vars, value);
     return RESTCommand.get(session, input);
   }
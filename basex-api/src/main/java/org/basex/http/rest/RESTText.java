@@ -39,4 +39,10 @@ interface RESTText {
 
   /** Initial context. */
   String CONTEXT = "context";
+  /** Page size. */
+  String PAGE = "page";
+  /** Cursor id. */
+  String CURSOR = "cursor";
+  /** Header for returning the cursor id. */
+  String CURSOR_HEADER = "X-BaseX-Cursor";
 }
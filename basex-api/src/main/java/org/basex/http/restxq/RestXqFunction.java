@@ -278,7 +278,7 @@ final class RestXqFunction implements Comparable<RestXqFunction> {
     // bind variables from segments
     if(path != null) {
       for(final Map.Entry<QNm, String> entry : path.values(conn).entrySet()) {
-        final QNm qnm = new QNm(entry.getKey().string(), function.sc);
+        final QNm qnm = new QNm(entry.getKey().string(), function.sc, qc);
         if(function.sc.elemNS != null && eq(qnm.uri(), function.sc.elemNS)) qnm.uri(EMPTY);
         bind(qnm, args, new Atm(entry.getValue()), qc);
       }
@@ -397,7 +397,7 @@ final class RestXqFunction implements Comparable<RestXqFunction> {
   private QNm checkVariable(final QNm name, final Type type, final boolean[] declared)
       throws QueryException {
 
-    if(name.hasPrefix()) name.uri(function.sc.ns.uri(name.prefix()));
+    if(name.hasPrefix()) name.uri(function.sc.ns.uri(name.prefix(), null));
     int p = -1;
     final Var[] params = function.params;
     final int pl = params.length;
@@ -555,7 +555,7 @@ final class RestXqFunction implements Comparable<RestXqFunction> {
       } else if(err.endsWith(":*")) {
         final byte[] prefix = token(err.substring(0, err.length() - 2));
         if(!XMLToken.isNCName(prefix)) throw error(INV_CODE_X, err);
-        qnm = new QNm(concat(prefix, COLON), function.sc);
+        qnm = new QNm(concat(prefix, COLON), function.sc, null);
         kind = Kind.URI;
       } else {
         final Matcher m = EQNAME.matcher(err);
@@ -573,7 +573,7 @@ final class RestXqFunction implements Comparable<RestXqFunction> {
         } else {
           final byte[] nm = token(err);
           if(!XMLToken.isQName(nm)) throw error(INV_CODE_X, err);
-          qnm = new QNm(nm, function.sc);
+          qnm = new QNm(nm, function.sc, null);
           kind = Kind.URI_NAME;
         }
       }
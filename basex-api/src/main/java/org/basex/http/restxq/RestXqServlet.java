@@ -45,6 +45,7 @@ public final class RestXqServlet extends BaseXServlet {
     // select the closest match for this request
     RestXqFunction func = rxm.find(conn, null);
     if(func == null) throw HTTPCode.NO_XQUERY.get();
+    conn.template(func.path.toString());
 
     try {
       boolean valid = true;
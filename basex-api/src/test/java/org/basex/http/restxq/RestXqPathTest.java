@@ -52,6 +52,20 @@ public final class RestXqPathTest extends RestXqTest {
     get(f, "var/y", "y");
   }
 
+  /**
+   * Records the execution times of paths with variables by their path template.
+   * @throws Exception exception
+   */
+  @Test
+  public void metrics() throws Exception {
+    final String f = "declare %R:path('/timed/{$x}') function m:f($x) {$x};";
+    get(f, "timed/x", "x");
+    get(f, "timed/y", "y");
+    final String metrics = get("metrics");
+    assertTrue(metrics, metrics.contains("basex_http_seconds_count{name=\"/timed/{$x}\"} 2"));
+    assertFalse(metrics, metrics.contains("/timed/x"));
+  }
+
   /**
    * Retrieves paths with namespace declarations.
    * @throws Exception exception
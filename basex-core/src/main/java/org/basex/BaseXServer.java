@@ -4,6 +4,7 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.net.*;
+import java.nio.channels.*;
 import java.util.*;
 
 import org.basex.api.client.*;
@@ -30,6 +31,8 @@ public final class BaseXServer extends CLI implements Runnable {
   private volatile boolean stop;
   /** Server socket. */
   private ServerSocket socket;
+  /** Client selector ({@code null} if every client is run in its own thread). */
+  private ClientSelector selector;
   /** Start as service. */
   private boolean service;
   /** Daemon flag. */
@@ -96,10 +99,13 @@ public final class BaseXServer extends CLI implements Runnable {
     }
 
     try {
-      socket = new ServerSocket();
+      // selector mode: sockets of accepted clients will be backed by channels
+      final int threads = sopts.get(StaticOptions.SERVERTHREADS);
+      socket = threads > 0 ? ServerSocketChannel.open().socket() : new ServerSocket();
       socket.setReuseAddress(true);
       socket.bind(new InetSocketAddress(addr, port));
       stopFile = stopFile(getClass(), port);
+      if(threads > 0) selector = new ClientSelector(threads);
     } catch(final BindException ex) {
       context.log.writeServer(LogType.ERROR, Util.message(ex));
       Util.debug(ex);
@@ -144,7 +150,7 @@ public final class BaseXServer extends CLI implements Runnable {
             }
           }
           // create client listener, stop authentication after timeout
-          final ClientListener cl = new ClientListener(s, context, this);
+          final ClientListener cl = new ClientListener(s, context, this, selector);
           if(ka > 0) {
             cl.timeout.schedule(new TimerTask() {
               @Override
@@ -154,7 +160,8 @@ public final class BaseXServer extends CLI implements Runnable {
             }, ka);
             authorizing.add(cl);
           }
-          cl.start();
+          if(selector != null) selector.add(cl);
+          else cl.start();
         }
       } catch(final SocketException ex) {
         Util.debug(ex);
@@ -189,6 +196,7 @@ public final class BaseXServer extends CLI implements Runnable {
       cl.close();
     }
     context.sessions.close();
+    if(selector != null) selector.close();
 
     try {
       // close interactive input if server was stopped by another process
@@ -0,0 +1,147 @@
+package org.basex.api.client;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.io.out.*;
+import org.basex.server.*;
+
+/**
+ * <p>This class sends commands to the server without waiting for the responses of the
+ * previously sent commands. The server processes the commands in the order in which they
+ * were sent, and the responses are read in the same order.</p>
+ *
+ * <p>The number of pending responses is limited by a window. If it is exceeded, the oldest
+ * response is read before the next command is sent. Results are always returned as strings.
+ * The session must not be used for other requests until all responses have been read.</p>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientPipeline implements Closeable {
+  /** Default number of pending responses. */
+  static final int WINDOW = 64;
+
+  /** Client session. */
+  private final ClientSession cs;
+  /** Maximum number of pending responses. */
+  private final int window;
+  /** Responses that have been read. */
+  private final ArrayList<Response> responses = new ArrayList<>();
+  /** Number of pending responses. */
+  private int pending;
+
+  /**
+   * Constructor.
+   * @param session client session
+   * @param window maximum number of pending responses
+   */
+  ClientPipeline(final ClientSession session, final int window) {
+    cs = session;
+    this.window = Math.max(1, window);
+  }
+
+  /**
+   * Sends a command.
+   * @param command command to be executed
+   * @throws IOException I/O exception
+   */
+  public void execute(final Command command) throws IOException {
+    execute(command.toString());
+  }
+
+  /**
+   * Sends a command.
+   * @param command command to be parsed and executed
+   * @throws IOException I/O exception
+   */
+  public void execute(final String command) throws IOException {
+    reserve();
+    cs.send(command);
+  }
+
+  /**
+   * Sends commands that will be run as a single job (see {@link ClientSession#batch}).
+   * @param commands commands to be parsed and executed
+   * @throws IOException I/O exception
+   */
+  public void batch(final String... commands) throws IOException {
+    reserve();
+    cs.sout.write(ServerCmd.BATCH.code);
+    for(final String command : commands) cs.send(command);
+    cs.sout.write(0);
+  }
+
+  /**
+   * Reads all pending responses and returns the responses that have not been returned yet.
+   * @return responses, in the order in which the commands were sent
+   * @throws IOException I/O exception
+   */
+  public ArrayList<Response> results() throws IOException {
+    while(pending > 0) read();
+    final ArrayList<Response> list = new ArrayList<>(responses);
+    responses.clear();
+    return list;
+  }
+
+  /**
+   * Reads all pending responses. The results are discarded.
+   * @throws IOException I/O exception
+   */
+  @Override
+  public void close() throws IOException {
+    results();
+  }
+
+  /**
+   * Reserves a slot for a new response. The oldest pending response is read if the window
+   * is exhausted.
+   * @throws IOException I/O exception
+   */
+  private void reserve() throws IOException {
+    cs.changed = true;
+    if(pending == window) read();
+    pending++;
+  }
+
+  /**
+   * Reads the next pending response.
+   * @throws IOException I/O exception
+   */
+  private void read() throws IOException {
+    cs.flush();
+    final ArrayOutput ao = new ArrayOutput();
+    ClientSession.receive(cs.sin, ao);
+    final String info = cs.sin.readString();
+    responses.add(new Response(ao.toString(), info, ClientSession.ok(cs.sin)));
+    pending--;
+  }
+
+  /**
+   * Response of a pipelined command.
+   *
+   * @author BaseX Team 2005-18, BSD License
+   * @author Christian Gruen
+   */
+  public static final class Response {
+    /** Result. */
+    public final String result;
+    /** Info string or error message. */
+    public final String info;
+    /** Success flag. */
+    public final boolean ok;
+
+    /**
+     * Constructor.
+     * @param result result
+     * @param info info string or error message
+     * @param ok success flag
+     */
+    private Response(final String result, final String info, final boolean ok) {
+      this.result = result;
+      this.info = info;
+      this.ok = ok;
+    }
+  }
+}
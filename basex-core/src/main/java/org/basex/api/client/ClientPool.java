@@ -0,0 +1,269 @@
+package org.basex.api.client;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.util.*;
+
+/**
+ * <p>This class pools client sessions. Sessions are returned by {@link #get} and handed back
+ * to the pool when they are closed. Before a session is reused, its queries and its opened
+ * database are closed, and its options are restored. The reset is skipped if no commands
+ * have been run and no queries have been opened. Otherwise, it is sent together with the
+ * first request of the next borrower, so no additional round trip is required. Sessions that
+ * have been idle for a while are checked before they are reused, and sessions that cannot be
+ * reset are discarded.</p>
+ *
+ * <p>Sessions are pooled per server and login. The pool is limited by:</p>
+ * <ul>
+ * <li> the maximum number of idle sessions (sessions exceeding this number will be closed),</li>
+ * <li> the maximum number of open sessions (if it is reached, {@link #get} waits until a
+ *   session is available), and</li>
+ * <li> the maximum idle time (sessions exceeding this time will be closed).</li>
+ * </ul>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientPool implements Closeable {
+  /** Idle time (milliseconds) after which a session will be checked before it is reused. */
+  private static final long CHECK = 5000;
+  /** Maximum time (milliseconds) for waiting for a session. */
+  private static final long WAIT = 10000;
+
+  /** Maximum number of idle sessions per target (0: no pooling). */
+  private final int maxIdle;
+  /** Maximum number of open sessions per target (0: no limit). */
+  private final int maxTotal;
+  /** Maximum idle time (milliseconds; 0: no limit). */
+  private final long idleTime;
+
+  /** Targets, indexed by server and login. */
+  private final HashMap<String, Target> targets = new HashMap<>();
+  /** Borrowed sessions. */
+  private final IdentityHashMap<ClientSession, Target> borrowed = new IdentityHashMap<>();
+  /** Indicates if the pool has been closed. */
+  private boolean closed;
+
+  /**
+   * Constructor, adopting the limits of the static options.
+   * @param sopts static options
+   */
+  public ClientPool(final StaticOptions sopts) {
+    this(sopts.get(StaticOptions.CLIENTPOOL), sopts.get(StaticOptions.CLIENTPOOLMAX),
+        sopts.get(StaticOptions.CLIENTPOOLIDLE) * 1000L);
+  }
+
+  /**
+   * Constructor.
+   * @param maxIdle maximum number of idle sessions per server and login (0: no pooling)
+   * @param maxTotal maximum number of open sessions per server and login (0: no limit)
+   * @param idleTime time (milliseconds) after which idle sessions are closed (0: no limit)
+   */
+  public ClientPool(final int maxIdle, final int maxTotal, final long idleTime) {
+    this.maxIdle = Math.max(0, maxIdle);
+    this.maxTotal = Math.max(0, maxTotal);
+    this.idleTime = Math.max(0, idleTime);
+  }
+
+  /**
+   * Returns a session. An idle session will be reused if available. Otherwise, a new session
+   * will be opened. The session is handed back to the pool when it is closed.
+   * @param host server name
+   * @param port server port
+   * @param username user name
+   * @param password password (plain text)
+   * @return session
+   * @throws IOException I/O exception
+   */
+  public ClientSession get(final String host, final int port, final String username,
+      final String password) throws IOException {
+
+    final String key = host + ':' + port + '/' + username + '/' + Strings.md5(password);
+    while(true) {
+      final Target target;
+      Idle idle = null;
+      synchronized(this) {
+        target = targets.computeIfAbsent(key, k -> new Target());
+        final long end = System.currentTimeMillis() + WAIT;
+        while(true) {
+          if(closed) throw new BaseXException("Client pool has been closed.");
+          evict(target);
+          idle = target.idle.pollFirst();
+          if(idle != null) break;
+          if(maxTotal == 0 || target.total < maxTotal) {
+            target.total++;
+            break;
+          }
+          final long wait = end - System.currentTimeMillis();
+          if(wait <= 0) throw new BaseXException("No session available for %:%.", host, port);
+          try {
+            wait(wait);
+          } catch(final InterruptedException ex) {
+            throw new BaseXException(ex);
+          }
+        }
+      }
+
+      final ClientSession cs;
+      if(idle != null) {
+        // check session if it has been idle for a while
+        cs = idle.session;
+        if(!reset(cs, System.currentTimeMillis() - idle.time > CHECK)) {
+          discard(target, cs);
+          continue;
+        }
+      } else {
+        try {
+          cs = new ClientSession(host, port, username, password);
+          cs.socket.setKeepAlive(true);
+        } catch(final IOException ex) {
+          discard(target, null);
+          throw ex;
+        }
+        cs.pool = this;
+      }
+      synchronized(this) {
+        borrowed.put(cs, target);
+      }
+      return cs;
+    }
+  }
+
+  /**
+   * Returns the number of open sessions (idle and borrowed).
+   * @return number of sessions
+   */
+  public synchronized int size() {
+    int size = 0;
+    for(final Target target : targets.values()) size += target.total;
+    return size;
+  }
+
+  /**
+   * Closes all idle sessions. Borrowed sessions will be closed when they are handed back.
+   */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    for(final Target target : targets.values()) {
+      for(final Idle idle : target.idle) disconnect(idle.session);
+      target.total -= target.idle.size();
+      target.idle.clear();
+    }
+    notifyAll();
+  }
+
+  /**
+   * Hands back a session.
+   * @param cs client session
+   */
+  void release(final ClientSession cs) {
+    final Target target;
+    synchronized(this) {
+      target = borrowed.remove(cs);
+    }
+    if(target == null) return;
+
+    cs.setOutputStream(null);
+    synchronized(this) {
+      if(maxIdle > 0 && !closed && target.idle.size() < maxIdle) {
+        target.idle.addFirst(new Idle(cs));
+        notifyAll();
+        return;
+      }
+    }
+    discard(target, cs);
+  }
+
+  /**
+   * Discards a borrowed session and closes its connection.
+   * @param cs client session
+   */
+  void discard(final ClientSession cs) {
+    final Target target;
+    synchronized(this) {
+      target = borrowed.remove(cs);
+    }
+    if(target != null) discard(target, cs);
+    else disconnect(cs);
+  }
+
+  /**
+   * Closes idle sessions that have exceeded the maximum idle time.
+   * @param target target
+   */
+  private void evict(final Target target) {
+    if(idleTime == 0) return;
+    final long min = System.currentTimeMillis() - idleTime;
+    for(Idle idle; (idle = target.idle.peekLast()) != null && idle.time < min;) {
+      target.idle.pollLast();
+      target.total--;
+      disconnect(idle.session);
+    }
+  }
+
+  /**
+   * Discards a session.
+   * @param target target
+   * @param cs client session (can be {@code null})
+   */
+  private synchronized void discard(final Target target, final ClientSession cs) {
+    target.total--;
+    if(cs != null) disconnect(cs);
+    notifyAll();
+  }
+
+  /**
+   * Resets a session.
+   * @param cs client session
+   * @param check check if the session is still connected
+   * @return success flag
+   */
+  private static boolean reset(final ClientSession cs, final boolean check) {
+    try {
+      cs.reset(check);
+      return true;
+    } catch(final IOException ex) {
+      Util.debug(ex);
+      return false;
+    }
+  }
+
+  /**
+   * Closes the connection of a session.
+   * @param cs client session
+   */
+  private static void disconnect(final ClientSession cs) {
+    try {
+      cs.socket.close();
+    } catch(final IOException ex) {
+      Util.debug(ex);
+    }
+  }
+
+  /** Sessions of a server and login. */
+  private static final class Target {
+    /** Idle sessions (most recently used first). */
+    private final ArrayDeque<Idle> idle = new ArrayDeque<>();
+    /** Number of open sessions. */
+    private int total;
+  }
+
+  /** Idle session. */
+  private static final class Idle {
+    /** Session. */
+    private final ClientSession session;
+    /** Time when the session was handed back. */
+    private final long time = System.currentTimeMillis();
+
+    /**
+     * Constructor.
+     * @param session session
+     */
+    private Idle(final ClientSession session) {
+      this.session = session;
+    }
+  }
+}
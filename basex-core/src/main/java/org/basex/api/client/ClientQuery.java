@@ -19,6 +19,10 @@ import org.basex.util.*;
  * client/server architecture. All sent data is received by the
  * {@link ClientListener} and interpreted by the {@link ServerQuery}.
  *
+ * A request for closing a query without open cursor is pipelined: it is sent together
+ * with the next request of the session. If a cursor is open, the query is closed immediately
+ * in order to release its locks.
+ *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
  */
@@ -27,6 +31,10 @@ public class ClientQuery extends Query {
   final ClientSession cs;
   /** Query id. */
   final String id;
+  /** Number of results requested at a time (0: request all results at once). */
+  private int pageSize;
+  /** Indicates if more results may be available on the server. */
+  private boolean paging;
 
   /**
    * Standard constructor.
@@ -37,9 +45,23 @@ public class ClientQuery extends Query {
    */
   ClientQuery(final String query, final ClientSession session, final OutputStream output)
       throws IOException {
+    this(ServerCmd.QUERY, query, session, output);
+  }
+
+  /**
+   * Constructor.
+   * @param command server command ({@link ServerCmd#QUERY} or {@link ServerCmd#STATEMENT})
+   * @param arg query or name of prepared statement
+   * @param session client session
+   * @param output output stream
+   * @throws IOException I/O exception
+   */
+  ClientQuery(final ServerCmd command, final String arg, final ClientSession session,
+      final OutputStream output) throws IOException {
     cs = session;
     out = output;
-    id = session.exec(ServerCmd.QUERY, query, null);
+    id = session.exec(command, arg, null);
+    session.changed = true;
   }
 
   @Override
@@ -57,9 +79,32 @@ public class ClientQuery extends Query {
     return Boolean.parseBoolean(cs.exec(ServerCmd.UPDATING, id, null));
   }
 
+  /**
+   * Assigns the number of results that will be requested at a time. If a positive value is
+   * specified, the query will be evaluated by a server-side cursor, and results will be
+   * retrieved in pages by {@link #more()} and {@link #next()}. The cursor holds the locks of
+   * the query until all results have been retrieved or the query is closed.
+   * @param size page size (0: request all results at once)
+   */
+  public void pageSize(final int size) {
+    pageSize = Math.max(0, size);
+  }
+
+  @Override
+  public boolean more() throws IOException {
+    boolean more = super.more();
+    // request next page if the last page was full
+    while(!more && paging) {
+      paging = false;
+      more = super.more();
+    }
+    return more;
+  }
+
   @Override
   public void bind(final String name, final Object value, final String type) throws IOException {
     cache = null;
+    paging = false;
 
     final Object vl = value instanceof BXNode ? ((BXNode) value).getNode() : value;
     String t = type == null ? "" : type;
@@ -105,18 +150,21 @@ public class ClientQuery extends Query {
 
   @Override
   public void close() throws IOException {
-    cs.exec(ServerCmd.CLOSE, id, null);
+    if(paging) cs.exec(ServerCmd.CLOSE, id, null);
+    else cs.defer(ServerCmd.CLOSE, id);
   }
 
   @Override
   public void cache(final boolean full) throws IOException {
-    cs.sout.write((full ? ServerCmd.FULL : ServerCmd.RESULTS).code);
+    final boolean cursor = pageSize > 0 && !full;
+    cs.sout.write((cursor ? ServerCmd.CURSOR : full ? ServerCmd.FULL : ServerCmd.RESULTS).code);
     cs.send(id);
-    cs.sout.flush();
+    if(cursor) cs.send(Integer.toString(pageSize));
+    cs.flush();
 
-    @SuppressWarnings("resource")
-    final BufferInput bi = new BufferInput(cs.sin);
+    final BufferInput bi = cs.sin;
     cache(bi, full);
+    if(cursor) paging = cache.size() == pageSize;
     if(!ClientSession.ok(bi)) throw new BaseXException(bi.readString());
   }
 }
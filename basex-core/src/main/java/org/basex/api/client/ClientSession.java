@@ -23,6 +23,11 @@ import org.basex.util.*;
  * was successful (0) or not (1).</li>
  * <li> {@link #close} closes the session by sending the {@link Cmd#EXIT}
  * command to the server.</li>
+ * <li> Sessions can be pooled (see {@link ClientPool}). A pooled session is handed back to the
+ * pool when it is closed.</li>
+ * <li> Requests that close client queries without open cursors are not answered
+ * immediately: they are sent together with the next request, and their responses are read
+ * before the response of this request. Their errors are never raised by the next request.</li>
  * </ul>
  *
  * @author BaseX Team 2005-18, BSD License
@@ -30,12 +35,18 @@ import org.basex.util.*;
  */
 public class ClientSession extends Session {
   /** Server output (buffered). */
-  final PrintOutput sout;
-  /** Server input. */
-  final InputStream sin;
+  PrintOutput sout;
+  /** Server input (buffered, shared by all responses). */
+  BufferInput sin;
 
   /** Socket reference. */
-  private final Socket socket;
+  final Socket socket;
+  /** Pool to which the session will be handed back when it is closed (can be {@code null}). */
+  ClientPool pool;
+  /** Number of deferred requests whose responses have not been read yet. */
+  private int deferred;
+  /** Indicates if the state of the session on the server may have been changed. */
+  boolean changed;
 
   /**
    * Constructor, specifying login data.
@@ -60,7 +71,8 @@ public class ClientSession extends Session {
   public ClientSession(final Context context, final String username, final String password,
       final OutputStream output) throws IOException {
     this(context.soptions.get(StaticOptions.HOST),
-         context.soptions.get(StaticOptions.PORT), username, password, output);
+         context.soptions.get(StaticOptions.PORT), username, password, output,
+         context.soptions.get(StaticOptions.COMPRESSION));
   }
 
   /**
@@ -85,9 +97,27 @@ public class ClientSession extends Session {
    * @param output client output; if set to {@code null}, results will be returned as strings
    * @throws IOException I/O exception
    */
-  @SuppressWarnings("resource")
   public ClientSession(final String host, final int port, final String username,
       final String password, final OutputStream output) throws IOException {
+    this(host, port, username, password, output, 0);
+  }
+
+  /**
+   * Constructor, specifying the server host:port combination, login data, an output stream
+   * and the compression threshold.
+   * @param host server name
+   * @param port server port
+   * @param username user name
+   * @param password password (plain text)
+   * @param output client output; if set to {@code null}, results will be returned as strings
+   * @param compression minimum size of compressed data blocks (0: no compression).
+   *   Compression is skipped if it is not supported by the server.
+   * @throws IOException I/O exception
+   */
+  @SuppressWarnings("resource")
+  public ClientSession(final String host, final int port, final String username,
+      final String password, final OutputStream output, final int compression)
+      throws IOException {
 
     super(output);
     socket = new Socket();
@@ -97,11 +127,10 @@ public class ClientSession extends Session {
     } catch(final IllegalArgumentException ex) {
       throw new BaseXException(ex);
     }
-    sin = socket.getInputStream();
+    sin = new BufferInput(socket.getInputStream());
 
     // receive server response
-    final BufferInput bi = new BufferInput(sin);
-    final String[] response = Strings.split(bi.readString(), ':');
+    final String[] response = Strings.split(sin.readString(), ':');
     final String code, nonce;
     if(response.length > 1) {
       // support for digest authentication
@@ -120,11 +149,25 @@ public class ClientSession extends Session {
     sout.flush();
 
     // receive success flag
-    if(!ok(bi)) throw new LoginException();
+    if(!ok(sin)) throw new LoginException();
+
+    // request compression (older servers will return an error)
+    if(compression > 0) {
+      sout.write(ServerCmd.COMPRESS.code);
+      send(Integer.toString(compression));
+      sout.flush();
+      receive(sin, new ArrayOutput());
+      sin.readString();
+      if(ok(sin)) {
+        sin = new BufferInput(new CompressedInput(sin));
+        sout = PrintOutput.get(new CompressedOutput(socket.getOutputStream(), compression));
+      }
+    }
   }
 
   @Override
   public void create(final String name, final InputStream input) throws IOException {
+    changed = true;
     send(ServerCmd.CREATE, input, name);
   }
 
@@ -148,15 +191,91 @@ public class ClientSession extends Session {
     return new ClientQuery(query, this, out);
   }
 
+  /**
+   * Registers a prepared statement on the server. Statements can be executed by all sessions
+   * (see {@link #statement(String)}). An existing statement with the same name is replaced.
+   * Admin permissions are required.
+   * @param name name of statement
+   * @param query query string (if empty, the statement will be removed)
+   * @throws IOException I/O exception
+   */
+  public void prepare(final String name, final String query) throws IOException {
+    exec(ServerCmd.PREPARE, name + '\0' + query, null);
+  }
+
+  /**
+   * Returns a query instance for the specified prepared statement.
+   * Values can be bound and results retrieved as with {@link #query(String)}.
+   * @param name name of statement
+   * @return query instance
+   * @throws IOException I/O exception
+   */
+  public ClientQuery statement(final String name) throws IOException {
+    return new ClientQuery(ServerCmd.STATEMENT, name, this, out);
+  }
+
+  /**
+   * Runs the specified commands as a single job on the server. The locks of all commands
+   * are acquired at once. Execution is stopped if a command fails.
+   * @param commands commands to be executed
+   * @return result or {@code null} reference
+   * @throws IOException I/O exception
+   */
+  public String batch(final Command... commands) throws IOException {
+    final int cl = commands.length;
+    final String[] strings = new String[cl];
+    for(int c = 0; c < cl; c++) strings[c] = commands[c].toString();
+    return batch(strings);
+  }
+
+  /**
+   * Runs the specified commands as a single job on the server. The locks of all commands
+   * are acquired at once. Execution is stopped if a command fails.
+   * @param commands commands to be parsed and executed
+   * @return result or {@code null} reference
+   * @throws IOException I/O exception
+   */
+  public String batch(final String... commands) throws IOException {
+    final ArrayOutput ao = out == null ? new ArrayOutput() : null;
+    changed = true;
+    sout.write(ServerCmd.BATCH.code);
+    for(final String command : commands) send(command);
+    sout.write(0);
+    flush();
+    receive(ao != null ? ao : out);
+    return ao != null ? ao.toString() : null;
+  }
+
+  /**
+   * Returns a pipeline, which sends commands to the server without waiting for the responses.
+   * @return pipeline
+   */
+  public ClientPipeline pipeline() {
+    return new ClientPipeline(this, ClientPipeline.WINDOW);
+  }
+
   @Override
   public synchronized void close() throws IOException {
-    socket.close();
+    if(pool != null) pool.release(this);
+    else socket.close();
+  }
+
+  /**
+   * Closes the connection to the server. In contrast to {@link #close()}, a pooled session is
+   * not handed back, but discarded. This method can be called by another thread in order to
+   * abort a running request.
+   * @throws IOException I/O exception
+   */
+  public void disconnect() throws IOException {
+    if(pool != null) pool.discard(this);
+    else socket.close();
   }
 
   @Override
   protected void execute(final String command, final OutputStream output) throws IOException {
+    changed = true;
     send(command);
-    sout.flush();
+    flush();
     receive(output);
   }
 
@@ -174,7 +293,7 @@ public class ClientSession extends Session {
     final ServerOutput so = new ServerOutput(sout);
     for(int b; (b = input.read()) != -1;) so.write(b);
     sout.write(0);
-    sout.flush();
+    flush();
     receive(null);
   }
 
@@ -183,12 +302,10 @@ public class ClientSession extends Session {
    * @param output output stream to send result to. If {@code null}, no result will be requested
    * @throws IOException I/O exception
    */
-  @SuppressWarnings("resource")
   private void receive(final OutputStream output) throws IOException {
-    final BufferInput bi = new BufferInput(sin);
-    if(output != null) receive(bi, output);
-    info = bi.readString();
-    if(!ok(bi)) throw new BaseXException(info);
+    if(output != null) receive(sin, output);
+    info = sin.readString();
+    if(!ok(sin)) throw new BaseXException(info);
   }
 
   /**
@@ -245,20 +362,61 @@ public class ClientSession extends Session {
    * @return string
    * @throws IOException I/O exception
    */
-  @SuppressWarnings("resource")
   String exec(final ServerCmd command, final String arg, final OutputStream output)
       throws IOException {
 
     final OutputStream o = output == null ? new ArrayOutput() : output;
     sout.write(command.code);
     send(arg);
-    sout.flush();
-    final BufferInput bi = new BufferInput(sin);
-    receive(bi, o);
-    if(!ok(bi)) throw new BaseXException(bi.readString());
+    flush();
+    receive(sin, o);
+    if(!ok(sin)) throw new BaseXException(sin.readString());
     return o.toString();
   }
 
+  /**
+   * Sends a command without waiting for the response. The response will be read when the
+   * output is flushed by the next request.
+   * @param command server command
+   * @param arg argument
+   * @throws IOException I/O exception
+   */
+  void defer(final ServerCmd command, final String arg) throws IOException {
+    sout.write(command.code);
+    send(arg);
+    deferred++;
+  }
+
+  /**
+   * Flushes the output and reads the responses of all deferred requests.
+   * Errors of deferred requests are not raised, as they must not be confused with the result
+   * of the current request; the server does not reject closing or resetting requests anyway.
+   * @throws IOException I/O exception
+   */
+  void flush() throws IOException {
+    sout.flush();
+    for(; deferred > 0; deferred--) {
+      receive(sin, new ArrayOutput());
+      if(!ok(sin)) Util.debug(sin.readString());
+    }
+  }
+
+  /**
+   * Prepares a pooled session for reuse.
+   * If the state of the session may have been changed, a request resets the session
+   * on the server: queries and the opened database are closed, and the options are restored.
+   * @param check check if the session is still connected (requires a round trip)
+   * @throws IOException I/O exception
+   */
+  void reset(final boolean check) throws IOException {
+    if(check) {
+      exec(ServerCmd.RESET, "", null);
+    } else if(changed) {
+      defer(ServerCmd.RESET, "");
+    }
+    changed = false;
+  }
+
   @Override
   public String toString() {
     return Prop.PROJECT_NAME + ":/" + socket.getLocalAddress() + ':' + socket.getPort();
@@ -1,10 +1,12 @@
 package org.basex.core;
 
+import org.basex.api.client.*;
 import org.basex.core.jobs.*;
 import org.basex.core.locks.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
 import org.basex.io.random.*;
+import org.basex.query.*;
 import org.basex.query.util.pkg.*;
 import org.basex.query.value.seq.*;
 import org.basex.server.*;
@@ -45,6 +47,16 @@ public final class Context {
   public final Log log;
   /** Locking. */
   public final Locking locking;
+  /** Cached query plans. */
+  public final QueryPlans plans;
+  /** Prepared statements. */
+  public final Statements statements;
+  /** Pooled client sessions. */
+  public final ClientPool clients;
+  /** Metrics. */
+  public final Metrics metrics;
+  /** Cached library modules. */
+  public final QueryModules modules;
 
   /** Current node context. {@code null} if all documents of the current database are referenced. */
   private DBNodes current;
@@ -107,6 +119,11 @@ public final class Context {
     repo = ctx.repo;
     log = ctx.log;
     jobs = ctx.jobs;
+    plans = ctx.plans;
+    statements = ctx.statements;
+    clients = ctx.clients;
+    metrics = ctx.metrics;
+    modules = ctx.modules;
   }
 
   /**
@@ -126,6 +143,11 @@ public final class Context {
     log = new Log(soptions);
     user = users.get(UserText.ADMIN);
     jobs = new JobPool(soptions);
+    plans = new QueryPlans(this);
+    statements = new Statements();
+    clients = new ClientPool(soptions);
+    metrics = new Metrics();
+    modules = new QueryModules(soptions);
     client = null;
   }
 
@@ -155,6 +177,8 @@ public final class Context {
     closed = true;
     jobs.close();
     sessions.close();
+    clients.close();
+    plans.close();
     datas.close();
     log.close();
     closeDB();
@@ -81,6 +81,8 @@ public final class MainOptions extends Options {
   public static final BooleanOption TOKENINDEX = new BooleanOption("TOKENINDEX", false);
   /** Flag for creating a full-text index. */
   public static final BooleanOption FTINDEX = new BooleanOption("FTINDEX", false);
+  /** Flag for creating a trigram index. */
+  public static final BooleanOption TRIGRAMINDEX = new BooleanOption("TRIGRAMINDEX", false);
 
   /** Text index: names to include. */
   public static final StringOption TEXTINCLUDE = new StringOption("TEXTINCLUDE", "");
@@ -141,6 +143,16 @@ public final class MainOptions extends Options {
   public static final NumberOption RUNS = new NumberOption("RUNS", 1);
   /** Flag for enforcing index rewritings. */
   public static final BooleanOption ENFORCEINDEX = new BooleanOption("ENFORCEINDEX", false);
+  /** Maximum number of sorted tuples kept in main memory (0: no limit). */
+  public static final NumberOption SORTLIMIT = new NumberOption("SORTLIMIT", 0);
+  /** Maximum number of groups kept in main memory (0: no limit). */
+  public static final NumberOption GROUPLIMIT = new NumberOption("GROUPLIMIT", 0);
+  /** Degree of parallelism for evaluating FLWOR expressions.
+   * Opt-in: the default (0) enforces sequential evaluation, values from 2 enable parallelism
+   * (single expressions can be enabled via the {@code db:forkjoin} pragma). The iterations
+   * are split into four tasks per degree, which are evaluated by the worker threads shared by
+   * all jobs. The number of threads is limited by {@link StaticOptions#WORKERS}. */
+  public static final NumberOption FORKJOIN = new NumberOption("FORKJOIN", 0);
 
   // Serialize
 
@@ -0,0 +1,322 @@
+package org.basex.core;
+
+import static org.basex.core.Text.*;
+
+import java.util.*;
+import java.util.Map.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.util.*;
+
+/**
+ * <p>This class collects metrics of the database context. Execution times are recorded in
+ * histograms, which are grouped by category and name (job type, server command, database,
+ * servlet path and RESTXQ path template). In addition, lock waits and result sizes are
+ * counted.</p>
+ *
+ * <p>Histograms have logarithmic buckets with 16 linear sub-buckets, similar to HDR histograms:
+ * values up to several days are recorded with a relative error of at most 6.25%, and the
+ * memory consumption of a histogram is constant.</p>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class Metrics {
+  /** Maximum number of names per category (further names are merged). */
+  private static final int MAX = 1000;
+  /** Name of merged histograms. */
+  private static final String OTHER = "(other)";
+  /** Minimum time (nano seconds) for counting a lock acquisition as wait. */
+  private static final long WAIT = 1000000;
+  /** Reported quantiles. */
+  private static final double[] QUANTILES = { 0.5, 0.9, 0.99 };
+
+  /** Metric categories. */
+  public enum Category {
+    /** Jobs (commands and queries), by job type. */ JOB,
+    /** Client/server requests, by command. */ COMMAND,
+    /** Jobs, by accessed database. */ DATABASE,
+    /** HTTP requests, by servlet path and path template. */ HTTP;
+
+    @Override
+    public String toString() {
+      return name().toLowerCase(Locale.ENGLISH);
+    }
+  }
+
+  /** Histograms. */
+  private final EnumMap<Category, ConcurrentHashMap<String, Histogram>> histograms =
+      new EnumMap<>(Category.class);
+  /** Number of lock waits. */
+  private final AtomicLong lockWaits = new AtomicLong();
+  /** Total lock wait time (nano seconds). */
+  private final AtomicLong lockTime = new AtomicLong();
+  /** Number of result bytes. */
+  private final AtomicLong resultBytes = new AtomicLong();
+
+  /**
+   * Constructor.
+   */
+  public Metrics() {
+    for(final Category category : Category.values()) {
+      histograms.put(category, new ConcurrentHashMap<>());
+    }
+  }
+
+  /**
+   * Records an execution time.
+   * @param category category
+   * @param name name
+   * @param time execution time (nano seconds)
+   */
+  public void record(final Category category, final String name, final long time) {
+    final ConcurrentHashMap<String, Histogram> map = histograms.get(category);
+    final String key = map.size() < MAX || map.containsKey(name) ? name : OTHER;
+    map.computeIfAbsent(key, k -> new Histogram()).record(time);
+  }
+
+  /**
+   * Records the time for acquiring locks.
+   * @param time wait time (nano seconds)
+   */
+  public void locks(final long time) {
+    if(time < WAIT) return;
+    lockWaits.incrementAndGet();
+    lockTime.addAndGet(time);
+  }
+
+  /**
+   * Records the size of a result.
+   * @param size number of bytes
+   */
+  public void results(final long size) {
+    if(size > 0) resultBytes.addAndGet(size);
+  }
+
+  /**
+   * Returns the histograms of a category, sorted by name.
+   * @param category category
+   * @return histograms
+   */
+  public TreeMap<String, Histogram> histograms(final Category category) {
+    return new TreeMap<>(histograms.get(category));
+  }
+
+  /**
+   * Returns the number of lock waits.
+   * @return number of lock waits
+   */
+  public long lockWaits() {
+    return lockWaits.get();
+  }
+
+  /**
+   * Returns the total lock wait time.
+   * @return wait time (nano seconds)
+   */
+  public long lockTime() {
+    return lockTime.get();
+  }
+
+  /**
+   * Returns the number of result bytes.
+   * @return number of bytes
+   */
+  public long resultBytes() {
+    return resultBytes.get();
+  }
+
+  /**
+   * Returns a textual representation of all metrics.
+   * @return info string
+   */
+  public String info() {
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add("Lock waits: ").addLong(lockWaits()).add(", total: ");
+    tb.add(Performance.getTime(lockTime(), 1)).add(NL);
+    tb.add("Result bytes: ").addLong(resultBytes());
+    for(final Category category : Category.values()) {
+      final TreeMap<String, Histogram> map = histograms(category);
+      if(map.isEmpty()) continue;
+      final String name = category.name();
+      tb.add(NL).add(NL).add(name.charAt(0) + name.substring(1).toLowerCase(Locale.ENGLISH));
+      tb.add(COL);
+      for(final Entry<String, Histogram> entry : map.entrySet()) {
+        tb.add(NL).add(LI).add(entry.getKey()).add(COLS).add(entry.getValue().toString());
+      }
+    }
+    return tb.toString();
+  }
+
+  /**
+   * Returns all metrics in the Prometheus text format.
+   * @return metrics
+   */
+  public String prometheus() {
+    final StringBuilder sb = new StringBuilder();
+    counter(sb, "lock_waits_total", "Number of lock waits.", lockWaits());
+    counter(sb, "lock_wait_seconds_total", "Total lock wait time.", seconds(lockTime()));
+    counter(sb, "result_bytes_total", "Number of result bytes.", resultBytes());
+    for(final Category category : Category.values()) {
+      final TreeMap<String, Histogram> map = histograms(category);
+      if(map.isEmpty()) continue;
+
+      final String metric = "basex_" + category + "_seconds";
+      sb.append("# HELP ").append(metric).append(" Execution times, by ").append(category);
+      sb.append(" name.\n# TYPE ").append(metric).append(" summary\n");
+      for(final Entry<String, Histogram> entry : map.entrySet()) {
+        final String label = "name=\"" + entry.getKey().replace("\\", "\\\\").
+            replace("\"", "\\\"").replace("\n", "\\n") + '"';
+        final Histogram hist = entry.getValue();
+        for(final double q : QUANTILES) {
+          sb.append(metric).append('{').append(label).append(",quantile=\"").append(q);
+          sb.append("\"} ").append(seconds(hist.quantile(q))).append('\n');
+        }
+        sb.append(metric).append("_sum{").append(label).append("} ");
+        sb.append(seconds(hist.sum())).append('\n');
+        sb.append(metric).append("_count{").append(label).append("} ");
+        sb.append(hist.count()).append('\n');
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Adds a counter in the Prometheus text format.
+   * @param sb string builder
+   * @param name name of counter
+   * @param help help text
+   * @param value value
+   */
+  private static void counter(final StringBuilder sb, final String name, final String help,
+      final Object value) {
+    final String metric = "basex_" + name;
+    sb.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+    sb.append("# TYPE ").append(metric).append(" counter\n");
+    sb.append(metric).append(' ').append(value).append('\n');
+  }
+
+  /**
+   * Converts nano seconds to seconds.
+   * @param time time (nano seconds)
+   * @return seconds
+   */
+  private static double seconds(final long time) {
+    return time / 1e9;
+  }
+
+  /**
+   * Histogram with execution times. Times are recorded in microseconds.
+   */
+  public static final class Histogram {
+    /** Number of linear sub-buckets per power of two (bits). */
+    private static final int BITS = 4;
+    /** Number of linear sub-buckets per power of two. */
+    private static final int SUB = 1 << BITS;
+    /** Number of buckets. */
+    private static final int BUCKETS = (64 - BITS) * SUB;
+
+    /** Bucket counts. */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    /** Number of recorded values. */
+    private final AtomicLong count = new AtomicLong();
+    /** Sum of recorded values (nano seconds). */
+    private final AtomicLong sum = new AtomicLong();
+    /** Maximum value (nano seconds). */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value.
+     * @param time time (nano seconds)
+     */
+    void record(final long time) {
+      final long ns = Math.max(0, time);
+      counts.incrementAndGet(bucket(ns / 1000));
+      count.incrementAndGet();
+      sum.addAndGet(ns);
+      max.accumulateAndGet(ns, Math::max);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     * @return count
+     */
+    public long count() {
+      return count.get();
+    }
+
+    /**
+     * Returns the sum of all recorded values.
+     * @return sum (nano seconds)
+     */
+    public long sum() {
+      return sum.get();
+    }
+
+    /**
+     * Returns the maximum recorded value.
+     * @return maximum (nano seconds)
+     */
+    public long max() {
+      return max.get();
+    }
+
+    /**
+     * Returns the value at the specified quantile.
+     * @param quantile quantile (between 0 and 1)
+     * @return value (nano seconds, highest value of the bucket)
+     */
+    public long quantile(final double quantile) {
+      final long c = count.get();
+      if(c == 0) return 0;
+      final long rank = Math.max(1, (long) Math.ceil(quantile * c));
+      long seen = 0;
+      for(int b = 0; b < BUCKETS; b++) {
+        seen += counts.get(b);
+        if(seen >= rank) {
+          return b + 1 < BUCKETS ? Math.min((lowest(b + 1) - 1) * 1000 + 999, max.get()) :
+            max.get();
+        }
+      }
+      return max.get();
+    }
+
+    /**
+     * Returns the bucket index for a value.
+     * @param value value (microseconds)
+     * @return bucket index
+     */
+    private static int bucket(final long value) {
+      if(value < SUB) return (int) value;
+      final int exp = 63 - Long.numberOfLeadingZeros(value) - BITS;
+      return (exp + 1) * SUB + (int) (value >>> exp & SUB - 1);
+    }
+
+    /**
+     * Returns the lowest value of a bucket.
+     * @param bucket bucket index
+     * @return value (microseconds)
+     */
+    private static long lowest(final int bucket) {
+      if(bucket < SUB) return bucket;
+      final int exp = bucket / SUB - 1;
+      return (long) (SUB + bucket % SUB) << exp;
+    }
+
+    @Override
+    public String toString() {
+      final long c = count();
+      final StringBuilder sb = new StringBuilder().append(c).append(" requests");
+      if(c > 0) {
+        sb.append(", average: ").append(Performance.getTime(sum() / c, 1));
+        for(final double q : QUANTILES) {
+          sb.append(", ").append(Math.round(q * 100)).append("%: ");
+          sb.append(Performance.getTime(quantile(q), 1));
+        }
+        sb.append(", maximum: ").append(Performance.getTime(max(), 1));
+      }
+      return sb.toString();
+    }
+  }
+}
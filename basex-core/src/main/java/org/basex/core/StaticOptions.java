@@ -38,6 +38,10 @@ public final class StaticOptions extends Options {
   public static final BooleanOption FAIRLOCK = new BooleanOption("FAIRLOCK", false);
   /** Timeout (seconds) for remembering result of asynchronous queries. */
   public static final NumberOption CACHETIMEOUT = new NumberOption("CACHETIMEOUT", 3600);
+  /** Maximum number of cached query plans (0: no caching). */
+  public static final NumberOption PLANCACHE = new NumberOption("PLANCACHE", 0);
+  /** Flag for caching parsed library modules. */
+  public static final BooleanOption MODULECACHE = new BooleanOption("MODULECACHE", false);
 
   /** Comment: written to options file. */
   public static final Comment C_CLIENT = new Comment("Client/Server Architecture");
@@ -52,6 +56,14 @@ public final class StaticOptions extends Options {
   public static final StringOption USER = new StringOption("USER", "");
   /** Default password. */
   public static final StringOption PASSWORD = new StringOption("PASSWORD", "");
+  /** Client: minimum size of compressed data blocks (0: no compression). */
+  public static final NumberOption COMPRESSION = new NumberOption("COMPRESSION", 0);
+  /** Client: maximum number of idle pooled sessions per server and login (0: no pooling). */
+  public static final NumberOption CLIENTPOOL = new NumberOption("CLIENTPOOL", 8);
+  /** Client: maximum number of pooled sessions per server and login (0: no limit). */
+  public static final NumberOption CLIENTPOOLMAX = new NumberOption("CLIENTPOOLMAX", 0);
+  /** Client: time (seconds) after which idle pooled sessions are closed (0: no limit). */
+  public static final NumberOption CLIENTPOOLIDLE = new NumberOption("CLIENTPOOLIDLE", 60);
   /** Server: host, used for binding the server. Empty string for wildcard. */
   public static final StringOption SERVERHOST = new StringOption("SERVERHOST", "");
   /** Server: proxy host (default: ignored). */
@@ -69,12 +81,23 @@ public final class StaticOptions extends Options {
   public static final NumberOption TIMEOUT = new NumberOption("TIMEOUT", 30);
   /** Keep alive time (seconds) for clients; deactivated if set to 0. */
   public static final NumberOption KEEPALIVE = new NumberOption("KEEPALIVE", 600);
+  /** Number of threads for processing client requests (0: one thread per client). */
+  public static final NumberOption SERVERTHREADS = new NumberOption("SERVERTHREADS", 0);
+  /** Idle time (seconds) after which server-side cursors are closed (0: none, except for REST). */
+  public static final NumberOption CURSORTIMEOUT = new NumberOption("CURSORTIMEOUT", 60);
   /** Defines the number of parallel readers. */
   public static final NumberOption PARALLEL = new NumberOption("PARALLEL", 8);
+  /** Number of worker threads for parallel query evaluation (0: available processors). */
+  public static final NumberOption WORKERS = new NumberOption("WORKERS", 0);
   /** Logging flag. */
   public static final BooleanOption LOG = new BooleanOption("LOG", true);
   /** Log message cut-off. */
   public static final NumberOption LOGMSGMAXLEN = new NumberOption("LOGMSGMAXLEN", 1000);
+  /** Number of buffered log entries (0: entries are written synchronously). */
+  public static final NumberOption LOGBUFFER = new NumberOption("LOGBUFFER", 10000);
+  /** Policy for new log entries if the log buffer is full. */
+  public static final EnumOption<LogOverflow> LOGOVERFLOW =
+      new EnumOption<>("LOGOVERFLOW", LogOverflow.BLOCK);
 
   /** Comment: written to options file. */
   public static final Comment C_HTTP = new Comment("HTTP Services");
@@ -96,6 +119,18 @@ public final class StaticOptions extends Options {
   public static final EnumOption<AuthMethod> AUTHMETHOD =
       new EnumOption<>("AUTHMETHOD", AuthMethod.BASIC);
 
+  /** Overflow policies for the log buffer. */
+  public enum LogOverflow {
+    /** Wait until the buffer has space. */ BLOCK,
+    /** Drop new entries. */ DROP,
+    /** Keep every tenth new entry, drop all others. */ SAMPLE;
+
+    @Override
+    public String toString() {
+      return name().toLowerCase(Locale.ENGLISH);
+    }
+  }
+
   /** Authorization method. */
   public enum AuthMethod {
     /** Basic.  */ BASIC,
@@ -288,7 +288,7 @@ public interface Text {
     LI + CmdCreate.DATABASE + " [" + S_NAME + "] ([" + S_INPUT + "]):"  + NL +
     "  " + lang("c_create21", S_NAME, S_INPUT) + NL +
     LI + CmdCreate.INDEX + " [" + CmdIndex.TEXT + '|' + CmdIndex.ATTRIBUTE + '|' +
-      CmdIndex.TOKEN + '|' + CmdIndex.FULLTEXT + "]:" + NL +
+      CmdIndex.TOKEN + '|' + CmdIndex.FULLTEXT + '|' + CmdIndex.TRIGRAM + "]:" + NL +
     "  " + lang("c_create23") + NL +
     LI + CmdCreate.USER + " [" + S_NAME + "] ([" + S_PW + "]):" + NL +
     "  " + lang("c_create24")
@@ -355,7 +355,7 @@ public interface Text {
     LI + CmdDrop.DATABASE + " [" + S_NAME + "]:" + NL +
     "  " + lang("c_drop21") + NL +
     LI + CmdDrop.INDEX + " [" + CmdIndex.TEXT + '|' + CmdIndex.ATTRIBUTE + '|' +
-      CmdIndex.TOKEN + '|' + CmdIndex.FULLTEXT + "]:" + NL +
+      CmdIndex.TOKEN + '|' + CmdIndex.FULLTEXT + '|' + CmdIndex.TRIGRAM + "]:" + NL +
     "  " + lang("c_drop22") + NL +
     LI + CmdDrop.USER + " [" + S_NAME + "] (" + ON + " [pattern]): " + NL +
       "  " + lang("c_drop23")
@@ -416,12 +416,15 @@ public interface Text {
   };
   /** Command help. */
   String[] HELPSHOW = {
-    "[" + CmdShow.BACKUPS + '|' + CmdShow.SESSIONS + '|' + CmdShow.USERS + ']',
+    "[" + CmdShow.BACKUPS + '|' + CmdShow.SESSIONS + '|' + CmdShow.USERS + '|' +
+      CmdShow.STATEMENTS + '|' + CmdShow.METRICS + ']',
     lang("c_show1"),
     lang("c_show21") + NL +
     LI + CmdShow.SESSIONS + COLS + lang("c_show23") + NL +
     LI + CmdShow.USERS + " (" + ON + " [database]): " + lang("c_show24") + NL +
-    LI + CmdShow.BACKUPS + COLS + lang("c_show25")
+    LI + CmdShow.BACKUPS + COLS + lang("c_show25") + NL +
+    LI + CmdShow.STATEMENTS + COLS + lang("c_show26") + NL +
+    LI + CmdShow.METRICS + COLS + lang("c_show27")
   };
   /** Command help. */
   String[] HELPGRANT = {
@@ -538,6 +541,8 @@ public interface Text {
   String INDEX_TOKENS_D = lang("index_tokens") + DOTS;
   /** Create full-text index. */
   String INDEX_FULLTEXT_D = lang("index_fulltext") + DOTS;
+  /** Create trigram index. */
+  String INDEX_TRIGRAMS_D = lang("index_trigrams") + DOTS;
 
   /** Database created. */
   String DB_CREATED_X_X = lang("db_created_%_%");
@@ -695,6 +700,8 @@ public interface Text {
 
   /** Show sessions. */
   String SESSIONS_X = lang("sessions_%");
+  /** Show statements. */
+  String STATEMENTS_X = lang("statements_%");
   /** Show packages. */
   String PACKAGES_X = lang("packages_%");
   /** Show jobs. */
@@ -832,6 +839,8 @@ public interface Text {
   String PATH_INDEX = lang("path_index");
   /** Info on token index. */
   String TOKEN_INDEX = lang("token_index");
+  /** Info on trigram index. */
+  String TRIGRAM_INDEX = lang("trigram_index");
 
   /** Info on elements. */
   String ELEMENTS = lang("elements");
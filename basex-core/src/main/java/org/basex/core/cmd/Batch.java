@@ -0,0 +1,102 @@
+package org.basex.core.cmd;
+
+import org.basex.core.*;
+import org.basex.core.locks.*;
+import org.basex.core.parse.*;
+import org.basex.core.users.*;
+
+/**
+ * Runs a batch of commands as a single job. In contrast to {@link Execute}, the locks of all
+ * commands are acquired at once, and the permissions are checked for each single command.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class Batch extends Command {
+  /** Commands to execute. */
+  private final Command[] commands;
+
+  /**
+   * Default constructor.
+   * @param commands commands to execute
+   */
+  public Batch(final Command... commands) {
+    super(Perm.NONE);
+    this.commands = commands;
+  }
+
+  @Override
+  public void addLocks() {
+    final Locks locks = jc().locks;
+    boolean changed = false;
+    for(final Command cmd : commands) {
+      cmd.addLocks();
+      final Locks cmdLocks = cmd.jc().locks;
+      // references to the opened database cannot be resolved if it is changed by the batch
+      if(changed && (context(cmdLocks.reads) || context(cmdLocks.writes))) {
+        locks.writes.addGlobal();
+        return;
+      }
+      locks.reads.add(cmdLocks.reads);
+      locks.writes.add(cmdLocks.writes);
+      changed |= cmd instanceof Open || cmd instanceof Close || cmd instanceof CreateDB ||
+        cmd instanceof DropDB || cmd instanceof AlterDB || cmd instanceof Restore ||
+        cmd instanceof Check || cmd instanceof OptimizeAll || cmd instanceof Execute;
+    }
+  }
+
+  @Override
+  protected boolean run() {
+    final StringBuilder sb = new StringBuilder();
+    for(final Command cmd : commands) {
+      try {
+        final boolean ok = pushJob(cmd).run(context, out);
+        sb.append(cmd.info());
+        if(!ok) {
+          exception = cmd.exception();
+          return error(sb.toString());
+        }
+      } finally {
+        popJob();
+      }
+    }
+    return info(sb.toString().replaceAll("\r?\n?$", ""));
+  }
+
+  @Override
+  public boolean updating(final Context ctx) {
+    boolean up = false;
+    for(final Command cmd : commands) {
+      cmd.updating = cmd.updating(ctx);
+      up |= cmd.updating;
+    }
+    return up;
+  }
+
+  @Override
+  public boolean updated(final Context ctx) {
+    for(final Command cmd : commands) {
+      if(cmd.updated(ctx)) return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void build(final CmdBuilder cb) {
+    final StringBuilder sb = new StringBuilder();
+    for(final Command cmd : commands) {
+      if(sb.length() != 0) sb.append("; ");
+      sb.append(cmd.toString(cb.conf()));
+    }
+    cb.init(sb.toString());
+  }
+
+  /**
+   * Checks if the specified lock list references the opened database.
+   * @param list lock list
+   * @return result of check
+   */
+  private static boolean context(final LockList list) {
+    return list.contains(Locking.CONTEXT) || list.contains(Locking.COLLECTION);
+  }
+}
@@ -46,6 +46,7 @@ public final class Info extends AInfo {
 
     final User user = context.user();
     info(tb, USED_MEM, Performance.getMemory());
+    if(context.plans.enabled()) info(tb, QUERY_PLAN, context.plans);
 
     if(user.has(Perm.ADMIN)) {
       final StaticOptions sopts = context.soptions;
@@ -55,6 +55,7 @@ public final class InfoIndex extends AInfo {
     tb.add(info(CmdIndexInfo.ATTRIBUTE, data, options));
     tb.add(info(CmdIndexInfo.TOKEN, data, options));
     tb.add(info(CmdIndexInfo.FULLTEXT, data, options));
+    tb.add(info(CmdIndexInfo.TRIGRAM, data, options));
     tb.add(info(CmdIndexInfo.PATH, data, options));
     out.print(tb.finish());
     return true;
@@ -88,6 +89,8 @@ public final class InfoIndex extends AInfo {
         return info(TOKEN_INDEX, IndexType.TOKEN, data, options, data.meta.tokenindex);
       case FULLTEXT:
         return info(FULLTEXT_INDEX, IndexType.FULLTEXT, data, options, data.meta.ftindex);
+      case TRIGRAM:
+        return info(TRIGRAM_INDEX, IndexType.TRIGRAM, data, options, data.meta.trigramindex);
       default:
         return Token.token(LI + NOT_AVAILABLE);
     }
@@ -96,8 +96,10 @@ public final class Open extends Command {
         if(meta.updateFile().exists()) throw new BaseXException(DB_UPDATED_X, meta.name);
 
         // open database
+        final Object event = FlightEvent.DATABASE_OPEN.begin();
         data = new DiskData(meta);
         context.datas.pin(data);
+        FlightEvent.DATABASE_OPEN.commit(event, name, meta.size);
       }
       return data;
     }
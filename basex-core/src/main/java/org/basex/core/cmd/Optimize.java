@@ -161,6 +161,7 @@ public final class Optimize extends ACreate {
     optimize(IndexType.ATTRIBUTE, data, meta.createattr, enforceAttr, cmd);
     optimize(IndexType.TOKEN, data, meta.createtoken, enforceToken, cmd);
     optimize(IndexType.FULLTEXT, data, meta.createft, enforceFt, cmd);
+    optimize(IndexType.TRIGRAM, data, meta.createtrigram, false, cmd);
   }
 
   /**
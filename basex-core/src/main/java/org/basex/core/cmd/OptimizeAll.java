@@ -95,6 +95,7 @@ public final class OptimizeAll extends ACreate {
     options.set(MainOptions.ATTRINDEX, ometa.attrindex);
     options.set(MainOptions.TOKENINDEX, ometa.tokenindex);
     options.set(MainOptions.FTINDEX, ometa.ftindex);
+    options.set(MainOptions.TRIGRAMINDEX, ometa.trigramindex);
     options.set(MainOptions.TEXTINCLUDE, ometa.textinclude);
     options.set(MainOptions.ATTRINCLUDE, ometa.attrinclude);
     options.set(MainOptions.TOKENINCLUDE, ometa.tokeninclude);
@@ -131,6 +132,7 @@ public final class OptimizeAll extends ACreate {
     nmeta.createattr = ometa.createattr;
     nmeta.createtoken = ometa.createtoken;
     nmeta.createft = ometa.createft;
+    nmeta.createtrigram = ometa.createtrigram;
     nmeta.original = ometa.original;
     nmeta.filesize = ometa.filesize;
     nmeta.time = ometa.time;
@@ -0,0 +1,40 @@
+package org.basex.core.cmd;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.core.parse.*;
+import org.basex.core.parse.Commands.Cmd;
+import org.basex.core.parse.Commands.CmdShow;
+import org.basex.core.users.*;
+
+/**
+ * Evaluates the 'show statements' command and shows prepared statements.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ShowStatements extends Command {
+  /**
+   * Default constructor.
+   */
+  public ShowStatements() {
+    super(Perm.ADMIN);
+  }
+
+  @Override
+  protected boolean run() throws IOException {
+    out.println(context.statements.info());
+    return true;
+  }
+
+  @Override
+  public void addLocks() {
+    // no locks needed
+  }
+
+  @Override
+  public void build(final CmdBuilder cb) {
+    cb.init(Cmd.SHOW + " " + CmdShow.STATEMENTS);
+  }
+}
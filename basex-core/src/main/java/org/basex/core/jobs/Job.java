@@ -3,6 +3,8 @@ package org.basex.core.jobs;
 import java.util.*;
 
 import org.basex.core.*;
+import org.basex.core.Metrics.*;
+import org.basex.core.locks.*;
 import org.basex.core.users.*;
 import org.basex.util.*;
 
@@ -26,6 +28,8 @@ public abstract class Job {
   public JobState state = JobState.SCHEDULED;
   /** Stopped flag. */
   private boolean stopped;
+  /** Start time of the evaluation (nano seconds). */
+  private long started;
 
   /**
    * Returns the job context.
@@ -43,7 +47,12 @@ public abstract class Job {
     jc.context = ctx;
     ctx.jobs.register(this);
     state(JobState.QUEUED);
+    final long queued = System.nanoTime();
     ctx.locking.acquire(this, ctx);
+    started = System.nanoTime();
+    ctx.metrics.locks(started - queued);
+    // discard cached query plans that reference databases which may be updated
+    ctx.plans.invalidate(jc.locks.writes);
     state(JobState.RUNNING);
     jc.performance = new Performance();
     // non-admin users: stop process after timeout
@@ -58,6 +67,18 @@ public abstract class Job {
     stopTimeout();
     ctx.locking.release();
     ctx.jobs.unregister(this);
+
+    // record execution time, by job type and by accessed databases
+    final long time = System.nanoTime() - started;
+    final Metrics metrics = ctx.metrics;
+    metrics.record(Category.JOB, jc.type(), time);
+    final Locks locks = jc.locks;
+    for(final LockList list : new LockList[] { locks.reads, locks.writes }) {
+      for(final String db : list) {
+        if(!db.startsWith(Locking.PREFIX) && !db.startsWith(Locking.USER_PREFIX) &&
+            !db.startsWith(Locking.MODULE_PREFIX)) metrics.record(Category.DATABASE, db, time);
+      }
+    }
   }
 
   /**
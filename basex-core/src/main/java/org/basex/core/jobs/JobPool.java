@@ -26,6 +26,10 @@ public final class JobPool {
   final Timer timer = new Timer(true);
   /** Timeout (ms). */
   private final long timeout;
+  /** Number of worker threads. */
+  private final int parallelism;
+  /** Worker threads for parallel query evaluation (created on demand). */
+  private ForkJoinPool workers;
 
   /**
    * Constructor.
@@ -33,6 +37,35 @@ public final class JobPool {
    */
   public JobPool(final StaticOptions sopts) {
     timeout = sopts.get(StaticOptions.CACHETIMEOUT) * 1000L;
+    // by default, the number of worker threads is limited by the number of parallel jobs
+    final int threads = sopts.get(StaticOptions.WORKERS);
+    parallelism = threads > 0 ? threads : Math.max(1, Math.min(
+        Runtime.getRuntime().availableProcessors(), sopts.get(StaticOptions.PARALLEL)));
+  }
+
+  /**
+   * Returns the number of worker threads.
+   * @return number of threads
+   */
+  public int parallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Performs a task with the worker threads, which are shared by all jobs, and returns its
+   * result. If the task is called by a worker thread, it will be performed in the same pool.
+   * @param <T> result type
+   * @param task task
+   * @return result
+   */
+  public <T> T invoke(final ForkJoinTask<T> task) {
+    if(ForkJoinTask.inForkJoinPool()) return task.invoke();
+    final ForkJoinPool pool;
+    synchronized(this) {
+      if(workers == null) workers = new ForkJoinPool(parallelism);
+      pool = workers;
+    }
+    return pool.invoke(task);
   }
 
   /**
@@ -60,6 +93,7 @@ public final class JobPool {
     timer.cancel();
     for(final Job job : active.values()) job.stop();
     while(!active.isEmpty()) Performance.sleep(1);
+    if(workers != null) workers.shutdownNow();
   }
 
   /**
@@ -107,6 +107,20 @@ public final class LockList implements Iterable<String> {
     return list.contains(lock);
   }
 
+  /**
+   * Checks if all specified locks are covered by this list.
+   * @param locks lock list
+   * @return result of check
+   */
+  public boolean covers(final LockList locks) {
+    if(global) return true;
+    if(locks.global) return false;
+    for(final String lock : locks.list) {
+      if(!list.contains(lock)) return false;
+    }
+    return true;
+  }
+
   /**
    * Returns the number of local locks.
    * @return number of local locks
@@ -90,10 +90,14 @@ public final class Locking {
     // prepare lock strings and acquire locks
     final Locks locks = job.jc().locks;
     locks.finish(ctx);
+    final Object event = FlightEvent.LOCK_WAIT.begin();
     try {
       acquire(locks);
     } catch(final InterruptedException ex) {
       throw Util.notExpected("Thread was interrupted: %", ex);
+    } finally {
+      FlightEvent.LOCK_WAIT.commit(event, job.jc().type(),
+          locks.reads.size() + locks.writes.size());
     }
   }
 
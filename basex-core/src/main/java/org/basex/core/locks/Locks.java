@@ -34,6 +34,22 @@ public final class Locks {
     reads.remove(writes);
   }
 
+  /**
+   * Checks if all specified locks are covered by these locks.
+   * Read locks are also covered by write locks.
+   * @param locks locks to be checked
+   * @return result of check
+   */
+  public boolean covers(final Locks locks) {
+    if(!writes.covers(locks.writes)) return false;
+    if(writes.global() || reads.covers(locks.reads)) return true;
+    if(locks.reads.global()) return false;
+    for(final String lock : locks.reads) {
+      if(!reads.contains(lock) && !writes.contains(lock)) return false;
+    }
+    return true;
+  }
+
   @Override
   public String toString() {
     return "Reads: " + reads + ", Writes: " + writes;
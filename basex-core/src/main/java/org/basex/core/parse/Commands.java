@@ -115,6 +115,10 @@ public interface Commands {
   String SHOW_SESSIONS = "show-sessions";
   /** Command string: "show-users". */
   String SHOW_USERS = "show-users";
+  /** Command string: "show-statements". */
+  String SHOW_STATEMENTS = "show-statements";
+  /** Command string: "show-metrics". */
+  String SHOW_METRICS = "show-metrics";
   /** Command string: "store". */
   String STORE = "store";
   /** Command string: "test". */
@@ -168,15 +172,15 @@ public interface Commands {
   /** Optimize commands. */
   enum CmdOptimize { NULL, ALL }
   /** Show commands. */
-  enum CmdShow { SESSIONS, USERS, BACKUPS }
+  enum CmdShow { SESSIONS, USERS, BACKUPS, STATEMENTS, METRICS }
   /** Jobs commands. */
   enum CmdJobs { LIST, STOP, RESULT }
   /** Permission commands. */
   enum CmdPerm { NONE, READ, WRITE, CREATE, ADMIN }
   /** Index types. */
-  enum CmdIndex { TEXT, ATTRIBUTE, TOKEN, FULLTEXT }
+  enum CmdIndex { TEXT, ATTRIBUTE, TOKEN, FULLTEXT, TRIGRAM }
   /** Index types. */
-  enum CmdIndexInfo { NULL, TEXT, ATTRIBUTE, TOKEN, FULLTEXT, PATH, ELEMNAME, ATTRNAME }
+  enum CmdIndexInfo { NULL, TEXT, ATTRIBUTE, TOKEN, FULLTEXT, TRIGRAM, PATH, ELEMNAME, ATTRNAME }
   /** Alter types. */
   enum CmdAlter { DATABASE, DB, PASSWORD, USER }
   /** Repo types. */
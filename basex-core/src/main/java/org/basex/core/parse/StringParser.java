@@ -189,6 +189,10 @@ final class StringParser extends CommandParser {
             return new ShowUsers(key(ON, null) ? name(cmd) : null);
           case BACKUPS:
             return new ShowBackups();
+          case STATEMENTS:
+            return new ShowStatements();
+          case METRICS:
+            return new ShowMetrics();
         }
         break;
       case GRANT:
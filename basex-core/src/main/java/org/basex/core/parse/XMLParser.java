@@ -167,6 +167,10 @@ final class XMLParser extends CommandParser {
       return new ShowSessions();
     if(e.equals(SHOW_USERS) && check(root, DATABASE + '?'))
       return new ShowUsers(value(root, DATABASE));
+    if(e.equals(SHOW_STATEMENTS) && check(root))
+      return new ShowStatements();
+    if(e.equals(SHOW_METRICS) && check(root))
+      return new ShowMetrics();
     if(e.equals(STORE) && check(root, PATH + '?', '<' + INPUT))
       return new Store(value(root, PATH), xml(root));
     if(e.equals(TEST) && check(root, PATH))
@@ -101,6 +101,8 @@ public abstract class Data {
   public ValueIndex tokenIndex;
   /** Full-text index. */
   public ValueIndex ftIndex;
+  /** Trigram index. */
+  public ValueIndex trigramIndex;
 
   /** Indicates if distances are to be updated. */
   public boolean updateDists = true;
@@ -176,7 +178,12 @@ public abstract class Data {
    * @return index iterator
    */
   public final IndexIterator iter(final IndexToken token) {
-    return index(token.type()).iter(token);
+    final Object event = FlightEvent.INDEX_LOOKUP.begin();
+    final IndexIterator iter = index(token.type()).iter(token);
+    if(event != null) {
+      FlightEvent.INDEX_LOOKUP.commit(event, meta.name + ':' + token.type(), iter.size());
+    }
+    return iter;
   }
 
   /**
@@ -212,6 +219,7 @@ public abstract class Data {
       case ATTRIBUTE: return attrIndex;
       case TOKEN:     return tokenIndex;
       case FULLTEXT:  return ftIndex;
+      case TRIGRAM:   return trigramIndex;
       case PATH:      return paths;
       default:        throw Util.notExpected();
     }
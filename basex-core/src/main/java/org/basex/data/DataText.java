@@ -42,6 +42,8 @@ public interface DataText {
   String DBTOKIDX = "TOKINDEX";
   /** Full-text index. */
   String DBFTXIDX = "FTXINDEX";
+  /** Trigram index. */
+  String DBTRIIDX = "TRIINDEX";
   /** Text index: names. */
   String DBTXTINC = "TXTINC";
   /** Attribute index: names. */
@@ -80,6 +82,8 @@ public interface DataText {
   String DBCRTTOK = "CRTTOK";
   /** Recreate full-text index. */
   String DBCRTFTX = "CRTFTX";
+  /** Recreate trigram index. */
+  String DBCRTTRI = "CRTTRI";
 
   /** Tags. */
   String DBTAGS = "TAGS";
@@ -106,6 +110,8 @@ public interface DataText {
   String DATATOK = "tok";
   /** Database - Full-text index. */
   String DATAFTX = "ftx";
+  /** Database - Trigram index. */
+  String DATATRI = "tri";
   /** Database - Stopword list. */
   String DATASWL = "swl";
   /** Database - Updating flag. */
@@ -71,6 +71,7 @@ public final class DiskData extends Data {
       if(meta.tokenindex) tokenIndex = new DiskValues(this, IndexType.TOKEN);
     }
     if(meta.ftindex) ftIndex = new FTIndex(this);
+    if(meta.trigramindex) trigramIndex = new DiskValues(this, IndexType.TRIGRAM);
   }
 
   /**
@@ -134,6 +135,7 @@ public final class DiskData extends Data {
   public synchronized void close() {
     if(closed) return;
     super.close();
+    final Object event = FlightEvent.DATABASE_CLOSE.begin();
     try {
       write();
       table.close();
@@ -143,8 +145,11 @@ public final class DiskData extends Data {
       close(IndexType.ATTRIBUTE);
       close(IndexType.TOKEN);
       close(IndexType.FULLTEXT);
+      close(IndexType.TRIGRAM);
     } catch(final IOException ex) {
       Util.stack(ex);
+    } finally {
+      FlightEvent.DATABASE_CLOSE.commit(event, meta.name, meta.size);
     }
   }
 
@@ -167,7 +172,8 @@ public final class DiskData extends Data {
     close(type);
     final IndexBuilder ib;
     switch(type) {
-      case TEXT: case ATTRIBUTE: case TOKEN: ib = new DiskValuesBuilder(this, type); break;
+      case TEXT: case ATTRIBUTE: case TOKEN: case TRIGRAM:
+        ib = new DiskValuesBuilder(this, type); break;
       case FULLTEXT: ib = new FTBuilder(this); break;
       default: throw Util.notExpected();
     }
@@ -198,6 +204,7 @@ public final class DiskData extends Data {
       case ATTRIBUTE: attrIndex = index; break;
       case TOKEN:     tokenIndex = index; break;
       case FULLTEXT:  ftIndex = index; break;
+      case TRIGRAM:   trigramIndex = index; break;
       default:        break;
     }
   }
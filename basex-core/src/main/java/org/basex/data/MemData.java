@@ -76,7 +76,7 @@ public final class MemData extends Data {
     switch(type) {
       case TEXT: case ATTRIBUTE: case TOKEN:
         ib = new MemValuesBuilder(this, type); break;
-      case FULLTEXT:
+      case FULLTEXT: case TRIGRAM:
         throw new BaseXException(NO_MAINMEM);
       default:
         throw Util.notExpected();
@@ -95,7 +95,8 @@ public final class MemData extends Data {
       case TEXT:      break;
       case ATTRIBUTE: break;
       case TOKEN:     break;
-      case FULLTEXT:  throw new BaseXException(NO_MAINMEM);
+      case FULLTEXT:
+      case TRIGRAM:   throw new BaseXException(NO_MAINMEM);
       default:        throw Util.notExpected();
     }
     set(type, null);
@@ -47,6 +47,8 @@ public final class MetaData {
   public boolean tokenindex;
   /** Indicates if a full-text index exists. */
   public boolean ftindex;
+  /** Indicates if a trigram index exists. */
+  public boolean trigramindex;
 
   /** Flag for activated automatic index update. */
   public boolean updindex;
@@ -61,6 +63,8 @@ public final class MetaData {
   public boolean createtoken;
   /** Indicates if the full-text index is to be recreated. */
   public boolean createft;
+  /** Indicates if the trigram index is to be recreated. */
+  public boolean createtrigram;
   /** Text index: names to include. */
   public String textinclude = "";
   /** Attribute index: names to include. */
@@ -125,6 +129,7 @@ public final class MetaData {
     createattr = options.get(MainOptions.ATTRINDEX);
     createtoken = options.get(MainOptions.TOKENINDEX);
     createft = options.get(MainOptions.FTINDEX);
+    createtrigram = options.get(MainOptions.TRIGRAMINDEX);
     diacritics = options.get(MainOptions.DIACRITICS);
     stemming = options.get(MainOptions.STEMMING);
     casesens = options.get(MainOptions.CASESENS);
@@ -315,6 +320,7 @@ public final class MetaData {
       case ATTRIBUTE: return attrindex;
       case TOKEN:     return tokenindex;
       case FULLTEXT:  return ftindex;
+      case TRIGRAM:   return trigramindex;
       default:        throw Util.notExpected();
     }
   }
@@ -330,6 +336,7 @@ public final class MetaData {
       case ATTRIBUTE: attrindex = exists; break;
       case TOKEN:     tokenindex = exists; break;
       case FULLTEXT:  ftindex = exists; break;
+      case TRIGRAM:   trigramindex = exists; break;
       default:        throw Util.notExpected();
     }
   }
@@ -345,6 +352,7 @@ public final class MetaData {
       case ATTRIBUTE: return attrinclude;
       case TOKEN:     return tokeninclude;
       case FULLTEXT:  return ftinclude;
+      case TRIGRAM:   return "";
       default:        throw Util.notExpected();
     }
   }
@@ -360,6 +368,7 @@ public final class MetaData {
       case ATTRIBUTE: attrinclude = options.get(MainOptions.ATTRINCLUDE); break;
       case TOKEN:     tokeninclude = options.get(MainOptions.TOKENINCLUDE); break;
       case FULLTEXT:  ftinclude = options.get(MainOptions.FTINCLUDE); break;
+      case TRIGRAM:   break;
       default:        throw Util.notExpected();
     }
   }
@@ -396,6 +405,7 @@ public final class MetaData {
       else if(k.equals(DBATVIDX))   attrindex    = toBool(v);
       else if(k.equals(DBTOKIDX))   tokenindex   = toBool(v);
       else if(k.equals(DBFTXIDX))   ftindex      = toBool(v);
+      else if(k.equals(DBTRIIDX))   trigramindex = toBool(v);
       else if(k.equals(DBTXTINC))   textinclude  = v;
       else if(k.equals(DBATVINC))   attrinclude  = v;
       else if(k.equals(DBTOKINC))   tokeninclude = v;
@@ -405,6 +415,7 @@ public final class MetaData {
       else if(k.equals(DBCRTATV))   createattr   = toBool(v);
       else if(k.equals(DBCRTTOK))   createtoken  = toBool(v);
       else if(k.equals(DBCRTFTX))   createft     = toBool(v);
+      else if(k.equals(DBCRTTRI))   createtrigram = toBool(v);
       else if(k.equals(DBFTST))     stemming     = toBool(v);
       else if(k.equals(DBFTCS))     casesens     = toBool(v);
       else if(k.equals(DBUPTODATE)) uptodate     = toBool(v);
@@ -438,6 +449,7 @@ public final class MetaData {
     writeInfo(out, DBATVIDX,   attrindex);
     writeInfo(out, DBTOKIDX,   tokenindex);
     writeInfo(out, DBFTXIDX,   ftindex);
+    writeInfo(out, DBTRIIDX,   trigramindex);
     writeInfo(out, DBTXTINC,   textinclude);
     writeInfo(out, DBATVINC,   attrinclude);
     writeInfo(out, DBTOKINC,   tokeninclude);
@@ -447,6 +459,7 @@ public final class MetaData {
     writeInfo(out, DBCRTATV,   createattr);
     writeInfo(out, DBCRTTOK,   createtoken);
     writeInfo(out, DBCRTFTX,   createft);
+    writeInfo(out, DBCRTTRI,   createtrigram);
     writeInfo(out, DBFTST,     stemming);
     writeInfo(out, DBFTCS,     casesens);
     writeInfo(out, DBFTDC,     diacritics);
@@ -473,6 +486,7 @@ public final class MetaData {
       tokenindex = false;
     }
     ftindex = false;
+    trigramindex = false;
   }
 
   /**
@@ -85,6 +85,11 @@ public enum MetaProp {
     public Boolean value(final MetaData meta) { return meta.ftindex; }
   },
   /** Property. */
+  TRIGRAMINDEX(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.trigramindex; }
+  },
+  /** Property. */
   TEXTINCLUDE(true) {
     @Override
     public String value(final MetaData meta) { return meta.textinclude; }
@@ -86,7 +86,10 @@ public abstract class IndexBuilder extends Job {
    * @return result of check
    */
   protected final boolean indexEntry() {
-    return data.kind(pre) == (text ? Data.TEXT : Data.ATTR) && includeNames.contains(pre, text);
+    final int kind = data.kind(pre);
+    // trigram index: include all texts and attribute values
+    if(type == IndexType.TRIGRAM) return kind == Data.TEXT || kind == Data.ATTR;
+    return kind == (text ? Data.TEXT : Data.ATTR) && includeNames.contains(pre, text);
   }
 
   /**
@@ -170,6 +173,7 @@ public abstract class IndexBuilder extends Job {
       case ATTRIBUTE: return INDEX_ATTRIBUTES_D;
       case TOKEN: return INDEX_TOKENS_D;
       case FULLTEXT: return INDEX_FULLTEXT_D;
+      case TRIGRAM: return INDEX_TRIGRAMS_D;
       default: throw Util.notExpected();
     }
   }
@@ -28,7 +28,9 @@ public enum IndexType {
   /** Token index. */
   TOKEN,
   /** Full-text index. */
-  FULLTEXT;
+  FULLTEXT,
+  /** Trigram index. */
+  TRIGRAM;
 
   @Override
   public String toString() {
@@ -58,28 +58,39 @@ public final class FTBuilder extends IndexBuilder {
     Util.debug(detailedInfo());
 
     try {
-      for(pre = 0; pre < size; ++pre) {
-        if((pre & 0x0FFF) == 0) check();
-        if(!indexEntry()) continue;
-
-        // current lexer position
-        final StopWords sw = lexer.ftOpt().sw;
-        lexer.init(data.text(pre, true));
-        int pos = -1;
-        while(lexer.hasNext()) {
-          final byte[] tok = lexer.nextToken();
-          ++pos;
-          // skip too long and stopword tokens
-          if(tok.length <= data.meta.maxlen && (sw.isEmpty() || !sw.contains(tok))) {
-            // check if main memory is exhausted
-            if((ntok++ & 0xFFFF) == 0 && splitRequired()) {
-              writeIndex(true);
-              clean();
+      // write number of tokens of all indexed text nodes
+      try(DataOutput outL = new DataOutput(data.meta.dbfile(DATAFTX + 'l'))) {
+        long tokens = 0;
+        for(pre = 0; pre < size; ++pre) {
+          if((pre & 0x0FFF) == 0) check();
+          if(!indexEntry()) continue;
+
+          // current lexer position
+          final StopWords sw = lexer.ftOpt().sw;
+          lexer.init(data.text(pre, true));
+          int pos = -1;
+          while(lexer.hasNext()) {
+            final byte[] tok = lexer.nextToken();
+            ++pos;
+            // skip too long and stopword tokens
+            if(tok.length <= data.meta.maxlen && (sw.isEmpty() || !sw.contains(tok))) {
+              // check if main memory is exhausted
+              if((ntok++ & 0xFFFF) == 0 && splitRequired()) {
+                writeIndex(true);
+                clean();
+              }
+              tree.index(tok, pre, pos, splits);
+              count++;
             }
-            tree.index(tok, pre, pos, splits);
-            count++;
+          }
+          // write number of tokens of the text node
+          if(pos != -1) {
+            outL.write4(pre);
+            outL.write4(pos + 1);
+            tokens += pos + 1;
           }
         }
+        outL.write5(tokens);
       }
 
       // finalize partial or all index structures
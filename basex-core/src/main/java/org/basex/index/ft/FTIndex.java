@@ -6,6 +6,7 @@ import static org.basex.util.Token.*;
 import static org.basex.util.ft.FTFlag.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.core.*;
 import org.basex.data.*;
@@ -13,6 +14,7 @@ import org.basex.index.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
 import org.basex.index.value.*;
+import org.basex.io.*;
 import org.basex.io.random.*;
 import org.basex.query.expr.ft.*;
 import org.basex.query.util.*;
@@ -45,6 +47,13 @@ import org.basex.util.similarity.*;
  * <li>File <b>z</b> contains the {@code id/pos} references.
  *   The values are ordered, but not distinct:
  *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}]</li>
+ * <li>File <b>l</b> contains the number of tokens of all indexed text nodes.
+ *   Structure: {@code [p, n] ... t}.
+ *   {@code p} is the pre value of a text node [int],
+ *   {@code n} is the number of its tokens [int],
+ *   {@code t} is the total number of tokens [long].
+ *   The file is used for computing relevance scores (BM25), and it is not available
+ *   in databases that have been created with earlier versions.</li>
  * </ul>
  *
  * @author BaseX Team 2005-18, BSD License
@@ -66,6 +75,12 @@ public final class FTIndex extends ValueIndex {
   private final DataAccess inY;
   /** Storing pre and pos values for each token. */
   private final DataAccess inZ;
+  /** Storing the number of tokens of each text node (can be {@code null}). */
+  private final DataAccess inL;
+  /** Number of indexed text nodes with tokens. */
+  private final int nodes;
+  /** Average number of tokens of the indexed text nodes. */
+  private final double avg;
 
   /** Cache for number of hits and data reference per token. */
   private final IndexCache cache = new IndexCache();
@@ -91,6 +106,46 @@ public final class FTIndex extends ValueIndex {
       tp[p] = inX.read4();
     }
     tp[tl - 1] = (int) inY.length();
+
+    // token statistics
+    final IOFile file = data.meta.dbfile(DATAFTX + 'l');
+    inL = file.exists() ? new DataAccess(file) : null;
+    final long ll = inL != null ? inL.length() - 5 : 0;
+    nodes = (int) (ll >>> 3);
+    avg = nodes == 0 ? 1 : Math.max(1, (double) inL.read5(ll) / nodes);
+  }
+
+  /**
+   * Returns the number of indexed text nodes that contain tokens.
+   * @return number of nodes, or {@code 0} if no statistics are available
+   */
+  public int nodes() {
+    return nodes;
+  }
+
+  /**
+   * Returns the average number of tokens of the indexed text nodes.
+   * @return average number of tokens
+   */
+  public double average() {
+    return avg;
+  }
+
+  /**
+   * Returns the number of tokens of the specified text node.
+   * @param pre pre value
+   * @return number of tokens, or {@code -1} if the number is unknown
+   */
+  public synchronized int length(final int pre) {
+    int l = 0, h = nodes - 1;
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      final int p = inL.read4((long) m << 3);
+      if(p == pre) return inL.read4(((long) m << 3) + 4);
+      if(p < pre) l = m + 1;
+      else h = m - 1;
+    }
+    return -1;
   }
 
   @Override
@@ -209,7 +264,7 @@ public final class FTIndex extends ValueIndex {
   @Override
   public synchronized byte[] info(final MainOptions options) {
     final TokenBuilder tb = new TokenBuilder();
-    final long l = inX.length() + inY.length() + inZ.length();
+    final long l = inX.length() + inY.length() + inZ.length() + (inL != null ? inL.length() : 0);
     tb.add(LI_NAMES).add(data.meta.ftinclude).add(NL);
     tb.add(LI_SIZE + Performance.format(l) + NL);
 
@@ -229,6 +284,7 @@ public final class FTIndex extends ValueIndex {
     inX.close();
     inY.close();
     inZ.close();
+    if(inL != null) inL.close();
   }
 
   @Override
@@ -319,6 +375,8 @@ public final class FTIndex extends ValueIndex {
 
   /**
    * Performs a fuzzy search for the specified token with a maximum number of errors.
+   * The sorted tokens of each length are traversed with a Levenshtein automaton:
+   * all tokens starting with a prefix that is rejected by the automaton are skipped.
    * @param token token to look for
    * @param k number of errors allowed
    * @return iterator
@@ -334,16 +392,43 @@ public final class FTIndex extends ValueIndex {
       if(p == -1) continue;
       int t = s + 1, r = -1;
       while(t < tl && r == -1) r = tp[t++];
+      final LevenshteinAutomaton la = new LevenshteinAutomaton(token, k);
       while(p < r) {
-        if(ls.similar(inY.readBytes(p, s), token, k)) {
-          it = FTIndexIterator.union(iter(pointer(p, s), size(p, s), inZ, token), it);
+        final byte[] tok = inY.readBytes(p, s);
+        final int pl = la.prefix(tok);
+        if(pl == -1) {
+          if(ls.similar(tok, token, k)) {
+            it = FTIndexIterator.union(iter(pointer(p, s), size(p, s), inZ, token), it);
+          }
+          p += s + ENTRY;
+        } else {
+          // skip all tokens with the rejected prefix
+          final byte[] next = next(tok, pl);
+          p = next == null ? r : find(next, p, r, s);
         }
-        p += s + ENTRY;
       }
     }
     return it;
   }
 
+  /**
+   * Returns the smallest token that is greater than all tokens starting with the specified
+   * prefix.
+   * @param token token
+   * @param length length of the prefix
+   * @return token, or {@code null} if no such token exists
+   */
+  private static byte[] next(final byte[] token, final int length) {
+    for(int l = length - 1; l >= 0; l--) {
+      if(token[l] != (byte) 0xFF) {
+        final byte[] next = Arrays.copyOf(token, l + 1);
+        next[l]++;
+        return next;
+      }
+    }
+    return null;
+  }
+
   /**
    * Performs a wildcard search for the specified token.
    * @param token token to look for
@@ -448,6 +533,11 @@ public final class FTIndex extends ValueIndex {
         return size;
       }
 
+      @Override
+      public int nodes() {
+        return ftc.nodes;
+      }
+
       @Override
       public String toString() {
         return new TokenBuilder(token).add('(').addExt(size).add("x)").toString();
@@ -465,6 +555,8 @@ public final class FTIndex extends ValueIndex {
     private final IntList pre;
     /** Pos values. */
     private final IntList pos;
+    /** Number of distinct pre values. */
+    private int nodes;
 
     /**
      * Constructor.
@@ -478,6 +570,9 @@ public final class FTIndex extends ValueIndex {
       order = Array.createOrder(v, true);
       pre = pr;
       pos = ps;
+      for(int i = 0; i < s; i++) {
+        if(i == 0 || pr.get(order[i]) != pr.get(order[i - 1])) nodes++;
+      }
     }
   }
 
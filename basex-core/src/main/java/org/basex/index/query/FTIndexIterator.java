@@ -35,6 +35,15 @@ public abstract class FTIndexIterator implements IndexIterator {
    */
   public abstract void pos(int p);
 
+  /**
+   * Returns the number of distinct text nodes that will be returned by this iterator.
+   * By default, the number of index entries is returned.
+   * @return number of nodes
+   */
+  public int nodes() {
+    return size();
+  }
+
   /**
    * Merges two index array iterators.
    * @param i1 first index array iterator to merge
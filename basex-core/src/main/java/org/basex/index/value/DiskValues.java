@@ -371,7 +371,7 @@ public class DiskValues extends ValueIndex {
       for(int i = 0, id = 0; i < sz; i++) {
         id += idxl.readNum();
         // pass over token position
-        if(type == IndexType.TOKEN) idxl.readNum();
+        if(type == IndexType.TOKEN || type == IndexType.TRIGRAM) idxl.readNum();
         pres.add(pre(id));
       }
     }
@@ -469,7 +469,11 @@ public class DiskValues extends ValueIndex {
    * @return key token
    */
   private byte[] key(final int id) {
-    final byte[] text = data.text(pre(id), type == IndexType.TEXT);
+    final int pre = pre(id);
+    if(type == IndexType.TRIGRAM) {
+      return distinctTrigrams(data.text(pre, data.kind(pre) == Data.TEXT))[idxl.readNum()];
+    }
+    final byte[] text = data.text(pre, type == IndexType.TEXT);
     return type == IndexType.TOKEN ? distinctTokens(text)[idxl.readNum()] : text;
   }
 
@@ -515,6 +519,7 @@ public class DiskValues extends ValueIndex {
    * @return file suffix
    */
   static String fileSuffix(final IndexType type) {
-    return type == IndexType.TOKEN ? DATATOK : type == IndexType.TEXT ? DATATXT : DATAATV;
+    return type == IndexType.TOKEN ? DATATOK : type == IndexType.TRIGRAM ? DATATRI :
+      type == IndexType.TEXT ? DATATXT : DATAATV;
   }
 }
@@ -50,14 +50,17 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     Util.debug(detailedInfo());
 
     try {
-      final boolean updindex = data.meta.updindex;
+      // trigram index will not be updated incrementally
+      final boolean updindex = data.meta.updindex && type != IndexType.TRIGRAM;
       for(pre = 0; pre < size; ++pre) {
         if((pre & 0x0FFF) == 0) check();
         if(indexEntry()) {
           final int id = updindex ? data.id(pre) : pre;
           if(tokenize) {
             int pos = 0;
-            for(final byte[] token : distinctTokens(data.text(pre, text))) {
+            for(final byte[] token : type == IndexType.TRIGRAM ?
+                distinctTrigrams(data.text(pre, data.kind(pre) == Data.TEXT)) :
+                distinctTokens(data.text(pre, text))) {
               index.add(token, id, pos++);
               count++;
             }
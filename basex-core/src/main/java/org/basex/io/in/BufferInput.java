@@ -116,6 +116,32 @@ public class BufferInput extends InputStream {
     return buf[bpos++] & 0xFF;
   }
 
+  /**
+   * Reads bytes into the specified array. In contrast to the default implementation,
+   * the underlying stream will only be accessed if no more bytes are buffered.
+   * @param b array
+   * @param off offset
+   * @param len maximum number of bytes to read
+   * @return number of read bytes, or {@code -1} if all bytes have been read
+   * @throws IOException I/O exception
+   */
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if(len == 0) return 0;
+    int l = 0;
+    do {
+      final int c = read();
+      if(c == -1) return l == 0 ? -1 : l;
+      b[off + l++] = (byte) c;
+    } while(l < len && bpos < bsize);
+    return l;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return bsize - bpos + (in != null ? in.available() : 0);
+  }
+
   /**
    * Reads a string from the input stream, suffixed by a {@code 0} byte.
    * @return string
@@ -0,0 +1,132 @@
+package org.basex.io.in;
+
+import java.io.*;
+import java.util.zip.*;
+
+import org.basex.io.out.*;
+
+/**
+ * This class decompresses the data that has been sent over a client/server connection
+ * (see {@link org.basex.io.out.CompressedOutput}).
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class CompressedInput extends InputStream {
+  /** Input stream. */
+  private final InputStream input;
+  /** Decompressor. */
+  private final Inflater inflater = new Inflater();
+  /** Current block. */
+  private byte[] block = new byte[0];
+  /** Compressed block. */
+  private byte[] compressed = new byte[0];
+  /** Size of current block. */
+  private int size;
+  /** Current position. */
+  private int pos;
+
+  /**
+   * Constructor.
+   * @param input input stream to be wrapped
+   */
+  public CompressedInput(final InputStream input) {
+    this.input = input;
+  }
+
+  @Override
+  public int read() throws IOException {
+    return pos < size || next() ? block[pos++] & 0xFF : -1;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if(len == 0) return 0;
+    if(pos == size && !next()) return -1;
+    final int l = Math.min(len, size - pos);
+    System.arraycopy(block, pos, b, off, l);
+    pos += l;
+    return l;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return size - pos + input.available();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      input.close();
+    } finally {
+      inflater.end();
+    }
+  }
+
+  /**
+   * Reads the next block.
+   * @return {@code false} if the end of the stream has been reached
+   * @throws IOException I/O exception
+   */
+  private boolean next() throws IOException {
+    final int type = input.read();
+    if(type == -1) return false;
+
+    final int len = readInt();
+    if(type == 0) {
+      if(block.length < len) block = new byte[len];
+      readFully(block, len);
+      size = len;
+    } else if(type == 1) {
+      final int sz = readInt();
+      if(compressed.length < len) compressed = new byte[len];
+      if(block.length < sz) block = new byte[sz];
+      readFully(compressed, len);
+      inflater.reset();
+      inflater.setInput(compressed, 0, len);
+      try {
+        int s = 0;
+        while(s < sz && !inflater.finished()) s += inflater.inflate(block, s, sz - s);
+        if(s != sz) throw new IOException("Corrupt block: " + s + " of " + sz + " bytes.");
+      } catch(final DataFormatException ex) {
+        throw new IOException(ex);
+      }
+      size = sz;
+    } else {
+      throw new IOException("Unknown block type: " + type);
+    }
+    pos = 0;
+    return size > 0 || next();
+  }
+
+  /**
+   * Reads the length of a block. Lengths are checked before any memory is allocated,
+   * as they are sent by the peer.
+   * @return length
+   * @throws IOException I/O exception
+   */
+  private int readInt() throws IOException {
+    int v = 0;
+    for(int i = 0; i < 4; i++) {
+      final int b = input.read();
+      if(b == -1) throw new EOFException();
+      v = v << 8 | b;
+    }
+    if(v < 0 || v > CompressedOutput.BLOCKSIZE) throw new IOException("Invalid block length: " + v);
+    return v;
+  }
+
+  /**
+   * Reads the specified number of bytes.
+   * @param b target array
+   * @param len number of bytes
+   * @throws IOException I/O exception
+   */
+  private void readFully(final byte[] b, final int len) throws IOException {
+    for(int l = 0; l < len;) {
+      final int r = input.read(b, l, len - l);
+      if(r == -1) throw new EOFException();
+      l += r;
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package org.basex.io.out;
+
+import java.io.*;
+import java.util.zip.*;
+
+/**
+ * This class compresses the data sent over a client/server connection.
+ * The written bytes are buffered and sent in blocks:
+ * <ul>
+ * <li> An uncompressed block is preceded by {@code 0x00} and its length.</li>
+ * <li> A compressed block is preceded by {@code 0x01}, its length and its original length.</li>
+ * </ul>
+ * Lengths are encoded as four bytes. Blocks are compressed with the fastest deflate level.
+ * Blocks smaller than the specified threshold, and blocks that cannot be compressed,
+ * are sent uncompressed. A block is sent whenever the stream is flushed. Headers and data
+ * of a block are sent in a single write operation.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class CompressedOutput extends OutputStream {
+  /** Maximum block size. */
+  public static final int BLOCKSIZE = 1 << 16;
+  /** Maximum size of a block header. */
+  private static final int HEADER = 9;
+
+  /** Output stream. */
+  private final OutputStream os;
+  /** Minimum size of compressed blocks. */
+  private final int threshold;
+  /** Compressor. */
+  private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+  /** Current block (preceded by space for the header). */
+  private final byte[] block = new byte[HEADER + BLOCKSIZE];
+  /** Compressed block (preceded by space for the header). */
+  private final byte[] compressed = new byte[HEADER + BLOCKSIZE];
+  /** Size of current block. */
+  private int size;
+
+  /**
+   * Constructor.
+   * @param os output stream to be wrapped
+   * @param threshold minimum size of compressed blocks
+   */
+  public CompressedOutput(final OutputStream os, final int threshold) {
+    this.os = os;
+    this.threshold = threshold;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    if(size == BLOCKSIZE) send();
+    block[HEADER + size++] = (byte) b;
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    int o = off, l = len;
+    while(l > 0) {
+      if(size == BLOCKSIZE) send();
+      final int s = Math.min(l, BLOCKSIZE - size);
+      System.arraycopy(b, o, block, HEADER + size, s);
+      size += s;
+      o += s;
+      l -= s;
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    send();
+    os.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+      os.close();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Sends the current block.
+   * @throws IOException I/O exception
+   */
+  private void send() throws IOException {
+    if(size == 0) return;
+
+    // compress block; discard result if it is not smaller than the original block
+    int clen = 0;
+    if(size >= threshold) {
+      deflater.reset();
+      deflater.setInput(block, HEADER, size);
+      deflater.finish();
+      while(!deflater.finished() && clen < size) {
+        clen += deflater.deflate(compressed, HEADER + clen, size - clen);
+      }
+      if(!deflater.finished()) clen = 0;
+    }
+
+    if(clen == 0) {
+      block[4] = 0;
+      writeInt(block, 5, size);
+      os.write(block, 4, 5 + size);
+    } else {
+      compressed[0] = 1;
+      writeInt(compressed, 1, clen);
+      writeInt(compressed, 5, size);
+      os.write(compressed, 0, HEADER + clen);
+    }
+    size = 0;
+  }
+
+  /**
+   * Writes an integer value to the specified array.
+   * @param array array
+   * @param off offset
+   * @param v value
+   */
+  private static void writeInt(final byte[] array, final int off, final int v) {
+    array[off] = (byte) (v >>> 24);
+    array[off + 1] = (byte) (v >>> 16);
+    array[off + 2] = (byte) (v >>> 8);
+    array[off + 3] = (byte) v;
+  }
+}
@@ -49,7 +49,8 @@ public class PrintOutput extends OutputStream {
     return out instanceof PrintOutput ? (PrintOutput) out : new PrintOutput(
            out instanceof ByteArrayOutputStream ||
            out instanceof BufferedOutputStream ||
-           out instanceof BufferOutput ? out : new BufferOutput(out));
+           out instanceof BufferOutput ||
+           out instanceof CompressedOutput ? out : new BufferOutput(out));
   }
 
   /**
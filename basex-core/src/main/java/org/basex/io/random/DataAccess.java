@@ -16,6 +16,8 @@ public final class DataAccess implements Closeable {
   private final Buffers bm = new Buffers();
   /** Reference to the data input stream. */
   private final RandomAccessFile raf;
+  /** File path. */
+  private final String path;
   /** File length. */
   private long length;
   /** Changed flag. */
@@ -29,6 +31,7 @@ public final class DataAccess implements Closeable {
    * @throws IOException I/O Exception
    */
   public DataAccess(final IOFile file) throws IOException {
+    path = file.path();
     RandomAccessFile f = null;
     try {
       f = new RandomAccessFile(file.file(), "rw");
@@ -222,8 +225,11 @@ public final class DataAccess implements Closeable {
       if(bf.dirty) writeBlock(bf);
       bf.pos = b;
       raf.seek(bf.pos);
-      if(bf.pos < raf.length())
+      if(bf.pos < raf.length()) {
+        final Object event = FlightEvent.BUFFER_MISS.begin();
         raf.readFully(bf.data, 0, (int) Math.min(length - bf.pos, IO.BLOCKSIZE));
+        FlightEvent.BUFFER_MISS.commit(event, path, b);
+      }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -516,8 +516,13 @@ public final class TableDiskAccess extends TableAccess {
       if(p >= size) {
         size = p + 1;
       } else {
+        final Object event = FlightEvent.BUFFER_MISS.begin();
         file.seek(bf.pos * IO.BLOCKSIZE);
         file.readFully(bf.data);
+        if(event != null) {
+          FlightEvent.BUFFER_MISS.commit(event, meta.dbfile(DATATBL).path(),
+              (long) p * IO.BLOCKSIZE);
+        }
       }
     } catch(final IOException ex) {
       Util.stack(ex);
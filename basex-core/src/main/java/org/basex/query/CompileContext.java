@@ -31,6 +31,9 @@ public final class CompileContext {
 
   /** Query context. */
   public final QueryContext qc;
+  /** Indicates if copied references to static functions and variables are bound to the
+   * declarations of the query context (required when adopting cached library modules). */
+  public final boolean relink;
   /** Variable scope list. */
   private final ArrayList<VarScope> scopes = new ArrayList<>();
   /** Query focus list. */
@@ -41,7 +44,17 @@ public final class CompileContext {
    * @param qc query context
    */
   public CompileContext(final QueryContext qc) {
+    this(qc, false);
+  }
+
+  /**
+   * Constructor.
+   * @param qc query context
+   * @param relink bind copied references to the declarations of the query context
+   */
+  public CompileContext(final QueryContext qc, final boolean relink) {
     this.qc = qc;
+    this.relink = relink;
   }
 
   /**
@@ -48,9 +48,9 @@ public final class QueryContext extends Job implements Closeable {
   /** The evaluation stack. */
   public final QueryStack stack = new QueryStack();
   /** Static variables. */
-  public final Variables vars = new Variables();
+  public Variables vars = new Variables();
   /** Functions. */
-  public final StaticFuncs funcs = new StaticFuncs();
+  public StaticFuncs funcs = new StaticFuncs();
   /** Externally bound variables. */
   private final HashMap<QNm, Value> bindings = new HashMap<>();
 
@@ -81,7 +81,7 @@ public final class QueryContext extends Job implements Closeable {
   /** Current full-text lexer. */
   public FTLexer ftLexer;
   /** Current full-text options. */
-  private FTOpt ftOpt;
+  FTOpt ftOpt;
   /** Full-text token positions (needed for highlighting full-text results). */
   public int ftPos;
   /** Scoring flag. */
@@ -124,6 +124,8 @@ public final class QueryContext extends Job implements Closeable {
   final TokenMap modDeclared = new TokenMap();
   /** Stack of module files that are currently parsed. */
   final TokenList modStack = new TokenList();
+  /** Indicates if library modules are parsed for the module cache. */
+  boolean modCache;
 
   /** Initial context value. */
   public MainModule ctxItem;
@@ -131,10 +133,25 @@ public final class QueryContext extends Job implements Closeable {
   public MainModule root;
 
   /** Serialization parameters. */
-  private SerializerOptions serParams;
+  SerializerOptions serParams;
   /** Indicates if the default serialization parameters are used. */
   private boolean defaultOutput;
 
+  /** Key of the query plan (assigned if the compiled plan may be cached). */
+  private String planKey;
+  /** Cached query plan (can be {@code null}). */
+  private QueryPlans.Plan plan;
+  /** Locks of the parsed query (assigned if the compiled plan may be cached). */
+  private Locks planLocks;
+  /** Base URI of the query (required for parsing a query with an outdated plan). */
+  private String planURI;
+  /** Static context of the query (required for parsing a query with an outdated plan). */
+  private StaticContext planSC;
+
+  /** Namespaces that have been added by element constructors, by namespace context
+   * (lazy instantiation). */
+  private IdentityHashMap<NSContext, Atts> namespaces;
+
   /** Indicates if the query has been compiled. */
   private boolean compiled;
   /** Indicates if the query context has been closed. */
@@ -150,6 +167,49 @@ public final class QueryContext extends Job implements Closeable {
     resources = parent.resources;
     http = parent.http;
     updates = parent.updates;
+    // adopt namespaces of the element constructors that are currently evaluated
+    if(parent.namespaces != null) {
+      namespaces = new IdentityHashMap<>();
+      parent.namespaces.forEach((ns, stack) -> namespaces.put(ns, stack.copy()));
+    }
+  }
+
+  /**
+   * Returns the namespaces that have been added to the specified namespace context
+   * by element constructors of this evaluation.
+   * @param ns namespace context
+   * @param create create stack if it does not exist yet
+   * @return namespace stack, or {@code null} if it does not exist
+   */
+  public Atts namespaces(final NSContext ns, final boolean create) {
+    Atts stack = namespaces != null ? namespaces.get(ns) : null;
+    if(stack == null && create) {
+      if(namespaces == null) namespaces = new IdentityHashMap<>();
+      stack = new Atts();
+      namespaces.put(ns, stack);
+    }
+    return stack;
+  }
+
+  /**
+   * Creates a child context for evaluating parts of a query in a separate thread.
+   * The variables of the current stack frame, the focus, and the date and time context
+   * are adopted. The child context must be closed after evaluation.
+   * @return child context
+   * @throws QueryException query exception
+   */
+  public QueryContext worker() throws QueryException {
+    initDateTime();
+    final QueryContext qc = new QueryContext(this);
+    qc.stack.enterFrame(stack);
+    qc.focus = focus.copy();
+    qc.scoring = scoring;
+    qc.time = time;
+    qc.date = date;
+    qc.datm = datm;
+    qc.zone = zone;
+    qc.nano = nano;
+    return qc;
   }
 
   /**
@@ -212,6 +272,50 @@ public final class QueryContext extends Job implements Closeable {
       throws QueryException {
 
     info.query = query;
+    final QueryPlans plans = context.plans;
+    if(parent == null && plans.enabled() && modDeclared.isEmpty() && (sc == null ||
+        sc.ns.ns.isEmpty() && sc.elemNS == null && sc.resolver == null)) {
+      final String key = planKey(query, sc);
+      if(!bindings.isEmpty() || ctxItem != null) {
+        // bound values are inlined by the compiler: adopt a copy of the parsed query
+        final QueryTemplate template = plans.template(key, query,
+            sc != null ? string(sc.baseURI().string()) : uri, context);
+        return template != null ? parseMain(template) : parseQuery(query, uri, sc);
+      }
+
+      // check if a compiled plan has been cached (validity is checked again after locking)
+      planKey = key;
+      plan = plans.get(key);
+      if(plan != null && !plans.valid(key, plan, context)) {
+        plans.release(plan);
+        plan = null;
+      }
+      if(plan != null) {
+        planURI = uri;
+        planSC = sc;
+        root = plan.root;
+        funcs = plan.funcs;
+        vars = plan.vars;
+        varIDs = plan.varIDs;
+        if(plan.serParams != null) serParams = new SerializerOptions(plan.serParams);
+        ftOpt = plan.ftOpt;
+        updating = false;
+        return root;
+      }
+    }
+    return parseQuery(query, uri, sc);
+  }
+
+  /**
+   * Parses the specified main module.
+   * @param query query string
+   * @param uri base URI (may be {@code null})
+   * @param sc static context (may be {@code null})
+   * @return main module
+   * @throws QueryException query exception
+   */
+  MainModule parseQuery(final String query, final String uri, final StaticContext sc)
+      throws QueryException {
     final QueryParser qp = new QueryParser(query, uri, this, sc);
     root = qp.parseMain();
     // updating expression: check if an updating expression is left in the expression tree
@@ -219,6 +323,18 @@ public final class QueryContext extends Job implements Closeable {
     return root;
   }
 
+  /**
+   * Adopts a copy of a parsed main module.
+   * @param template parsed query
+   * @return main module
+   * @throws QueryException query exception
+   */
+  public MainModule parseMain(final QueryTemplate template) throws QueryException {
+    info.query = template.query;
+    root = template.copy(this);
+    return root;
+  }
+
   /**
    * Parses the specified module.
    * @param query query string
@@ -254,7 +370,7 @@ public final class QueryContext extends Job implements Closeable {
    */
   public void compile() throws QueryException {
     checkStop();
-    if(compiled) return;
+    if(compiled || plan != null && cached()) return;
 
     final CompileContext cc = new CompileContext(this);
     try {
@@ -287,13 +403,7 @@ public final class QueryContext extends Job implements Closeable {
         }
       } else {
         // cache the initial context nodes
-        final DBNodes nodes = context.current();
-        if(nodes != null) {
-          final String name = nodes.data().meta.name;
-          if(!context.perm(Perm.READ, name))
-            throw BASEX_PERMISSION_X_X.get(null, Perm.READ, name);
-          focus.value = resources.compile(nodes);
-        }
+        contextNodes();
       }
 
       // if specified, convert context value to specified type
@@ -313,11 +423,95 @@ public final class QueryContext extends Job implements Closeable {
       }
 
       info.runtime = true;
+      if(planKey != null) cache();
     } finally {
       compiled = true;
     }
   }
 
+  /**
+   * Adopts the cached query plan. If the plan has become outdated after the locks have been
+   * acquired, the query is parsed again. An error is raised if the parsed query requires
+   * locks that have not been acquired.
+   * @return {@code true} if the plan was adopted
+   * @throws QueryException query exception
+   */
+  private boolean cached() throws QueryException {
+    final QueryPlans.Plan pl = plan;
+    final QueryPlans plans = context.plans;
+    if(bindings.isEmpty() && ctxItem == null && plans.valid(planKey, pl, context)) {
+      maxCalls = context.options.get(MainOptions.TAILCALLS);
+      contextNodes();
+      if(focus.value != null && root.sc.contextType != null) {
+        focus.value = root.sc.contextType.promote(focus.value, null, this, root.sc, null, true);
+      }
+      info.compInfo(QueryText.OPTPLAN, new Object[0]);
+      info.runtime = true;
+      compiled = true;
+      return true;
+    }
+
+    // discard plan and parse query again
+    plan = null;
+    plans.release(pl);
+    funcs = new StaticFuncs();
+    vars = new Variables();
+    varIDs = 0;
+    serParams = null;
+    ftOpt = null;
+    parseQuery(info.query, planURI, planSC);
+
+    // check if the acquired locks suffice for the parsed query
+    final Locks lcks = parsedLocks();
+    if(updating || !pl.locks.covers(lcks)) throw BASEX_PLAN.get(null);
+    planLocks = lcks;
+    return false;
+  }
+
+  /**
+   * Caches the compiled query plan if it does not depend on the current query context.
+   */
+  private void cache() {
+    if(updating || planLocks == null || !bindings.isEmpty() || ctxItem != null ||
+        !tempOpts.isEmpty() || time != null || vars.iterator().hasNext() ||
+        context.data() != null && !context.root() || root.expr.has(Flag.NDT)) return;
+    final Data[] datas = resources.plan();
+    if(datas == null) return;
+
+    // serialization parameters: only adopt parameters that have been declared in the query
+    final SerializerOptions sopts = serParams != null && !defaultOutput ?
+      new SerializerOptions(serParams) : null;
+    context.plans.add(planKey, new QueryPlans.Plan(this, planLocks, sopts, ftOpt, datas));
+  }
+
+  /**
+   * Returns the key of a query plan.
+   * @param query query string
+   * @param sc static context (may be {@code null})
+   * @return key
+   */
+  private String planKey(final String query, final StaticContext sc) {
+    final Data data = context.data();
+    return new StringBuilder(query).append('\0').
+        append(sc != null ? sc.baseURI() : "").append('\0').
+        append(context.user().name()).append('\0').
+        append(data != null ? data.meta.name : "").append('\0').
+        append(context.options).toString();
+  }
+
+  /**
+   * Assigns the nodes of the database context as context value.
+   * @throws QueryException query exception
+   */
+  private void contextNodes() throws QueryException {
+    final DBNodes nodes = context.current();
+    if(nodes != null) {
+      final String name = nodes.data().meta.name;
+      if(!context.perm(Perm.READ, name)) throw BASEX_PERMISSION_X_X.get(null, Perm.READ, name);
+      focus.value = resources.compile(nodes);
+    }
+  }
+
   /**
    * Returns a result iterator.
    * @return result iterator
@@ -398,6 +592,19 @@ public final class QueryContext extends Job implements Closeable {
     return iter.next();
   }
 
+  /**
+   * Fills the specified array with the next items of an iterator (see {@link Iter#next(Item[])}).
+   * Checks if evaluation has been interrupted.
+   * @param iter iterator
+   * @param items array to be filled
+   * @return number of returned items
+   * @throws QueryException query exception
+   */
+  public int next(final Iter iter, final Item[] items) throws QueryException {
+    checkStop();
+    return iter.next(items);
+  }
+
   /**
    * Returns a reference to the updates container.
    * @return updates container
@@ -410,14 +617,35 @@ public final class QueryContext extends Job implements Closeable {
   @Override
   public void addLocks() {
     final Locks locks = jc().locks;
-    final LockList read = locks.reads, write = locks.writes;
+    if(plan != null) {
+      // adopt locks of cached query plan
+      locks.reads.add(plan.locks.reads);
+      locks.writes.add(plan.locks.writes);
+      return;
+    }
+
+    // remember locks of the parsed query if the compiled plan may be cached
+    final Locks lcks = parsedLocks();
+    if(planKey != null) planLocks = lcks;
+    locks.reads.add(lcks.reads);
+    locks.writes.add(lcks.writes);
+  }
+
+  /**
+   * Returns the locks of the parsed query.
+   * @return locks
+   */
+  private Locks parsedLocks() {
+    final Locks lcks = new Locks();
+    final LockList read = lcks.reads, write = lcks.writes;
     read.add(readLocks);
     write.add(writeLocks);
     // use global locking if referenced databases cannot be statically determined
-    if(root == null || !root.databases(locks, this) ||
-       ctxItem != null && !ctxItem.databases(locks, this)) {
+    if(root == null || !root.databases(lcks, this) ||
+       ctxItem != null && !ctxItem.databases(lcks, this)) {
       (updating ? write : read).addGlobal();
     }
+    return lcks;
   }
 
   /**
@@ -480,7 +708,7 @@ public final class QueryContext extends Job implements Closeable {
   public void bind(final String name, final Value val, final StaticContext sc)
       throws QueryException {
     final byte[] n = token(name);
-    bindings.put(QNm.resolve(indexOf(n, '$') == 0 ? substring(n, 1) : n, sc), val);
+    bindings.put(QNm.resolve(indexOf(n, '$') == 0 ? substring(n, 1) : n, sc, this), val);
   }
 
   /**
@@ -561,8 +789,9 @@ public final class QueryContext extends Job implements Closeable {
     if(closed) return;
     closed = true;
     if(parent == null) {
-      // topmost query: close resources (opened by compile step)
+      // topmost query: close resources (opened by compile step), release cached plan
       resources.close();
+      if(plan != null) context.plans.release(plan);
     } else {
       // otherwise, adopt update reference (may have been initialized by sub query)
       parent.updates = updates;
@@ -684,7 +913,7 @@ public final class QueryContext extends Job implements Closeable {
 
     // convert to the specified type
     // [LW] type should be parsed properly
-    final QNm nm = new QNm(token(type.replaceAll("\\(.*?\\)$", "")), sc);
+    final QNm nm = new QNm(token(type.replaceAll("\\(.*?\\)$", "")), sc, this);
     if(!nm.hasURI() && nm.hasPrefix()) throw NOURI_X.get(null, nm.string());
 
     Type tp;
@@ -53,6 +53,8 @@ public enum QueryError {
   /** Error code. */
   BASEX_PERMISSION_X_X(BASEX, "permission", "No % permission: %."),
   /** Error code. */
+  BASEX_PLAN(BASEX, "plan", "Query has changed since it was locked; please run it again."),
+  /** Error code. */
   BASEX_RESTXQ_X(BASEX, "restxq", "%"),
   /** Error code. */
   BASEX_UPDATE(BASEX, "update", "Update target was not created by transform expression."),
@@ -112,11 +114,15 @@ public enum QueryError {
 
   // Client Module
 
+  /** Error code. */
+  CLIENT_BINDINGS_X_X(CLIENT, "bindings", "Bindings expected for % sessions, % supplied."),
   /** Error code. */
   CLIENT_COMMAND_X(CLIENT, "command", "Command could not be executed: %"),
   /** Error code. */
   CLIENT_CONNECT_X(CLIENT, "connect", "Connection failed: %"),
   /** Error code. */
+  CLIENT_DUPLICATE_X(CLIENT, "duplicate", "Session with ID % is specified more than once."),
+  /** Error code. */
   CLIENT_ERROR_X(CLIENT, "error", "An error occurred: %"),
   /** Error code. */
   CLIENT_FITEM_X(CLIENT, "function", "Result is a function item: %."),
@@ -0,0 +1,233 @@
+package org.basex.query;
+
+import static org.basex.query.QueryError.*;
+import static org.basex.util.Token.*;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.io.*;
+import org.basex.query.func.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * <p>Server-wide cache of parsed library modules.</p>
+ *
+ * <p>If a module file is imported for the first time, it is parsed in a separate query context,
+ * together with all modules it imports. If the module is imported again, its functions and
+ * variables are copied to the importing query, and parsing is skipped. The references of the
+ * copied expressions are bound to the declarations of the new query.</p>
+ *
+ * <p>Modules are parsed again if one of their files has been modified. Modules are not cached
+ * if they declare full-text options or a context value type, or if they depend on Java
+ * code or external resources.</p>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryModules {
+  /** Static options. */
+  private final StaticOptions soptions;
+  /** Cached modules. */
+  private final HashMap<String, Module> modules = new HashMap<>();
+  /** Number of cache hits. */
+  private long hits;
+  /** Number of cache misses. */
+  private long misses;
+
+  /**
+   * Constructor.
+   * @param soptions static options
+   */
+  public QueryModules(final StaticOptions soptions) {
+    this.soptions = soptions;
+  }
+
+  /**
+   * Adopts the functions and variables of a cached library module. If the module has not been
+   * cached yet, it is parsed and cached first.
+   * @param io module file
+   * @param uri module uri
+   * @param info input info
+   * @param qc query context
+   * @return {@code true} if the module was adopted, {@code false} if it must be parsed
+   * @throws QueryException query exception
+   */
+  boolean adopt(final IO io, final byte[] uri, final InputInfo info, final QueryContext qc)
+      throws QueryException {
+
+    // modules of test APIs and nested imports of cached modules are always parsed
+    if(!soptions.get(StaticOptions.MODULECACHE) || qc.modCache || !qc.modDeclared.isEmpty() ||
+        !(io instanceof IOFile)) return false;
+
+    final String key = io.path() + '\0' + qc.context.options.get(MainOptions.MIXUPDATES);
+    Module module = get(key);
+    if(module == null) {
+      module = parse((IOFile) io, uri, qc.context);
+      if(module == null) return false;
+      add(key, module);
+    }
+    if(!eq(module.uri, uri)) return false;
+
+    module.copy(qc, info);
+    return true;
+  }
+
+  /**
+   * Returns a cached module if it is still up-to-date.
+   * @param key key
+   * @return module or {@code null}
+   */
+  private synchronized Module get(final String key) {
+    Module module = modules.get(key);
+    if(module != null && !module.valid()) {
+      modules.remove(key);
+      module = null;
+    }
+    if(module == null) misses++;
+    else hits++;
+    return module;
+  }
+
+  /**
+   * Caches a module.
+   * @param key key
+   * @param module module
+   */
+  private synchronized void add(final String key, final Module module) {
+    modules.put(key, module);
+  }
+
+  /**
+   * Parses a module file and its imported modules.
+   * @param file module file
+   * @param uri module uri
+   * @param ctx database context
+   * @return module, or {@code null} if the module cannot be cached
+   */
+  private static Module parse(final IOFile file, final byte[] uri, final Context ctx) {
+    try(QueryContext tqc = new QueryContext(ctx)) {
+      tqc.modCache = true;
+      final QueryParser qp = new QueryParser("", file.path(), tqc, null);
+      qp.module(file.path(), string(uri), null);
+      tqc.funcs.check(tqc);
+      tqc.vars.check();
+
+      if(qp.sc.contextType != null || tqc.ftOpt != null || tqc.resources.plan() == null)
+        return null;
+      for(final StaticFunc func : tqc.funcs.funcs()) {
+        if(!tqc.modParsed.contains(token(func.info.path()))) return null;
+      }
+      for(final StaticVar var : tqc.vars) {
+        if(!tqc.modParsed.contains(token(var.info.path()))) return null;
+      }
+      return new Module(tqc, uri);
+    } catch(final QueryException ex) {
+      // errors will be raised when the module is parsed by the importing query
+      Util.debug(ex);
+      return null;
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    final long total = hits + misses;
+    return Util.info("% modules, % hits, % misses (%%)", modules.size(), hits, misses,
+        total == 0 ? 0 : hits * 100 / total, '%');
+  }
+
+  /**
+   * Parsed library module.
+   *
+   * @author BaseX Team 2005-18, BSD License
+   * @author Christian Gruen
+   */
+  private static final class Module {
+    /** Module uri. */
+    private final byte[] uri;
+    /** Paths of the parsed module files. */
+    private final TokenList paths = new TokenList();
+    /** URIs of the parsed module files. */
+    private final TokenList uris = new TokenList();
+    /** Parsed module files. */
+    private final IOFile[] files;
+    /** Timestamps of the parsed module files. */
+    private final long[] stamps;
+    /** Declared functions. */
+    private final StaticFunc[] funcs;
+    /** Declared variables. */
+    private final ArrayList<StaticVar> vars = new ArrayList<>();
+    /** Updating flag. */
+    private final boolean updating;
+
+    /**
+     * Constructor.
+     * @param qc query context with the parsed module
+     * @param uri module uri
+     */
+    private Module(final QueryContext qc, final byte[] uri) {
+      this.uri = uri;
+      funcs = qc.funcs.funcs();
+      for(final StaticVar var : qc.vars) vars.add(var);
+      updating = qc.updating;
+
+      final int ms = qc.modParsed.size();
+      files = new IOFile[ms];
+      stamps = new long[ms];
+      int m = 0;
+      for(final byte[] path : qc.modParsed) {
+        paths.add(path);
+        uris.add(qc.modParsed.get(path));
+        final IOFile file = new IOFile(string(path));
+        files[m] = file;
+        stamps[m++] = file.timeStamp();
+      }
+    }
+
+    /**
+     * Checks if none of the module files has been modified.
+     * @return result of check
+     */
+    private boolean valid() {
+      final int fl = files.length;
+      for(int f = 0; f < fl; f++) {
+        if(files[f].timeStamp() != stamps[f]) return false;
+      }
+      return true;
+    }
+
+    /**
+     * Copies the functions and variables to the specified query. Declarations of modules
+     * that have already been parsed by the query are skipped.
+     * @param qc query context
+     * @param info input info
+     * @throws QueryException query exception
+     */
+    private void copy(final QueryContext qc, final InputInfo info) throws QueryException {
+      final TokenSet skip = new TokenSet();
+      final int ps = paths.size();
+      for(int p = 0; p < ps; p++) {
+        final byte[] path = paths.get(p), pUri = qc.modParsed.get(path);
+        if(pUri == null) {
+          qc.modParsed.put(path, uris.get(p));
+        } else {
+          if(!eq(uris.get(p), pUri))
+            throw WRONGMODULE_X_X_X.get(info, files[p].name(), uris.get(p), pUri);
+          skip.add(path);
+        }
+      }
+
+      final CompileContext cc = new CompileContext(qc, true);
+      for(final StaticVar var : vars) {
+        if(!skip.contains(token(var.info.path()))) var.copy(cc);
+      }
+      for(final StaticFunc func : funcs) {
+        if(!skip.contains(token(func.info.path()))) func.copy(cc);
+      }
+      if(updating) qc.updating();
+    }
+  }
+}
@@ -785,6 +785,11 @@ public class QueryParser extends InputParser {
       if(!eq(tUri, pUri)) throw WRONGMODULE_X_X_X.get(info, io.name(), uri, pUri);
       return;
     }
+    // adopt cached module
+    if(qc.context.modules.adopt(io, tUri, info, qc)) {
+      imports.put(tUri);
+      return;
+    }
     qc.modParsed.put(tPath, tUri);
     imports.put(tUri);
 
@@ -2553,7 +2558,7 @@ public class QueryParser extends InputParser {
    */
   private Expr dirElement() throws QueryException {
     // cache namespace information
-    final int size = sc.ns.size();
+    final int size = sc.ns.size(qc);
     final byte[] nse = sc.elemNS;
     final int npos = qnames.size();
 
@@ -2635,7 +2640,7 @@ public class QueryParser extends InputParser {
             if(eq(pref, XML, XMLNS)) throw error(BINDXML_X, pref);
             if(eq(uri, XML_URI)) throw error(BINDXMLURI_X_X, uri, XML);
             if(eq(uri, XMLNS_URI)) throw error(BINDXMLURI_X_X, uri, XMLNS);
-            sc.ns.add(pref, uri);
+            sc.ns.push(pref, uri, qc);
           } else {
             if(eq(uri, XML_URI)) throw error(XMLNSDEF_X, uri);
             sc.elemNS = uri;
@@ -2681,7 +2686,7 @@ public class QueryParser extends InputParser {
       }
     }
 
-    sc.ns.size(size);
+    sc.ns.size(size, qc);
     sc.elemNS = nse;
     return new CElem(sc, info(), name, ns, cont.finish());
   }
@@ -3812,7 +3817,7 @@ public class QueryParser extends InputParser {
     if(ns == SKIPCHECK) return new QNm(nm);
 
     // create new EQName and set namespace
-    final QNm name = new QNm(nm, sc);
+    final QNm name = new QNm(nm, sc, qc);
     if(!name.hasURI()) {
       if(ns == URICHECK) {
         pos = p;
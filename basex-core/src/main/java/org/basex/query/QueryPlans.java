@@ -0,0 +1,359 @@
+package org.basex.query;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.locks.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.serial.*;
+import org.basex.query.func.*;
+import org.basex.query.scope.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.ft.*;
+
+/**
+ * <p>Server-wide cache of compiled query plans.</p>
+ *
+ * <p>A plan is stored after a main module has been compiled if its result only depends on
+ * the query string, the static options, the current user and the opened database. If the
+ * same query is parsed again, the compiled expression tree is adopted, and parsing and
+ * compilation are skipped. The tree is not modified during evaluation and can thus be
+ * shared by concurrent queries.</p>
+ *
+ * <p>Plans are discarded if a database they reference is opened for writing, if its meta data
+ * has changed in the meantime, or if an imported module has been modified.</p>
+ *
+ * <p>Compiled plans of queries with bound variables or a bound context value cannot be shared,
+ * as the compiler inlines the bound values. For such queries, the parsed query is cached
+ * instead (see {@link QueryTemplate}): each execution compiles a copy with its own values,
+ * and parsing is skipped.</p>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryPlans {
+  /** Static options. */
+  private final StaticOptions soptions;
+  /** Database context. */
+  private final Context context;
+  /** Cached plans, in least recently used order. */
+  private final LinkedHashMap<String, Plan> plans = new LinkedHashMap<>(16, 0.75f, true);
+  /** Parsed queries with bound values, in least recently used order
+   * ({@code null}: query cannot be used as template). */
+  private final LinkedHashMap<String, QueryTemplate> templates =
+      new LinkedHashMap<>(16, 0.75f, true);
+  /** Number of cache hits. */
+  private long hits;
+  /** Number of cache misses. */
+  private long misses;
+
+  /**
+   * Constructor.
+   * @param context database context
+   */
+  public QueryPlans(final Context context) {
+    this.context = context;
+    soptions = context.soptions;
+  }
+
+  /**
+   * Indicates if query plans are cached.
+   * @return result of check
+   */
+  public boolean enabled() {
+    return soptions.get(StaticOptions.PLANCACHE) > 0;
+  }
+
+  /**
+   * Returns a cached plan and registers a new user.
+   * @param key key
+   * @return plan or {@code null}
+   */
+  synchronized Plan get(final String key) {
+    final Plan plan = plans.get(key);
+    if(plan == null) {
+      misses++;
+    } else {
+      hits++;
+      plan.users++;
+    }
+    return plan;
+  }
+
+  /**
+   * Returns a parsed query for a query with bound values. If no valid template is cached,
+   * the query is parsed and the result is cached.
+   * @param key key
+   * @param query query string
+   * @param uri base URI (can be {@code null})
+   * @param ctx database context of the query
+   * @return template, or {@code null} if the query cannot be used as template
+   * @throws QueryException query exception
+   */
+  QueryTemplate template(final String key, final String query, final String uri,
+      final Context ctx) throws QueryException {
+
+    synchronized(this) {
+      if(templates.containsKey(key)) {
+        final QueryTemplate template = templates.get(key);
+        if(template == null) return null;
+        if(template.valid(ctx)) {
+          hits++;
+          return template;
+        }
+        templates.remove(key);
+      }
+      misses++;
+    }
+
+    final QueryTemplate template = QueryTemplate.parse(query, uri, ctx);
+    synchronized(this) {
+      final int max = soptions.get(StaticOptions.PLANCACHE);
+      if(max > 0) {
+        templates.put(key, template);
+        final Iterator<QueryTemplate> iter = templates.values().iterator();
+        for(int t = templates.size(); t > max; t--) {
+          iter.next();
+          iter.remove();
+        }
+      }
+    }
+    return template;
+  }
+
+  /**
+   * Caches a plan. The least recently used plans are discarded if the maximum number of
+   * plans is exceeded.
+   * @param key key
+   * @param plan plan
+   */
+  synchronized void add(final String key, final Plan plan) {
+    final int max = soptions.get(StaticOptions.PLANCACHE);
+    if(max <= 0) return;
+
+    for(final Data data : plan.datas) pin(data);
+    plan.pinned = true;
+    plan.cached = true;
+    final Plan old = plans.put(key, plan);
+    if(old != null) remove(old);
+
+    final Iterator<Plan> iter = plans.values().iterator();
+    for(int p = plans.size(); p > max; p--) {
+      remove(iter.next());
+      iter.remove();
+    }
+  }
+
+  /**
+   * Unregisters a user of a plan.
+   * @param plan plan
+   */
+  synchronized void release(final Plan plan) {
+    plan.users--;
+    unpin(plan);
+  }
+
+  /**
+   * Checks if a plan is still valid. Otherwise, it is discarded.
+   * @param key key
+   * @param plan plan
+   * @param ctx database context of the query
+   * @return result of check
+   */
+  synchronized boolean valid(final String key, final Plan plan, final Context ctx) {
+    if(!plan.cached) return false;
+    if(plan.valid(ctx)) return true;
+    plans.remove(key);
+    remove(plan);
+    return false;
+  }
+
+  /**
+   * Discards all plans that reference databases which will be opened for writing.
+   * @param writes write locks
+   */
+  public void invalidate(final LockList writes) {
+    if(!writes.locking()) return;
+    synchronized(this) {
+      if(plans.isEmpty()) return;
+      final Iterator<Plan> iter = plans.values().iterator();
+      while(iter.hasNext()) {
+        final Plan plan = iter.next();
+        if(plan.writes(writes)) {
+          remove(plan);
+          iter.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Discards all plans.
+   */
+  public synchronized void close() {
+    for(final Plan plan : plans.values()) remove(plan);
+    plans.clear();
+    templates.clear();
+  }
+
+  @Override
+  public synchronized String toString() {
+    final long total = hits + misses;
+    return Util.info("% plans, % hits, % misses (%%)", plans.size(), hits, misses,
+        total == 0 ? 0 : hits * 100 / total, '%');
+  }
+
+  /**
+   * Marks a plan as removed, and releases its databases if it is not used anymore.
+   * @param plan plan
+   */
+  private void remove(final Plan plan) {
+    plan.cached = false;
+    unpin(plan);
+  }
+
+  /**
+   * Releases the databases of a plan if it has been removed and is not used anymore.
+   * @param plan plan
+   */
+  private void unpin(final Plan plan) {
+    if(!plan.cached && plan.users == 0 && plan.pinned) {
+      for(final Data data : plan.datas) Close.close(data, context);
+      plan.pinned = false;
+    }
+  }
+
+  /**
+   * Pins a database.
+   * @param data data reference
+   */
+  private void pin(final Data data) {
+    synchronized(context.datas) { context.datas.pin(data); }
+  }
+
+  /**
+   * Compiled query plan.
+   *
+   * @author BaseX Team 2005-18, BSD License
+   * @author Christian Gruen
+   */
+  static final class Plan {
+    /** Compiled main module. */
+    final MainModule root;
+    /** Static functions. */
+    final StaticFuncs funcs;
+    /** Static variables. */
+    final Variables vars;
+    /** Locks required by the query. */
+    final Locks locks;
+    /** Serialization parameters declared in the query (can be {@code null}). */
+    final SerializerOptions serParams;
+    /** Full-text options declared in the query (can be {@code null}). */
+    final FTOpt ftOpt;
+    /** Number of assigned variable IDs. */
+    final int varIDs;
+
+    /** Opened database of the database context (can be {@code null}). */
+    private final Data data;
+    /** Databases referenced by the plan. */
+    private final Data[] datas;
+    /** States of the databases. */
+    private final String[] states;
+    /** Imported module files. */
+    private final IOFile[] modules;
+    /** Timestamps of the imported module files. */
+    private final long[] stamps;
+
+    /** Number of queries that use the plan. */
+    private int users;
+    /** Indicates if the plan is cached. */
+    private boolean cached;
+    /** Indicates if the databases are pinned. */
+    private boolean pinned;
+
+    /**
+     * Constructor.
+     * @param qc compiled query context
+     * @param locks locks required by the query
+     * @param serParams serialization parameters declared in the query (can be {@code null})
+     * @param ftOpt full-text options declared in the query (can be {@code null})
+     * @param datas databases referenced by the plan
+     */
+    Plan(final QueryContext qc, final Locks locks, final SerializerOptions serParams,
+        final FTOpt ftOpt, final Data[] datas) {
+      root = qc.root;
+      funcs = qc.funcs;
+      vars = qc.vars;
+      varIDs = qc.varIDs;
+      this.locks = locks;
+      this.serParams = serParams;
+      this.ftOpt = ftOpt;
+      this.datas = datas;
+      data = qc.context.data();
+
+      final int dl = datas.length;
+      states = new String[dl];
+      for(int d = 0; d < dl; d++) states[d] = state(datas[d]);
+
+      final int ml = qc.modParsed.size();
+      modules = new IOFile[ml];
+      stamps = new long[ml];
+      int m = 0;
+      for(final byte[] path : qc.modParsed) {
+        final IOFile file = new IOFile(Token.string(path));
+        modules[m] = file;
+        stamps[m++] = file.timeStamp();
+      }
+    }
+
+    /**
+     * Checks if the plan can still be used for the specified database context.
+     * @param ctx database context
+     * @return result of check
+     */
+    private boolean valid(final Context ctx) {
+      if(ctx.data() != data || data != null && !ctx.root()) return false;
+      final int dl = datas.length;
+      for(int d = 0; d < dl; d++) {
+        if(datas[d].closed() || !states[d].equals(state(datas[d]))) return false;
+      }
+      final int ml = modules.length;
+      for(int m = 0; m < ml; m++) {
+        if(modules[m].timeStamp() != stamps[m]) return false;
+      }
+      return true;
+    }
+
+    /**
+     * Checks if the plan is affected by the specified write locks.
+     * @param writes write locks
+     * @return result of check
+     */
+    private boolean writes(final LockList writes) {
+      if(writes.global()) return true;
+      for(final String lock : writes) {
+        if(lock.startsWith(Locking.PREFIX)) return true;
+        for(final Data dt : datas) {
+          final String name = dt.meta.name;
+          if(Prop.CASE ? name.equals(lock) : name.equalsIgnoreCase(lock)) return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Returns a string representation of the state of a database.
+     * @param data data reference
+     * @return state
+     */
+    private static String state(final Data data) {
+      final MetaData meta = data.meta;
+      return new StringBuilder().append(meta.time).append(meta.ndocs).append(meta.uptodate).
+          append(meta.textindex).append(meta.attrindex).append(meta.tokenindex).
+          append(meta.ftindex).append(meta.trigramindex).toString();
+    }
+  }
+}
@@ -13,6 +13,7 @@ import org.basex.query.util.*;
 import org.basex.query.value.*;
 import org.basex.query.value.node.*;
 import org.basex.query.value.seq.*;
+import org.basex.util.*;
 
 /**
  * This class is an entry point for evaluating XQuery strings.
@@ -31,8 +32,14 @@ public final class QueryProcessor extends Job implements Closeable {
   public final QueryContext qc;
   /** Query. */
   private final String query;
+  /** Parsed query (can be {@code null}). */
+  private QueryTemplate template;
   /** Parsed flag. */
   private boolean parsed;
+  /** Compiled flag. */
+  private boolean compiled;
+  /** Flight recorder event for the evaluation ({@code null} if no event is recorded). */
+  private Object evaluate;
 
   /**
    * Default constructor.
@@ -62,21 +69,41 @@ public final class QueryProcessor extends Job implements Closeable {
    */
   public void parse() throws QueryException {
     if(parsed) return;
+    final Object event = FlightEvent.QUERY_PARSE.begin();
     try {
-      qc.parseMain(query, null, sc);
+      if(template != null) qc.parseMain(template);
+      else qc.parseMain(query, null, sc);
     } finally {
       parsed = true;
       updating = qc.updating;
+      FlightEvent.QUERY_PARSE.commit(event, FlightEvent.hash(query), 0);
     }
   }
 
+  /**
+   * Assigns a parsed query, which will be copied instead of parsing the query string.
+   * @param tmpl parsed query (can be {@code null})
+   * @return self reference
+   */
+  public QueryProcessor template(final QueryTemplate tmpl) {
+    template = tmpl;
+    return this;
+  }
+
   /**
    * Compiles the query.
    * @throws QueryException query exception
    */
   public void compile() throws QueryException {
     parse();
-    qc.compile();
+    if(compiled) return;
+    final Object event = FlightEvent.QUERY_COMPILE.begin();
+    try {
+      qc.compile();
+      compiled = true;
+    } finally {
+      FlightEvent.QUERY_COMPILE.commit(event, FlightEvent.hash(query), 0);
+    }
   }
 
   /**
@@ -86,7 +113,8 @@ public final class QueryProcessor extends Job implements Closeable {
    * @throws QueryException query exception
    */
   public Iter iter() throws QueryException {
-    parse();
+    compile();
+    evaluate();
     return qc.iter();
   }
 
@@ -108,7 +136,8 @@ public final class QueryProcessor extends Job implements Closeable {
    * @throws QueryException query exception
    */
   public Value cache(final int max) throws QueryException {
-    parse();
+    compile();
+    evaluate();
     return qc.cache(max);
   }
 
@@ -258,6 +287,16 @@ public final class QueryProcessor extends Job implements Closeable {
   @Override
   public void close() {
     qc.close();
+    FlightEvent.QUERY_EVALUATE.commit(evaluate, FlightEvent.hash(query), 0);
+    evaluate = null;
+  }
+
+  /**
+   * Starts the flight recorder event for the evaluation. The event will be committed when
+   * the processor is closed.
+   */
+  private void evaluate() {
+    if(evaluate == null) evaluate = FlightEvent.QUERY_EVALUATE.begin();
   }
 
   @Override
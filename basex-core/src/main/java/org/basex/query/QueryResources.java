@@ -98,6 +98,19 @@ public final class QueryResources {
     }
   }
 
+  /**
+   * Returns the databases that will be referenced by a cached query plan.
+   * @return databases, or {@code null} if the resources cannot be shared by other queries
+   */
+  Data[] plan() {
+    if(external != null || texts != null || stop != null || thes != null ||
+        modules != null && modules.java()) return null;
+    for(final Data data : datas) {
+      if(data.inMemory()) return null;
+    }
+    return datas.toArray(new Data[datas.size()]);
+  }
+
   /**
    * Returns the globally opened database.
    * @return database or {@code null} if no database is globally opened
@@ -0,0 +1,160 @@
+package org.basex.query;
+
+import static org.basex.util.Token.*;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.serial.*;
+import org.basex.query.expr.*;
+import org.basex.query.func.*;
+import org.basex.query.scope.*;
+import org.basex.query.var.*;
+import org.basex.util.hash.*;
+
+/**
+ * <p>Parsed main module, which can be evaluated several times without being parsed again.</p>
+ *
+ * <p>The query is parsed once in a separate query context. For each evaluation, the main
+ * expression, the functions and the variables are copied to the evaluating query, and the
+ * references of the copied expressions are bound to the declarations of the new query.
+ * External variables are bound to the copy, and the copy is compiled and evaluated as if
+ * it had been parsed. The parsed expressions are never compiled, so a template can be copied
+ * by several threads at a time.</p>
+ *
+ * <p>Queries that declare full-text options, database options, locks or a context value,
+ * and queries that depend on Java code or external resources, cannot be used as template.</p>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryTemplate {
+  /** Query string. */
+  final String query;
+  /** Parsed main module. */
+  private final MainModule root;
+  /** Declared functions. */
+  private final StaticFunc[] funcs;
+  /** Declared variables. */
+  private final ArrayList<StaticVar> vars = new ArrayList<>();
+  /** Serialization parameters declared in the query (can be {@code null}). */
+  private final SerializerOptions serParams;
+  /** Updating flag. */
+  private final boolean updating;
+  /** Mix updates flag. */
+  private final boolean mixUpdates;
+  /** Parsed modules, containing the file path and module uri. */
+  private final TokenMap modParsed = new TokenMap();
+  /** Parsed module files. */
+  private final IOFile[] files;
+  /** Timestamps of the parsed module files. */
+  private final long[] stamps;
+
+  /**
+   * Constructor.
+   * @param qc query context with the parsed query
+   */
+  private QueryTemplate(final QueryContext qc) {
+    query = qc.info.query;
+    root = qc.root;
+    funcs = qc.funcs.funcs();
+    for(final StaticVar var : qc.vars) vars.add(var);
+    serParams = qc.serParams != null ? new SerializerOptions(qc.serParams) : null;
+    updating = qc.updating;
+    mixUpdates = root.sc.mixUpdates;
+
+    final int ms = qc.modParsed.size();
+    files = new IOFile[ms];
+    stamps = new long[ms];
+    int m = 0;
+    for(final byte[] path : qc.modParsed) {
+      modParsed.put(path, qc.modParsed.get(path));
+      final IOFile file = new IOFile(string(path));
+      files[m] = file;
+      stamps[m++] = file.timeStamp();
+    }
+  }
+
+  /**
+   * Parses a main module.
+   * @param query query string
+   * @param ctx database context
+   * @return template, or {@code null} if the parsed query cannot be used as template
+   * @throws QueryException query exception
+   */
+  public static QueryTemplate parse(final String query, final Context ctx)
+      throws QueryException {
+    return parse(query, null, ctx);
+  }
+
+  /**
+   * Parses a main module.
+   * @param query query string
+   * @param uri base URI (can be {@code null})
+   * @param ctx database context
+   * @return template, or {@code null} if the parsed query cannot be used as template
+   * @throws QueryException query exception
+   */
+  static QueryTemplate parse(final String query, final String uri, final Context ctx)
+      throws QueryException {
+
+    try(QueryContext qc = new QueryContext(ctx)) {
+      qc.info.query = query;
+      qc.parseQuery(query, uri, null);
+      if(qc.ctxItem != null || qc.ftOpt != null || !qc.tempOpts.isEmpty() ||
+          qc.readLocks.size() != 0 || qc.writeLocks.size() != 0) return null;
+      final Data[] datas = qc.resources.plan();
+      if(datas == null || datas.length != 0) return null;
+      for(final byte[] path : qc.modParsed) {
+        if(!new IOFile(string(path)).exists()) return null;
+      }
+      return new QueryTemplate(qc);
+    }
+  }
+
+  /**
+   * Checks if the template can be copied to a query of the specified database context.
+   * Returns {@code false} if an imported module file has been modified.
+   * @param ctx database context
+   * @return result of check
+   */
+  public boolean valid(final Context ctx) {
+    if(ctx.options.get(MainOptions.MIXUPDATES) != mixUpdates) return false;
+    final int fl = files.length;
+    for(int f = 0; f < fl; f++) {
+      if(files[f].timeStamp() != stamps[f]) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Copies the parsed query to the specified query context.
+   * @param qc query context
+   * @return main module
+   * @throws QueryException query exception
+   */
+  MainModule copy(final QueryContext qc) throws QueryException {
+    for(final byte[] path : modParsed) qc.modParsed.put(path, modParsed.get(path));
+
+    final CompileContext cc = new CompileContext(qc, true);
+    for(final StaticVar var : vars) var.copy(cc);
+    for(final StaticFunc func : funcs) func.copy(cc);
+
+    final VarScope vs = new VarScope(root.sc);
+    cc.pushScope(vs);
+    final Expr expr;
+    try {
+      expr = root.expr.copy(cc, new IntObjMap<>());
+    } finally {
+      cc.removeScope();
+    }
+    qc.funcs.check(qc);
+    qc.vars.check();
+
+    if(serParams != null) qc.serParams = new SerializerOptions(serParams);
+    qc.updating = updating;
+    return new MainModule(vs, expr, null, null, null, null, null, null);
+  }
+}
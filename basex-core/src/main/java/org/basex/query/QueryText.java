@@ -419,6 +419,11 @@ public interface QueryText {
   /** Optimization info. */ String OPTNORESULTS_X = "no index results: %";
   /** Optimization info. */ String OPTCHILD_X = "convert to child steps: %";
   /** Optimization info. */ String OPTUNROLL_X = "unroll: %";
+  /** Optimization info. */ String OPTJOIN_X = "apply structural join: %";
+  /** Optimization info. */ String OPTHASHJOIN_X = "apply hash join: %";
+  /** Optimization info. */ String OPTTOPK_X_X = "sort top % tuples: %";
+  /** Optimization info. */ String OPTAGGR_X = "aggregate values of %";
+  /** Optimization info. */ String OPTPLAN = "adopt cached query plan";
 
   // MISCELLANEOUS ================================================================================
 
@@ -19,6 +19,8 @@ import org.basex.util.hash.*;
 public final class Arith extends Arr {
   /** Calculation operator. */
   private final Calc calc;
+  /** Type of the primitive values with which the result is computed (can be {@code null}). */
+  private Type primitive;
 
   /**
    * Constructor.
@@ -40,7 +42,9 @@ public final class Arith extends Arr {
     final boolean nums = type1.isNumberOrUntyped() && type2.isNumberOrUntyped();
     final Type type = calc == Calc.IDIV ? AtomType.ITR : nums ? Calc.type(type1, type2) :
       AtomType.AAT;
-    exprType.assign(type, st1.oneNoArray() && st2.oneNoArray() ? Occ.ONE : Occ.ZERO_ONE);
+    // division of integers yields a decimal
+    exprType.assign(calc == Calc.DIV && type == AtomType.ITR ? AtomType.DEC : type,
+        st1.oneNoArray() && st2.oneNoArray() ? Occ.ONE : Occ.ZERO_ONE);
 
     Expr expr = this;
     if(oneIsEmpty()) {
@@ -51,20 +55,84 @@ public final class Arith extends Arr {
       expr = calc.optimize(expr1, expr2);
       if(expr == null || !expr.seqType().type.eq(type)) expr = this;
     }
+    if(expr == this) primitive = primitive(st1, st2);
     return cc.replaceWith(this, expr);
   }
 
+  /**
+   * Returns the type of the primitive values with which the result can be computed.
+   * @param st1 sequence type of the first operand
+   * @param st2 sequence type of the second operand
+   * @return type or {@code null}
+   */
+  private Type primitive(final SeqType st1, final SeqType st2) {
+    final Type type = Calc.primitive(st1, st2);
+    return type == AtomType.ITR ? calc == Calc.DIV ? null : type :
+      type == AtomType.DBL && calc != Calc.IDIV ? type : null;
+  }
+
+  @Override
+  public long itr(final QueryContext qc, final InputInfo ii) throws QueryException {
+    return primitive == AtomType.ITR ?
+      calc.eval(exprs[0].itr(qc, info), exprs[1].itr(qc, info), info) : super.itr(qc, ii);
+  }
+
+  @Override
+  public double dbl(final QueryContext qc, final InputInfo ii) throws QueryException {
+    return primitive == AtomType.DBL ?
+      calc.eval(exprs[0].dbl(qc, info), exprs[1].dbl(qc, info), info) :
+      primitive == AtomType.ITR ? itr(qc, ii) : super.dbl(qc, ii);
+  }
+
   @Override
   public Item item(final QueryContext qc, final InputInfo ii) throws QueryException {
+    if(primitive == AtomType.ITR) return Int.get(itr(qc, ii));
+    if(primitive == AtomType.DBL) return Dbl.get(dbl(qc, ii));
+
     final Item item1 = exprs[0].atomItem(qc, info);
     if(item1 == null) return null;
     final Item item2 = exprs[1].atomItem(qc, info);
     return item2 == null ? null : calc.eval(item1, item2, info);
   }
 
+  /**
+   * Checks if the expression can be evaluated for batches of context items
+   * (see {@link #eval(Item[], int, QueryContext)}).
+   * @return result of check
+   */
+  boolean batch() {
+    final Expr expr1 = exprs[0], expr2 = exprs[1];
+    return expr1 instanceof ContextValue && expr2 instanceof Item ||
+        expr1 instanceof Item && expr2 instanceof ContextValue;
+  }
+
+  /**
+   * Evaluates the expression for a batch of context items. One operand must be the context
+   * value, and the other one must be an item. The array will be overwritten with the results.
+   * @param items context items
+   * @param size number of context items
+   * @param qc query context
+   * @return number of results
+   * @throws QueryException query exception
+   */
+  int eval(final Item[] items, final int size, final QueryContext qc) throws QueryException {
+    final boolean first = exprs[0] instanceof ContextValue;
+    final Item operand = exprs[first ? 1 : 0].atomItem(qc, info);
+    int c = 0;
+    for(int i = 0; i < size; i++) {
+      final Item item = items[i].atomItem(qc, info);
+      if(item != null) {
+        items[c++] = first ? calc.eval(item, operand, info) : calc.eval(operand, item, info);
+      }
+    }
+    return c;
+  }
+
   @Override
   public Arith copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return copyType(new Arith(info, exprs[0].copy(cc, vm), exprs[1].copy(cc, vm), calc));
+    final Arith arith = new Arith(info, exprs[0].copy(cc, vm), exprs[1].copy(cc, vm), calc);
+    arith.primitive = primitive;
+    return copyType(arith);
   }
 
   @Override
@@ -30,13 +30,8 @@ public enum Calc {
       if(num1) {
         // numbers or untyped values
         final Type type = type(type1, type2);
-        if(type == ITR) {
-          final long itr1 = item1.itr(info), itr2 = item2.itr(info);
-          if(itr2 > 0 ? itr1 > Long.MAX_VALUE - itr2 : itr1 < Long.MIN_VALUE - itr2)
-            throw RANGE_X.get(info, itr1 + " + " + itr2);
-          return Int.get(itr1 + itr2);
-        }
-        if(type == DBL) return Dbl.get(item1.dbl(info) + item2.dbl(info));
+        if(type == ITR) return Int.get(eval(item1.itr(info), item2.itr(info), info));
+        if(type == DBL) return Dbl.get(eval(item1.dbl(info), item2.dbl(info), info));
         if(type == FLT) return Flt.get(item1.flt(info) + item2.flt(info));
         return Dec.get(item1.dec(info).add(item2.dec(info)));
       }
@@ -78,13 +73,8 @@ public enum Calc {
       if(num1) {
         // numbers or untyped values
         final Type type = type(type1, type2);
-        if(type == ITR) {
-          final long itr1 = item1.itr(info), itr2 = item2.itr(info);
-          if(itr2 < 0 ? itr1 > Long.MAX_VALUE + itr2 : itr1 < Long.MIN_VALUE + itr2)
-            throw RANGE_X.get(info, itr1 + " - " + itr2);
-          return Int.get(itr1 - itr2);
-        }
-        if(type == DBL) return Dbl.get(item1.dbl(info) - item2.dbl(info));
+        if(type == ITR) return Int.get(eval(item1.itr(info), item2.itr(info), info));
+        if(type == DBL) return Dbl.get(eval(item1.dbl(info), item2.dbl(info), info));
         if(type == FLT) return Flt.get(item1.flt(info) - item2.flt(info));
         return Dec.get(item1.dec(info).subtract(item2.dec(info)));
       }
@@ -138,16 +128,8 @@ public enum Calc {
       if(num1 ^ num2) throw typeError(info, type1, type2);
       if(num1) {
         final Type type = type(type1, type2);
-        if(type == ITR) {
-          final long l1 = item1.itr(info);
-          final long l2 = item2.itr(info);
-          if(l2 > 0 ? l1 > Long.MAX_VALUE / l2 || l1 < Long.MIN_VALUE / l2
-                    : l2 < -1 ? l1 > Long.MIN_VALUE / l2 || l1 < Long.MAX_VALUE / l2
-                              : l2 == -1 && l1 == Long.MIN_VALUE)
-            throw RANGE_X.get(info, l1 + " * " + l2);
-          return Int.get(l1 * l2);
-        }
-        if(type == DBL) return Dbl.get(item1.dbl(info) * item2.dbl(info));
+        if(type == ITR) return Int.get(eval(item1.itr(info), item2.itr(info), info));
+        if(type == DBL) return Dbl.get(eval(item1.dbl(info), item2.dbl(info), info));
         if(type == FLT) return Flt.get(item1.flt(info) * item2.flt(info));
         return Dec.get(item1.dec(info).multiply(item2.dec(info)));
       }
@@ -196,7 +178,7 @@ public enum Calc {
 
       checkNum(info, item1, item2);
       final Type type = type(type1, type2);
-      if(type == DBL) return Dbl.get(item1.dbl(info) / item2.dbl(info));
+      if(type == DBL) return Dbl.get(eval(item1.dbl(info), item2.dbl(info), info));
       if(type == FLT) return Flt.get(item1.flt(info) / item2.flt(info));
 
       final BigDecimal dec1 = item1.dec(info), dec2 = item2.dec(info);
@@ -231,12 +213,7 @@ public enum Calc {
         return Int.get((long) dbl);
       }
 
-      if(type == ITR) {
-        final long itr1 = item1.itr(info), itr2 = item2.itr(info);
-        if(itr2 == 0) throw zeroError(info, item1);
-        if(itr1 == Integer.MIN_VALUE && itr2 == -1) throw RANGE_X.get(info, itr1 + " idiv " + itr2);
-        return Int.get(itr1 / itr2);
-      }
+      if(type == ITR) return Int.get(eval(item1.itr(info), item2.itr(info), info));
 
       final BigDecimal dec1 = item1.dec(info), dec2 = item2.dec(info);
       if(dec2.signum() == 0) throw zeroError(info, item1);
@@ -261,13 +238,9 @@ public enum Calc {
         throws QueryException {
       checkNum(info, item1, item2);
       final Type type = type(item1.type, item2.type);
-      if(type == DBL) return Dbl.get(item1.dbl(info) % item2.dbl(info));
+      if(type == DBL) return Dbl.get(eval(item1.dbl(info), item2.dbl(info), info));
       if(type == FLT) return Flt.get(item1.flt(info) % item2.flt(info));
-      if(type == ITR) {
-        final long itr1 = item1.itr(info), itr2 = item2.itr(info);
-        if(itr2 == 0) throw zeroError(info, item1);
-        return Int.get(itr1 % itr2);
-      }
+      if(type == ITR) return Int.get(eval(item1.itr(info), item2.itr(info), info));
 
       final BigDecimal dec1 = item1.dec(info), dec2 = item2.dec(info);
       if(dec2.signum() == 0) throw zeroError(info, item1);
@@ -307,6 +280,62 @@ public enum Calc {
    */
   public abstract Item eval(Item item1, Item item2, InputInfo info) throws QueryException;
 
+  /**
+   * Performs the calculation for two integers. Divisions are not supported, as their results
+   * are decimals.
+   * @param itr1 first integer
+   * @param itr2 second integer
+   * @param info input info
+   * @return result
+   * @throws QueryException query exception
+   */
+  public final long eval(final long itr1, final long itr2, final InputInfo info)
+      throws QueryException {
+    switch(this) {
+      case PLUS:
+        if(itr2 > 0 ? itr1 > Long.MAX_VALUE - itr2 : itr1 < Long.MIN_VALUE - itr2)
+          throw RANGE_X.get(info, itr1 + " + " + itr2);
+        return itr1 + itr2;
+      case MINUS:
+        if(itr2 < 0 ? itr1 > Long.MAX_VALUE + itr2 : itr1 < Long.MIN_VALUE + itr2)
+          throw RANGE_X.get(info, itr1 + " - " + itr2);
+        return itr1 - itr2;
+      case MULT:
+        if(itr2 > 0 ? itr1 > Long.MAX_VALUE / itr2 || itr1 < Long.MIN_VALUE / itr2
+                    : itr2 < -1 ? itr1 > Long.MIN_VALUE / itr2 || itr1 < Long.MAX_VALUE / itr2
+                                : itr2 == -1 && itr1 == Long.MIN_VALUE)
+          throw RANGE_X.get(info, itr1 + " * " + itr2);
+        return itr1 * itr2;
+      case IDIV:
+        if(itr2 == 0) throw zeroError(info, Int.get(itr1));
+        if(itr1 == Long.MIN_VALUE && itr2 == -1) throw RANGE_X.get(info, itr1 + " idiv " + itr2);
+        return itr1 / itr2;
+      case MOD:
+        if(itr2 == 0) throw zeroError(info, Int.get(itr1));
+        return itr1 % itr2;
+      default:
+        throw Util.notExpected();
+    }
+  }
+
+  /**
+   * Performs the calculation for two doubles. Integer divisions are not supported.
+   * @param dbl1 first double
+   * @param dbl2 second double
+   * @param info input info
+   * @return result
+   */
+  public final double eval(final double dbl1, final double dbl2, final InputInfo info) {
+    switch(this) {
+      case PLUS:  return dbl1 + dbl2;
+      case MINUS: return dbl1 - dbl2;
+      case MULT:  return dbl1 * dbl2;
+      case DIV:   return dbl1 / dbl2;
+      case MOD:   return dbl1 % dbl2;
+      default:    throw Util.notExpected();
+    }
+  }
+
   /**
    * Optimizes the expressions.
    * @param ex1 first expression
@@ -329,6 +358,30 @@ public enum Calc {
     return ITR;
   }
 
+  /**
+   * Returns the type of a primitive value that will be returned by an expression.
+   * @param st sequence type of the expression
+   * @return {@link AtomType#ITR} if the expression yields a single integer,
+   *   {@link AtomType#DBL} if it yields a single double, {@code null} otherwise
+   */
+  public static Type primitive(final SeqType st) {
+    if(!st.oneNoArray()) return null;
+    final Type type = st.type;
+    return type.instanceOf(ITR) ? ITR : type == DBL ? DBL : null;
+  }
+
+  /**
+   * Returns the type of the primitive values with which two operands can be processed.
+   * @param st1 sequence type of the first operand
+   * @param st2 sequence type of the second operand
+   * @return {@link AtomType#ITR} if both operands are single integers, {@link AtomType#DBL} if
+   *   both are single integers or doubles, and at least one is a double, {@code null} otherwise
+   */
+  public static Type primitive(final SeqType st1, final SeqType st2) {
+    final Type type1 = primitive(st1), type2 = primitive(st2);
+    return type1 == null || type2 == null ? null : type1 == ITR && type2 == ITR ? ITR : DBL;
+  }
+
   /**
    * Tries to rewrite the expression to {@code 0}.
    * @param expr expression
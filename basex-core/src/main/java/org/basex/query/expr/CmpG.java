@@ -177,14 +177,25 @@ public class CmpG extends Cmp {
       expr = new CmpSimpleG(expr1, expr2, op, coll, sc, info);
 
     // hash-based comparisons
-    if(expr == this && op == OpG.EQ && coll == null && (type1.isNumber() && type2.isNumber() ||
-        (type1.isStringOrUntyped() && type2.isStringOrUntyped())) && !st2.zeroOrOne())
+    if(expr == this && hashable() && !st2.zeroOrOne())
       expr = new CmpHashG(expr1, expr2, op, coll, sc, info);
 
     // pre-evaluate values or return expression
     return allAreValues(false) ? cc.preEval(expr) : cc.replaceWith(this, expr);
   }
 
+  /**
+   * Checks if the operands can be compared via hashing: the operator must be an equality
+   * operator, the default collation must be used, and the atomized items of both operands
+   * must be numbers or strings.
+   * @return result of check
+   */
+  public final boolean hashable() {
+    final Type type1 = exprs[0].seqType().type, type2 = exprs[1].seqType().type;
+    return op == OpG.EQ && coll == null && (type1.isNumber() && type2.isNumber() ||
+        type1.isStringOrUntyped() && type2.isStringOrUntyped());
+  }
+
   @Override
   public Expr optimizeEbv(final CompileContext cc) {
     // e.g.: exists(...) = true() -> exists(...)
@@ -221,23 +232,9 @@ public class CmpG extends Cmp {
     final boolean single1 = size1 == 1, single2 = size2 == 1;
     if(single1 && single2) return Bln.get(eval(ir1.next(), ir2.next()));
 
-    if(single1) {
-      // first iterator yields single result
-      final Item item1 = ir1.next();
-      for(Item item2; (item2 = qc.next(ir2)) != null;) {
-        if(eval(item1, item2)) return Bln.TRUE;
-      }
-      return Bln.FALSE;
-    }
-
-    if(single2) {
-      // second iterator yields single result
-      final Item item2 = ir2.next();
-      for(Item item1; (item1 = qc.next(ir1)) != null;) {
-        if(eval(item1, item2)) return Bln.TRUE;
-      }
-      return Bln.FALSE;
-    }
+    // compare single item with batches of the other iterator
+    if(single1) return Bln.get(compare(ir1.next(), ir2, size2, false, qc));
+    if(single2) return Bln.get(compare(ir2.next(), ir1, size1, true, qc));
 
     // swap iterators if first iterator returns more results than second
     final boolean swap = size1 > size2;
@@ -259,6 +256,30 @@ public class CmpG extends Cmp {
 
   }
 
+  /**
+   * Compares a single item with the items of an iterator, which are requested in batches.
+   * @param item single item
+   * @param iter iterator
+   * @param size size of the iterator (can be {@code -1})
+   * @param swap swap operands (single item is the second operand)
+   * @param qc query context
+   * @return result of check
+   * @throws QueryException query exception
+   */
+  private boolean compare(final Item item, final Iter iter, final long size, final boolean swap,
+      final QueryContext qc) throws QueryException {
+
+    final Item[] items = new Item[size == -1 ? Iter.BATCH : (int) Math.min(size, Iter.BATCH)];
+    int n;
+    do {
+      n = qc.next(iter, items);
+      for(int i = 0; i < n; i++) {
+        if(swap ? eval(items[i], item) : eval(item, items[i])) return true;
+      }
+    } while(n == items.length);
+    return false;
+  }
+
   /**
    * Compares a single item.
    * @param item1 first item to be compared
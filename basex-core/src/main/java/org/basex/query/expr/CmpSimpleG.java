@@ -3,6 +3,7 @@ package org.basex.query.expr;
 import org.basex.query.*;
 import org.basex.query.util.collation.*;
 import org.basex.query.value.item.*;
+import org.basex.query.value.type.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
@@ -14,6 +15,9 @@ import org.basex.util.hash.*;
  * @author Christian Gruen
  */
 public final class CmpSimpleG extends CmpG {
+  /** Type of the primitive values with which the operands are compared (can be {@code null}). */
+  private final Type primitive;
+
   /**
    * Constructor.
    * @param expr1 first expression
@@ -26,10 +30,16 @@ public final class CmpSimpleG extends CmpG {
   public CmpSimpleG(final Expr expr1, final Expr expr2, final OpG op, final Collation coll,
       final StaticContext sc, final InputInfo info) {
     super(expr1, expr2, op, coll, sc, info);
+    primitive = Calc.primitive(expr1.seqType(), expr2.seqType());
   }
 
   @Override
   public Bln item(final QueryContext qc, final InputInfo ii) throws QueryException {
+    if(primitive == AtomType.ITR)
+      return Bln.get(op.op.eval(exprs[0].itr(qc, info), exprs[1].itr(qc, info)));
+    if(primitive == AtomType.DBL)
+      return Bln.get(op.op.eval(exprs[0].dbl(qc, info), exprs[1].dbl(qc, info)));
+
     final Item item1 = exprs[0].item(qc, info);
     if(item1 == null) return Bln.FALSE;
     final Item item2 = exprs[1].item(qc, info);
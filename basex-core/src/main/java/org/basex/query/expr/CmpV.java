@@ -130,6 +130,41 @@ public final class CmpV extends Cmp {
     public abstract boolean eval(Item item1, Item item2, Collation coll, StaticContext sc,
         InputInfo info) throws QueryException;
 
+    /**
+     * Compares two integers.
+     * @param itr1 first integer
+     * @param itr2 second integer
+     * @return result
+     */
+    public final boolean eval(final long itr1, final long itr2) {
+      switch(this) {
+        case LE: return itr1 <= itr2;
+        case LT: return itr1 < itr2;
+        case GE: return itr1 >= itr2;
+        case GT: return itr1 > itr2;
+        case EQ: return itr1 == itr2;
+        default: return itr1 != itr2;
+      }
+    }
+
+    /**
+     * Compares two doubles. If one of the values is {@code NaN}, only the
+     * {@link #NE} comparison will be successful.
+     * @param dbl1 first double
+     * @param dbl2 second double
+     * @return result
+     */
+    public final boolean eval(final double dbl1, final double dbl2) {
+      switch(this) {
+        case LE: return dbl1 <= dbl2;
+        case LT: return dbl1 < dbl2;
+        case GE: return dbl1 >= dbl2;
+        case GT: return dbl1 > dbl2;
+        case EQ: return dbl1 == dbl2;
+        default: return dbl1 != dbl2;
+      }
+    }
+
     /**
      * Swaps the comparator.
      * @return swapped comparator
@@ -144,6 +144,33 @@ public abstract class Expr extends ExprInfo {
    */
   public abstract Value atomValue(QueryContext qc, InputInfo ii) throws QueryException;
 
+  /**
+   * Evaluates the expression and returns the resulting integer. This method must only be
+   * called if the expression yields a single integer (see {@link Calc#primitive(SeqType)}).
+   * It may be overwritten by expressions that can compute their result without creating items.
+   * @param qc query context
+   * @param ii input info (only required by {@link Seq} instances, which have no input info)
+   * @return integer
+   * @throws QueryException query exception
+   */
+  public long itr(final QueryContext qc, final InputInfo ii) throws QueryException {
+    return item(qc, ii).itr(ii);
+  }
+
+  /**
+   * Evaluates the expression and returns the resulting double. This method must only be
+   * called if the expression yields a single integer or double
+   * (see {@link Calc#primitive(SeqType)}).
+   * It may be overwritten by expressions that can compute their result without creating items.
+   * @param qc query context
+   * @param ii input info (only required by {@link Seq} instances, which have no input info)
+   * @return double
+   * @throws QueryException query exception
+   */
+  public double dbl(final QueryContext qc, final InputInfo ii) throws QueryException {
+    return item(qc, ii).dbl(ii);
+  }
+
   /**
    * <p>Checks if the effective boolean value can be computed for this expression:</p>
    * <ul>
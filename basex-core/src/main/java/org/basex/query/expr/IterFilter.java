@@ -28,17 +28,50 @@ public final class IterFilter extends Filter {
   public Iter iter(final QueryContext qc) {
     return new Iter() {
       Iter iter;
+      /** Input items requested in batches (assigned by the first batch request). */
+      Item[] batch;
+      int pos, size;
+      boolean done;
 
       @Override
       public Item next() throws QueryException {
         // first call - initialize iterator
         if(iter == null) iter = root.iter(qc);
-        // filter sequence
-        for(Item item; (item = qc.next(iter)) != null;) {
+        // filter remaining items of the last batch
+        while(pos < size) {
+          final Item item = batch[pos++];
           if(preds(item, qc)) return item;
         }
+        // filter sequence
+        if(!done) {
+          for(Item item; (item = qc.next(iter)) != null;) {
+            if(preds(item, qc)) return item;
+          }
+          done = true;
+        }
         return null;
       }
+
+      @Override
+      public int next(final Item[] items) throws QueryException {
+        if(iter == null) iter = root.iter(qc);
+        if(batch == null) batch = new Item[items.length];
+        // filter batches of the input sequence
+        final int il = items.length;
+        int c = 0;
+        while(c < il) {
+          if(pos == size) {
+            if(done) break;
+            size = qc.next(iter, batch);
+            pos = 0;
+            done = size < batch.length;
+          } else {
+            final Item item = batch[pos++];
+            if(preds(item, qc)) items[c++] = item;
+          }
+        }
+        return c;
+      }
     };
   }
 
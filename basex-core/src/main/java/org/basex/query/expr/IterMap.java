@@ -26,6 +26,48 @@ public final class IterMap extends SimpleMap {
 
   @Override
   public Iter iter(final QueryContext qc) {
+    // arithmetic operation with the context value: evaluate batches of context items
+    final Expr last = exprs[exprs.length - 1];
+    if(exprs.length == 2 && last instanceof Arith && ((Arith) last).batch()) {
+      final Arith arith = (Arith) last;
+      return new Iter() {
+        final Item[] batch = new Item[BATCH];
+        Iter iter;
+        int pos, size;
+        boolean done;
+
+        @Override
+        public Item next() throws QueryException {
+          return pos < size || fill() ? batch[pos++] : null;
+        }
+
+        @Override
+        public int next(final Item[] items) throws QueryException {
+          final int il = items.length;
+          int c = 0;
+          while(c < il && (pos < size || fill())) {
+            final int n = Math.min(il - c, size - pos);
+            System.arraycopy(batch, pos, items, c, n);
+            pos += n;
+            c += n;
+          }
+          return c;
+        }
+
+        private boolean fill() throws QueryException {
+          if(iter == null) iter = exprs[0].iter(qc);
+          while(!done) {
+            final int n = qc.next(iter, batch);
+            done = n < BATCH;
+            size = arith.eval(batch, n, qc);
+            pos = 0;
+            if(size > 0) return true;
+          }
+          return false;
+        }
+      };
+    }
+
     return new Iter() {
       QueryFocus focus;
       Value[] values;
@@ -37,26 +79,46 @@ public final class IterMap extends SimpleMap {
         final QueryFocus qf = qc.focus;
         if(iter == null) init(qf);
         qc.focus = focus;
+        try {
+          return item();
+        } finally {
+          qc.focus = qf;
+        }
+      }
 
+      @Override
+      public int next(final Item[] items) throws QueryException {
+        // assign focus once per batch
+        final QueryFocus qf = qc.focus;
+        if(iter == null) init(qf);
+        qc.focus = focus;
         try {
-          do {
-            focus.value = values[pos];
-            final Item item = qc.next(iter[pos]);
-            if(item == null) {
-              if(--pos == -1) return null;
-            } else if(pos < sz - 1) {
-              focus.value = item;
-              values[++pos] = item;
-              iter[pos] = exprs[pos].iter(qc);
-            } else {
-              return item;
-            }
-          } while(true);
+          final int il = items.length;
+          int i = 0;
+          for(Item item; i < il && (item = item()) != null;) items[i++] = item;
+          return i;
         } finally {
           qc.focus = qf;
         }
       }
 
+      private Item item() throws QueryException {
+        while(pos != -1) {
+          focus.value = values[pos];
+          final Item item = qc.next(iter[pos]);
+          if(item == null) {
+            pos--;
+          } else if(pos < sz - 1) {
+            focus.value = item;
+            values[++pos] = item;
+            iter[pos] = exprs[pos].iter(qc);
+          } else {
+            return item;
+          }
+        }
+        return null;
+      }
+
       private void init(final QueryFocus qf) throws QueryException {
         sz = exprs.length;
         iter = new Iter[sz];
@@ -43,17 +43,17 @@ public final class CElem extends CName {
 
   @Override
   public Expr compile(final CompileContext cc) throws QueryException {
-    final int s = addNS();
+    final int s = addNS(cc.qc);
     try {
       return super.compile(cc);
     } finally {
-      sc.ns.size(s);
+      sc.ns.size(s, cc.qc);
     }
   }
 
   @Override
   public FElem item(final QueryContext qc, final InputInfo ii) throws QueryException {
-    final int s = addNS();
+    final int s = addNS(qc);
     try {
       // adds in-scope namespaces
       final Atts ns = new Atts();
@@ -71,12 +71,12 @@ public final class CElem extends CName {
       // analyze element namespace unless it is "xml"
       if(!eq(cp, XML)) {
         // request namespace for the specified uri
-        final byte[] uri = sc.ns.uri(cp);
+        final byte[] uri = sc.ns.uri(cp, qc);
 
         // check if element has a namespace
         if(nm.hasURI()) {
           // add to statically known namespaces
-          if(!comp && (uri == null || !eq(uri, cu))) sc.ns.add(cp, cu);
+          if(!comp && (uri == null || !eq(uri, cu))) sc.ns.push(cp, cu, qc);
           // add to in-scope namespaces
           if(!ns.contains(cp)) ns.add(cp, cu);
         } else {
@@ -130,7 +130,7 @@ public final class CElem extends CName {
       return node.optimize();
 
     } finally {
-      sc.ns.size(s);
+      sc.ns.size(s, qc);
     }
   }
 
@@ -184,12 +184,13 @@ public final class CElem extends CName {
 
   /**
    * Adds namespaces to the namespace stack.
+   * @param qc query context
    * @return old position in namespace stack
    */
-  private int addNS() {
+  private int addNS(final QueryContext qc) {
     final NSContext ns = sc.ns;
-    final int size = ns.size(), nl = nspaces.size();
-    for(int n = 0; n < nl; n++) ns.add(nspaces.name(n), nspaces.value(n));
+    final int size = ns.size(qc), nl = nspaces.size();
+    for(int n = 0; n < nl; n++) ns.push(nspaces.name(n), nspaces.value(n), qc);
     return size;
   }
 }
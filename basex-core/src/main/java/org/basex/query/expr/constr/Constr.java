@@ -62,7 +62,7 @@ public final class Constr {
    * @throws QueryException query exception
    */
   public Constr add(final QueryContext qc, final Expr... exprs) throws QueryException {
-    final int size = sc.ns.size();
+    final int size = sc.ns.size(qc);
     try {
       for(final Expr expr : exprs) {
         more = false;
@@ -72,7 +72,7 @@ public final class Constr {
       if(!text.isEmpty()) children.add(new FTxt(text.toArray()));
       return this;
     } finally {
-      sc.ns.size(size);
+      sc.ns.size(size, qc);
     }
   }
 
@@ -123,7 +123,7 @@ public final class Constr {
         // add attribute
         atts.add(new FAttr(name, node.string()));
         // add new namespace
-        if(name.hasURI()) sc.ns.add(name.prefix(), name.uri());
+        if(name.hasURI()) sc.ns.push(name.prefix(), name.uri(), qc);
 
       } else if(type == NodeType.NSP) {
         // type: namespace node
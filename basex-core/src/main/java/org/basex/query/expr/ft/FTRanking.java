@@ -0,0 +1,221 @@
+package org.basex.query.expr.ft;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.ft.*;
+import org.basex.index.query.*;
+import org.basex.query.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.ft.*;
+import org.basex.query.value.*;
+import org.basex.query.value.node.*;
+import org.basex.util.*;
+import org.basex.util.ft.*;
+import org.basex.util.list.*;
+
+/**
+ * Relevance ranking of full-text index results (BM25). Scores are computed from the
+ * statistics of the full-text index: the number of indexed text nodes, the number of tokens
+ * of each text node, and the number of text nodes that contain a query token.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class FTRanking {
+  /** Comparator for ranked nodes (nodes with lower scores and higher pre values first). */
+  private static final Comparator<FTNode> COMPARATOR = (node1, node2) -> {
+    final int c = Double.compare(node1.score(), node2.score());
+    return c != 0 ? c : node2.pre() - node1.pre();
+  };
+
+  /** Data reference. */
+  private final Data data;
+  /** Full-text index (can be {@code null} if no statistics are available). */
+  private final FTIndex index;
+  /** Number of indexed text nodes. */
+  private final int nodes;
+  /** Query positions of the registered tokens. */
+  private final IntList positions = new IntList();
+  /** Inverse document frequencies of the registered tokens. */
+  private double[] idfs = new double[Array.CAPACITY];
+
+  /**
+   * Constructor.
+   * @param data data reference
+   */
+  public FTRanking(final Data data) {
+    this.data = data;
+    final Index ix = data.index(IndexType.FULLTEXT);
+    index = ix instanceof FTIndex && ((FTIndex) ix).nodes() > 0 ? (FTIndex) ix : null;
+    nodes = index != null ? index.nodes() : data.meta.size;
+  }
+
+  /**
+   * Registers a query token.
+   * @param pos query position of the token
+   * @param iter index iterator
+   */
+  void add(final int pos, final FTIndexIterator iter) {
+    final int ps = positions.size();
+    if(ps == idfs.length) idfs = Arrays.copyOf(idfs, Array.newSize(ps));
+    idfs[ps] = Scoring.idf(iter.nodes(), nodes);
+    positions.add(pos);
+  }
+
+  /**
+   * Computes the score of a text node.
+   * @param matches full-text matches
+   * @param pre pre value of the text node
+   * @return score
+   */
+  double score(final FTMatches matches, final int pre) {
+    final int length = length(pre);
+    double score = 0;
+    final int ps = positions.size();
+    for(int p = 0; p < ps; p++) {
+      // count distinct occurrences of the query token
+      final IntList starts = new IntList();
+      final int pos = positions.get(p);
+      for(final FTMatch match : matches) {
+        for(final FTStringMatch sm : match) {
+          if(sm.pos == pos && !sm.exclude) starts.add(sm.start);
+        }
+      }
+      final int freq = starts.sort().distinct().size();
+      if(freq > 0) score += Scoring.bm25(freq, idfs[p], length, average());
+    }
+    return score;
+  }
+
+  /**
+   * Returns the nodes with the highest scores, sorted by their score.
+   * All nodes of the specified iterator will be scored.
+   * @param iter full-text iterator
+   * @param k maximum number of results
+   * @param qc query context
+   * @return nodes
+   * @throws QueryException query exception
+   */
+  public static Value top(final FTIter iter, final int k, final QueryContext qc)
+      throws QueryException {
+    final MinHeap<FTNode, FTNode> heap = new MinHeap<>(COMPARATOR);
+    for(FTNode node; (node = (FTNode) qc.next(iter)) != null;) {
+      // compute score before matches are discarded
+      node.score();
+      if(qc.ftPosData != null) qc.ftPosData.add(node.data(), node.pre(), node.matches());
+      node.matches(null);
+      heap.insert(node, node);
+      if(heap.size() > k) heap.removeMin();
+    }
+    final ValueBuilder vb = new ValueBuilder(qc);
+    while(!heap.isEmpty()) vb.addFront(heap.removeMin());
+    return vb.value();
+  }
+
+  /**
+   * Returns the nodes with the highest scores, sorted by their score.
+   * The index iterators of the single query tokens are merged (disjunction), and only nodes
+   * will be scored that can still be ranked among the best results (MaxScore): tokens are
+   * sorted by their maximum score. As soon as the maximum scores of the first tokens add up
+   * to less than the lowest score of the current results, these tokens will only be used
+   * for scoring nodes that are returned by the remaining tokens.
+   * @param iters index iterators
+   * @param k maximum number of results
+   * @param qc query context
+   * @return nodes
+   */
+  public Value top(final FTIndexIterator[] iters, final int k, final QueryContext qc) {
+    // sort iterators by maximum scores, compute accumulated maximum scores
+    final int il = iters.length;
+    final double[] idf = new double[il], max = new double[il];
+    for(int i = 0; i < il; i++) {
+      idf[i] = Scoring.idf(iters[i].nodes(), nodes);
+      max[i] = Scoring.bm25Max(idf[i]);
+    }
+    final int[] order = Array.createOrder(max.clone(), true);
+    final double[] bounds = new double[il];
+    for(int o = 0; o < il; o++) bounds[o] = (o == 0 ? 0 : bounds[o - 1]) + max[order[o]];
+
+    // current pre values of the iterators
+    final int[] pres = new int[il];
+    for(int i = 0; i < il; i++) pres[i] = next(iters[i]);
+
+    final MinHeap<FTNode, FTNode> heap = new MinHeap<>(COMPARATOR);
+    // lowest score of the current results, index of the first essential token
+    double min = -1;
+    int first = 0;
+    final boolean pos = qc.ftPosData != null;
+    while(true) {
+      qc.checkStop();
+      // choose smallest pre value of all essential tokens
+      int pre = Integer.MAX_VALUE;
+      for(int o = first; o < il; o++) pre = Math.min(pre, pres[order[o]]);
+      if(pre == Integer.MAX_VALUE) break;
+
+      final int length = length(pre);
+      final FTMatches matches = pos ? new FTMatches() : null;
+      double score = 0;
+      for(int o = il - 1; o >= 0; o--) {
+        // skip non-essential tokens if the node cannot be ranked anymore
+        if(o < first && score + bounds[o] <= min) break;
+        final int i = order[o];
+        final FTIndexIterator iter = iters[i];
+        while(pres[i] < pre) pres[i] = next(iter);
+        if(pres[i] == pre) {
+          score += Scoring.bm25(iter.matches().size(), idf[i], length, average());
+          if(pos) for(final FTMatch match : iter.matches()) matches.add(match);
+          pres[i] = next(iter);
+        }
+      }
+
+      if(heap.size() < k || score > min) {
+        final FTNode node = new FTNode(matches, data, pre, 0, 0, score);
+        heap.insert(node, node);
+        if(heap.size() > k) heap.removeMin();
+        if(heap.size() == k) {
+          // update lowest score and essential tokens
+          min = heap.minValue().score();
+          while(first < il && bounds[first] <= min) first++;
+        }
+      }
+    }
+
+    final ValueBuilder vb = new ValueBuilder(qc);
+    while(!heap.isEmpty()) {
+      final FTNode node = heap.removeMin();
+      if(pos) qc.ftPosData.add(data, node.pre(), node.matches());
+      node.matches(null);
+      vb.addFront(node);
+    }
+    return vb.value();
+  }
+
+  /**
+   * Returns the pre value of the next index result.
+   * @param iter index iterator
+   * @return pre value or {@link Integer#MAX_VALUE}
+   */
+  private static int next(final FTIndexIterator iter) {
+    return iter.more() ? iter.pre() : Integer.MAX_VALUE;
+  }
+
+  /**
+   * Returns the number of tokens of a text node.
+   * @param pre pre value
+   * @return number of tokens, or average number if the number is unknown
+   */
+  private int length(final int pre) {
+    final int length = index != null ? index.length(pre) : -1;
+    return length != -1 ? length : (int) average();
+  }
+
+  /**
+   * Returns the average number of tokens of all text nodes.
+   * @return average number of tokens
+   */
+  private double average() {
+    return index != null ? index.average() : 1;
+  }
+}
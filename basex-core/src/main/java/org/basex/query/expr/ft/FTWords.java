@@ -48,6 +48,8 @@ public final class FTWords extends FTExpr {
   private TokenList tokens;
   /** Full-text options. */
   private FTOpt ftOpt;
+  /** Relevance ranking (can be {@code null}). */
+  private FTRanking ranking;
 
   /** Thread-safe full-text tokenizer. */
   private final ThreadLocal<FTTokenizer> caches = new ThreadLocal<>();
@@ -117,6 +119,16 @@ public final class FTWords extends FTExpr {
     return this;
   }
 
+  /**
+   * Assigns a relevance ranking for index-based evaluation.
+   * @param rnk ranking
+   * @return self reference
+   */
+  public FTWords ranking(final FTRanking rnk) {
+    ranking = rnk;
+    return this;
+  }
+
   @Override
   public FTNode item(final QueryContext qc, final InputInfo ii) throws QueryException {
     final FTTokenizer ftt = get(qc);
@@ -162,6 +174,7 @@ public final class FTWords extends FTExpr {
                 final FTIndexIterator iter = lexer.get().length > data.meta.maxlen ?
                   scan(lexer, ftt, data) : (FTIndexIterator) data.iter(lexer);
                 iter.pos(++qc.ftPos);
+                if(ranking != null) ranking.add(qc.ftPos, iter);
                 if(ii == null) {
                   ii = iter;
                 } else {
@@ -188,12 +201,43 @@ public final class FTWords extends FTExpr {
             }
           }
         }
-        return ftiter == null || !ftiter.more() ? null :
-          new FTNode(ftiter.matches(), data, ftiter.pre(), len, ftiter.size(), -1);
+        if(ftiter == null || !ftiter.more()) return null;
+        final FTMatches matches = ftiter.matches();
+        final int pre = ftiter.pre();
+        return new FTNode(matches, data, pre, len, ftiter.size(),
+            ranking != null ? ranking.score(matches, pre) : -1);
       }
     };
   }
 
+  /**
+   * Returns index iterators for the single query tokens, which will be combined as disjunction.
+   * @param qc query context
+   * @return iterators, or {@code null} if the query cannot be evaluated token by token
+   * @throws QueryException query exception
+   */
+  public FTIndexIterator[] iterators(final QueryContext qc) throws QueryException {
+    if(mode != FTMode.ANY && mode != FTMode.ANY_WORD || occ != null ||
+        ftOpt.is(FZ) || ftOpt.is(WC)) return null;
+
+    final Data data = db.data(qc, IndexType.FULLTEXT);
+    final FTLexer lexer = new FTLexer(ftOpt);
+    final ArrayList<FTIndexIterator> list = new ArrayList<>();
+    for(final byte[] txt : unique(tokens != null ? tokens : tokens(qc))) {
+      lexer.init(txt);
+      if(!lexer.hasNext()) continue;
+      final byte[] tok = lexer.nextToken();
+      // stop words and long tokens are not supported
+      if(ftOpt.sw != null && ftOpt.sw.contains(tok) || tok.length > data.meta.maxlen) return null;
+      final FTIndexIterator iter = (FTIndexIterator) data.iter(lexer);
+      // phrases are not supported
+      if(lexer.hasNext()) return null;
+      iter.pos(++qc.ftPos);
+      list.add(iter);
+    }
+    return list.toArray(new FTIndexIterator[list.size()]);
+  }
+
   /**
    * Returns a scan-based index iterator.
    * @param lexer lexer, including the queried value
@@ -0,0 +1,97 @@
+package org.basex.query.expr.gflwor;
+
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.CmpV.*;
+import org.basex.query.func.*;
+import org.basex.query.func.fn.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+
+/**
+ * Values of a non-grouping variable of a group. Values are either collected, or
+ * aggregated with {@code count}, {@code sum}, {@code avg}, {@code min} or {@code max}.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+final class Aggregate {
+  /** Aggregate function (without arguments; {@code null}: collect values). */
+  private final StandardFunc func;
+  /** Collected values (can be {@code null}). */
+  private final ValueBuilder vb;
+  /** Current result of the aggregate function (can be {@code null}). */
+  private Item item;
+  /** Type of the first aggregated item (can be {@code null}). */
+  private Type type;
+  /** Number of aggregated items. */
+  private long count;
+
+  /**
+   * Constructor.
+   * @param func aggregate function (without arguments; {@code null}: collect values)
+   * @param qc query context
+   */
+  Aggregate(final StandardFunc func, final QueryContext qc) {
+    this.func = func;
+    vb = func == null ? new ValueBuilder(qc) : null;
+  }
+
+  /**
+   * Prepares the value of a tuple for aggregation.
+   * @param func aggregate function (without arguments; {@code null}: collect values)
+   * @param value value
+   * @param qc query context
+   * @param info input info
+   * @return value to be added: original value, number of items, or atomized value
+   * @throws QueryException query exception
+   */
+  static Value prepare(final StandardFunc func, final Value value, final QueryContext qc,
+      final InputInfo info) throws QueryException {
+    return func == null ? value : func.sig == Function.COUNT ? Int.get(value.size()) :
+      value.atomValue(qc, info);
+  }
+
+  /**
+   * Adds a prepared value.
+   * @param value value
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  void add(final Value value, final QueryContext qc) throws QueryException {
+    if(func == null) {
+      vb.add(value);
+    } else if(func.sig == Function.COUNT) {
+      count += ((Int) value).itr();
+    } else if(func.sig == Function.SUM || func.sig == Function.AVG) {
+      for(final Item it : value) {
+        qc.checkStop();
+        item = ((FnSum) func).add(item, it);
+        count++;
+      }
+    } else {
+      final OpV cmp = func.sig == Function.MIN ? OpV.GT : OpV.LT;
+      for(final Item it : value) {
+        qc.checkStop();
+        if(type == null) type = it.type;
+        item = ((FnMin) func).minmax(item, it, type, cmp, func.sc.collation, qc);
+      }
+    }
+  }
+
+  /**
+   * Returns the resulting value.
+   * @param info input info
+   * @return value
+   * @throws QueryException query exception
+   */
+  Value value(final InputInfo info) throws QueryException {
+    if(func == null) return vb.value();
+    if(func.sig == Function.COUNT) return Int.get(count);
+    if(item == null) return func.sig == Function.SUM ? Int.ZERO : Empty.SEQ;
+    return func.sig == Function.AVG ? Calc.DIV.eval(item, Int.get(count), info) : item;
+  }
+}
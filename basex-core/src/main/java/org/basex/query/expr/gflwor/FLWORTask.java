@@ -0,0 +1,78 @@
+package org.basex.query.expr.gflwor;
+
+import java.util.concurrent.*;
+
+import org.basex.query.*;
+import org.basex.query.value.*;
+
+/**
+ * Evaluates a range of iterations of a FLWOR expression. Large ranges are split and
+ * evaluated in parallel, and the results are joined in their original order.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+final class FLWORTask extends RecursiveTask<Value> {
+  /** Serial version UID. */
+  private static final long serialVersionUID = 1L;
+
+  /** FLWOR expression. */
+  private final GFLWOR flwor;
+  /** Input of the first clause. */
+  private final Value input;
+  /** First iteration. */
+  private final long start;
+  /** Last iteration (exclusive). */
+  private final long end;
+  /** Maximum number of iterations evaluated by a single task. */
+  private final long chunk;
+  /** Query context. */
+  private final QueryContext qc;
+
+  /**
+   * Constructor.
+   * @param flwor FLWOR expression
+   * @param input input of the first clause
+   * @param start first iteration
+   * @param end last iteration (exclusive)
+   * @param chunk maximum number of iterations evaluated by a single task
+   * @param qc query context
+   */
+  FLWORTask(final GFLWOR flwor, final Value input, final long start, final long end,
+      final long chunk, final QueryContext qc) {
+    this.flwor = flwor;
+    this.input = input;
+    this.start = start;
+    this.end = end;
+    this.chunk = chunk;
+    this.qc = qc;
+  }
+
+  @Override
+  protected Value compute() {
+    final long s = start, e = end;
+    if(e - s <= chunk) {
+      // perform the work with a separate stack and focus
+      QueryContext wqc = null;
+      try {
+        wqc = qc.worker();
+        final ValueBuilder vb = new ValueBuilder(wqc);
+        flwor.value(input, s, e, vb, wqc);
+        return vb.value();
+      } catch(final QueryException ex) {
+        completeExceptionally(ex);
+        cancel(true);
+        return null;
+      } finally {
+        if(wqc != null) wqc.close();
+      }
+    }
+
+    // split the work and join the results in the correct order
+    final long m = s + (e - s) / 2;
+    final FLWORTask task2 = new FLWORTask(flwor, input, m, e, chunk, qc);
+    task2.fork();
+    final FLWORTask task1 = new FLWORTask(flwor, input, s, m, chunk, qc);
+    return new ValueBuilder(qc).add(task1.invoke()).add(task2.join()).value();
+  }
+}
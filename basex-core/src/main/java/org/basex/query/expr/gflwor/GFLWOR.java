@@ -1,7 +1,11 @@
 package org.basex.query.expr.gflwor;
 
 import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
 
+import org.basex.core.*;
+import org.basex.core.jobs.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.path.*;
@@ -52,6 +56,86 @@ public final class GFLWOR extends ParseExpr {
     return eval;
   }
 
+  /**
+   * Returns the degree of parallelism that will be used for evaluating the expression.
+   * The iterations are split into four tasks per degree, which are evaluated by the shared
+   * worker threads (see {@link JobPool}). The number of threads is limited by the pool.
+   * Iterations are evaluated in parallel if {@link MainOptions#FORKJOIN} has been enabled
+   * (by default, parallel evaluation is disabled),
+   * if the first clause is a {@code for} clause, which is only followed by {@code for},
+   * {@code let} and {@code where} clauses, and if the expression is deterministic and
+   * non-updating. Nested expressions will be evaluated sequentially.
+   * @param qc query context
+   * @return degree of parallelism (values smaller than 2: sequential evaluation)
+   */
+  private int threads(final QueryContext qc) {
+    final int threads = qc.context.options.get(MainOptions.FORKJOIN);
+    if(threads < 2 || ForkJoinTask.inForkJoinPool()) return 0;
+
+    final Clause first = clauses.getFirst();
+    if(!(first instanceof For) || ((For) first).score != null || ((For) first).empty) return 0;
+    for(final Clause clause : clauses) {
+      if(!(clause instanceof For || clause instanceof Let || clause instanceof Where)) return 0;
+    }
+    return has(Flag.NDT, Flag.UPD) ? 0 : threads;
+  }
+
+  /**
+   * Evaluates the iterations of the first {@code for} clause in parallel.
+   * The results are returned in their original order.
+   * @param threads degree of parallelism
+   * @param qc query context
+   * @return resulting value
+   * @throws QueryException query exception
+   */
+  private Value parallel(final int threads, final QueryContext qc) throws QueryException {
+    final Value input = ((For) clauses.getFirst()).expr.value(qc);
+    final long size = input.size();
+    if(size < 2) {
+      final ValueBuilder vb = new ValueBuilder(qc);
+      value(input, 0, size, vb, qc);
+      return vb.value();
+    }
+
+    final int tasks = Math.min(threads, qc.context.jobs.parallelism()) * 4;
+    final long chunk = Math.max(1, size / tasks);
+    try {
+      return qc.context.jobs.invoke(new FLWORTask(this, input, 0, size, chunk, qc));
+    } catch(final Exception ex) {
+      // pass on query and job exceptions
+      final Throwable e = Util.rootException(ex);
+      if(e instanceof QueryException) throw (QueryException) e;
+      if(e instanceof JobException) throw (JobException) e;
+      if(e instanceof RuntimeException) throw (RuntimeException) e;
+      if(e instanceof Error) throw (Error) e;
+      throw Util.notExpected(e);
+    }
+  }
+
+  /**
+   * Evaluates the specified iterations of the first {@code for} clause.
+   * @param input input of the first clause
+   * @param start first iteration
+   * @param end last iteration (exclusive)
+   * @param vb value builder
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  void value(final Value input, final long start, final long end, final ValueBuilder vb,
+      final QueryContext qc) throws QueryException {
+
+    final For fr = (For) clauses.getFirst();
+    final List<Clause> rest = clauses.subList(1, clauses.size());
+    for(long i = start; i < end; i++) {
+      qc.checkStop();
+      qc.set(fr.var, input.itemAt(i));
+      if(fr.pos != null) qc.set(fr.pos, Int.get(i + 1));
+      Eval eval = new StartEval();
+      for(final Clause clause : rest) eval = clause.eval(eval);
+      while(eval.next(qc)) vb.add(ret.value(qc));
+    }
+  }
+
   @Override
   public Item item(final QueryContext qc, final InputInfo ii) throws QueryException {
     Item out = null;
@@ -65,8 +149,43 @@ public final class GFLWOR extends ParseExpr {
     return out;
   }
 
+  /**
+   * Returns the type of the primitive values that are returned by the return expression
+   * (see {@link Calc#primitive(SeqType)}).
+   * @param qc query context
+   * @return {@link AtomType#ITR} or {@link AtomType#DBL}, or {@code null} if the return
+   *   expression yields other values or if the iterations will be evaluated in parallel
+   */
+  public Type primitive(final QueryContext qc) {
+    final Type type = ret.seqType().type;
+    return Calc.primitive(ret.seqType()) == type && threads(qc) < 2 ? type : null;
+  }
+
+  /**
+   * Computes the sum of all results without creating items for the single values.
+   * The type of the results must be known (see {@link #primitive(QueryContext)}).
+   * @param qc query context
+   * @return sum, or {@code null} if no tuples are generated
+   * @throws QueryException query exception
+   */
+  public Item sum(final QueryContext qc) throws QueryException {
+    final Eval eval = newEval();
+    if(!eval.next(qc)) return null;
+    if(ret.seqType().type == AtomType.ITR) {
+      long sum = ret.itr(qc, info);
+      while(eval.next(qc)) sum = Calc.PLUS.eval(sum, ret.itr(qc, info), info);
+      return Int.get(sum);
+    }
+    double sum = ret.dbl(qc, info);
+    while(eval.next(qc)) sum += ret.dbl(qc, info);
+    return Dbl.get(sum);
+  }
+
   @Override
   public Value value(final QueryContext qc) throws QueryException {
+    final int threads = threads(qc);
+    if(threads > 1) return parallel(threads, qc);
+
     final Eval eval = newEval();
     final ValueBuilder vb = new ValueBuilder(qc);
     while(eval.next(qc)) vb.add(ret.value(qc));
@@ -75,6 +194,17 @@ public final class GFLWOR extends ParseExpr {
 
   @Override
   public Iter iter(final QueryContext qc) {
+    final int threads = threads(qc);
+    if(threads > 1) return new Iter() {
+      private Iter iter;
+
+      @Override
+      public Item next() throws QueryException {
+        if(iter == null) iter = parallel(threads, qc).iter();
+        return iter.next();
+      }
+    };
+
     return new Iter() {
       private final Eval ev = newEval();
       private Iter sub = Empty.ITER;
@@ -128,8 +258,10 @@ public final class GFLWOR extends ParseExpr {
     // the other optimizations are applied until nothing changes anymore
     boolean changed;
     do {
+      // compute aggregated values of post-grouping variables in group by clauses
+      changed = aggregate(cc);
       // rewrite singleton for clauses to let
-      changed = forToLet(cc);
+      changed |= forToLet(cc);
       // slide let clauses out to avoid repeated evaluation
       changed |= slideLetsOut(cc);
       // inline let expressions if they are used only once (and not in a loop)
@@ -228,10 +360,18 @@ public final class GFLWOR extends ParseExpr {
        *   for $y in 1 to 4 count $c return $c */
     } while(changed);
 
+    // rewrite nested loops with equality predicates to hash joins
+    hashJoins(cc);
     mergeWheres();
 
     calcSize();
 
+    // reset limits of order by clauses that are not followed by appropriate clauses anymore
+    final OrderBy top = lastOrderBy();
+    for(final Clause clause : clauses) {
+      if(clause instanceof OrderBy && clause != top) ((OrderBy) clause).limit = Long.MAX_VALUE;
+    }
+
     final long size = size();
     if(size != -1 && !has(Flag.NDT)) {
       if(size == 0) return cc.emptySeq(this);
@@ -290,6 +430,50 @@ public final class GFLWOR extends ParseExpr {
     exprType.assign(ret.seqType().type, minMax);
   }
 
+  /**
+   * Computes the results of aggregate functions, which are applied to post-grouping variables,
+   * in the group by clause. This way, the values of the variables need not be cached.
+   * Example: {@code group by $k := $e/@type let $c := count($e)}
+   * @param cc compilation context
+   * @return change flag
+   * @throws QueryException query exception
+   */
+  private boolean aggregate(final CompileContext cc) throws QueryException {
+    final int cs = clauses.size();
+    for(int c = 0; c < cs; c++) {
+      final Clause clause = clauses.get(c);
+      if(!(clause instanceof GroupBy)) continue;
+
+      GroupBy group = (GroupBy) clause;
+      for(final Var var : group.post()) {
+        // consider let clauses that directly follow the group by clause
+        final ArrayList<Let> lets = new ArrayList<>();
+        boolean other = ret.count(var) != VarUsage.NEVER, leading = true;
+        for(int l = c + 1; l < cs && !other; l++) {
+          final Clause cl = clauses.get(l);
+          leading &= cl instanceof Let;
+          if(leading && GroupBy.aggregate((Let) cl, var)) {
+            lets.add((Let) cl);
+          } else {
+            other = cl.count(var) != VarUsage.NEVER;
+          }
+        }
+        if(other || lets.isEmpty()) continue;
+
+        cc.info(QueryText.OPTAGGR_X, var);
+        group = group.aggregate(var, lets, cc);
+        clauses.set(c, group);
+        for(final Let let : lets) {
+          for(final Iterator<Clause> iter = clauses.iterator(); iter.hasNext();) {
+            if(iter.next() == let) iter.remove();
+          }
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Tries to convert for clauses that iterate over a single item into let bindings.
    * @param cc compilation context
@@ -637,6 +821,67 @@ public final class GFLWOR extends ParseExpr {
     return changed;
   }
 
+  /**
+   * Rewrites for clauses with equality predicates to hash joins.
+   * Example: {@code for $o in //order for $c in //customer[@id = $o/@cid]}
+   * @param cc compilation context
+   * @throws QueryException query exception
+   */
+  private void hashJoins(final CompileContext cc) throws QueryException {
+    // variables that may change from tuple to tuple
+    final ArrayList<Var> vars = new ArrayList<>();
+    boolean loop = false;
+    final ListIterator<Clause> iter = clauses.listIterator();
+    while(iter.hasNext()) {
+      final Clause clause = iter.next();
+      // join is only beneficial if the clause is evaluated for multiple tuples
+      if(loop && clause instanceof For) {
+        final Join join = Join.get((For) clause, vars, cc);
+        if(join != null) {
+          cc.info(QueryText.OPTHASHJOIN_X, join);
+          iter.set(join);
+        }
+      }
+      loop |= clause instanceof For || clause instanceof Window || clause instanceof Join;
+      // variables bound before the first loop are constant
+      if(loop) Collections.addAll(vars, clause.vars());
+    }
+  }
+
+  /**
+   * Limits the number of tuples that are returned by the last order by clause.
+   * Example: {@code (for $i in E order by $i return $i)[position() <= 10]}
+   * @param max maximum number of requested results
+   * @param cc compilation context
+   */
+  public void limit(final long max, final CompileContext cc) {
+    final OrderBy ob = lastOrderBy();
+    if(ob != null && max < ob.limit) {
+      cc.info(QueryText.OPTTOPK_X_X, max, ob);
+      ob.limit = max;
+    }
+  }
+
+  /**
+   * Returns the last order by clause if each of its tuples will yield at least one result.
+   * @return order by clause or {@code null}
+   */
+  private OrderBy lastOrderBy() {
+    if(!ret.seqType().oneOrMore()) return null;
+    final Iterator<Clause> iter = clauses.descendingIterator();
+    while(iter.hasNext()) {
+      final Clause clause = iter.next();
+      if(clause instanceof OrderBy) return (OrderBy) clause;
+      if(clause instanceof For) {
+        final For fr = (For) clause;
+        if(!fr.empty && !fr.expr.seqType().oneOrMore()) return null;
+      } else if(!(clause instanceof Let || clause instanceof Count)) {
+        return null;
+      }
+    }
+    return null;
+  }
+
   /**
    * Merges consecutive {@code where} clauses.
    */
@@ -765,7 +1010,8 @@ public final class GFLWOR extends ParseExpr {
     // check if an outer clause can prevent the error
     while(iter.hasPrevious()) {
       final Clause b4 = iter.previous();
-      if(b4 instanceof For || b4 instanceof Window || b4 instanceof Where) {
+      if(b4 instanceof For || b4 instanceof Window || b4 instanceof Where ||
+          b4 instanceof Join) {
         iter.next();
         while(iter.hasNext()) {
           iter.next();
@@ -1,6 +1,5 @@
 package org.basex.query.expr.gflwor;
 
-import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 
 /**
@@ -13,7 +12,7 @@ final class Group {
   /** Grouping key, may contain {@code null} values. */
   final Item[] key;
   /** Non-grouping variables. */
-  final ValueBuilder[] ngv;
+  final Aggregate[] ngv;
   /** Overflow list. */
   Group next;
 
@@ -22,7 +21,7 @@ final class Group {
    * @param k grouping key
    * @param ng non-grouping variables
    */
-  Group(final Item[] k, final ValueBuilder[] ng) {
+  Group(final Item[] k, final Aggregate[] ng) {
     key = k;
     ngv = ng;
   }
@@ -1,12 +1,20 @@
 package org.basex.query.expr.gflwor;
 
+import static org.basex.query.QueryError.*;
 import static org.basex.query.QueryText.*;
 
+import java.io.*;
 import java.util.*;
+import java.util.List;
 
+import org.basex.core.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.gflwor.GFLWOR.*;
+import org.basex.query.func.*;
 import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
 import org.basex.query.value.*;
@@ -25,12 +33,21 @@ import org.basex.util.hash.*;
  * @author Leo Woerteler
  */
 public final class GroupBy extends Clause {
+  /** Number of bits of the hash values used for partitioning spilled tuples. */
+  private static final int PARTBITS = 4;
+  /** Number of partitions. */
+  private static final int PARTITIONS = 1 << PARTBITS;
+  /** Maximum partitioning level (no more tuples will be spilled at this level). */
+  private static final int MAXLEVEL = Integer.SIZE / PARTBITS;
+
   /** Grouping specs. */
   private final GroupSpec[] specs;
   /** Non-grouping variable expressions. */
   private Expr[] preExpr;
   /** Non-grouping variables. */
   private Var[] post;
+  /** Aggregate functions for non-grouping variables ({@code null} entries: collect values). */
+  private StandardFunc[] aggrs;
   /** Number of non-occluded grouping variables. */
   private final int nonOcc;
 
@@ -48,6 +65,7 @@ public final class GroupBy extends Clause {
     this.specs = specs;
     this.post = post;
     preExpr = Array.copy(pre, new Expr[pre.length]);
+    aggrs = new StandardFunc[pre.length];
     int n = 0;
     for(final GroupSpec spec : specs) if(!spec.occluded) n++;
     nonOcc = n;
@@ -58,15 +76,17 @@ public final class GroupBy extends Clause {
    * @param specs grouping specs
    * @param pre pre-grouping expressions
    * @param post post-grouping variables
+   * @param aggrs aggregate functions
    * @param nonOcc number of non-occluded grouping variables
    * @param info input info
    */
-  private GroupBy(final GroupSpec[] specs, final Expr[] pre, final Var[] post, final int nonOcc,
-      final InputInfo info) {
+  private GroupBy(final GroupSpec[] specs, final Expr[] pre, final Var[] post,
+      final StandardFunc[] aggrs, final int nonOcc, final InputInfo info) {
     super(info, SeqType.ITEM_ZM, vars(specs, post));
     this.specs = specs;
     preExpr = pre;
     this.post = post;
+    this.aggrs = aggrs;
     this.nonOcc = nonOcc;
   }
 
@@ -91,11 +111,23 @@ public final class GroupBy extends Clause {
       private Group[] groups;
       /** Current position. */
       private int pos;
+      /** Partitions with spilled tuples, which remain to be grouped. */
+      private final ArrayDeque<Partition> partitions = new ArrayDeque<>();
+      /** Temporary files (assigned when the first tuple is spilled). */
+      private TupleFiles store;
 
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
-        if(groups == null) groups = init(qc);
-        if(pos == groups.length) return false;
+        while(groups == null || pos == groups.length) {
+          if(groups == null) {
+            groups = init(null, qc);
+          } else {
+            final Partition part = partitions.poll();
+            if(part == null) return false;
+            groups = init(part, qc);
+          }
+          pos = 0;
+        }
 
         final Group curr = groups[pos];
         // be nice to the garbage collector
@@ -109,16 +141,20 @@ public final class GroupBy extends Clause {
           }
         }
         final int pl = post.length;
-        for(int i = 0; i < pl; i++) qc.set(post[i], curr.ngv[i].value());
+        for(int i = 0; i < pl; i++) qc.set(post[i], curr.ngv[i].value(info));
         return true;
       }
 
       /**
-       * Builds up the groups.
+       * Builds up the groups. If the number of groups exceeds the limit specified by
+       * {@link MainOptions#GROUPLIMIT}, the tuples of new groups are spilled to partitions,
+       * which will be grouped later on.
+       * @param part partition to be grouped ({@code null}: group incoming tuples)
        * @param qc query context
+       * @return groups
        * @throws QueryException query exception
        */
-      private Group[] init(final QueryContext qc) throws QueryException {
+      private Group[] init(final Partition part, final QueryContext qc) throws QueryException {
         final ArrayList<Group> grps = new ArrayList<>();
         final IntObjMap<Group> map = new IntObjMap<>();
         final Collation[] colls = new Collation[nonOcc];
@@ -127,53 +163,103 @@ public final class GroupBy extends Clause {
           if(!spec.occluded) colls[c++] = spec.coll;
         }
 
-        while(sub.next(qc)) {
-          final Item[] key = new Item[nonOcc];
-          int p = 0, hash = 1;
-          for(final GroupSpec spec : specs) {
-            final Item atom = spec.atomItem(qc, info);
-            if(!spec.occluded) {
-              key[p++] = atom;
-              // If the values are compared using a special collation, we let them collide
-              // here and let the comparison do all the work later.
-              // This enables other non-collation specs to avoid the collision.
-              hash = 31 * hash + (atom == null || spec.coll != null ? 0 : atom.hash(info));
+        // spill tuples to new partitions if the limit is exceeded
+        final int level = part != null ? part.level : 0;
+        final int limit = level < MAXLEVEL ? qc.context.options.get(MainOptions.GROUPLIMIT) : 0;
+        final Partition[] parts = new Partition[PARTITIONS];
+
+        final int pl = preExpr.length;
+        try(DataInput in = part != null ? new DataInput(part.file) : null) {
+          for(int t = 0;; t++) {
+            final Item[] key = new Item[nonOcc];
+            final Value[] values = new Value[pl];
+            int hash = 1;
+            if(part == null) {
+              if(!sub.next(qc)) break;
+              int p = 0;
+              for(final GroupSpec spec : specs) {
+                final Item atom = spec.atomItem(qc, info);
+                if(!spec.occluded) {
+                  key[p++] = atom;
+                  // If the values are compared using a special collation, we let them collide
+                  // here and let the comparison do all the work later.
+                  // This enables other non-collation specs to avoid the collision.
+                  hash = 31 * hash + (atom == null || spec.coll != null ? 0 : atom.hash(info));
+                }
+                qc.set(spec.var, atom == null ? Empty.SEQ : atom);
+              }
+              for(int g = 0; g < pl; g++) {
+                values[g] = Aggregate.prepare(aggrs[g], preExpr[g].value(qc), qc, info);
+              }
+            } else {
+              if(t == part.size) break;
+              qc.checkStop();
+              final Value[] tuple = store.read(in);
+              for(int k = 0; k < nonOcc; k++) {
+                final Item atom = (Item) tuple[k];
+                key[k] = atom;
+                hash = 31 * hash + (atom == null || colls[k] != null ? 0 : atom.hash(info));
+              }
+              System.arraycopy(tuple, nonOcc, values, 0, pl);
             }
-            qc.set(spec.var, atom == null ? Empty.SEQ : atom);
-          }
 
-          // find the group for this key
-          final Group fst;
-          Group grp = null;
-          // no collations, so we can use hashing
-          for(Group g = fst = map.get(hash); g != null; g = g.next) {
-            if(eq(key, g.key, colls)) {
-              grp = g;
-              break;
+            // find the group for this key
+            final Group fst;
+            Group grp = null;
+            // no collations, so we can use hashing
+            for(Group g = fst = map.get(hash); g != null; g = g.next) {
+              if(eq(key, g.key, colls)) {
+                grp = g;
+                break;
+              }
             }
-          }
 
-          final int pl = preExpr.length;
-          if(grp == null) {
-            // new group, add it to the list
-            final ValueBuilder[] ngs = new ValueBuilder[pl];
-            final int nl = ngs.length;
-            for(int n = 0; n < nl; n++) ngs[n] = new ValueBuilder(qc);
-            grp = new Group(key, ngs);
-            grps.add(grp);
-
-            // insert the group into the hash table
-            if(fst == null) {
-              map.put(hash, grp);
-            } else {
-              final Group nxt = fst.next;
-              fst.next = grp;
-              grp.next = nxt;
+            if(grp == null) {
+              if(limit > 0 && grps.size() >= limit) {
+                // limit is exceeded: spill tuple to partition
+                final int p = hash >>> level * PARTBITS & PARTITIONS - 1;
+                if(parts[p] == null) {
+                  if(store == null) store = new TupleFiles(qc, info);
+                  parts[p] = new Partition(store.create(), level + 1);
+                }
+                final Value[] tuple = new Value[nonOcc + pl];
+                System.arraycopy(key, 0, tuple, 0, nonOcc);
+                System.arraycopy(values, 0, tuple, nonOcc, pl);
+                parts[p].add(tuple, store);
+                continue;
+              }
+
+              // new group, add it to the list
+              final Aggregate[] ngs = new Aggregate[pl];
+              for(int n = 0; n < pl; n++) ngs[n] = new Aggregate(aggrs[n], qc);
+              grp = new Group(key, ngs);
+              grps.add(grp);
+
+              // insert the group into the hash table
+              if(fst == null) {
+                map.put(hash, grp);
+              } else {
+                final Group nxt = fst.next;
+                fst.next = grp;
+                grp.next = nxt;
+              }
             }
+
+            // add values of non-grouping variables to the group
+            for(int g = 0; g < pl; g++) grp.ngv[g].add(values[g], qc);
+          }
+        } catch(final IOException ex) {
+          throw IOERR_X.get(info, ex);
+        } finally {
+          for(final Partition p : parts) {
+            if(p != null) p.close();
           }
+        }
 
-          // add values of non-grouping variables to the group
-          for(int g = 0; g < pl; g++) grp.ngv[g].add(preExpr[g].value(qc));
+        // remove grouped partition, register new partitions
+        if(part != null) part.file.delete();
+        for(final Partition p : parts) {
+          if(p != null) partitions.add(p);
         }
 
         // we're finished, copy the array so the list can be garbage-collected
@@ -182,6 +268,62 @@ public final class GroupBy extends Clause {
     };
   }
 
+  /**
+   * Returns a clause in which the specified non-grouping variable is replaced by variables that
+   * are bound to the results of aggregate functions.
+   * @param var non-grouping variable
+   * @param lets let clauses, which bind the results of aggregate functions
+   *   (see {@link #aggregate(Let, Var)})
+   * @param cc compilation context
+   * @return new clause
+   * @throws QueryException query exception
+   */
+  GroupBy aggregate(final Var var, final List<Let> lets, final CompileContext cc)
+      throws QueryException {
+
+    int p = post.length;
+    while(!post[--p].is(var));
+    final Expr expr = preExpr[p];
+    Expr[] pre = Array.delete(preExpr, p);
+    Var[] ps = Array.delete(post, p);
+    StandardFunc[] as = Array.delete(aggrs, p);
+    boolean first = true;
+    for(final Let let : lets) {
+      final StandardFunc func = (StandardFunc) let.expr;
+      // pre-grouping expression will be evaluated once per aggregate function
+      pre = Array.add(pre, first ? expr : expr.copy(cc, new IntObjMap<>()));
+      first = false;
+      ps = Array.add(ps, let.var);
+      as = Array.add(as, func.sig.get(func.sc, func.info));
+    }
+    return new GroupBy(specs, pre, ps, as, nonOcc, info).optimize(cc);
+  }
+
+  /**
+   * Checks if the specified let clause binds the result of an aggregate function,
+   * the argument of which is the specified variable.
+   * Example: {@code let $c := count($var)}
+   * @param let let clause
+   * @param var variable
+   * @return result of check
+   */
+  static boolean aggregate(final Let let, final Var var) {
+    if(let.scoring || let.var.checksType() || !(let.expr instanceof StandardFunc)) return false;
+    final StandardFunc func = (StandardFunc) let.expr;
+    final Function sig = func.sig;
+    return (sig == Function.COUNT || sig == Function.SUM || sig == Function.AVG ||
+      sig == Function.MIN || sig == Function.MAX) && func.exprs.length == 1 &&
+      func.exprs[0] instanceof VarRef && ((VarRef) func.exprs[0]).var.is(var);
+  }
+
+  /**
+   * Returns the non-grouping variables.
+   * @return variables
+   */
+  Var[] post() {
+    return post;
+  }
+
   /**
    * Checks two keys for equality.
    * @param its1 first keys
@@ -219,8 +361,12 @@ public final class GroupBy extends Clause {
   public GroupBy optimize(final CompileContext cc) throws QueryException {
     final int pl = preExpr.length;
     for(int p = 0; p < pl; p++) {
-      final SeqType it = preExpr[p].seqType();
-      post[p].refineType(it.with(it.occ.union(Occ.ONE_MORE)), cc);
+      if(aggrs[p] != null) {
+        post[p].refineType(aggrs[p].seqType(), cc);
+      } else {
+        final SeqType it = preExpr[p].seqType();
+        post[p].refineType(it.with(it.occ.union(Occ.ONE_MORE)), cc);
+      }
     }
     SeqType st = null;
     for(final GroupSpec spec : specs) {
@@ -259,7 +405,7 @@ public final class GroupBy extends Clause {
     for(int p = 0; p < pl; p++) ps[p] = cc.copy(post[p], vm);
 
     // done
-    return new GroupBy(Arr.copyAll(cc, vm, specs), pEx, ps, nonOcc, info);
+    return new GroupBy(Arr.copyAll(cc, vm, specs), pEx, ps, aggrs.clone(), nonOcc, info);
   }
 
   @Override
@@ -277,6 +423,7 @@ public final class GroupBy extends Clause {
     for(int p = 0; p < post.length; p++) {
       if(!used.get(post[p].id)) {
         preExpr = Array.delete(preExpr, p);
+        aggrs = Array.delete(aggrs, p);
         post = Array.delete(post, p--);
       }
     }
@@ -313,13 +460,17 @@ public final class GroupBy extends Clause {
     if(!(obj instanceof GroupBy)) return false;
     final GroupBy g = (GroupBy) obj;
     return Array.equals(specs, g.specs) && Array.equals(preExpr, g.preExpr) &&
-        Array.equals(post, g.post);
+        Array.equals(post, g.post) && Array.equals(aggrs, g.aggrs);
   }
 
   @Override
   public void plan(final FElem plan) {
     final FElem elem = planElem();
     for(final GroupSpec spec : specs) spec.plan(elem);
+    // aggregate functions that are computed by the clause
+    for(final StandardFunc aggr : aggrs) {
+      if(aggr != null) aggr.plan(elem);
+    }
     plan.add(elem);
   }
 
@@ -328,12 +479,68 @@ public final class GroupBy extends Clause {
     final StringBuilder sb = new StringBuilder();
     final int pl = post.length;
     for(int p = 0; p < pl; p++) {
-      sb.append(LET).append(" (: post-group :) ").append(post[p]);
-      sb.append(' ').append(ASSIGN).append(' ').append(preExpr[p]).append(' ');
+      sb.append(LET).append(" (: post-group :) ").append(post[p]).append(' ').append(ASSIGN);
+      sb.append(' ');
+      if(aggrs[p] != null) {
+        sb.append(Token.string(aggrs[p].sig.local())).append('(').append(preExpr[p]).append(')');
+      } else {
+        sb.append(preExpr[p]);
+      }
+      sb.append(' ');
     }
     sb.append(GROUP).append(' ').append(BY);
     final int sl = specs.length;
     for(int s = 0; s < sl; s++) sb.append(s == 0 ? " " : SEP).append(specs[s]);
     return sb.toString();
   }
+
+  /** Partition with spilled tuples. */
+  private static final class Partition {
+    /** File. */
+    private final IOFile file;
+    /** Partitioning level. */
+    private final int level;
+    /** Output stream ({@code null} after the partition has been closed). */
+    private DataOutput out;
+    /** Number of tuples. */
+    private int size;
+
+    /**
+     * Constructor.
+     * @param file file
+     * @param level partitioning level
+     * @throws IOException I/O exception
+     */
+    private Partition(final IOFile file, final int level) throws IOException {
+      this.file = file;
+      this.level = level;
+      out = new DataOutput(file);
+    }
+
+    /**
+     * Adds a tuple.
+     * @param tuple tuple
+     * @param store temporary files
+     * @throws IOException I/O exception
+     * @throws QueryException query exception
+     */
+    private void add(final Value[] tuple, final TupleFiles store)
+        throws IOException, QueryException {
+      store.write(tuple, out);
+      size++;
+    }
+
+    /**
+     * Closes the output stream.
+     */
+    private void close() {
+      if(out == null) return;
+      try {
+        out.close();
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+      out = null;
+    }
+  }
 }
@@ -0,0 +1,356 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryText.*;
+
+import java.util.*;
+import java.util.List;
+
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.GFLWOR.*;
+import org.basex.query.expr.path.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.util.hash.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * FLWOR {@code for} clause, which is evaluated as hash join.
+ *
+ * The clause results from a {@code for} clause that iterates over a path or filter expression
+ * with an equality predicate. One operand of the predicate ({@link #key}) is evaluated with
+ * the items of the input as context; the other one ({@link #probe}) depends on the preceding
+ * clauses. Instead of evaluating the input and the predicate for each incoming tuple, the input
+ * is evaluated once, and its items are stored in a hash table, with the atomized keys as
+ * hash keys. For each incoming tuple, the atomized probe values are looked up in the table,
+ * and the matching items are bound in their original order.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class Join extends Clause {
+  /** Item variable. */
+  private final Var var;
+  /** Input expression (independent of the preceding clauses). */
+  private Expr expr;
+  /** Key expression (evaluated with the input items as context). */
+  private Expr key;
+  /** Probe expression (evaluated for each incoming tuple). */
+  private Expr probe;
+
+  /**
+   * Constructor.
+   * @param var item variable
+   * @param expr input expression
+   * @param key key expression
+   * @param probe probe expression
+   */
+  private Join(final Var var, final Expr expr, final Expr key, final Expr probe) {
+    super(var.info, SeqType.ITEM_O, var);
+    this.var = var;
+    this.expr = expr;
+    this.key = key;
+    this.probe = probe;
+  }
+
+  /**
+   * Tries to rewrite the specified for clause to a hash join.
+   * @param fr for clause
+   * @param vars variables declared by the preceding clauses
+   * @param cc compilation context
+   * @return join clause or {@code null}
+   * @throws QueryException query exception
+   */
+  static Join get(final For fr, final List<Var> vars, final CompileContext cc)
+      throws QueryException {
+
+    if(fr.empty || fr.pos != null || fr.score != null) return null;
+
+    // retrieve predicates of filter or last step of path
+    final Expr ex = fr.expr;
+    final Expr[] preds;
+    if(ex instanceof Filter) {
+      preds = ((Filter) ex).exprs;
+    } else if(ex instanceof Path) {
+      final Expr[] steps = ((Path) ex).steps;
+      final Expr step = steps[steps.length - 1];
+      if(!(step instanceof Step)) return null;
+      preds = ((Step) step).exprs;
+    } else {
+      return null;
+    }
+
+    // find equality comparison that can be hashed. predicates can only be swapped
+    // if they are not positional: stop at the last positional predicate
+    for(int p = preds.length - 1; p >= 0 && !Preds.positional(new Expr[] { preds[p] }); p--) {
+      final Expr pred = preds[p];
+      if(!(pred instanceof CmpG) || pred.has(Flag.NDT) || !((CmpG) pred).hashable()) continue;
+
+      // choose operand that will be hashed: it must not depend on the tuples,
+      // whereas the other operand must not depend on the context
+      final Expr[] ops = ((CmpG) pred).exprs;
+      final int o = independent(ops[0], vars) && !ops[1].has(Flag.CTX) ? 0 :
+        independent(ops[1], vars) && !ops[0].has(Flag.CTX) ? 1 : -1;
+      if(o == -1) continue;
+
+      // remaining input must not depend on the tuples
+      final Expr input = input(ex, Array.delete(preds, p));
+      if(input.has(Flag.NDT, Flag.CNS) || !independent(input, vars)) continue;
+      return new Join(fr.var, input.optimize(cc), ops[o], ops[1 - o]).optimize(cc);
+    }
+    return null;
+  }
+
+  /**
+   * Returns the specified filter or path expression with new predicates.
+   * @param ex filter or path expression
+   * @param preds predicates of the filter or the last step of the path
+   * @return new expression
+   */
+  private static Expr input(final Expr ex, final Expr[] preds) {
+    if(ex instanceof Filter) {
+      final Filter filter = (Filter) ex;
+      return Filter.get(filter.info, filter.root, preds);
+    }
+    final Path path = (Path) ex;
+    final Expr[] steps = path.steps.clone();
+    final int sl = steps.length - 1;
+    final Step step = (Step) steps[sl];
+    steps[sl] = Step.get(step.info, step.axis, step.test, preds);
+    return Path.get(path.info, path.root, steps);
+  }
+
+  /**
+   * Checks if the specified expression does not reference any of the specified variables.
+   * @param ex expression
+   * @param vars variables
+   * @return result of check
+   */
+  private static boolean independent(final Expr ex, final List<Var> vars) {
+    for(final Var v : vars) {
+      if(ex.count(v) != VarUsage.NEVER) return false;
+    }
+    return true;
+  }
+
+  @Override
+  Eval eval(final Eval sub) {
+    return new Eval() {
+      /** Input items (assigned when the first tuple is processed). */
+      private Value value;
+      /** Hashed keys. */
+      private HashItemSet keys;
+      /** Positions of the input items, indexed by the ids of the hashed keys. */
+      private ArrayList<IntList> positions;
+      /** Positions of the items matching the current tuple. */
+      private IntList matches;
+      /** Current match. */
+      private int m;
+
+      @Override
+      public boolean next(final QueryContext qc) throws QueryException {
+        while(true) {
+          if(matches != null && m < matches.size()) {
+            qc.set(var, value.itemAt(matches.get(m++)));
+            return true;
+          }
+          // no more matches from above, we're done here
+          if(!sub.next(qc)) return false;
+
+          if(value == null) build(qc);
+          matches = matches(qc);
+          m = 0;
+        }
+      }
+
+      /**
+       * Evaluates the input and hashes the keys of all items.
+       * @param qc query context
+       * @throws QueryException query exception
+       */
+      private void build(final QueryContext qc) throws QueryException {
+        value = expr.value(qc);
+        keys = new HashItemSet(true);
+        positions = new ArrayList<>();
+        positions.add(null);
+
+        final QueryFocus qf = qc.focus, focus = new QueryFocus();
+        qc.focus = focus;
+        try {
+          final long vs = value.size();
+          for(int v = 0; v < vs; v++) {
+            focus.value = value.itemAt(v);
+            final Iter iter = key.atomIter(qc, info);
+            for(Item item; (item = qc.next(iter)) != null;) {
+              final int id = keys.put(item, info);
+              if(id == positions.size()) positions.add(new IntList(1));
+              // skip duplicate keys of the same item
+              final IntList list = positions.get(id);
+              if(list.isEmpty() || list.peek() != v) list.add(v);
+            }
+          }
+        } finally {
+          qc.focus = qf;
+        }
+      }
+
+      /**
+       * Returns the positions of the input items that match the current tuple.
+       * @param qc query context
+       * @return positions (can be {@code null})
+       * @throws QueryException query exception
+       */
+      private IntList matches(final QueryContext qc) throws QueryException {
+        IntList list = null;
+        boolean merged = false;
+        final Iter iter = probe.atomIter(qc, info);
+        for(Item item; (item = qc.next(iter)) != null;) {
+          final int id = keys.id(item, info);
+          if(id == 0) continue;
+          final IntList pos = positions.get(id);
+          if(list == null) {
+            list = pos;
+          } else {
+            // multiple probe values: merge positions
+            if(!merged) {
+              list = new IntList(list.toArray());
+              merged = true;
+            }
+            list.add(pos.toArray());
+          }
+        }
+        return merged ? list.sort().distinct() : list;
+      }
+    };
+  }
+
+  @Override
+  public boolean has(final Flag... flags) {
+    if(expr.has(flags) || probe.has(flags)) return true;
+    final Flag[] flgs = Flag.POS.remove(Flag.CTX.remove(flags));
+    return flgs.length != 0 && key.has(flgs);
+  }
+
+  @Override
+  public Join compile(final CompileContext cc) throws QueryException {
+    expr = expr.compile(cc);
+    cc.pushFocus(expr);
+    try {
+      key = key.compile(cc);
+    } finally {
+      cc.removeFocus();
+    }
+    probe = probe.compile(cc);
+    return optimize(cc);
+  }
+
+  @Override
+  public Join optimize(final CompileContext cc) throws QueryException {
+    // assign type to clause and variable
+    exprType.assign(expr.seqType().type, Occ.ONE);
+    var.refineType(seqType(), size(), cc);
+    var.data = expr.data();
+    return this;
+  }
+
+  @Override
+  public boolean removable(final Var v) {
+    return expr.removable(v) && key.removable(v) && probe.removable(v);
+  }
+
+  @Override
+  public VarUsage count(final Var v) {
+    // key expression is evaluated for each input item
+    return key.count(v) == VarUsage.NEVER ? VarUsage.sum(v, expr, probe) :
+      VarUsage.MORE_THAN_ONCE;
+  }
+
+  @Override
+  public Clause inline(final Var v, final Expr ex, final CompileContext cc)
+      throws QueryException {
+
+    boolean changed = false;
+    Expr inlined = expr.inline(v, ex, cc);
+    if(inlined != null) {
+      expr = inlined;
+      changed = true;
+    }
+    inlined = key.inline(v, ex, cc);
+    if(inlined != null) {
+      key = inlined;
+      changed = true;
+    }
+    inlined = probe.inline(v, ex, cc);
+    if(inlined != null) {
+      probe = inlined;
+      changed = true;
+    }
+    return changed ? optimize(cc) : null;
+  }
+
+  @Override
+  public Join copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return copyType(new Join(cc.copy(var, vm), expr.copy(cc, vm), key.copy(cc, vm),
+        probe.copy(cc, vm)));
+  }
+
+  @Override
+  public boolean accept(final ASTVisitor visitor) {
+    return expr.accept(visitor) && key.accept(visitor) && probe.accept(visitor) &&
+        visitor.declared(var);
+  }
+
+  @Override
+  public void checkUp() throws QueryException {
+    checkNoneUp(expr, key, probe);
+  }
+
+  @Override
+  void calcSize(final long[] minMax) {
+    minMax[0] = 0;
+    final long size = expr.size(), max = minMax[1];
+    if(max > 0) minMax[1] = size < 0 ? -1 : max * size;
+  }
+
+  @Override
+  public int exprSize() {
+    return expr.exprSize() + key.exprSize() + probe.exprSize();
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if(this == obj) return true;
+    if(!(obj instanceof Join)) return false;
+    final Join j = (Join) obj;
+    return var.equals(j.var) && expr.equals(j.expr) && key.equals(j.key) &&
+        probe.equals(j.probe);
+  }
+
+  @Override
+  public int hashCode() {
+    return var.hashCode();
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    final FElem elem = planElem();
+    var.plan(elem);
+    expr.plan(elem);
+    key.plan(elem);
+    probe.plan(elem);
+    plan.add(elem);
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(FOR).append(' ').append(var).append(' ').append(IN).append(' ').
+        append(expr).append('[').append(key).append(" = ").append(probe).append(']').toString();
+  }
+}
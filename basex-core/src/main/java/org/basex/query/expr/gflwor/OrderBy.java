@@ -3,9 +3,6 @@ package org.basex.query.expr.gflwor;
 import static org.basex.query.QueryError.*;
 import static org.basex.query.QueryText.*;
 
-import java.util.*;
-import java.util.List;
-
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.gflwor.GFLWOR.*;
@@ -29,6 +26,8 @@ public final class OrderBy extends Clause {
   private VarRef[] refs;
   /** Sort keys. */
   private final OrderKey[] keys;
+  /** Maximum number of tuples that will be requested ({@link Long#MAX_VALUE}: all tuples). */
+  long limit = Long.MAX_VALUE;
 
   /**
    * Constructor.
@@ -45,20 +44,26 @@ public final class OrderBy extends Clause {
   @Override
   Eval eval(final Eval sub) {
     return new Eval() {
-      private Value[][] tpls;
-      private Integer[] perm;
-      int pos;
+      /** Sorted tuples (keys, followed by the values of the variables). */
+      private ExternalSort tuples;
+      /** Top tuples (assigned if the number of tuples is limited). */
+      private Value[][] top;
+      /** Current position in the top tuples. */
+      private int pos;
 
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
-        if(tpls == null) sort(qc);
-        if(pos == tpls.length) return false;
-        final int p = perm[pos++];
-        final Value[] tuple = tpls[p];
-        // free the space occupied by the tuple
-        tpls[p] = null;
-        final int rl = refs.length;
-        for(int r = 0; r < rl; r++) qc.set(refs[r].var, tuple[r]);
+        final Value[] tuple;
+        if(limit != Long.MAX_VALUE) {
+          if(top == null) top(qc);
+          tuple = pos < top.length ? top[pos++] : null;
+        } else {
+          if(tuples == null) sort(qc);
+          tuple = tuples.next();
+        }
+        if(tuple == null) return false;
+        final int kl = keys.length, rl = refs.length;
+        for(int r = 0; r < rl; r++) qc.set(refs[r].var, tuple[kl + r]);
         return true;
       }
 
@@ -68,61 +73,88 @@ public final class OrderBy extends Clause {
        * @throws QueryException evaluation exception
        */
       private void sort(final QueryContext qc) throws QueryException {
-        // keys are stored at odd positions, values at even ones
-        List<Value[]> tuples = new ArrayList<>();
-        while(sub.next(qc)) {
-          final int kl = keys.length;
-          final Item[] key = new Item[kl];
-          for(int k = 0; k < kl; k++) key[k] = keys[k].expr.atomItem(qc, keys[k].info);
-          tuples.add(key);
-
-          final int rl = refs.length;
-          final Value[] vals = new Value[rl];
-          for(int r = 0; r < rl; r++) vals[r] = refs[r].value(qc);
-          tuples.add(vals);
-        }
+        tuples = new ExternalSort((a, b) -> {
+          try {
+            return compare(a, b);
+          } catch(final QueryException ex) {
+            throw new QueryRTException(ex);
+          }
+        }, qc, info);
+        while(sub.next(qc)) tuples.add(tuple(qc, 0));
+      }
 
-        final int len = tuples.size() >>> 1;
-        final Item[][] ks = new Item[len][];
-        perm = new Integer[len];
-        tpls = new Value[len][];
-        for(int i = 0; i < len; i++) {
-          perm[i] = i;
-          tpls[i] = tuples.get(i << 1 | 1);
-          ks[i] = (Item[]) tuples.get(i << 1);
-        }
-        // be nice to the garbage collector
-        tuples = null;
+      /**
+       * Computes the top tuples with a bounded heap. The heap contains the smallest tuples
+       * encountered so far, with the largest one at the root.
+       * @param qc query context
+       * @throws QueryException evaluation exception
+       */
+      private void top(final QueryContext qc) throws QueryException {
+        // the position of each tuple is stored in its last entry to preserve stability
+        final int kl = keys.length, rl = refs.length, p = kl + rl;
+        final MinHeap<Value[], Value[]> heap = new MinHeap<>((a, b) -> {
+          try {
+            final int c = compare(b, a);
+            return c != 0 ? c : Long.compare(((Int) b[p]).itr(), ((Int) a[p]).itr());
+          } catch(final QueryException ex) {
+            throw new QueryRTException(ex);
+          }
+        });
         try {
-          Arrays.sort(perm, (x, y) -> {
-            try {
-              final Item[] a = ks[x], b = ks[y];
-              final int kl = keys.length;
-              for(int k = 0; k < kl; k++) {
-                final OrderKey key = keys[k];
-                Item m = a[k], n = b[k];
-                if(m == Dbl.NAN || m == Flt.NAN) m = null;
-                if(n == Dbl.NAN || n == Flt.NAN) n = null;
-                if(m != null && n != null && !m.comparable(n))
-                  throw typeError(n, m.type, key.info);
-
-                final int c = m == null
-                    ? n == null ? 0                 : key.least ? -1 : 1
-                    : n == null ? key.least ? 1 : -1 : m.diff(n, key.coll, key.info);
-                if(c != 0) return key.desc ? -c : c;
-              }
-              return 0;
-            } catch(final QueryException ex) {
-              throw new QueryRTException(ex);
-            }
-          });
+          for(long c = 0; sub.next(qc); c++) {
+            final Value[] tuple = tuple(qc, 1);
+            tuple[p] = Int.get(c);
+            heap.insert(tuple, tuple);
+            if(heap.size() > limit) heap.removeMin();
+          }
         } catch(final QueryRTException ex) {
           throw ex.getCause();
         }
+        top = new Value[heap.size()][];
+        for(int t = top.length - 1; t >= 0; t--) top[t] = heap.removeMin();
+      }
+
+      /**
+       * Creates a tuple with the keys and the values of the variables.
+       * @param qc query context
+       * @param extra number of additional entries
+       * @return tuple
+       * @throws QueryException evaluation exception
+       */
+      private Value[] tuple(final QueryContext qc, final int extra) throws QueryException {
+        final int kl = keys.length, rl = refs.length;
+        final Value[] tuple = new Value[kl + rl + extra];
+        for(int k = 0; k < kl; k++) tuple[k] = keys[k].expr.atomItem(qc, keys[k].info);
+        for(int r = 0; r < rl; r++) tuple[kl + r] = refs[r].value(qc);
+        return tuple;
       }
     };
   }
 
+  /**
+   * Compares the keys of two tuples.
+   * @param a first tuple
+   * @param b second tuple
+   * @return result of comparison
+   * @throws QueryException query exception
+   */
+  private int compare(final Value[] a, final Value[] b) throws QueryException {
+    final int kl = keys.length;
+    for(int k = 0; k < kl; k++) {
+      final OrderKey key = keys[k];
+      Item m = (Item) a[k], n = (Item) b[k];
+      if(m == Dbl.NAN || m == Flt.NAN) m = null;
+      if(n == Dbl.NAN || n == Flt.NAN) n = null;
+      if(m != null && n != null && !m.comparable(n)) throw typeError(n, m.type, key.info);
+
+      final int c = m == null
+          ? n == null ? 0                 : key.least ? -1 : 1
+          : n == null ? key.least ? 1 : -1 : m.diff(n, key.coll, key.info);
+      if(c != 0) return key.desc ? -c : c;
+    }
+    return 0;
+  }
+
   @Override
   public boolean has(final Flag... flags) {
     for(final OrderKey key : keys) if(key.has(flags)) return true;
@@ -162,7 +194,9 @@ public final class OrderBy extends Clause {
 
   @Override
   public OrderBy copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return copyType(new OrderBy(Arr.copyAll(cc, vm, refs), Arr.copyAll(cc, vm, keys), info));
+    final OrderBy ob = new OrderBy(Arr.copyAll(cc, vm, refs), Arr.copyAll(cc, vm, keys), info);
+    ob.limit = limit;
+    return copyType(ob);
   }
 
   @Override
@@ -210,12 +244,12 @@ public final class OrderBy extends Clause {
     if(this == obj) return true;
     if(!(obj instanceof OrderBy)) return false;
     final OrderBy o = (OrderBy) obj;
-    return Array.equals(refs, o.refs) && Array.equals(keys, o.keys);
+    return Array.equals(refs, o.refs) && Array.equals(keys, o.keys) && limit == o.limit;
   }
 
   @Override
   public void plan(final FElem plan) {
-    final FElem elem = planElem();
+    final FElem elem = limit != Long.MAX_VALUE ? planElem(MAX, limit) : planElem();
     for(final OrderKey key : keys) key.plan(elem);
     plan.add(elem);
   }
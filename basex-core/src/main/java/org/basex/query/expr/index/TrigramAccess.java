@@ -0,0 +1,163 @@
+package org.basex.query.expr.index;
+
+import static org.basex.query.QueryText.*;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.path.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This index class retrieves texts and attribute values from the trigram index.
+ * All returned nodes contain the trigrams of the specified strings. As the trigrams
+ * may occur at different positions, the results are candidates that need to be verified.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class TrigramAccess extends IndexAccess {
+  /** Strings, the trigrams of which are contained in all results. */
+  private final byte[][] strings;
+  /** Text flag (texts or attribute values). */
+  private final boolean text;
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param strings strings, the trigrams of which are contained in all results
+   * @param text text flag (texts or attribute values)
+   * @param db index database
+   */
+  public TrigramAccess(final InputInfo info, final byte[][] strings, final boolean text,
+      final IndexDb db) {
+    super(db, info, text ? IndexType.TEXT : IndexType.ATTRIBUTE);
+    this.strings = strings;
+    this.text = text;
+  }
+
+  /**
+   * Returns the distinct trigrams of the specified strings.
+   * @param strings strings
+   * @return trigrams
+   */
+  public static TokenSet trigrams(final byte[]... strings) {
+    final TokenSet grams = new TokenSet();
+    for(final byte[] string : strings) {
+      for(final byte[] gram : Token.distinctTrigrams(string)) grams.add(gram);
+    }
+    return grams;
+  }
+
+  /**
+   * Returns the index costs. The number of results is bounded by the least frequent trigram.
+   * @param ii index info
+   * @param data data reference (can be {@code null})
+   * @return costs, or {@code null} if index access is not possible
+   */
+  public IndexCosts costs(final IndexInfo ii, final Data data) {
+    IndexCosts costs = null;
+    for(final byte[] gram : trigrams(strings)) {
+      final IndexCosts c = ii.costs(data, new StringToken(IndexType.TRIGRAM, gram));
+      if(c == null) return null;
+      if(costs == null || c.compareTo(costs) < 0) costs = c;
+    }
+    return costs;
+  }
+
+  @Override
+  public BasicNodeIter iter(final QueryContext qc) throws QueryException {
+    final Data data = db.data(qc, IndexType.TRIGRAM);
+
+    // sort trigrams by their number of occurrences
+    final ArrayList<StringToken> tokens = new ArrayList<>();
+    for(final byte[] gram : trigrams(strings)) {
+      tokens.add(new StringToken(IndexType.TRIGRAM, gram));
+    }
+    final int ts = tokens.size();
+    final int[] sizes = new int[ts];
+    for(int t = 0; t < ts; t++) sizes[t] = data.costs(tokens.get(t)).results();
+    final int[] order = Array.createOrder(sizes, true);
+
+    // intersect the sorted pre values, starting with the least frequent trigram
+    IntList pres = null;
+    for(int t = 0; t < ts && (pres == null || !pres.isEmpty()); t++) {
+      qc.checkStop();
+      final IndexIterator ii = data.iter(tokens.get(order[t]));
+      final IntList list = new IntList();
+      if(pres == null) {
+        while(ii.more()) list.add(ii.pre());
+      } else {
+        final int ps = pres.size();
+        int p = 0;
+        while(p < ps && ii.more()) {
+          final int pre = ii.pre();
+          while(p < ps && pres.get(p) < pre) p++;
+          if(p < ps && pres.get(p) == pre) list.add(pre);
+        }
+      }
+      pres = list;
+    }
+
+    final IntList results = pres != null ? pres : new IntList();
+    final int kind = text ? Data.TEXT : Data.ATTR;
+    return new DBNodeIter(data) {
+      final int size = results.size();
+      int p;
+
+      @Override
+      public DBNode next() {
+        // the index contains both texts and attribute values
+        while(p < size) {
+          final int pre = results.get(p++);
+          if(data.kind(pre) == kind) return new DBNode(data, pre, kind);
+        }
+        return null;
+      }
+    };
+  }
+
+  @Override
+  public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return new TrigramAccess(info, strings, text, db.copy(cc, vm));
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if(!(obj instanceof TrigramAccess)) return false;
+    final TrigramAccess t = (TrigramAccess) obj;
+    return Array.equals(strings, t.strings) && text == t.text && super.equals(obj);
+  }
+
+  @Override
+  public int hashCode() {
+    int h = text ? 1 : 0;
+    for(final byte[] string : strings) h = (h << 5) - h + Token.hash(string);
+    return h;
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    addPlan(plan, planElem(INDEX, IndexType.TRIGRAM,
+        TEST, text ? KindTest.TXT : KindTest.ATT), db);
+  }
+
+  @Override
+  public String toString() {
+    final TokenBuilder tb = new TokenBuilder().add(Util.className(this)).add('(');
+    tb.add(db.source().toString());
+    for(final byte[] string : strings) tb.add(SEP).add(Str.get(string).toString());
+    return tb.add(')').toString();
+  }
+}
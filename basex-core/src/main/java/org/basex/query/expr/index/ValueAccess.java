@@ -7,6 +7,8 @@ import java.util.*;
 
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.name.*;
+import org.basex.index.path.*;
 import org.basex.index.query.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
@@ -16,9 +18,11 @@ import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
+import org.basex.util.list.*;
 
 /**
  * This index class retrieves texts and attribute values from the index.
@@ -35,6 +39,8 @@ public final class ValueAccess extends IndexAccess {
   private final NameTest test;
   /** Trim search terms. */
   private boolean trim;
+  /** Indicates if each index result yields exactly one result node. */
+  private final boolean exact;
 
   /**
    * Constructor.
@@ -50,6 +56,7 @@ public final class ValueAccess extends IndexAccess {
     this.expr = expr;
     this.type = type;
     this.test = test;
+    exact = exact(db.data());
   }
 
   /**
@@ -102,12 +109,18 @@ public final class ValueAccess extends IndexAccess {
       index &= tl > 0 && tl <= data.meta.maxlen;
     }
 
-    final IndexIterator ii = index ? data.iter(new StringToken(type, term)) : scan(term, data);
+    final StringToken search = index ? new StringToken(type, term) : null;
     final int kind = type == IndexType.TEXT ? Data.TEXT : Data.ATTR;
     final DBNode tmp = new DBNode(data, 0, test == null ? kind : Data.ELEM);
     return new DBNodeIter(data) {
+      /** Index iterator (created on demand). */
+      IndexIterator ii;
+      /** Cached results (only assigned for positional access). */
+      IntList pres;
+
       @Override
       public DBNode next() {
+        if(ii == null) ii = search != null ? data.iter(search) : scan(term, data);
         while(ii.more()) {
           if(test == null) {
             tmp.pre(ii.pre());
@@ -119,9 +132,146 @@ public final class ValueAccess extends IndexAccess {
         }
         return null;
       }
+
+      @Override
+      public DBNode get(final long i) {
+        if(pres == null) {
+          pres = new IntList();
+          final IndexIterator iter = data.iter(search);
+          while(iter.more()) {
+            final int pre = iter.pre();
+            pres.add(test == null ? pre : data.parent(pre, kind));
+          }
+        }
+        return new DBNode(data, pres.get((int) i), test == null ? kind : Data.ELEM);
+      }
+
+      @Override
+      public long size() {
+        // number of results can be retrieved from the index entry
+        return search != null && exact ? data.costs(search).results() : -1;
+      }
     };
   }
 
+  /**
+   * Checks if each index result yields exactly one result node, and if the number of results
+   * can thus be computed without accessing the node table. This is the case if no parent
+   * test is specified, or if all indexed texts are single children of leaf elements that
+   * match the parent test.
+   * @param data data reference (can be {@code null})
+   * @return result of check
+   */
+  private boolean exact(final Data data) {
+    // token index: a single node may be indexed more than once
+    if(type == IndexType.TOKEN) return false;
+    if(test == null) return true;
+    if(data == null || !data.meta.uptodate || !data.nspaces.isEmpty()) return false;
+
+    for(final PathNode pn : pathNodes(data, type)) {
+      final PathNode parent = pn.parent;
+      if(parent.kind != Data.ELEM || !parent.stats.isLeaf() ||
+        !test.eq(new QNm(data.elemNames.key(parent.name)))) return false;
+      // texts will only be separated by comments or processing instructions
+      for(final PathNode child : parent.children) {
+        if(child.kind == Data.COMM || child.kind == Data.PI) return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Indicates if each index result yields exactly one result node.
+   * @return result of check
+   */
+  public boolean exact() {
+    return exact;
+  }
+
+  /**
+   * Checks if the specified steps yield exactly one node for each result of this index access.
+   * Example: {@code db:attribute('db', 'x')/self::*:id/parent::*:a}, if all indexed attributes
+   * are named {@code id} and belong to {@code a} elements.
+   * @param steps steps
+   * @return result of check
+   */
+  public boolean unique(final Expr... steps) {
+    if(!exact || test != null) return false;
+    final Data data = db.data();
+    if(data == null || !data.meta.uptodate || !data.nspaces.isEmpty()) return false;
+
+    final boolean text = type == IndexType.TEXT;
+    final ArrayList<PathNode> nodes = pathNodes(data, type);
+    final int sl = steps.length;
+    int s = 0;
+    // attributes: optional self step, which must accept all indexed attributes
+    if(!text && s < sl && steps[s] instanceof Step) {
+      final Step step = (Step) steps[s];
+      if(step.axis == Axis.SELF && step.exprs.length == 0) {
+        for(final PathNode pn : nodes) {
+          if(!accept(step.test, NodeType.ATT, data.attrNames.key(pn.name))) return false;
+        }
+        s++;
+      }
+    }
+    // optional parent step, which must accept all parents
+    if(s < sl && steps[s] instanceof Step) {
+      final Step step = (Step) steps[s];
+      if(step.axis == Axis.PARENT && step.exprs.length == 0) {
+        for(final PathNode pn : nodes) {
+          final PathNode parent = pn.parent;
+          if(parent.kind != Data.ELEM) return false;
+          if(text) {
+            // all parents must have a single text node
+            if(!parent.stats.isLeaf()) return false;
+            for(final PathNode child : parent.children) {
+              if(child.kind == Data.COMM || child.kind == Data.PI) return false;
+            }
+          } else if(pn.name != nodes.get(0).name) {
+            // all attributes must have the same name
+            return false;
+          }
+          if(!accept(step.test, NodeType.ELM, data.elemNames.key(parent.name))) return false;
+        }
+        s++;
+      }
+    }
+    return s == sl;
+  }
+
+  /**
+   * Checks if the specified test accepts all nodes with the specified type and name.
+   * @param test test
+   * @param type node type
+   * @param name name
+   * @return result of check
+   */
+  private static boolean accept(final Test test, final NodeType type, final byte[] name) {
+    return test == KindTest.NOD || test == KindTest.get(type) ||
+      test instanceof NameTest && test.type == type && ((NameTest) test).eq(new QNm(name));
+  }
+
+  /**
+   * Returns the path nodes of all texts or attributes that are included in the specified index.
+   * @param data data reference
+   * @param type index type ({@link IndexType#TEXT} or {@link IndexType#ATTRIBUTE})
+   * @return path nodes
+   */
+  public static ArrayList<PathNode> pathNodes(final Data data, final IndexType type) {
+    final boolean text = type == IndexType.TEXT;
+    final IndexNames names = new IndexNames(type, data);
+    final ArrayList<PathNode> nodes = new ArrayList<>();
+    for(final PathNode pn : PathIndex.desc(data.paths.root(), true)) {
+      if(pn.kind != (text ? Data.TEXT : Data.ATTR)) continue;
+      // texts: check name of parent element (document nodes will be included)
+      final PathNode node = text ? pn.parent : pn;
+      final Names nms = text ? data.elemNames : data.attrNames;
+      if(node.kind == Data.DOC ||
+          names.contains(new byte[][] { nms.key(node.name), EMPTY })) nodes.add(pn);
+    }
+    return nodes;
+  }
+
   /**
    * Returns a scan-based index iterator, which looks for text nodes with the specified value.
    * @param data data reference
@@ -44,32 +44,52 @@ public final class IterPath extends AxisPath {
         final QueryFocus qf = qc.focus;
         if(iter == null) init(qf);
         qc.focus = focus;
+        try {
+          return node();
+        } finally {
+          qc.focus = qf;
+        }
+      }
 
+      @Override
+      public int next(final Item[] items) throws QueryException {
+        // assign focus once per batch
+        final QueryFocus qf = qc.focus;
+        if(iter == null) init(qf);
+        qc.focus = focus;
         try {
-          do {
-            final Item item = qc.next(iter[pos]);
-            if(item == null) {
-              if(--pos == -1) return null;
-            } else if(pos < sz - 1) {
-              // ensure that the root expression yields nodes
-              if(pos++ == 0 && rt && !(item instanceof ANode))
-                throw PATHNODE_X_X_X.get(info, steps[0], item.type, item);
-              focus.value = item;
-              iter[pos] = exprs[pos].iter(qc);
-            } else {
-              // cast is safe (axis steps will always yield nodes); skip identical nodes
-              final ANode n = (ANode) item;
-              if(last == null || !last.is(n)) {
-                last = n;
-                return n;
-              }
-            }
-          } while(true);
+          final int il = items.length;
+          int i = 0;
+          for(ANode node; i < il && (node = node()) != null;) items[i++] = node;
+          return i;
         } finally {
           qc.focus = qf;
         }
       }
 
+      private ANode node() throws QueryException {
+        while(pos != -1) {
+          final Item item = qc.next(iter[pos]);
+          if(item == null) {
+            pos--;
+          } else if(pos < sz - 1) {
+            // ensure that the root expression yields nodes
+            if(pos++ == 0 && rt && !(item instanceof ANode))
+              throw PATHNODE_X_X_X.get(info, steps[0], item.type, item);
+            focus.value = item;
+            iter[pos] = exprs[pos].iter(qc);
+          } else {
+            // cast is safe (axis steps will always yield nodes); skip identical nodes
+            final ANode n = (ANode) item;
+            if(last == null || !last.is(n)) {
+              last = n;
+              return n;
+            }
+          }
+        }
+        return null;
+      }
+
       private void init(final QueryFocus qf) throws QueryException {
         rt = root != null;
         sz = steps.length + (rt ? 1 : 0);
@@ -0,0 +1,214 @@
+package org.basex.query.expr.path;
+
+import static org.basex.query.QueryError.*;
+
+import org.basex.data.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.list.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * Path expression with downward axis steps, which is evaluated step by step as structural join.
+ *
+ * The context nodes of each step are represented as sorted and duplicate-free pre values.
+ * As database nodes are stored in document order, with their descendants being located in
+ * the interval {@code [pre, pre + size)}, context nodes that are descendants of a preceding
+ * context node can be skipped for descendant steps. The results of a step are again sorted
+ * and duplicate-free, and they will be used as input for the next step.
+ *
+ * This implementation is chosen instead of {@link CachedPath} if large intermediate results
+ * are expected. Nested traversals of overlapping subtrees are avoided, and no sorting is
+ * required at the end of the path.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class JoinPath extends AxisPath {
+  /** Minimum number of expected intermediate results. */
+  static final long MIN_RESULTS = 1000;
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param root root expression; can be a {@code null} reference
+   * @param steps axis steps
+   */
+  JoinPath(final InputInfo info, final Expr root, final Expr... steps) {
+    super(info, root, steps);
+  }
+
+  /**
+   * Checks if the specified steps can be evaluated as structural join.
+   * @param steps steps
+   * @return result of check
+   */
+  static boolean joinable(final Expr... steps) {
+    int desc = 0;
+    for(final Expr expr : steps) {
+      if(!(expr instanceof Step)) return false;
+      final Step step = (Step) expr;
+      switch(step.axis) {
+        case DESC:
+        case DESCORSELF:
+          // context nodes will be skipped: positional predicates are not allowed
+          if(step.positional()) return false;
+          desc++;
+          break;
+        case CHILD:
+        case ATTR:
+        case SELF:
+          break;
+        default:
+          return false;
+      }
+    }
+    return desc > 0;
+  }
+
+  @Override
+  protected NodeIter nodeIter(final QueryContext qc) throws QueryException {
+    final QueryFocus qf = qc.focus, focus = new QueryFocus();
+    final Value rt = root != null ? root.value(qc) : qf.value;
+    if(rt == null) throw NOCTX_X.get(info, this);
+
+    // collect sorted and duplicate-free context nodes
+    final ANodeBuilder nodes = new ANodeBuilder();
+    final Iter iter = rt.iter(qc);
+    for(Item item; (item = qc.next(iter)) != null;) {
+      if(!(item instanceof ANode)) throw PATHNODE_X_X_X.get(info, steps[0], item.type, item);
+      nodes.add((ANode) item);
+    }
+    nodes.check();
+
+    qc.focus = focus;
+    try {
+      final Data data = data(nodes);
+      if(data != null) {
+        // database nodes: join pre values
+        IntList pres = new IntList(nodes.size());
+        for(final ANode node : nodes) pres.add(((DBNode) node).pre());
+        for(final Expr step : steps) {
+          pres = join((Step) step, pres, data, qc);
+          if(pres.isEmpty()) break;
+        }
+        return iter(pres, data);
+      }
+
+      // main-memory nodes: evaluate step by step
+      ANodeBuilder list = nodes;
+      for(final Expr step : steps) {
+        final ANodeBuilder tmp = new ANodeBuilder();
+        for(final ANode node : list) {
+          focus.value = node;
+          final Iter ni = step.iter(qc);
+          for(Item item; (item = qc.next(ni)) != null;) tmp.add((ANode) item);
+        }
+        tmp.check();
+        list = tmp;
+      }
+      return list.iter();
+    } finally {
+      qc.focus = qf;
+    }
+  }
+
+  /**
+   * Evaluates a single step for the specified context nodes.
+   * @param step step
+   * @param pres pre values of sorted and duplicate-free context nodes
+   * @param data data reference
+   * @param qc query context
+   * @return pre values of sorted and duplicate-free result nodes
+   * @throws QueryException query exception
+   */
+  private static IntList join(final Step step, final IntList pres, final Data data,
+      final QueryContext qc) throws QueryException {
+
+    final boolean desc = step.axis == Axis.DESC || step.axis == Axis.DESCORSELF;
+    final IntList list = new IntList();
+    final int ps = pres.size();
+    // end of the last interval (exclusive), order flag
+    int end = 0;
+    boolean sorted = true;
+    for(int p = 0; p < ps; p++) {
+      final int pre = pres.get(p), kind = data.kind(pre);
+      if(pre < end) {
+        // context node is a descendant of a preceding node:
+        // skip descendant steps (results have already been retrieved), or invalidate order
+        if(desc) continue;
+        sorted = false;
+      } else {
+        end = pre + data.size(pre, kind);
+      }
+      qc.focus.value = new DBNode(data, pre, kind);
+      final Iter iter = step.iter(qc);
+      for(Item item; (item = qc.next(iter)) != null;) list.add(((DBNode) item).pre());
+    }
+    // results of child and attribute steps will be unique, but not necessarily sorted
+    if(!sorted) list.sort();
+    return list;
+  }
+
+  /**
+   * Returns an iterator for the specified pre values.
+   * @param pres pre values
+   * @param data data reference
+   * @return iterator
+   */
+  private static DBNodeIter iter(final IntList pres, final Data data) {
+    return new DBNodeIter(data) {
+      final int size = pres.size();
+      int pos;
+
+      @Override
+      public DBNode next() {
+        return pos < size ? new DBNode(data, pres.get(pos++)) : null;
+      }
+
+      @Override
+      public DBNode get(final long i) {
+        return new DBNode(data, pres.get((int) i));
+      }
+
+      @Override
+      public long size() {
+        return size;
+      }
+
+      @Override
+      public Value value(final QueryContext qc) {
+        return DBNodeSeq.get(pres, data, false, false);
+      }
+    };
+  }
+
+  /**
+   * Returns the common data reference of the specified nodes.
+   * @param nodes nodes
+   * @return data reference or {@code null}
+   */
+  private static Data data(final ANodeBuilder nodes) {
+    Data data = null;
+    for(final ANode node : nodes) {
+      final Data dt = node.data();
+      if(dt == null || data != null && data != dt) return null;
+      data = dt;
+    }
+    return data;
+  }
+
+  @Override
+  public JoinPath copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    final Expr rt = root == null ? null : root.copy(cc, vm);
+    return copyType(new JoinPath(info, rt, Arr.copyAll(cc, vm, steps)));
+  }
+}
@@ -171,7 +171,12 @@ public abstract class Path extends ParseExpr {
     if(expr != this) return expr.optimize(cc);
 
     // choose best path implementation and set type information
-    return copyType(get(info, root, steps));
+    Path path = get(info, root, steps);
+    if(path instanceof CachedPath && join(cc, rt)) {
+      if(!(this instanceof JoinPath)) cc.info(OPTJOIN_X, path);
+      path = new JoinPath(info, path.root, path.steps);
+    }
+    return copyType(path);
   }
 
   @Override
@@ -258,12 +263,22 @@ public abstract class Path extends ParseExpr {
     return nodes;
   }
 
+  /**
+   * Returns the root expression if it is an index access, and if the steps yield exactly one
+   * node for each index result. Functions that only depend on the number of results can then
+   * be evaluated without accessing the node table.
+   * @return index access or {@code null}
+   */
+  public final Expr indexRoot() {
+    return root instanceof ValueAccess && ((ValueAccess) root).unique(steps) ? root : null;
+  }
+
   /**
    * Returns a root value for this path.
    * @param cc compilation context
    * @return context value, dummy item or {@code null}
    */
-  private Value rootValue(final CompileContext cc) {
+  public final Value rootValue(final CompileContext cc) {
     // no root expression: return context value (possibly empty)
     if(root == null) return cc.qc.focus.value;
     // root is value: return root
@@ -353,6 +368,32 @@ public abstract class Path extends ParseExpr {
     return true;
   }
 
+  /**
+   * Checks if the path will be evaluated as structural join.
+   * The path summary is consulted to estimate the number of intermediate results.
+   * @param cc compilation context
+   * @param rt root value (can be {@code null})
+   * @return result of check
+   */
+  private boolean join(final CompileContext cc, final Value rt) {
+    // skip computation if path does not start with document nodes
+    if(!JoinPath.joinable(steps) || cc.nestedFocus() || rt == null || rt.type != NodeType.DOC)
+      return false;
+
+    final Data data = rt.data();
+    if(data == null || !data.meta.uptodate) return false;
+
+    ArrayList<PathNode> nodes = data.paths.root();
+    long size = 0;
+    final int sl = steps.length - 1;
+    for(int s = 0; s < sl && size < JoinPath.MIN_RESULTS; s++) {
+      nodes = axisStep(s).nodes(nodes, data);
+      if(nodes == null) break;
+      for(final PathNode pn : nodes) size += pn.stats.count;
+    }
+    return size >= JoinPath.MIN_RESULTS;
+  }
+
   /**
    * Assigns a sequence type and (if statically known) result size.
    * @param rt root value (can be {@code null})
@@ -169,7 +169,7 @@ public final class FuncOptions {
       if(i == -1) {
         tb.add(name);
       } else {
-        final byte[] vl = elem.nsScope(null).value(substring(name, 0, i));
+        final byte[] vl = elem.nsScope(null, null).value(substring(name, 0, i));
         if(vl != null) {
           tb.add(QNm.eqName(vl, substring(name, i + 1)));
         } else {
@@ -558,6 +558,8 @@ public enum Function {
   _ADMIN_LOGS(AdminLogs.class, "logs([date[,merge]])",
       arg(STR_O, BLN_O), ELM_ZM, flag(NDT), ADMIN_URI),
   /** XQuery function. */
+  _ADMIN_METRICS(AdminMetrics.class, "metrics()", arg(), ELM_ZM, flag(NDT), ADMIN_URI),
+  /** XQuery function. */
   _ADMIN_SESSIONS(AdminSessions.class, "sessions()", arg(), ELM_ZM, flag(NDT), ADMIN_URI),
   /** XQuery function. */
   _ADMIN_WRITE_LOG(AdminWriteLog.class, "write-log(message[,type])",
@@ -678,6 +680,9 @@ public enum Function {
   /** XQuery function. */
   _CLIENT_QUERY(ClientQuery.class, "query(id,query[,bindings])",
       arg(URI_O, STR_O, MAP_ZO), ITEM_ZO, flag(NDT), CLIENT_URI),
+  /** XQuery function. */
+  _CLIENT_SCATTER(ClientScatter.class, "scatter(ids,query[,bindings[,options]])",
+      arg(URI_ZM, STR_O, MAP_ZM, MAP_ZO), ITEM_ZM, flag(NDT), CLIENT_URI),
 
   // Conversion Module
 
@@ -1375,6 +1380,16 @@ public enum Function {
   _XQUERY_EVAL_UPDATE(XQueryEvalUpdate.class, "eval-update(string[,bindings[,options]])",
       arg(STR_O, MAP_ZO, MAP_ZO), EMP, flag(UPD), XQUERY_URI),
   /** XQuery function. */
+  _XQUERY_FILTER(XQueryFilter.class, "filter(items,function)",
+      arg(ITEM_ZM, FuncType.get(BLN_O, ITEM_O).seqType()), ITEM_ZM, flag(HOF), XQUERY_URI),
+  /** XQuery function. */
+  _XQUERY_FOLD(XQueryFold.class, "fold(items,zero,function)",
+      arg(ITEM_ZM, ITEM_ZM, FuncType.get(ITEM_ZM, ITEM_ZM, ITEM_ZM).seqType()), ITEM_ZM,
+      flag(HOF), XQUERY_URI),
+  /** XQuery function. */
+  _XQUERY_FOR_EACH(XQueryForEach.class, "for-each(items,function)",
+      arg(ITEM_ZM, FuncType.get(ITEM_ZM, ITEM_O).seqType()), ITEM_ZM, flag(HOF), XQUERY_URI),
+  /** XQuery function. */
   _XQUERY_FORK_JOIN(XQueryForkJoin.class, "fork-join(functions[,options])",
       arg(FUNC_ZM, MAP_ZO), ITEM_ZM, flag(HOF), XQUERY_URI),
   /** XQuery function. */
@@ -365,23 +365,32 @@ public abstract class StandardFunc extends Arr {
   protected final HashMap<String, Value> toBindings(final int i, final QueryContext qc)
       throws QueryException {
 
-    final HashMap<String, Value> hm = new HashMap<>();
-    final int es = exprs.length;
-    if(i < es) {
+    if(i < exprs.length) {
       final Item item = exprs[i].item(qc, info);
-      final Map map = item == null ? Map.EMPTY : toMap(exprs[i], qc);
-      for(final Item it : map.keys()) {
-        final byte[] key;
-        if(it.type.isStringOrUntyped()) {
-          key = it.string(null);
-        } else {
-          final QNm qnm = toQNm(it, false);
-          final TokenBuilder tb = new TokenBuilder();
-          if(qnm.uri() != null) tb.add('{').add(qnm.uri()).add('}');
-          key = tb.add(qnm.local()).finish();
-        }
-        hm.put(string(key), map.get(it, info));
+      return toBindings(item == null ? Map.EMPTY : toMap(exprs[i], qc));
+    }
+    return new HashMap<>();
+  }
+
+  /**
+   * Returns all keys and values of the specified bindings.
+   * @param map map with bindings
+   * @return resulting map
+   * @throws QueryException query exception
+   */
+  protected final HashMap<String, Value> toBindings(final Map map) throws QueryException {
+    final HashMap<String, Value> hm = new HashMap<>();
+    for(final Item it : map.keys()) {
+      final byte[] key;
+      if(it.type.isStringOrUntyped()) {
+        key = it.string(null);
+      } else {
+        final QNm qnm = toQNm(it, false);
+        final TokenBuilder tb = new TokenBuilder();
+        if(qnm.uri() != null) tb.add('{').add(qnm.uri()).add('}');
+        key = tb.add(qnm.local()).finish();
       }
+      hm.put(string(key), map.get(it, info));
     }
     return hm;
   }
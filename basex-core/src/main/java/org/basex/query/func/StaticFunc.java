@@ -92,6 +92,29 @@ public final class StaticFunc extends StaticDecl implements XQFunction {
     compiling = false;
   }
 
+  /**
+   * Declares a copy of this function in the query context of the specified compilation
+   * context. Used for adopting cached library modules.
+   * @param cc compilation context
+   * @return new function
+   * @throws QueryException query exception
+   */
+  public StaticFunc copy(final CompileContext cc) throws QueryException {
+    final VarScope vsc = new VarScope(sc);
+    cc.pushScope(vsc);
+    try {
+      final IntObjMap<Var> vm = new IntObjMap<>();
+      final int pl = params.length;
+      final Var[] vars = new Var[pl];
+      for(int p = 0; p < pl; p++) vars[p] = cc.copy(params[p], vm);
+      final Expr ex = expr == null ? null : expr.copy(cc, vm);
+      return cc.qc.funcs.declare(anns, name, vars, declType, ex,
+          doc == null ? null : Token.string(doc), vsc, info);
+    } finally {
+      cc.removeScope();
+    }
+  }
+
   @Override
   public void plan(final FElem plan) {
     final FElem elem = planElem(NAME, name.string(), TYPE, seqType());
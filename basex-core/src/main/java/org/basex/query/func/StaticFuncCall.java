@@ -80,7 +80,10 @@ public final class StaticFuncCall extends FuncCall {
 
   @Override
   public StaticFuncCall copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return copyType(new StaticFuncCall(name, Arr.copyAll(cc, vm, exprs), sc, func, info));
+    final StaticFuncCall call = new StaticFuncCall(name, Arr.copyAll(cc, vm, exprs), sc, func,
+        info);
+    if(cc.relink) call.func = cc.qc.funcs.relink(call);
+    return copyType(call);
   }
 
   /**
@@ -107,6 +107,22 @@ public final class StaticFuncs extends ExprInfo {
     return funcCall(name, args, sc, info);
   }
 
+  /**
+   * Registers a copied function call. The visibility of the function is not checked again.
+   * @param call function call
+   * @return declared function or {@code null}
+   */
+  StaticFunc relink(final StaticFuncCall call) {
+    final byte[] sig = signature(call.name, call.exprs.length);
+    FuncCache cache = funcs.get(sig);
+    if(cache == null) {
+      cache = new FuncCache(null);
+      funcs.put(sig, cache);
+    }
+    cache.calls.add(call);
+    return cache.func;
+  }
+
   /**
    * Registers a literal for a function that was not yet encountered during parsing.
    * @param literal the literal
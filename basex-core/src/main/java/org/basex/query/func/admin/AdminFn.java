@@ -27,4 +27,16 @@ abstract class AdminFn extends StandardFunc {
   static final String TYPE = "type";
   /** QName: ms. */
   static final String MS = "ms";
+  /** QName: metric. */
+  static final String METRIC = "metric";
+  /** QName: counter. */
+  static final String COUNTER = "counter";
+  /** QName: category. */
+  static final String CATEGORY = "category";
+  /** QName: name. */
+  static final String NAME = "name";
+  /** QName: value. */
+  static final String VALUE = "value";
+  /** QName: count. */
+  static final String COUNT = "count";
 }
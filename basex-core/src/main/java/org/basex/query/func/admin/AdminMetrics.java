@@ -0,0 +1,62 @@
+package org.basex.query.func.admin;
+
+import java.util.Map.*;
+
+import org.basex.core.*;
+import org.basex.core.Metrics.*;
+import org.basex.query.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.node.*;
+import org.basex.util.*;
+
+/**
+ * Function implementation.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class AdminMetrics extends AdminFn {
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    return value(qc).iter();
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    checkAdmin(qc);
+
+    final Metrics metrics = qc.context.metrics;
+    final ValueBuilder vb = new ValueBuilder(qc);
+    vb.add(new FElem(COUNTER).add(NAME, "lock-waits").add(VALUE,
+        Long.toString(metrics.lockWaits())));
+    vb.add(new FElem(COUNTER).add(NAME, "lock-wait-ms").add(VALUE,
+        ms(metrics.lockTime())));
+    vb.add(new FElem(COUNTER).add(NAME, "result-bytes").add(VALUE,
+        Long.toString(metrics.resultBytes())));
+
+    // execution times (milliseconds)
+    for(final Category category : Category.values()) {
+      for(final Entry<String, Histogram> entry : metrics.histograms(category).entrySet()) {
+        final Histogram hist = entry.getValue();
+        final long count = hist.count();
+        final FElem elem = new FElem(METRIC).add(CATEGORY, category.toString());
+        elem.add(NAME, entry.getKey()).add(COUNT, Long.toString(count));
+        elem.add("average", ms(count == 0 ? 0 : hist.sum() / count));
+        elem.add("p50", ms(hist.quantile(0.5))).add("p90", ms(hist.quantile(0.9)));
+        elem.add("p99", ms(hist.quantile(0.99))).add("max", ms(hist.max()));
+        vb.add(elem);
+      }
+    }
+    return vb.value();
+  }
+
+  /**
+   * Returns a millisecond string.
+   * @param time time (nano seconds)
+   * @return string
+   */
+  private static String ms(final long time) {
+    return Double.toString(Performance.ms(time, 1));
+  }
+}
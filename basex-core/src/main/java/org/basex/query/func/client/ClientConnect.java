@@ -4,7 +4,6 @@ import static org.basex.query.QueryError.*;
 
 import java.io.*;
 
-import org.basex.api.client.*;
 import org.basex.query.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
@@ -25,7 +24,7 @@ public final class ClientConnect extends ClientFn {
     final String pass = Token.string(toToken(exprs[3], qc));
     final int port = (int) toLong(exprs[1], qc);
     try {
-      return sessions(qc).add(new ClientSession(host, port, user, pass));
+      return sessions(qc).add(qc.context.clients.get(host, port, user, pass));
     } catch(final IOException ex) {
       throw CLIENT_CONNECT_X.get(info, ex);
     }
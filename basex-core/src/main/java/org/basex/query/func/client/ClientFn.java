@@ -2,11 +2,19 @@ package org.basex.query.func.client;
 
 import static org.basex.query.QueryError.*;
 
+import java.io.*;
+import java.util.*;
+import java.util.Map.*;
+import java.util.regex.*;
+
 import org.basex.api.client.*;
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.func.*;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.type.*;
+import org.basex.util.list.*;
 
 /**
  * Functions to connect remote database instances.
@@ -15,6 +23,9 @@ import org.basex.query.value.type.*;
  * @author Christian Gruen
  */
 abstract class ClientFn extends StandardFunc {
+  /** Query pattern. */
+  private static final Pattern QUERYPAT = Pattern.compile("\\[(.*?)] (.*)", Pattern.MULTILINE);
+
   /**
    * Returns a connection and removes it from list with opened connections if requested.
    * @param qc query context
@@ -23,14 +34,105 @@ abstract class ClientFn extends StandardFunc {
    * @throws QueryException query exception
    */
   final ClientSession session(final QueryContext qc, final boolean del) throws QueryException {
-    final ClientSessions sessions = sessions(qc);
     final Uri id = (Uri) checkType(exprs[0], qc, AtomType.URI);
+    return session(id, qc, del);
+  }
+
+  /**
+   * Returns a connection and removes it from list with opened connections if requested.
+   * @param id session id
+   * @param qc query context
+   * @param del flag indicating if connection has to be removed
+   * @return connection
+   * @throws QueryException query exception
+   */
+  final ClientSession session(final Uri id, final QueryContext qc, final boolean del)
+      throws QueryException {
+    final ClientSessions sessions = sessions(qc);
     final ClientSession cs = sessions.get(id);
     if(cs == null) throw CLIENT_ID_X.get(info, id);
     if(del) sessions.remove(id);
     return cs;
   }
 
+  /**
+   * Evaluates a query on a remote server and caches all results.
+   * @param cs client session
+   * @param query query string
+   * @param bindings bindings (an empty key addresses the context value)
+   * @return results
+   * @throws IOException I/O exception
+   */
+  static Results query(final ClientSession cs, final String query,
+      final HashMap<String, Value> bindings) throws IOException {
+
+    try(org.basex.api.client.ClientQuery cq = cs.query(query)) {
+      // bind variables and context value
+      for(final Entry<String, Value> binding : bindings.entrySet()) {
+        final String key = binding.getKey();
+        final Value value = binding.getValue();
+        if(key.isEmpty()) cq.context(value);
+        else cq.bind(key, value);
+      }
+      // evaluate query
+      cq.cache(true);
+      final Results results = new Results();
+      while(cq.more()) {
+        results.strings.add(cq.next());
+        results.types.add(cq.type());
+      }
+      return results;
+    }
+  }
+
+  /**
+   * Converts the results of a remote query to items.
+   * @param results results
+   * @param vb value builder
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  final void add(final Results results, final ValueBuilder vb, final QueryContext qc)
+      throws QueryException {
+    final int rs = results.strings.size();
+    for(int r = 0; r < rs; r++) vb.add(value(results, r, qc));
+  }
+
+  /**
+   * Converts a single result of a remote query to a value.
+   * @param results results
+   * @param r index of result
+   * @param qc query context
+   * @return value
+   * @throws QueryException query exception
+   */
+  final Value value(final Results results, final int r, final QueryContext qc)
+      throws QueryException {
+    final String result = results.strings.get(r);
+    final Type type = results.types.get(r);
+    if(type instanceof FuncType) throw CLIENT_FITEM_X.get(info, result);
+    return type.castString(result, qc, sc, info);
+  }
+
+  /**
+   * Converts an exception raised by a remote query to a query exception.
+   * @param ex exception
+   * @return query exception
+   */
+  final QueryException error(final IOException ex) {
+    if(ex instanceof QueryIOException) return ((QueryIOException) ex).getCause(info);
+    if(ex instanceof BaseXException) {
+      final Matcher m = QUERYPAT.matcher(ex.getMessage());
+      if(m.find()) {
+        final String name = m.group(1), msg = m.group(2);
+        final QueryException exc = get(name, msg, info);
+        return exc == null ? new QueryException(info, new QNm(name), msg) : exc;
+      }
+      return CLIENT_QUERY_X.get(info, ex);
+    }
+    return CLIENT_ERROR_X.get(info, ex);
+  }
+
   /**
    * Returns the sessions handler.
    * @param qc query context
@@ -39,4 +141,12 @@ abstract class ClientFn extends StandardFunc {
   static ClientSessions sessions(final QueryContext qc) {
     return qc.resources.index(ClientSessions.class);
   }
+
+  /** Cached results of a remote query. */
+  static final class Results {
+    /** Serialized results. */
+    final StringList strings = new StringList();
+    /** Types of the results. */
+    final ArrayList<Type> types = new ArrayList<>();
+  }
 }
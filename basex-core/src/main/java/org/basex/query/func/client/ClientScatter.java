@@ -0,0 +1,255 @@
+package org.basex.query.func.client;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.Map.*;
+import java.util.concurrent.*;
+
+import org.basex.api.client.*;
+import org.basex.core.*;
+import org.basex.query.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.map.Map;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+import org.basex.util.options.*;
+
+/**
+ * Function implementation.
+ *
+ * The query is sent to all sessions and evaluated concurrently. Results are returned as soon as
+ * they are available, either in the order of the sessions or in the order of completion.
+ * If an aggregation is requested, it is applied to the results on each server, and the
+ * partial results are combined locally.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientScatter extends ClientFn {
+  /** Aggregations. */
+  public enum Aggregate {
+    /** No aggregation. */ NONE,
+    /** Count. */ COUNT,
+    /** Sum. */ SUM,
+    /** Minimum. */ MIN,
+    /** Maximum. */ MAX;
+
+    @Override
+    public String toString() {
+      return name().toLowerCase(Locale.ENGLISH);
+    }
+  }
+
+  /** Scatter options. */
+  public static final class ScatterOptions extends Options {
+    /** Return results in the order of the sessions. */
+    public static final BooleanOption ORDERED = new BooleanOption("ordered", true);
+    /** Aggregation. */
+    public static final EnumOption<Aggregate> AGGREGATE =
+        new EnumOption<>("aggregate", Aggregate.NONE);
+  }
+
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    checkCreate(qc);
+    final ScatterOptions opts = toOptions(3, new ScatterOptions(), qc);
+    final Aggregate aggregate = opts.get(ScatterOptions.AGGREGATE);
+    final boolean ordered = opts.get(ScatterOptions.ORDERED) || aggregate != Aggregate.NONE;
+
+    // start evaluation of all queries
+    final Shard[] shards = shards(aggregate, qc);
+    final ClientSessions sessions = sessions(qc);
+    final LinkedBlockingQueue<Shard> done = new LinkedBlockingQueue<>();
+    for(final Shard shard : shards) {
+      shard.done = done;
+      shard.start();
+      sessions.register(shard, shard.cs);
+    }
+
+    final Iter iter = new Iter() {
+      /** Number of consumed shards. */
+      int s;
+      /** Current shard. */
+      Shard shard;
+      /** Index of next result of the current shard. */
+      int r;
+      /** Items of the current result. */
+      Iter items;
+
+      @Override
+      public Item next() throws QueryException {
+        while(true) {
+          if(items != null) {
+            final Item item = qc.next(items);
+            if(item != null) return item;
+            items = null;
+          }
+          if(shard != null && r < shard.results.strings.size()) {
+            items = ClientScatter.this.value(shard.results, r++, qc).iter();
+            continue;
+          }
+          if(s == shards.length) return null;
+          shard = await(ordered ? shards[s] : null, done, qc);
+          s++;
+          r = 0;
+        }
+      }
+    };
+    if(aggregate == Aggregate.NONE) return iter;
+
+    // combine partial results
+    final Function func = aggregate == Aggregate.MIN ? Function.MIN :
+      aggregate == Aggregate.MAX ? Function.MAX : Function.SUM;
+    return func.get(sc, info, iter.value(qc)).iter(qc);
+  }
+
+  /**
+   * Creates the shards.
+   * @param aggregate aggregation
+   * @param qc query context
+   * @return shards
+   * @throws QueryException query exception
+   */
+  private Shard[] shards(final Aggregate aggregate, final QueryContext qc)
+      throws QueryException {
+
+    // sessions
+    final ArrayList<ClientSession> sessions = new ArrayList<>();
+    final HashSet<ClientSession> unique = new HashSet<>();
+    final Iter ids = exprs[0].iter(qc);
+    for(Item it; (it = qc.next(ids)) != null;) {
+      final Uri id = (Uri) checkType(it, AtomType.URI);
+      final ClientSession cs = session(id, qc, false);
+      if(!unique.add(cs)) throw CLIENT_DUPLICATE_X.get(info, id);
+      sessions.add(cs);
+    }
+
+    // bindings: none, shared by all sessions, or one per session
+    final int ss = sessions.size();
+    final ArrayList<HashMap<String, Value>> bindings = new ArrayList<>();
+    if(exprs.length > 2) {
+      final Iter maps = exprs[2].iter(qc);
+      for(Item it; (it = qc.next(maps)) != null;) bindings.add(toBindings(toMap(it)));
+    }
+    final int bs = bindings.size();
+    if(bs > 1 && bs != ss) throw CLIENT_BINDINGS_X_X.get(info, ss, bs);
+
+    final String query = Token.string(toToken(exprs[1], qc));
+    final Shard[] shards = new Shard[ss];
+    for(int s = 0; s < ss; s++) {
+      final HashMap<String, Value> binds = bs == 0 ? new HashMap<>() :
+        bindings.get(bs == 1 ? 0 : s);
+      shards[s] = aggregate == Aggregate.NONE ? new Shard(sessions.get(s), query, binds) :
+        aggregate(sessions.get(s), query, binds, aggregate);
+    }
+    return shards;
+  }
+
+  /**
+   * Creates a shard that applies the aggregation on the server.
+   * The original query is evaluated via {@link Function#_XQUERY_EVAL}.
+   * @param cs client session
+   * @param query query string
+   * @param bindings bindings
+   * @param aggregate aggregation
+   * @return shard
+   */
+  private static Shard aggregate(final ClientSession cs, final String query,
+      final HashMap<String, Value> bindings, final Aggregate aggregate) {
+
+    final HashMap<String, Value> binds = new HashMap<>();
+    final StringBuilder prolog = new StringBuilder("declare variable $q external;");
+    final StringBuilder map = new StringBuilder();
+    int b = 0;
+    for(final Entry<String, Value> binding : bindings.entrySet()) {
+      final String var = "b" + b++;
+      prolog.append(" declare variable $").append(var).append(" external;");
+      if(map.length() != 0) map.append(", ");
+      map.append('\'').append(binding.getKey().replace("&", "&amp;").replace("'", "''"));
+      map.append("': $").append(var);
+      binds.put(var, binding.getValue());
+    }
+    binds.put("q", Str.get(query));
+
+    final String eval = Function._XQUERY_EVAL.args(" $q", " map { " + map + " }").trim();
+    final String wrapper = prolog + " " + aggregate + '(' + eval + ')';
+    return new Shard(cs, wrapper, binds);
+  }
+
+  /**
+   * Waits until a shard has been evaluated.
+   * @param shard shard to wait for ({@code null}: next completed shard)
+   * @param done completed shards
+   * @param qc query context
+   * @return shard
+   * @throws QueryException query exception
+   */
+  private Shard await(final Shard shard, final BlockingQueue<Shard> done,
+      final QueryContext qc) throws QueryException {
+
+    Shard sh = shard;
+    try {
+      if(sh == null) {
+        while((sh = done.poll(100, TimeUnit.MILLISECONDS)) == null) qc.checkStop();
+      } else {
+        while(sh.isAlive()) {
+          qc.checkStop();
+          sh.join(100);
+        }
+      }
+    } catch(final InterruptedException ex) {
+      throw CLIENT_ERROR_X.get(info, ex);
+    }
+    if(sh.error != null) throw error(sh.error);
+    return sh;
+  }
+
+  /** Query that is evaluated by a single session. */
+  private static final class Shard extends Thread {
+    /** Client session. */
+    private final ClientSession cs;
+    /** Query string. */
+    private final String query;
+    /** Bindings. */
+    private final HashMap<String, Value> bindings;
+    /** Queue for completed shards. */
+    private BlockingQueue<Shard> done;
+
+    /** Results (assigned if evaluation was successful). */
+    private Results results;
+    /** Error (assigned if evaluation failed). */
+    private IOException error;
+
+    /**
+     * Constructor.
+     * @param cs client session
+     * @param query query string
+     * @param bindings bindings
+     */
+    private Shard(final ClientSession cs, final String query,
+        final HashMap<String, Value> bindings) {
+      this.cs = cs;
+      this.query = query;
+      this.bindings = bindings;
+      setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      try {
+        results = query(cs, query, bindings);
+      } catch(final IOException ex) {
+        error = ex;
+      } catch(final RuntimeException ex) {
+        error = new BaseXException(Util.bug(ex));
+      } finally {
+        done.add(this);
+      }
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package org.basex.query.func.client;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.api.client.*;
 import org.basex.query.*;
@@ -15,10 +16,15 @@ import org.basex.util.hash.*;
  * @author Christian Gruen
  */
 public final class ClientSessions implements QueryResource {
+  /** Maximum time (milliseconds) for waiting for running threads when the sessions are closed. */
+  private static final long TIMEOUT = 5000;
+
   /** Last inserted id. */
   private int lastId = -1;
   /** Map with all open sessions and their ids. */
   private final TokenObjMap<ClientSession> conns = new TokenObjMap<>();
+  /** Threads that evaluate queries with the sessions, and the sessions used by them. */
+  private final HashMap<Thread, ClientSession> threads = new HashMap<>();
 
   /**
    * Adds a session.
@@ -48,8 +54,38 @@ public final class ClientSessions implements QueryResource {
     conns.delete(id.string());
   }
 
+  /**
+   * Registers a thread that evaluates a query with one of the sessions.
+   * If the thread is still running when the sessions are closed, the connection of its session
+   * will be closed, and the thread will be awaited for a limited time.
+   * @param thread thread
+   * @param cs client session used by the thread
+   */
+  synchronized void register(final Thread thread, final ClientSession cs) {
+    threads.keySet().removeIf(t -> !t.isAlive());
+    threads.put(thread, cs);
+  }
+
   @Override
   public synchronized void close() {
+    // abort running requests by closing their connections
+    for(final Map.Entry<Thread, ClientSession> entry : threads.entrySet()) {
+      if(!entry.getKey().isAlive()) continue;
+      try {
+        entry.getValue().disconnect();
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    }
+    final long end = System.currentTimeMillis() + TIMEOUT;
+    for(final Thread thread : threads.keySet()) {
+      try {
+        thread.join(Math.max(1, end - System.currentTimeMillis()));
+      } catch(final InterruptedException ex) {
+        Util.debug(ex);
+      }
+    }
+    threads.clear();
     for(final ClientSession cs : conns.values()) {
       try {
         if(cs != null) cs.close();
@@ -2,6 +2,7 @@ package org.basex.query.func.fn;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.path.*;
 import org.basex.query.func.*;
 import org.basex.query.func.map.*;
 import org.basex.query.iter.*;
@@ -22,11 +23,17 @@ public final class FnCount extends StandardFunc {
     final Expr expr = exprs[0];
     if(expr.seqType().zeroOrOne()) return expr.item(qc, info) == null ? Int.ZERO : Int.ONE;
 
-    // iterative access: if the iterator size is unknown, iterate through all results
+    // iterative access: if the iterator size is unknown, iterate through batches of results
     final Iter iter = expr.iter(qc);
     long size = iter.size();
     if(size == -1) {
-      do ++size; while(qc.next(iter) != null);
+      final Item[] items = new Item[Iter.BATCH];
+      int n;
+      size = 0;
+      do {
+        n = qc.next(iter, items);
+        size += n;
+      } while(n == Iter.BATCH);
     }
     return Int.get(size);
   }
@@ -44,6 +51,12 @@ public final class FnCount extends StandardFunc {
     if(expr instanceof MapKeys)
       return cc.function(Function._MAP_SIZE, info, ((MapKeys) expr).exprs);
 
+    // rewrite count(index/steps) to count(index): results are counted without node access
+    if(expr instanceof Path) {
+      final Expr root = ((Path) expr).indexRoot();
+      if(root != null) return cc.function(Function.COUNT, info, root);
+    }
+
     return this;
   }
 }
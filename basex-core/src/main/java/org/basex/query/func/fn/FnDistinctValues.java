@@ -3,10 +3,13 @@ package org.basex.query.func.fn;
 import java.util.*;
 
 import org.basex.data.*;
+import org.basex.index.*;
 import org.basex.index.path.*;
+import org.basex.index.query.*;
 import org.basex.index.stats.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.index.*;
 import org.basex.query.expr.path.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
@@ -14,8 +17,10 @@ import org.basex.query.util.collation.*;
 import org.basex.query.util.hash.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
 import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
+import org.basex.util.*;
 
 /**
  * Function implementation.
@@ -77,7 +82,8 @@ public final class FnDistinctValues extends StandardFunc {
       exprType.assign(type);
       simple = st.zeroOrOne();
     }
-    return optStats(expr, cc);
+    final Expr ex = optStats(expr, cc);
+    return ex != this ? ex : optIndex(expr, cc);
   }
 
   /**
@@ -89,7 +95,7 @@ public final class FnDistinctValues extends StandardFunc {
    */
   private Expr optStats(final Expr expr, final CompileContext cc) throws QueryException {
     // can only be performed without collation and on axis paths
-    if(exprs.length > 1 || !(expr instanceof AxisPath)) return this;
+    if(exprs.length > 1 || sc.collation != null || !(expr instanceof AxisPath)) return this;
 
     // try to get statistics for resulting nodes
     final ArrayList<PathNode> nodes = ((AxisPath) expr).pathNodes(cc);
@@ -116,4 +122,71 @@ public final class FnDistinctValues extends StandardFunc {
     }
     return vb.value();
   }
+
+  /**
+   * Tries to evaluate distinct values via the keys of the text or attribute index.
+   * This is possible if the path addresses all indexed nodes, and if each of the resulting
+   * nodes has been indexed.
+   * @param expr expression
+   * @param cc compilation context
+   * @return original expression or sequence of distinct values
+   */
+  private Expr optIndex(final Expr expr, final CompileContext cc) {
+    // can only be performed without collation and on axis paths
+    if(exprs.length > 1 || sc.collation != null || !(expr instanceof AxisPath)) return this;
+
+    // path must address all documents of a database without namespaces
+    final AxisPath path = (AxisPath) expr;
+    final ArrayList<PathNode> nodes = path.pathNodes(cc);
+    if(nodes == null) return this;
+    final Value root = path.rootValue(cc);
+    final Data data = root.data();
+    if(!(root instanceof DBNodeSeq ? ((DBNodeSeq) root).all() :
+      root instanceof DBNode && data.meta.ndocs == 1) || !data.nspaces.isEmpty()) return this;
+
+    // collect text and attribute nodes
+    final ArrayList<PathNode> targets = new ArrayList<>();
+    long count = 0;
+    for(PathNode pn : nodes) {
+      // retrieve text child if addressed node is an element
+      if(pn.kind == Data.ELEM) {
+        final PathNode elem = pn;
+        if(!elem.stats.isLeaf()) return this;
+        for(final PathNode n : elem.children) {
+          if(n.kind == Data.TEXT) pn = n;
+          else if(n.kind != Data.ATTR) return this;
+        }
+        // each element must have a single text node
+        if(pn == elem || pn.stats.count != elem.stats.count) return this;
+      }
+      if(!targets.isEmpty() && targets.get(0).kind != pn.kind) return this;
+      if(!targets.contains(pn)) {
+        targets.add(pn);
+        count += pn.stats.count;
+      }
+    }
+    if(targets.isEmpty()) return this;
+
+    // check if index exists, and if the addressed nodes are the indexed nodes
+    final IndexType type;
+    switch(targets.get(0).kind) {
+      case Data.TEXT: type = IndexType.TEXT; break;
+      case Data.ATTR: type = IndexType.ATTRIBUTE; break;
+      default: return this;
+    }
+    if(!data.meta.index(type)) return this;
+    final ArrayList<PathNode> indexed = ValueAccess.pathNodes(data, type);
+    if(indexed.size() != targets.size() || !indexed.containsAll(targets)) return this;
+
+    // return keys, provided that all nodes have been indexed (long strings are skipped)
+    final ValueBuilder vb = new ValueBuilder(cc.qc);
+    final EntryIterator ei = data.index(type).entries(new IndexEntries(Token.EMPTY, type));
+    for(byte[] key; (key = ei.next()) != null;) {
+      vb.add(new Atm(key));
+      count -= ei.count();
+    }
+    if(count != 0) return this;
+    cc.info(QueryText.OPTINDEX_X_X, type, this);
+    return vb.value();
+  }
 }
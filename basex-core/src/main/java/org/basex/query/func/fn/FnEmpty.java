@@ -2,7 +2,9 @@ package org.basex.query.func.fn;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.path.*;
 import org.basex.query.func.*;
+import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
@@ -17,12 +19,16 @@ public final class FnEmpty extends StandardFunc {
   @Override
   public Item item(final QueryContext qc, final InputInfo ii) throws QueryException {
     final Expr expr = exprs[0];
-    final Item item = expr.seqType().zeroOrOne() ? expr.item(qc, info) : expr.iter(qc).next();
-    return Bln.get(item == null);
+    if(expr.seqType().zeroOrOne()) return Bln.get(expr.item(qc, info) == null);
+
+    // if available, consult iterator size
+    final Iter iter = expr.iter(qc);
+    final long size = iter.size();
+    return Bln.get(size == -1 ? iter.next() == null : size == 0);
   }
 
   @Override
-  protected Expr opt(final CompileContext cc) {
+  protected Expr opt(final CompileContext cc) throws QueryException {
     // ignore non-deterministic expressions (e.g.: empty(error()))
     final Expr expr = exprs[0];
     if(!expr.has(Flag.NDT)) {
@@ -30,6 +36,12 @@ public final class FnEmpty extends StandardFunc {
       if(size != -1) return Bln.get(size == 0);
       if(expr.seqType().oneOrMore()) return Bln.FALSE;
     }
+
+    // rewrite empty(index/steps) to empty(index): index results are checked without node access
+    if(expr instanceof Path) {
+      final Expr root = ((Path) expr).indexRoot();
+      if(root != null) return cc.function(Function.EMPTY, info, root);
+    }
     return this;
   }
 }
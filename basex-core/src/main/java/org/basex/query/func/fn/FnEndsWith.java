@@ -2,6 +2,7 @@ package org.basex.query.func.fn;
 
 import org.basex.query.*;
 import org.basex.query.func.*;
+import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
@@ -19,4 +20,11 @@ public final class FnEndsWith extends StandardFunc {
     final Collation coll = toCollation(2, qc);
     return Bln.get(coll == null ? Token.endsWith(ss, sb) : coll.endsWith(ss, sb, info));
   }
+
+  @Override
+  public boolean indexAccessible(final IndexInfo ii) throws QueryException {
+    // support limited to default collation and static strings
+    return exprs.length == 2 && sc.collation == null && exprs[1] instanceof Str &&
+      ii.create(this, ((Str) exprs[1]).string());
+  }
 }
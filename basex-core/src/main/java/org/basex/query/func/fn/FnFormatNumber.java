@@ -32,7 +32,7 @@ public final class FnFormatNumber extends StandardFunc {
       final byte[] qnm = toTokenOrNull(exprs[2], qc);
       if(qnm != null) {
         try {
-          form = QNm.resolve(trim(qnm), sc);
+          form = QNm.resolve(trim(qnm), sc, qc);
         } catch(final QueryException ex) {
           throw FORMNUM_X.get(info, qnm);
         }
@@ -2,6 +2,7 @@ package org.basex.query.func.fn;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
@@ -28,6 +29,7 @@ public final class FnHead extends StandardFunc {
     if(expr instanceof Value) return ((Value) expr).itemAt(0);
 
     exprType.assign(st.type, st.oneOrMore() ? Occ.ONE : Occ.ZERO_ONE);
+    if(expr instanceof GFLWOR) ((GFLWOR) expr).limit(1, cc);
 
     return expr instanceof FnReverse ?
       cc.function(Function._UTIL_LAST_FROM, info, ((Arr) expr).exprs) : this;
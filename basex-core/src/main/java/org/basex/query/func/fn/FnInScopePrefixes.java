@@ -25,7 +25,7 @@ public final class FnInScopePrefixes extends StandardFunc {
 
   @Override
   public Value value(final QueryContext qc) throws QueryException {
-    final Atts atts = toElem(exprs[0], qc).nsScope(sc).add(XML, XML_URI);
+    final Atts atts = toElem(exprs[0], qc).nsScope(sc, qc).add(XML, XML_URI);
     final int as = atts.size();
     final TokenList tl = new TokenList();
     for(int a = 0; a < as; ++a) {
@@ -5,8 +5,11 @@ import static org.basex.util.Token.*;
 import java.util.regex.*;
 
 import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.util.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
+import org.basex.util.list.*;
 
 /**
  * Function implementation.
@@ -21,4 +24,110 @@ public final class FnMatches extends RegEx {
     final Pattern pattern = pattern(exprs[1], exprs.length == 3 ? exprs[2] : null, qc, false);
     return Bln.get(pattern.matcher(string(value)).find());
   }
+
+  @Override
+  public boolean indexAccessible(final IndexInfo ii) throws QueryException {
+    // support limited to static patterns and modifiers
+    final Expr modifier = exprs.length == 3 ? exprs[2] : null;
+    if(!(exprs[1] instanceof Str) || modifier != null && !(modifier instanceof Str)) return false;
+    // skip invalid patterns (errors will be raised at runtime)
+    try {
+      pattern(exprs[1], modifier, ii.qc, false);
+    } catch(final QueryException ex) {
+      Util.debug(ex);
+      return false;
+    }
+    final byte[][] literals = literals(((Str) exprs[1]).string(),
+        modifier != null ? ((Str) modifier).string() : EMPTY);
+    return literals != null && ii.create(this, literals);
+  }
+
+  /**
+   * Returns literal strings that are contained in all strings matched by the specified pattern.
+   * @param pattern pattern
+   * @param modifier modifier
+   * @return literal strings, or {@code null} if the pattern is not supported
+   */
+  private static byte[][] literals(final byte[] pattern, final byte[] modifier) {
+    boolean quote = false;
+    for(final byte m : modifier) {
+      if(m == 'q') quote = true;
+      else if(m != 's' && m != 'm') return null;
+    }
+    if(quote) return new byte[][] { pattern };
+
+    final TokenList list = new TokenList();
+    final TokenBuilder tb = new TokenBuilder();
+    final int pl = pattern.length;
+    // start of last literal character in the current string (-1: last atom was no literal)
+    int last = -1;
+    for(int p = 0; p < pl;) {
+      final int cp = cp(pattern, p);
+      p += cl(pattern, p);
+      int literal = -1;
+      if(cp == '|') {
+        // branches: no string will be contained in all matches
+        return null;
+      } else if(cp == '(' || cp == '[') {
+        p = skip(pattern, p, cp);
+        if(p == -1) return null;
+      } else if(cp == '\\') {
+        if(p == pl) return null;
+        final byte c = pattern[p++];
+        if(c == 'n') literal = '\n';
+        else if(c == 'r') literal = '\r';
+        else if(c == 't') literal = '\t';
+        else if(contains(token("\\|.-^?*+{}()[]$"), c)) literal = c;
+        else if((c == 'p' || c == 'P') && p < pl && pattern[p] == '{')
+          p = skip(pattern, p + 1, '{');
+        if(p == -1) return null;
+      } else if(cp == '?' || cp == '*' || cp == '+' || cp == '{') {
+        // quantifier: preceding atom is optional or repeated
+        if(cp == '{') p = skip(pattern, p, cp);
+        if(p == -1) return null;
+        if(p < pl && pattern[p] == '?') p++;
+        if(last != -1) tb.size(last);
+      } else if(cp != '.' && cp != '^' && cp != '$') {
+        literal = cp;
+      }
+
+      if(literal == -1) {
+        if(!tb.isEmpty()) list.add(tb.next());
+        last = -1;
+      } else {
+        last = tb.size();
+        tb.add(literal);
+      }
+    }
+    if(!tb.isEmpty()) list.add(tb.next());
+    return list.finish();
+  }
+
+  /**
+   * Skips a group, a character class or a quantifier.
+   * @param pattern pattern
+   * @param start position after the opening character
+   * @param open opening character
+   * @return position after the closing character, or {@code -1} if it was not found
+   */
+  private static int skip(final byte[] pattern, final int start, final int open) {
+    final int pl = pattern.length;
+    int parens = open == '(' ? 1 : 0, brackets = open == '[' ? 1 : 0;
+    for(int p = start; p < pl; p++) {
+      final byte b = pattern[p];
+      if(open == '{') {
+        if(b == '}') return p + 1;
+      } else if(b == '\\') {
+        p++;
+      } else if(b == '[') {
+        brackets++;
+      } else if(b == ']') {
+        if(--brackets == 0 && parens == 0) return p + 1;
+      } else if(brackets == 0) {
+        if(b == '(') parens++;
+        else if(b == ')' && --parens == 0) return p + 1;
+      }
+    }
+    return -1;
+  }
 }
@@ -49,36 +49,55 @@ public class FnMin extends StandardFunc {
     item1 = iter.next();
     if(item1 == null) return null;
 
-    // ensure that item is sortable
     final Type type1 = item1.type;
-    if(!type1.isSortable()) throw CMP_X.get(info, type1);
+    item1 = minmax(null, item1, type1, cmp, coll, qc);
+    final Item[] items = new Item[Iter.BATCH];
+    int n;
+    do {
+      n = qc.next(iter, items);
+      for(int i = 0; i < n; i++) item1 = minmax(item1, items[i], type1, cmp, coll, qc);
+    } while(n == Iter.BATCH);
+    return item1;
+  }
 
-    // strings and URIs
-    if(item1 instanceof AStr) {
-      for(Item item2; (item2 = qc.next(iter)) != null;) {
-        if(!(item2 instanceof AStr)) throw CMP_X_X_X.get(info, type1, item2.type, item2);
-        final Type type2 = item2.type;
-        if(cmp.eval(item1, item2, coll, sc, info)) item1 = item2;
-        if(type1 != type2 && item1.type == AtomType.URI) item1 = STR.cast(item1, qc, sc, info);
-      }
-      return item1;
-    }
-    // booleans, dates, durations, binaries
-    if(type1 == BLN || item1 instanceof ADate || item1 instanceof Dur || item1 instanceof Bin) {
-      for(Item item; (item = qc.next(iter)) != null;) {
-        if(type1 != item.type) throw CMP_X_X_X.get(info, type1, item.type, item);
-        if(cmp.eval(item1, item, coll, sc, info)) item1 = item;
-      }
-      return item1;
+  /**
+   * Compares the current minimum or maximum with another item.
+   * @param item1 current minimum or maximum, or {@code null} if the other item is the first one
+   * @param item2 other item
+   * @param type1 type of the first item
+   * @param cmp comparator
+   * @param coll collation (can be {@code null})
+   * @param qc query context
+   * @return new minimum or maximum
+   * @throws QueryException query exception
+   */
+  public final Item minmax(final Item item1, final Item item2, final Type type1, final OpV cmp,
+      final Collation coll, final QueryContext qc) throws QueryException {
+
+    if(item1 == null) {
+      // ensure that item is sortable
+      if(!type1.isSortable()) throw CMP_X.get(info, type1);
+      return type1.isUntyped() ? DBL.cast(item2, qc, sc, info) : item2;
     }
-    // numbers
-    if(type1.isUntyped()) item1 = DBL.cast(item1, qc, sc, info);
-    for(Item item2; (item2 = qc.next(iter)) != null;) {
-      final AtomType type = numType(item1, item2);
-      if(cmp.eval(item1, item2, coll, sc, info) || Double.isNaN(item2.dbl(info))) item1 = item2;
-      if(type != null) item1 = type.cast(item1, qc, sc, info);
+
+    Item item = item1;
+    final Type type2 = item2.type;
+    if(item instanceof AStr) {
+      // strings and URIs
+      if(!(item2 instanceof AStr)) throw CMP_X_X_X.get(info, type1, type2, item2);
+      if(cmp.eval(item, item2, coll, sc, info)) item = item2;
+      if(type1 != type2 && item.type == AtomType.URI) item = STR.cast(item, qc, sc, info);
+    } else if(type1 == BLN || item instanceof ADate || item instanceof Dur || item instanceof Bin) {
+      // booleans, dates, durations, binaries
+      if(type1 != type2) throw CMP_X_X_X.get(info, type1, type2, item2);
+      if(cmp.eval(item, item2, coll, sc, info)) item = item2;
+    } else {
+      // numbers
+      final AtomType type = numType(item, item2);
+      if(cmp.eval(item, item2, coll, sc, info) || Double.isNaN(item2.dbl(info))) item = item2;
+      if(type != null) item = type.cast(item, qc, sc, info);
     }
-    return item1;
+    return item;
   }
 
   /**
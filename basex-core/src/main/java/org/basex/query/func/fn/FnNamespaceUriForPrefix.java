@@ -21,7 +21,7 @@ public final class FnNamespaceUriForPrefix extends StandardFunc {
     final byte[] pref = toEmptyToken(exprs[0], qc);
     final ANode an = toElem(exprs[1], qc);
     if(eq(pref, XML)) return Uri.uri(XML_URI, false);
-    final Atts at = an.nsScope(sc);
+    final Atts at = an.nsScope(sc, qc);
     final byte[] s = at.value(pref);
     return s == null || s.length == 0 ? null : Uri.uri(s, false);
   }
@@ -29,7 +29,7 @@ public final class FnResolveQName extends StandardFunc {
     final QNm nm = new QNm(name);
     final byte[] pref = nm.prefix();
     byte[] uri = base.uri(pref);
-    if(uri == null) uri = sc.ns.uri(pref);
+    if(uri == null) uri = sc.ns.uri(pref, qc);
     if(uri == null) throw NSDECL_X.get(info, pref);
     nm.uri(uri);
     return nm;
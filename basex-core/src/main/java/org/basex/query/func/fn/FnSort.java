@@ -4,10 +4,12 @@ import static org.basex.query.QueryError.*;
 
 import java.util.*;
 
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
+import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.*;
@@ -50,6 +52,9 @@ public final class FnSort extends StandardFunc {
     final FItem key = exprs.length > 2 ? checkArity(exprs[2], 1, qc) : null;
 
     final long size = value.size();
+    final int limit = qc.context.options.get(MainOptions.SORTLIMIT);
+    if(limit > 0 && size > limit) return iter(value, key, coll, qc);
+
     final ValueList values = new ValueList(size);
     final Iter iter = value.iter();
     for(Item item; (item = qc.next(iter)) != null;) {
@@ -65,6 +70,43 @@ public final class FnSort extends StandardFunc {
     };
   }
 
+  /**
+   * Sorts the input data externally and returns an iterator.
+   * The sort keys are cached together with the positions of the input items.
+   * @param value value
+   * @param key function for computing the sort keys (can be {@code null})
+   * @param coll collation
+   * @param qc query context
+   * @return item order
+   * @throws QueryException query exception
+   */
+  private Iter iter(final Value value, final FItem key, final Collation coll,
+      final QueryContext qc) throws QueryException {
+
+    final ExternalSort sort = new ExternalSort((a, b) -> {
+      qc.checkStop();
+      try {
+        return compare(a[0], b[0], this, coll);
+      } catch(final QueryException ex) {
+        throw new QueryRTException(ex);
+      }
+    }, qc, info);
+
+    final Iter iter = value.iter();
+    long p = 0;
+    for(Item item; (item = qc.next(iter)) != null;) {
+      final Value val = key == null ? item : key.invokeValue(qc, info, item);
+      sort.add(new Value[] { val.atomValue(qc, info), Int.get(p++) });
+    }
+    return new Iter() {
+      @Override
+      public Item next() throws QueryException {
+        final Value[] tuple = sort.next();
+        return tuple != null ? value.itemAt(((Int) tuple[1]).itr()) : null;
+      }
+    };
+  }
+
   /**
    * Sort the input data and returns integers representing the item order.
    * @param values value list
@@ -84,20 +126,7 @@ public final class FnSort extends StandardFunc {
       Arrays.sort(order, (i1, i2) -> {
         qc.checkStop();
         try {
-          final Value value1 = values.get(i1), value2 = values.get(i2);
-          final long size1 = value1.size(), size2 = value2.size(), il = Math.min(size1, size2);
-          for(int i = 0; i < il; i++) {
-            Item item1 = value1.itemAt(i), item2 = value2.itemAt(i);
-            if(item1 == Dbl.NAN || item1 == Flt.NAN) item1 = null;
-            if(item2 == Dbl.NAN || item2 == Flt.NAN) item2 = null;
-            if(item1 != null && item2 != null && !item1.comparable(item2))
-              throw diffError(item1, item2, sf.info);
-
-            final int diff = item1 == null ? item2 == null ? 0 : -1 : item2 == null ? 1 :
-              item1.diff(item2, coll, sf.info);
-            if(diff != 0 && diff != Item.UNDEF) return diff;
-          }
-          return (int) (size1 - size2);
+          return compare(values.get(i1), values.get(i2), sf, coll);
         } catch(final QueryException ex) {
           throw new QueryRTException(ex);
         }
@@ -108,6 +137,33 @@ public final class FnSort extends StandardFunc {
     return order;
   }
 
+  /**
+   * Compares two sort keys.
+   * @param value1 first key
+   * @param value2 second key
+   * @param sf calling function
+   * @param coll collation
+   * @return result of comparison
+   * @throws QueryException query exception
+   */
+  private static int compare(final Value value1, final Value value2, final StandardFunc sf,
+      final Collation coll) throws QueryException {
+
+    final long size1 = value1.size(), size2 = value2.size(), il = Math.min(size1, size2);
+    for(int i = 0; i < il; i++) {
+      Item item1 = value1.itemAt(i), item2 = value2.itemAt(i);
+      if(item1 == Dbl.NAN || item1 == Flt.NAN) item1 = null;
+      if(item2 == Dbl.NAN || item2 == Flt.NAN) item2 = null;
+      if(item1 != null && item2 != null && !item1.comparable(item2))
+        throw diffError(item1, item2, sf.info);
+
+      final int diff = item1 == null ? item2 == null ? 0 : -1 : item2 == null ? 1 :
+        item1.diff(item2, coll, sf.info);
+      if(diff != 0 && diff != Item.UNDEF) return diff;
+    }
+    return (int) (size1 - size2);
+  }
+
   @Override
   protected Expr opt(final CompileContext cc) throws QueryException {
     // optimize sort on sequences
@@ -2,6 +2,7 @@ package org.basex.query.func.fn;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
 import org.basex.query.value.*;
@@ -163,11 +164,21 @@ public class FnSubsequence extends StandardFunc {
   }
 
   @Override
-  protected Expr opt(final CompileContext cc) {
+  protected Expr opt(final CompileContext cc) throws QueryException {
     final Expr expr = exprs[0];
     final SeqType st = expr.seqType();
     if(st.zero()) return expr;
     exprType.assign(st.type, st.occ.union(Occ.ZERO));
+
+    // only sort the required number of tuples
+    final int el = exprs.length;
+    if(expr instanceof GFLWOR && exprs[1] instanceof Value && exprs[el - 1] instanceof Value) {
+      final long[] range = range(cc.qc);
+      if(range != null && range != ALL && range[1] != Long.MAX_VALUE) {
+        final long max = range[0] + range[1] - 1;
+        if(max > 0) ((GFLWOR) expr).limit(max, cc);
+      }
+    }
     return this;
   }
 }
@@ -7,6 +7,7 @@ import java.math.*;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
@@ -29,6 +30,9 @@ public class FnSum extends StandardFunc {
     if(expr instanceof RangeSeq || expr instanceof Range) {
       final Item item = range(expr.value(qc));
       if(item != null) return item;
+    } else if(expr instanceof GFLWOR && ((GFLWOR) expr).primitive(qc) != null) {
+      final Item item = ((GFLWOR) expr).sum(qc);
+      if(item != null) return item;
     } else {
       if(expr instanceof SingletonSeq) {
         final Item item = singleton((SingletonSeq) expr);
@@ -130,24 +134,43 @@ public class FnSum extends StandardFunc {
   Item sum(final Iter iter, final Item item, final boolean avg, final QueryContext qc)
       throws QueryException {
 
-    Item res = item.type.isUntyped() ? Dbl.get(item.dbl(info)) : item;
-    final boolean num = res instanceof ANum, dtd = res.type == DTD, ymd = res.type == YMD;
-    if(!num && !dtd && !ymd) throw SUM_X_X.get(info, res.type, res);
+    Item res = add(null, item);
+    long c = 1;
+    final Item[] items = new Item[Iter.BATCH];
+    int n;
+    do {
+      n = qc.next(iter, items);
+      for(int i = 0; i < n; i++) res = add(res, items[i]);
+      c += n;
+    } while(n == Iter.BATCH);
+    return avg ? Calc.DIV.eval(res, Int.get(c), info) : res;
+  }
 
-    int c = 1;
-    for(Item it; (it = qc.next(iter)) != null;) {
-      final Type type = it.type;
-      Type tp = null;
-      if(type.isNumberOrUntyped()) {
-        if(!num) tp = AtomType.DUR;
-      } else {
-        if(num) tp = AtomType.NUM;
-        else if(dtd && type != DTD || ymd && type != YMD) tp = AtomType.DUR;
-      }
-      if(tp != null) throw CMP_X_X_X.get(info, tp, type, it);
-      res = Calc.PLUS.eval(res, it, info);
-      c++;
+  /**
+   * Adds an item to a sum.
+   * @param sum current sum, or {@code null} if the item is the first one
+   * @param item item to be added
+   * @return new sum
+   * @throws QueryException query exception
+   */
+  public final Item add(final Item sum, final Item item) throws QueryException {
+    if(sum == null) {
+      final Item res = item.type.isUntyped() ? Dbl.get(item.dbl(info)) : item;
+      if(!(res instanceof ANum) && res.type != DTD && res.type != YMD)
+        throw SUM_X_X.get(info, res.type, res);
+      return res;
     }
-    return avg ? Calc.DIV.eval(res, Int.get(c), info) : res;
+
+    final boolean num = sum instanceof ANum, dtd = sum.type == DTD, ymd = sum.type == YMD;
+    final Type type = item.type;
+    Type tp = null;
+    if(type.isNumberOrUntyped()) {
+      if(!num) tp = AtomType.DUR;
+    } else {
+      if(num) tp = AtomType.NUM;
+      else if(dtd && type != DTD || ymd && type != YMD) tp = AtomType.DUR;
+    }
+    if(tp != null) throw CMP_X_X_X.get(info, tp, type, item);
+    return Calc.PLUS.eval(sum, item, info);
   }
 }
@@ -43,7 +43,7 @@ abstract class Format extends StandardFunc {
 
     final ADate date = (ADate) checkType(item, tp);
     final Formatter form = Formatter.get(lng);
-    return Str.get(form.formatDate(date, lng, pic, cal, plc, info, sc));
+    return Str.get(form.formatDate(date, lng, pic, cal, plc, info, sc, qc));
   }
 
   @Override
@@ -4,6 +4,7 @@ import static org.basex.query.QueryError.*;
 import static org.basex.util.ft.FTFlag.*;
 
 import org.basex.data.*;
+import org.basex.index.query.*;
 import org.basex.query.*;
 import org.basex.query.expr.ft.*;
 import org.basex.query.expr.index.*;
@@ -23,7 +24,7 @@ public final class FtSearch extends FtAccess {
   public Iter iter(final QueryContext qc) throws QueryException {
     final Data data = checkData(qc);
     final Value terms = exprs[1].value(qc);
-    final FtIndexOptions opts = toOptions(2, new FtIndexOptions(), qc);
+    final FtSearchOptions opts = toOptions(2, new FtSearchOptions(), qc);
 
     final IndexDb db = new IndexStaticDb(info, data);
     final FTOpt opt = new FTOpt().assign(data.meta);
@@ -33,7 +34,19 @@ public final class FtSearch extends FtAccess {
     if(opt.is(FZ) && opt.is(WC)) throw FT_OPTIONS.get(info, this);
 
     final FTWords ftw = new FTWords(info, db, terms, mode).init(qc, opt);
-    return new FTIndexAccess(info, options(ftw, opts), db).iter(qc);
+    final FTExpr expr = options(ftw, opts);
+    FTRanking ranking = null;
+    if(opts.get(FtSearchOptions.SCORING) == FTScoring.BM25) {
+      ranking = new FTRanking(data);
+      ftw.ranking(ranking);
+    }
+    final int top = opts.get(FtSearchOptions.TOP);
+    if(top <= 0) return new FTIndexAccess(info, expr, db).iter(qc);
+
+    // return best results; if single tokens are requested, skip nodes that cannot be ranked
+    final FTIndexIterator[] iters = ranking != null && expr == ftw ? ftw.iterators(qc) : null;
+    return (iters != null ? ranking.top(iters, top, qc) :
+      FTRanking.top(expr.iter(qc), top, qc)).iter();
   }
 
   @Override
@@ -123,7 +123,7 @@ final class Unit {
         // expected error code
         QNm code = null;
         if(vs == 2 && eq(EXPECTED, args[0].string(null))) {
-          code = QNm.resolve(args[1].string(null), QueryText.ERROR_URI, sf.sc, sf.info);
+          code = QNm.resolve(args[1].string(null), QueryText.ERROR_URI, sf.sc, null, sf.info);
         } else if(vs != 0) {
           throw BASEX_ANNOTATION2_X_X.get(ann.info, ann, arguments(vs));
         }
@@ -203,7 +203,7 @@ final class Unit {
     final Item[] args = ann.args();
     if(args.length != 0) {
       final byte[] name = args[0].string(null);
-      if(name.length != 0) return QNm.resolve(name, sf.name.uri(), sf.sc, sf.info);
+      if(name.length != 0) return QNm.resolve(name, sf.name.uri(), sf.sc, null, sf.info);
     }
     return null;
   }
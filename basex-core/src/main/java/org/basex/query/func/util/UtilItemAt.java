@@ -2,6 +2,7 @@ package org.basex.query.func.util;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
 import org.basex.query.value.*;
@@ -57,6 +58,8 @@ public final class UtilItemAt extends StandardFunc {
       // check for large values
       if(expr instanceof Value) return ps <= expr.size() ? ((Value) expr).itemAt(ps - 1) :
         Empty.SEQ;
+      // only sort the required number of tuples
+      if(expr instanceof GFLWOR) ((GFLWOR) expr).limit(ps, cc);
     }
     return this;
   }
@@ -0,0 +1,120 @@
+package org.basex.query.func.xquery;
+
+import java.util.concurrent.*;
+
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.util.*;
+
+/**
+ * Splits a sequence into chunks, which are processed in parallel. The results of the chunks
+ * are stored in their original order.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+final class XQueryChunks extends RecursiveAction {
+  /** Serial version UID. */
+  private static final long serialVersionUID = 1L;
+
+  /** Function for processing a single chunk. */
+  @FunctionalInterface
+  interface Chunk {
+    /**
+     * Processes a chunk.
+     * @param items items of the chunk
+     * @param qc query context
+     * @return result
+     * @throws QueryException query exception
+     */
+    Value eval(Value items, QueryContext qc) throws QueryException;
+  }
+
+  /** Input sequence. */
+  private final Value input;
+  /** Chunk function. */
+  private final Chunk chunk;
+  /** Results of the chunks. */
+  private final Value[] results;
+  /** Number of items per chunk. */
+  private final long size;
+  /** First chunk. */
+  private final int start;
+  /** Last chunk (exclusive). */
+  private final int end;
+  /** Query context. */
+  private final QueryContext qc;
+
+  /**
+   * Constructor.
+   * @param input input sequence
+   * @param chunk chunk function
+   * @param results results of the chunks
+   * @param size number of items per chunk
+   * @param start first chunk
+   * @param end last chunk (exclusive)
+   * @param qc query context
+   */
+  private XQueryChunks(final Value input, final Chunk chunk, final Value[] results,
+      final long size, final int start, final int end, final QueryContext qc) {
+    this.input = input;
+    this.chunk = chunk;
+    this.results = results;
+    this.size = size;
+    this.start = start;
+    this.end = end;
+    this.qc = qc;
+  }
+
+  /**
+   * Processes the chunks of the specified sequence with the worker threads of the database
+   * context. The number of chunks depends on the number of worker threads.
+   * @param input input sequence
+   * @param chunk chunk function
+   * @param qc query context
+   * @param info input info
+   * @return results of the chunks
+   * @throws QueryException query exception
+   */
+  static Value[] eval(final Value input, final Chunk chunk, final QueryContext qc,
+      final InputInfo info) throws QueryException {
+
+    final long is = input.size();
+    final int tasks = qc.context.jobs.parallelism() * 4;
+    final long size = Math.max(1, (is + tasks - 1) / tasks);
+    final int chunks = (int) ((is + size - 1) / size);
+    final Value[] results = new Value[chunks];
+    if(chunks == 1) {
+      results[0] = chunk.eval(input, qc);
+    } else if(chunks > 1) {
+      XQueryForkJoin.invoke(new XQueryChunks(input, chunk, results, size, 0, chunks, qc),
+          qc, info);
+    }
+    return results;
+  }
+
+  @Override
+  protected void compute() {
+    final int s = start, e = end;
+    if(e - s == 1) {
+      // perform the work with a separate stack and focus
+      QueryContext wqc = null;
+      try {
+        wqc = qc.worker();
+        final long is = s * size;
+        results[s] = chunk.eval(input.subSequence(is, Math.min(size, input.size() - is), wqc),
+            wqc);
+      } catch(final QueryException ex) {
+        completeExceptionally(ex);
+        cancel(true);
+      } finally {
+        if(wqc != null) wqc.close();
+      }
+    } else {
+      // split the work
+      final int m = s + (e - s) / 2;
+      invokeAll(new XQueryChunks(input, chunk, results, size, s, m, qc),
+          new XQueryChunks(input, chunk, results, size, m, e, qc));
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package org.basex.query.func.xquery;
+
+import org.basex.query.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+
+/**
+ * Function implementation.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class XQueryFilter extends StandardFunc {
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    return value(qc).iter();
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    final Value input = exprs[0].value(qc);
+    final FItem func = checkArity(exprs[1], 1, qc);
+
+    final ValueBuilder vb = new ValueBuilder(qc);
+    for(final Value value : XQueryChunks.eval(input, (items, wqc) -> {
+      final ValueBuilder cvb = new ValueBuilder(wqc);
+      for(final Item item : items) {
+        wqc.checkStop();
+        if(toBoolean(func.invokeItem(wqc, info, item))) cvb.add(item);
+      }
+      return cvb.value();
+    }, qc, info)) vb.add(value);
+    return vb.value();
+  }
+}
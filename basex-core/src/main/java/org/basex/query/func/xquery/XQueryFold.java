@@ -0,0 +1,45 @@
+package org.basex.query.func.xquery;
+
+import org.basex.query.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+
+/**
+ * Function implementation.
+ *
+ * The items are folded in chunks, which are processed in parallel, and the results of
+ * the chunks are folded in their original order. The function must be associative, and
+ * the zero value must be its identity value.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class XQueryFold extends StandardFunc {
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    return value(qc).iter();
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    final Value input = exprs[0].value(qc), zero = exprs[1].value(qc);
+    final FItem func = checkArity(exprs[2], 2, qc);
+
+    final Value[] results = XQueryChunks.eval(input, (items, wqc) -> {
+      Value res = zero;
+      for(final Item item : items) {
+        wqc.checkStop();
+        res = func.invokeValue(wqc, info, res, item);
+      }
+      return res;
+    }, qc, info);
+
+    final int rl = results.length;
+    if(rl == 0) return zero;
+    Value res = results[0];
+    for(int r = 1; r < rl; r++) res = func.invokeValue(qc, info, res, results[r]);
+    return res;
+  }
+}
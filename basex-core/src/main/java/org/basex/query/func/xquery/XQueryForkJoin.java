@@ -31,19 +31,28 @@ public final class XQueryForkJoin extends StandardFunc {
     // single function: invoke directly
     if(funcs.size() == 1) return ((FItem) funcs.itemAt(0)).invokeValue(qc, info);
 
-    final ForkJoinPool pool = new ForkJoinPool();
-    final XQueryTask task = new XQueryTask(funcs, qc, info);
+    return invoke(new XQueryTask(funcs, qc, info), qc, info);
+  }
+
+  /**
+   * Performs a task with the worker threads of the database context.
+   * @param <T> result type
+   * @param task task
+   * @param qc query context
+   * @param info input info
+   * @return result
+   * @throws QueryException query exception
+   */
+  static <T> T invoke(final ForkJoinTask<T> task, final QueryContext qc, final InputInfo info)
+      throws QueryException {
     try {
-      return pool.invoke(task);
+      return qc.context.jobs.invoke(task);
     } catch(final Exception ex) {
       // pass on query and job exceptions
       final Throwable e = Util.rootException(ex);
       if(e instanceof QueryException) throw (QueryException) e;
       if(e instanceof JobException) throw (JobException) e;
       throw XQUERY_UNEXPECTED_X.get(info, e);
-    } finally {
-      // required?
-      pool.shutdown();
     }
   }
 
@@ -56,6 +56,15 @@ public final class AtomIter extends Iter {
     }
   }
 
+  @Override
+  public int next(final Item[] items) throws QueryException {
+    if(size == -1) return super.next(items);
+    // iterator will not yield any arrays: atomize items in place
+    final int n = qc.next(iter, items);
+    for(int i = 0; i < n; i++) items[i] = items[i].atomItem(qc, info);
+    return n;
+  }
+
   @Override
   public long size() {
     return size;
@@ -12,6 +12,9 @@ import org.basex.query.value.seq.*;
  * @author Christian Gruen
  */
 public abstract class Iter {
+  /** Default number of items requested by {@link #next(Item[])}. */
+  public static final int BATCH = 128;
+
   /**
    * Returns the next item.
    * @return resulting item, or {@code null} if all items have been returned
@@ -19,6 +22,21 @@ public abstract class Iter {
    */
   public abstract Item next() throws QueryException;
 
+  /**
+   * Fills the specified array with the next items. Iterators may override this method to
+   * return multiple items at once, with less overhead than single {@link #next()} calls.
+   * If fewer items are returned than requested, all items have been returned.
+   * @param items array to be filled
+   * @return number of returned items
+   * @throws QueryException query exception
+   */
+  public int next(final Item[] items) throws QueryException {
+    final int il = items.length;
+    int i = 0;
+    for(Item item; i < il && (item = next()) != null;) items[i++] = item;
+    return i;
+  }
+
   /**
    * Returns the specified item, or an arbitrary item if the index is invalid.
    * If this method returns items, {@link #size()} needs to be implemented as well.
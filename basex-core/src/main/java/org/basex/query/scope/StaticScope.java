@@ -31,7 +31,7 @@ public abstract class StaticScope extends ExprInfo implements Scope {
   /** Compilation flag. */
   protected boolean compiled;
   /** Documentation. */
-  private final byte[] doc;
+  protected final byte[] doc;
 
   /**
    * Constructor.
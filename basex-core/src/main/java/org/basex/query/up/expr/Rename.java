@@ -65,7 +65,7 @@ public final class Rename extends Update {
     if(target.type == NodeType.ELM || target.type == NodeType.ATT) {
       final byte[] rp = rename.prefix();
       final byte[] ru = rename.uri();
-      final Atts at = target.nsScope(sc);
+      final Atts at = target.nsScope(sc, qc);
       final int as = at.size();
       for(int a = 0; a < as; a++) {
         if(eq(at.name(a), rp) && !eq(at.value(a), ru))
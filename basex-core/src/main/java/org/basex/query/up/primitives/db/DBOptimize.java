@@ -68,6 +68,7 @@ public final class DBOptimize extends DBUpdate {
     options.assignIfAbsent(MainOptions.ATTRINDEX, meta.createattr);
     options.assignIfAbsent(MainOptions.TOKENINDEX, meta.createtoken);
     options.assignIfAbsent(MainOptions.FTINDEX, meta.createft);
+    options.assignIfAbsent(MainOptions.TRIGRAMINDEX, meta.createtrigram);
     options.assignIfAbsent(MainOptions.TEXTINCLUDE, meta.textinclude);
     options.assignIfAbsent(MainOptions.ATTRINCLUDE, meta.attrinclude);
     options.assignIfAbsent(MainOptions.TOKENINCLUDE, meta.tokeninclude);
@@ -82,6 +83,7 @@ public final class DBOptimize extends DBUpdate {
     meta.createattr = opts.get(MainOptions.ATTRINDEX);
     meta.createtoken = opts.get(MainOptions.TOKENINDEX);
     meta.createft = opts.get(MainOptions.FTINDEX);
+    meta.createtrigram = opts.get(MainOptions.TRIGRAMINDEX);
 
     meta.updindex = opts.get(MainOptions.UPDINDEX);
     meta.autooptimize = opts.get(MainOptions.AUTOOPTIMIZE);
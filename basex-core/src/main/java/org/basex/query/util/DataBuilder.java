@@ -208,7 +208,7 @@ public final class DataBuilder {
     final int last = data.meta.size;
 
     // add new namespaces
-    final Atts ns = par == -1 ? node.nsScope(null) : node.namespaces();
+    final Atts ns = par == -1 ? node.nsScope(null, null) : node.namespaces();
     data.nspaces.open(last, ns);
 
     // collect node name properties
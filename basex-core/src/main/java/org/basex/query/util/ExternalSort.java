@@ -0,0 +1,284 @@
+package org.basex.query.util;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.util.*;
+
+/**
+ * <p>External merge sort for tuples of values.</p>
+ *
+ * <p>Tuples are sorted in main memory. If the number of cached tuples exceeds the limit
+ * specified by {@link MainOptions#SORTLIMIT}, they are sorted and written to a temporary run
+ * file (see {@link TupleFiles}). When the results are requested, the runs are merged and
+ * streamed back. If there are more than {@link #FANIN} runs, consecutive runs are merged
+ * into larger run files in intermediate passes.</p>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ExternalSort {
+  /** Maximum number of run files that are merged at the same time. */
+  static final int FANIN = 64;
+
+  /** Tuple comparator (may throw {@link QueryRTException}). */
+  private final Comparator<Value[]> comp;
+  /** Query context. */
+  private final QueryContext qc;
+  /** Input info. */
+  private final InputInfo info;
+  /** Maximum number of cached tuples (0: no limit). */
+  private final int limit;
+
+  /** Cached tuples. */
+  private ArrayList<Value[]> tuples = new ArrayList<>();
+  /** Run files. */
+  private final ArrayList<IOFile> files = new ArrayList<>();
+  /** Tuple store. */
+  private final TupleFiles store;
+
+  /** Runs to be merged (assigned when the first tuple is requested). */
+  private PriorityQueue<Run> runs;
+
+  /**
+   * Constructor.
+   * @param comp tuple comparator (may throw {@link QueryRTException})
+   * @param qc query context
+   * @param info input info
+   */
+  public ExternalSort(final Comparator<Value[]> comp, final QueryContext qc,
+      final InputInfo info) {
+    this.comp = comp;
+    this.qc = qc;
+    this.info = info;
+    limit = qc.context.options.get(MainOptions.SORTLIMIT);
+    store = new TupleFiles(qc, info);
+  }
+
+  /**
+   * Adds a tuple.
+   * @param tuple tuple
+   * @throws QueryException query exception
+   */
+  public void add(final Value[] tuple) throws QueryException {
+    tuples.add(tuple);
+    if(limit > 0 && tuples.size() >= limit) write();
+  }
+
+  /**
+   * Returns the next tuple in sort order.
+   * @return tuple, or {@code null} if all tuples have been returned
+   * @throws QueryException query exception
+   */
+  public Value[] next() throws QueryException {
+    if(runs == null) merge();
+    final Run run;
+    try {
+      run = runs.poll();
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+    if(run == null) return null;
+
+    final Value[] tuple = run.tuple;
+    try {
+      if(run.next()) runs.add(run);
+    } catch(final IOException ex) {
+      throw IOERR_X.get(info, ex);
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+    return tuple;
+  }
+
+  /**
+   * Sorts the cached tuples.
+   * @return sorted tuples
+   * @throws QueryException query exception
+   */
+  private Value[][] sort() throws QueryException {
+    final Value[][] array = tuples.toArray(new Value[tuples.size()][]);
+    tuples = new ArrayList<>();
+    try {
+      // stable sort
+      Arrays.sort(array, comp);
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+    return array;
+  }
+
+  /**
+   * Sorts the cached tuples and writes them to a new run file.
+   * @throws QueryException query exception
+   */
+  private void write() throws QueryException {
+    final Value[][] array = sort();
+    try {
+      final IOFile file = store.create();
+      files.add(file);
+      try(DataOutput out = new DataOutput(file)) {
+        out.writeNum(array.length);
+        for(final Value[] tuple : array) {
+          qc.checkStop();
+          store.write(tuple, out);
+        }
+      }
+    } catch(final IOException ex) {
+      throw IOERR_X.get(info, ex);
+    }
+  }
+
+  /**
+   * Sorts the remaining cached tuples and prepares the runs for merging.
+   * @throws QueryException query exception
+   */
+  private void merge() throws QueryException {
+    runs = queue();
+    try {
+      // limit the number of opened files
+      while(files.size() > FANIN) pass();
+      final int fs = files.size();
+      for(int f = 0; f <= fs; f++) {
+        final Run run = f < fs ? new Run(f, files.get(f)) : new Run(f, sort());
+        if(run.next()) runs.add(run);
+      }
+    } catch(final IOException ex) {
+      throw IOERR_X.get(info, ex);
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /**
+   * Merges groups of consecutive run files into new run files.
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private void pass() throws IOException, QueryException {
+    final ArrayList<IOFile> merged = new ArrayList<>();
+    final int fs = files.size();
+    for(int f = 0; f < fs; f += FANIN) {
+      final List<IOFile> group = files.subList(f, Math.min(f + FANIN, fs));
+      if(group.size() == 1) {
+        merged.add(group.get(0));
+        continue;
+      }
+      // open runs
+      final PriorityQueue<Run> queue = queue();
+      final ArrayList<Run> list = new ArrayList<>(group.size());
+      int size = 0;
+      for(final IOFile file : group) {
+        final Run run = new Run(list.size(), file);
+        list.add(run);
+        size += run.size;
+      }
+      for(final Run run : list) {
+        if(run.next()) queue.add(run);
+      }
+      // write merged tuples to a new run file
+      final IOFile file = store.create();
+      merged.add(file);
+      try(DataOutput out = new DataOutput(file)) {
+        out.writeNum(size);
+        for(Run run; (run = queue.poll()) != null;) {
+          qc.checkStop();
+          store.write(run.tuple, out);
+          if(run.next()) queue.add(run);
+        }
+      }
+    }
+    files.clear();
+    files.addAll(merged);
+  }
+
+  /**
+   * Returns a new priority queue for merging runs.
+   * The order of runs is considered to preserve stability.
+   * @return queue
+   */
+  private PriorityQueue<Run> queue() {
+    return new PriorityQueue<>((run1, run2) -> {
+      final int c = comp.compare(run1.tuple, run2.tuple);
+      return c != 0 ? c : run1.index - run2.index;
+    });
+  }
+
+  /** Sorted run. */
+  private final class Run {
+    /** Index of the run. */
+    private final int index;
+    /** Run file (can be {@code null}). */
+    private final IOFile file;
+    /** Input stream (can be {@code null}). */
+    private final DataInput in;
+    /** Sorted tuples in main memory (can be {@code null}). */
+    private final Value[][] array;
+    /** Number of tuples. */
+    private final int size;
+    /** Number of returned tuples. */
+    private int pos;
+    /** Current tuple. */
+    private Value[] tuple;
+
+    /**
+     * Constructor for runs stored on disk.
+     * @param index index
+     * @param file run file
+     * @throws IOException I/O exception
+     */
+    private Run(final int index, final IOFile file) throws IOException {
+      this.index = index;
+      this.file = file;
+      in = new DataInput(file);
+      size = in.readNum();
+      array = null;
+    }
+
+    /**
+     * Constructor for runs in main memory.
+     * @param index index
+     * @param array sorted tuples
+     */
+    private Run(final int index, final Value[][] array) {
+      this.index = index;
+      this.array = array;
+      size = array.length;
+      file = null;
+      in = null;
+    }
+
+    /**
+     * Assigns the next tuple.
+     * @return {@code true} if a tuple was assigned
+     * @throws IOException I/O exception
+     */
+    private boolean next() throws IOException {
+      if(pos == size) {
+        tuple = null;
+        if(in != null) {
+          in.close();
+          file.delete();
+        }
+        return false;
+      }
+      if(in != null) {
+        tuple = store.read(in);
+      } else {
+        // free the space occupied by the tuple
+        tuple = array[pos];
+        array[pos] = null;
+      }
+      pos++;
+      return true;
+    }
+  }
+}
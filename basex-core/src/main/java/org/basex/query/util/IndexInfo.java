@@ -14,6 +14,7 @@ import org.basex.query.expr.*;
 import org.basex.query.expr.index.*;
 import org.basex.query.expr.path.*;
 import org.basex.query.expr.path.Test.*;
+import org.basex.query.func.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.*;
@@ -67,7 +68,7 @@ public final class IndexInfo {
    * the applicable index type.
    * @param input input (if {@code null}, no optimization will be possible)
    * @param type proposed index type ({@link IndexType#TOKEN}, {@link IndexType#FULLTEXT},
-   * or {@code null})
+   * {@link IndexType#TRIGRAM}, or {@code null})
    * @return type of applicable index or {@code null}
    */
   public IndexType type(final Expr input, final IndexType type) {
@@ -139,7 +140,9 @@ public final class IndexInfo {
           if(r != 0) {
             final ValueAccess va = new ValueAccess(info, item, type, test, db).trim(trim);
             tmp.add(va);
-            if(r == 1) va.exprType.assign(Occ.ZERO_ONE);
+            // assign exact number of results, or optional occurrence indicator
+            if(va.exact()) va.exprType.assign(va.seqType().type, Occ.ZERO_MORE, r);
+            else if(r == 1) va.exprType.assign(Occ.ZERO_ONE);
           }
           costs = IndexCosts.add(costs, c);
         }
@@ -156,8 +159,8 @@ public final class IndexInfo {
       if(!search.seqType().type.isStringOrUntyped() || search.has(Flag.CTX, Flag.NDT))
         return false;
 
-      // estimate costs (tend to worst case)
-      if(data != null) costs = IndexCosts.get(Math.max(1, data.meta.size / 10));
+      // estimate costs (tend to worst case; 1 would indicate exactly one result)
+      if(data != null) costs = IndexCosts.get(Math.max(2, data.meta.size / 10));
       root = new ValueAccess(info, search, type, test, db);
     }
 
@@ -165,6 +168,37 @@ public final class IndexInfo {
     return true;
   }
 
+  /**
+   * Tries to rewrite a substring function for trigram index access.
+   * The index returns all texts or attribute values that contain the trigrams of the specified
+   * strings. The candidates are verified by evaluating the function for each of them.
+   * @param func function ({@code contains}, {@code starts-with}, {@code ends-with},
+   *   {@code matches}), the first argument of which refers to the input
+   * @param strings strings that are contained in all results
+   * @return success flag
+   * @throws QueryException query exception
+   */
+  public boolean create(final StandardFunc func, final byte[]... strings) throws QueryException {
+    // skip strings that are too short to be indexed
+    if(TrigramAccess.trigrams(strings).isEmpty() ||
+        type(func.exprs[0], IndexType.TRIGRAM) == null) return false;
+
+    final Data data = db.data();
+    if(data == null && !enforce()) return false;
+
+    final InputInfo info = func.info;
+    final TrigramAccess ta = new TrigramAccess(info, strings, text, db);
+    costs = ta.costs(this, data);
+    if(costs == null) return false;
+
+    // verify candidates: evaluate function with the text or attribute as first argument
+    final Expr[] args = func.exprs.clone();
+    args[0] = new ContextValue(info);
+    final Step step = Step.get(info, Axis.SELF, KindTest.NOD, func.sig.get(func.sc, info, args));
+    create(Path.get(info, ta, step), true, info, Util.info(OPTINDEX_X_X, IndexType.TRIGRAM, func));
+    return true;
+  }
+
   /**
    * Creates an index expression with an inverted axis path.
    * @param root new root expression
@@ -210,6 +244,7 @@ public final class IndexInfo {
     return db.data().meta.index(type) && (
       type == IndexType.FULLTEXT ? text :
       type == IndexType.TOKEN ? !text :
+      type == IndexType.TRIGRAM ? text || last.test.type == NodeType.ATT :
       type == IndexType.TEXT ? text :
       !text && last.test.type == NodeType.ATT
     );
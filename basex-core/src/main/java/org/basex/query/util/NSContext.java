@@ -8,7 +8,10 @@ import org.basex.query.*;
 import org.basex.util.*;
 
 /**
- * This class references all statically known namespaces.
+ * This class references all statically known namespaces. Namespaces that are dynamically added
+ * by element constructors are stored in the query context (see
+ * {@link QueryContext#namespaces(NSContext, boolean)}), as a compiled expression may be evaluated
+ * by several threads at the same time.
  *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
@@ -16,8 +19,6 @@ import org.basex.util.*;
 public final class NSContext {
   /** Static namespaces, containing prefixes and URIs. */
   public final Atts ns = new Atts();
-  /** Dynamically added namespaces. */
-  private Atts stack;
 
   /**
    * Validates and adds the specified namespace at parsing time.
@@ -60,9 +61,11 @@ public final class NSContext {
    * Returns the namespace URI for the specified prefix if it is either found in the dynamic,
    * static or predefined namespaces.
    * @param pref prefix of the namespace
+   * @param qc query context with dynamically added namespaces (can be {@code null})
    * @return namespace URI or {@code null}
    */
-  public byte[] uri(final byte[] pref) {
+  public byte[] uri(final byte[] pref, final QueryContext qc) {
+    final Atts stack = qc != null ? qc.namespaces(this, false) : null;
     if(stack != null) {
       for(int s = stack.size() - 1; s >= 0; s--) {
         if(eq(stack.name(s), pref)) return stack.value(s);
@@ -74,43 +77,41 @@ public final class NSContext {
 
   /**
    * Returns the number of dynamic namespaces.
+   * @param qc query context
    * @return namespaces
    */
-  public int size() {
-    return stack().size();
+  public int size(final QueryContext qc) {
+    final Atts stack = qc.namespaces(this, false);
+    return stack != null ? stack.size() : 0;
   }
 
   /**
    * Sets the number of dynamic namespaces.
    * @param s namespaces
+   * @param qc query context
    */
-  public void size(final int s) {
-    stack().size(s);
+  public void size(final int s, final QueryContext qc) {
+    final Atts stack = qc.namespaces(this, false);
+    if(stack != null) stack.size(s);
   }
 
   /**
    * Adds a namespace to the namespace stack.
    * @param pref namespace prefix
    * @param uri namespace URI
+   * @param qc query context
    */
-  public void add(final byte[] pref, final byte[] uri) {
-    stack().add(pref, uri);
-  }
-
-  /**
-   * Returns the namespace stack.
-   * @return stack
-   */
-  public Atts stack() {
-    if(stack == null) stack = new Atts();
-    return stack;
+  public void push(final byte[] pref, final byte[] uri, final QueryContext qc) {
+    qc.namespaces(this, true).add(pref, uri);
   }
 
   /**
    * Adds the namespaces that are currently in scope.
    * @param atts namespaces
+   * @param qc query context with dynamically added namespaces (can be {@code null})
    */
-  public void inScope(final Atts atts) {
+  public void inScope(final Atts atts, final QueryContext qc) {
+    final Atts stack = qc != null ? qc.namespaces(this, false) : null;
     if(stack != null) {
       for(int s = stack.size() - 1; s >= 0; s--) {
         final byte[] nm = stack.name(s);
@@ -0,0 +1,279 @@
+package org.basex.query.util;
+
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.math.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+
+/**
+ * <p>Temporary files with tuples of values, which are written by query operators that exceed
+ * their main-memory limits.</p>
+ *
+ * <p>Atomic items of common types and database nodes are serialized. All other values
+ * (e.g., main-memory nodes or function items) are kept in main memory, and references to them
+ * are written to the files. The files will be deleted after query execution.</p>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class TupleFiles {
+  /** Value type: {@code null} reference. */
+  private static final int NULL = 0;
+  /** Value type: reference to a value that has been kept in main memory. */
+  private static final int VALUE = 1;
+  /** Value type: sequence. */
+  private static final int SEQ = 2;
+  /** Value type: database node. */
+  private static final int DBNODE = 3;
+  /** Value type: string. */
+  private static final int STR = 4;
+  /** Value type: untyped atomic. */
+  private static final int ATM = 5;
+  /** Value type: integer. */
+  private static final int INT = 6;
+  /** Value type: double. */
+  private static final int DBL = 7;
+  /** Value type: float. */
+  private static final int FLT = 8;
+  /** Value type: decimal. */
+  private static final int DEC = 9;
+  /** Value type: boolean. */
+  private static final int BLN = 10;
+
+  /** Query context. */
+  private final QueryContext qc;
+  /** Input info. */
+  private final InputInfo info;
+  /** Values kept in main memory. */
+  private final ArrayList<Value> values = new ArrayList<>();
+  /** Data references of serialized database nodes. */
+  private final ArrayList<Data> datas = new ArrayList<>();
+
+  /**
+   * Constructor.
+   * @param qc query context
+   * @param info input info
+   */
+  public TupleFiles(final QueryContext qc, final InputInfo info) {
+    this.qc = qc;
+    this.info = info;
+  }
+
+  /**
+   * Creates a new temporary file, which will be deleted after query execution.
+   * @return file
+   * @throws IOException I/O exception
+   */
+  public IOFile create() throws IOException {
+    final IOFile file = new IOFile(File.createTempFile(Prop.NAME + '-', IO.TMPSUFFIX));
+    qc.resources.index(TempFiles.class).add(file);
+    return file;
+  }
+
+  /**
+   * Writes a tuple.
+   * @param tuple tuple (may contain {@code null} references)
+   * @param out output stream
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  public void write(final Value[] tuple, final DataOutput out)
+      throws IOException, QueryException {
+    out.writeNum(tuple.length);
+    for(final Value value : tuple) write(value, out);
+  }
+
+  /**
+   * Reads a tuple.
+   * @param in input stream
+   * @return tuple
+   * @throws IOException I/O exception
+   */
+  public Value[] read(final DataInput in) throws IOException {
+    final int tl = in.readNum();
+    final Value[] tuple = new Value[tl];
+    for(int t = 0; t < tl; t++) tuple[t] = readValue(in);
+    return tuple;
+  }
+
+  /**
+   * Writes a value.
+   * @param value value (can be {@code null})
+   * @param out output stream
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private void write(final Value value, final DataOutput out)
+      throws IOException, QueryException {
+
+    if(value == null) {
+      out.write(NULL);
+    } else if(value instanceof Item) {
+      write((Item) value, out);
+    } else {
+      out.write(SEQ);
+      out.writeNum((int) value.size());
+      for(final Item item : value) write(item, out);
+    }
+  }
+
+  /**
+   * Writes an item.
+   * @param item item
+   * @param out output stream
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private void write(final Item item, final DataOutput out) throws IOException, QueryException {
+    final Class<?> c = item.getClass();
+    final Type type = item.type;
+    if(item.score() != 0) {
+      // keep items with scores in main memory
+      writeValue(item, out);
+    } else if(c == DBNode.class) {
+      final DBNode node = (DBNode) item;
+      final Data data = node.data();
+      int d = datas.indexOf(data);
+      if(d == -1) {
+        d = datas.size();
+        datas.add(data);
+      }
+      out.write(DBNODE);
+      out.writeNum(d);
+      out.writeNum(node.pre());
+    } else if(c == Str.class) {
+      out.write(STR);
+      out.write(((AtomType) type).ordinal());
+      out.writeToken(item.string(info));
+    } else if(c == Atm.class) {
+      out.write(ATM);
+      out.writeToken(item.string(info));
+    } else if(c == Int.class) {
+      out.write(INT);
+      out.write(((AtomType) type).ordinal());
+      out.write8(item.itr(info));
+    } else if(c == Dbl.class) {
+      out.write(DBL);
+      out.write8(Double.doubleToRawLongBits(item.dbl(info)));
+    } else if(c == Flt.class) {
+      out.write(FLT);
+      out.write4(Float.floatToRawIntBits(item.flt(info)));
+    } else if(c == Dec.class) {
+      out.write(DEC);
+      out.writeToken(item.string(info));
+    } else if(c == Bln.class) {
+      out.write(BLN);
+      out.writeBool(item.bool(info));
+    } else {
+      writeValue(item, out);
+    }
+  }
+
+  /**
+   * Keeps a value in main memory and writes a reference.
+   * @param value value
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  private void writeValue(final Value value, final DataOutput out) throws IOException {
+    out.write(VALUE);
+    out.writeNum(values.size());
+    values.add(value);
+  }
+
+  /**
+   * Reads a value.
+   * @param in input stream
+   * @return value (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  private Value readValue(final DataInput in) throws IOException {
+    final int t = in.read();
+    switch(t) {
+      case NULL:
+        return null;
+      case SEQ:
+        final int size = in.readNum();
+        final ValueBuilder vb = new ValueBuilder(qc);
+        for(int s = 0; s < size; s++) vb.add(readValue(in));
+        return vb.value();
+      default:
+        return readValue(t, in);
+    }
+  }
+
+  /**
+   * Reads an item or a value that has been kept in main memory.
+   * @param t value type
+   * @param in input stream
+   * @return value
+   * @throws IOException I/O exception
+   */
+  private Value readValue(final int t, final DataInput in) throws IOException {
+    switch(t) {
+      case VALUE:
+        // value will only be requested once
+        return values.set(in.readNum(), null);
+      case DBNODE:
+        final Data data = datas.get(in.readNum());
+        return new DBNode(data, in.readNum());
+      case STR:
+        final AtomType type = AtomType.VALUES[in.read()];
+        final byte[] string = in.readToken();
+        return type == AtomType.STR ? Str.get(string) : new Str(string, type);
+      case ATM:
+        return new Atm(in.readToken());
+      case INT:
+        final AtomType itype = AtomType.VALUES[in.read()];
+        return Int.get(in.read8(), itype);
+      case DBL:
+        return Dbl.get(Double.longBitsToDouble(in.read8()));
+      case FLT:
+        return Flt.get(Float.intBitsToFloat(in.read() << 24 | in.read() << 16 |
+            in.read() << 8 | in.read()));
+      case DEC:
+        return Dec.get(new BigDecimal(string(in.readToken())));
+      case BLN:
+        return Bln.get(in.readBool());
+      default:
+        throw Util.notExpected();
+    }
+  }
+
+  /**
+   * Temporary files, which will be deleted after query execution.
+   *
+   * @author BaseX Team 2005-18, BSD License
+   * @author Christian Gruen
+   */
+  public static final class TempFiles implements QueryResource {
+    /** Files. */
+    private final ArrayList<IOFile> files = new ArrayList<>();
+
+    /**
+     * Adds a file.
+     * @param file file
+     */
+    synchronized void add(final IOFile file) {
+      files.add(file);
+    }
+
+    @Override
+    public synchronized void close() {
+      for(final IOFile file : files) file.delete();
+      files.clear();
+    }
+  }
+}
@@ -120,19 +120,20 @@ public abstract class Formatter extends FormatUtil {
    * @param plc place
    * @param info input info
    * @param sc static context
+   * @param qc query context
    * @return formatted string
    * @throws QueryException query exception
    */
   public final byte[] formatDate(final ADate date, final byte[] lng, final byte[] pic,
-      final byte[] cal, final byte[] plc, final InputInfo info, final StaticContext sc)
-      throws QueryException {
+      final byte[] cal, final byte[] plc, final InputInfo info, final StaticContext sc,
+      final QueryContext qc) throws QueryException {
 
     final TokenBuilder tb = new TokenBuilder();
     if(lng.length != 0 && MAP.get(lng) == null) tb.add("[Language: en]");
     if(cal != null) {
       final QNm qnm;
       try {
-        qnm = QNm.resolve(trim(cal), sc);
+        qnm = QNm.resolve(trim(cal), sc, qc);
       } catch(final QueryException ex) {
         throw CALWHICH_X.get(info, cal);
       }
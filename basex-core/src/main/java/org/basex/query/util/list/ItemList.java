@@ -77,6 +77,13 @@ public final class ItemList extends ObjectList<Item, ItemList> {
         return list[(int) i];
       }
       @Override
+      public int next(final Item[] items) {
+        final int p = pos, n = (int) Math.min(items.length, size - p);
+        System.arraycopy(list, p, items, 0, n);
+        pos += n;
+        return n;
+      }
+      @Override
       public Value value() {
         return ItemList.this.value();
       }
@@ -147,6 +147,14 @@ public final class ModuleLoader {
     return loader == LOADER ? Reflect.forName(name) : Class.forName(name, true, loader);
   }
 
+  /**
+   * Indicates if Java modules or external classes have been loaded.
+   * @return result of check
+   */
+  public boolean java() {
+    return !javaModules.isEmpty() || loader != LOADER || !urls.isEmpty();
+  }
+
   /**
    * Returns an instance of the specified Java module class.
    * @param clz class to be found
@@ -87,10 +87,11 @@ public final class QNm extends Item {
    * If no namespace is found, the namespace uri is set to {@code null}.
    * @param name name
    * @param sc static context
+   * @param qc query context with dynamically added namespaces (can be {@code null})
    */
-  public QNm(final byte[] name, final StaticContext sc) {
+  public QNm(final byte[] name, final StaticContext sc, final QueryContext qc) {
     this(name);
-    uri(sc.ns.uri(prefix()));
+    uri(sc.ns.uri(prefix(), qc));
   }
 
   /**
@@ -137,11 +138,13 @@ public final class QNm extends Item {
    * Resolves a QName string.
    * @param name name to resolve
    * @param sc static context (can be {@code null})
+   * @param qc query context with dynamically added namespaces (can be {@code null})
    * @return string
    * @throws QueryException query exception
    */
-  public static QNm resolve(final byte[] name, final StaticContext sc) throws QueryException {
-    return resolve(name, null, sc, null);
+  public static QNm resolve(final byte[] name, final StaticContext sc, final QueryContext qc)
+      throws QueryException {
+    return resolve(name, null, sc, qc, null);
   }
 
   /**
@@ -149,12 +152,13 @@ public final class QNm extends Item {
    * @param name name to resolve
    * @param def default namespace (can be {@code null})
    * @param sc static context (can be {@code null})
+   * @param qc query context with dynamically added namespaces (can be {@code null})
    * @param info input info
    * @return string
    * @throws QueryException query exception
    */
   public static QNm resolve(final byte[] name, final byte[] def, final StaticContext sc,
-      final InputInfo info) throws QueryException {
+      final QueryContext qc, final InputInfo info) throws QueryException {
 
     // check for namespace declaration
     final Matcher m = EQNAME.matcher(Token.string(name));
@@ -167,7 +171,7 @@ public final class QNm extends Item {
       if(i == -1) {
         uri = def;
       } else {
-        if(sc != null) uri = sc.ns.uri(substring(nm, 0, i));
+        if(sc != null) uri = sc.ns.uri(substring(nm, 0, i), qc);
         if(uri == null) throw NOURI_X.get(info, name);
       }
     }
@@ -220,7 +224,7 @@ public final class QNm extends Item {
     if(item instanceof QNm) {
       nm = (QNm) item;
     } else if(item.type.isUntyped() && sc != null) {
-      nm = new QNm(item.string(info), sc);
+      nm = new QNm(item.string(info), sc, null);
       if(!nm.hasURI() && nm.hasPrefix()) throw NSDECL_X.get(info, nm.string());
     } else {
       throw diffError(this, item, info);
@@ -160,9 +160,10 @@ public abstract class ANode extends Item {
   /**
    * Returns a copy of the namespace hierarchy.
    * @param sc static context (can be {@code null})
+   * @param qc query context with dynamically added namespaces (can be {@code null})
    * @return namespaces
    */
-  public final Atts nsScope(final StaticContext sc) {
+  public final Atts nsScope(final StaticContext sc, final QueryContext qc) {
     final Atts ns = new Atts();
     ANode node = this;
     do {
@@ -175,7 +176,7 @@ public abstract class ANode extends Item {
       }
       node = node.parent();
     } while(node != null && node.type == NodeType.ELM);
-    if(sc != null) sc.ns.inScope(ns);
+    if(sc != null) sc.ns.inScope(ns, qc);
     return ns;
   }
 
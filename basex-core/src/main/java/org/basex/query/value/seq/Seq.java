@@ -67,6 +67,13 @@ public abstract class Seq extends Value {
         return itemAt(i);
       }
       @Override
+      public int next(final Item[] items) {
+        final int p = pos, n = (int) Math.min(items.length, size - p);
+        for(int i = 0; i < n; i++) items[i] = itemAt(p + i);
+        pos += n;
+        return n;
+      }
+      @Override
       public Value value() {
         return Seq.this;
       }
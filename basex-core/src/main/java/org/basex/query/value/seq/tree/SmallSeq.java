@@ -140,6 +140,14 @@ final class SmallSeq extends TreeSeq {
         return elems[(int) i];
       }
 
+      @Override
+      public int next(final Item[] items) {
+        final int p = pos, n = (int) Math.min(items.length, size - p);
+        System.arraycopy(elems, p, items, 0, n);
+        pos += n;
+        return n;
+      }
+
       @Override
       public Value value() {
         return SmallSeq.this;
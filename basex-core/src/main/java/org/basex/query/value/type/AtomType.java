@@ -722,7 +722,7 @@ public enum AtomType implements Type {
       if(item.type != STR && !item.type.isUntyped()) throw typeError(item, this, info);
       final byte[] nm = trim(item.string(info));
       if(!XMLToken.isQName(nm)) throw castError(item, info);
-      final QNm qn = new QNm(nm, sc);
+      final QNm qn = new QNm(nm, sc, qc);
       if(!qn.hasURI() && qn.hasPrefix()) throw NSDECL_X.get(info, qn.prefix());
       return qn;
     }
@@ -36,6 +36,17 @@ public final class QueryStack {
     return s;
   }
 
+  /**
+   * Enters a new stack frame with the values of the current stack frame of another stack.
+   * @param qs stack to copy the values from
+   */
+  public void enterFrame(final QueryStack qs) {
+    final int s = qs.start, size = qs.end - s;
+    enterFrame(size);
+    System.arraycopy(qs.stack, s, stack, start, size);
+    System.arraycopy(qs.vars, s, vars, start, size);
+  }
+
   /**
    * Prepares the current stack frame to be reused.
    * @param size new frame size
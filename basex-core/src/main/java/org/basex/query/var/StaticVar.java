@@ -13,6 +13,7 @@ import org.basex.query.value.*;
 import org.basex.query.value.node.*;
 import org.basex.query.value.type.*;
 import org.basex.util.*;
+import org.basex.util.hash.*;
 
 /**
  * Static variable to which an expression can be assigned.
@@ -80,7 +81,7 @@ public final class StaticVar extends StaticDecl {
    * @return value of this variable
    * @throws QueryException query exception
    */
-  Value value(final QueryContext qc) throws QueryException {
+  synchronized Value value(final QueryContext qc) throws QueryException {
     if(dontEnter) throw CIRCVAR_X.get(info, name());
 
     if(lazy) {
@@ -104,6 +105,26 @@ public final class StaticVar extends StaticDecl {
     }
   }
 
+  /**
+   * Declares a copy of this variable in the query context of the specified compilation
+   * context. Used for adopting cached library modules.
+   * @param cc compilation context
+   * @return new variable
+   * @throws QueryException query exception
+   */
+  public StaticVar copy(final CompileContext cc) throws QueryException {
+    final VarScope vsc = new VarScope(sc);
+    cc.pushScope(vsc);
+    try {
+      final Var var = new Var(name, declType, false, cc.qc, sc, info);
+      final Expr ex = expr == null ? null : expr.copy(cc, new IntObjMap<>());
+      return cc.qc.vars.declare(var, anns, ex, external, doc == null ? null : Token.string(doc),
+          vsc);
+    } finally {
+      cc.removeScope();
+    }
+  }
+
   /**
    * Ensures that the variable expression is not updating.
    * @throws QueryException query exception
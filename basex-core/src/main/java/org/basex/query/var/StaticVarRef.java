@@ -22,7 +22,7 @@ import org.basex.util.hash.*;
  */
 final class StaticVarRef extends ParseExpr {
   /** Variable name. */
-  private final QNm name;
+  final QNm name;
   /** Referenced variable. */
   private StaticVar var;
   /** URI of the enclosing module. */
@@ -80,7 +80,7 @@ final class StaticVarRef extends ParseExpr {
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
     final StaticVarRef ref = new StaticVarRef(info, name, sc);
-    ref.var = var;
+    ref.var = cc.relink ? cc.qc.vars.relink(ref) : var;
     return ref;
   }
 
@@ -82,6 +82,21 @@ public final class Variables extends ExprInfo implements Iterable<StaticVar> {
     return ref;
   }
 
+  /**
+   * Registers a copied reference. The visibility of the variable is not checked again.
+   * @param ref reference
+   * @return declared variable or {@code null}
+   */
+  StaticVar relink(final StaticVarRef ref) {
+    VarEntry entry = vars.get(ref.name);
+    if(entry == null) {
+      entry = new VarEntry(null);
+      vars.put(ref.name, entry);
+    }
+    entry.refs.add(ref);
+    return entry.var;
+  }
+
   /**
    * Binds all external variables.
    * @param qc query context
@@ -4,10 +4,12 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.net.*;
+import java.nio.channels.*;
 import java.util.*;
 
 import org.basex.*;
 import org.basex.core.*;
+import org.basex.core.Metrics.*;
 import org.basex.core.cmd.*;
 import org.basex.core.parse.*;
 import org.basex.core.users.*;
@@ -26,6 +28,9 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public final class ClientListener extends Thread implements ClientInfo {
+  /** Maximum time (milliseconds) for receiving the login data in selector mode. */
+  private static final int LOGINTIMEOUT = 10000;
+
   /** Timer for authentication time out. */
   public final Timer timeout = new Timer();
   /** Timestamp of last interaction. */
@@ -35,12 +40,20 @@ public final class ClientListener extends Thread implements ClientInfo {
   private final HashMap<String, ServerQuery> queries = new HashMap<>();
   /** Performance measurement. */
   private final Performance perf = new Performance();
+  /** Start time of the current request (nano seconds). */
+  private long started;
+  /** Output size at the start of the current request. */
+  private long size;
   /** Database context. */
   private final Context context;
+  /** Initial options of the session. */
+  private final MainOptions options;
   /** Server reference. */
   private final BaseXServer server;
   /** Socket reference. */
   private final Socket socket;
+  /** Client selector ({@code null} if the session is run in its own thread). */
+  private final ClientSelector selector;
 
   /** Input stream. */
   private BufferInput in;
@@ -50,6 +63,8 @@ public final class ClientListener extends Thread implements ClientInfo {
   private Command command;
   /** Query id counter. */
   private int id;
+  /** Nonce of the login request ({@code null} if the request has not been sent yet). */
+  private String nonce;
   /** Indicates if the server thread is running. */
   private volatile boolean authenticated;
   /** Indicates if the server has been closed. */
@@ -60,108 +75,166 @@ public final class ClientListener extends Thread implements ClientInfo {
    * @param socket socket
    * @param context database context
    * @param server server reference
+   * @param selector client selector ({@code null} if the session is run in its own thread)
    */
-  public ClientListener(final Socket socket, final Context context, final BaseXServer server) {
+  public ClientListener(final Socket socket, final Context context, final BaseXServer server,
+      final ClientSelector selector) {
     this.context = new Context(context, this);
+    options = new MainOptions(this.context.options);
     this.socket = socket;
     this.server = server;
+    this.selector = selector;
     last = System.currentTimeMillis();
     setDaemon(true);
   }
 
   @Override
   public void run() {
-    if(!authenticate()) return;
+    // selector mode: sessions are resumed when new input has arrived
+    boolean input = authenticated;
+    if(!input && !authenticate()) return;
 
     try {
-      while(authenticated) {
+      boolean open = true;
+      while(open && (selector == null || input || in.available() > 0)) {
+        input = false;
+        open = request();
         command = null;
-        String cmd;
-        final ServerCmd sc;
-        try {
-          final int b = in.read();
-          if(b == -1) {
-            // end of stream: exit session
-            close();
-            break;
-          }
-
-          last = System.currentTimeMillis();
-          perf.ns();
-          sc = ServerCmd.get(b);
-          cmd = null;
-          if(sc == ServerCmd.CREATE) {
-            create();
-          } else if(sc == ServerCmd.ADD) {
-            add();
-          } else if(sc == ServerCmd.REPLACE) {
-            replace();
-          } else if(sc == ServerCmd.STORE) {
-            store();
-          } else if(sc != ServerCmd.COMMAND) {
-            query(sc);
-          } else {
-            // database command
-            cmd = new ByteList().add(b).add(in.readBytes()).toString();
-          }
-        } catch(final IOException ex) {
-          // this exception may be thrown if a session is stopped
-          Util.debug(ex);
-          close();
-          break;
-        }
-        if(sc != ServerCmd.COMMAND) continue;
-
-        // parse input and create command instance
-        try {
-          command = CommandParser.get(cmd, context).parseSingle();
-          command.jc().tracer = QueryTracer.EVALINFO;
-          log(LogType.REQUEST, command.toString(true));
-        } catch(final QueryException ex) {
-          // log invalid command
-          final String msg = ex.getMessage();
-          log(LogType.REQUEST, cmd);
-          log(LogType.ERROR, msg);
-          // send 0 to mark end of potential result
-          out.write(0);
-          // send {INFO}0
-          out.print(msg);
-          out.write(0);
-          // send 1 to mark error
-          send(false);
-          continue;
-        }
+      }
+      // selector mode: wait for new input without blocking the current thread
+      if(open) {
+        selector.idle(this);
+        return;
+      }
+    } catch(final IOException ex) {
+      log(LogType.ERROR, Util.message(ex));
+      command = null;
+      close();
+    }
+    command = null;
+  }
 
-        // execute command and send {RESULT}
-        boolean ok = true;
-        String info;
-        try {
-          // run command
-          command.execute(context, new ServerOutput(out));
-          info = command.info();
-        } catch(final BaseXException ex) {
-          Util.debug(ex);
-          ok = false;
-          info = ex.getMessage();
-        }
+  /**
+   * Processes a single client request.
+   * @return {@code false} if the session has been closed
+   * @throws IOException I/O exception
+   */
+  private boolean request() throws IOException {
+    command = null;
+    String cmd;
+    final ServerCmd sc;
+    ArrayList<String> batch = null;
+    try {
+      final int b = in.read();
+      if(b == -1) {
+        // end of stream: exit session
+        close();
+        return false;
+      }
 
-        // send 0 to mark end of result
-        out.write(0);
-        // send info
-        info(info, ok);
+      last = System.currentTimeMillis();
+      perf.ns();
+      started = System.nanoTime();
+      size = out.size();
+      sc = ServerCmd.get(b);
+      cmd = null;
+      if(sc == ServerCmd.CREATE) {
+        create();
+      } else if(sc == ServerCmd.ADD) {
+        add();
+      } else if(sc == ServerCmd.REPLACE) {
+        replace();
+      } else if(sc == ServerCmd.STORE) {
+        store();
+      } else if(sc == ServerCmd.COMPRESS) {
+        compress();
+      } else if(sc == ServerCmd.BATCH) {
+        // database commands, terminated by an empty string
+        batch = new ArrayList<>();
+        for(String c; !(c = in.readString()).isEmpty();) batch.add(c);
+        cmd = String.join("; ", batch);
+      } else if(sc != ServerCmd.COMMAND) {
+        query(sc);
+      } else {
+        // database command
+        cmd = new ByteList().add(b).add(in.readBytes()).toString();
+      }
+    } catch(final IOException ex) {
+      // this exception may be thrown if a session is stopped
+      Util.debug(ex);
+      close();
+      return false;
+    }
+    if(cmd == null) {
+      metrics(sc.name());
+      return true;
+    }
 
-        // stop console
-        if(command instanceof Exit) {
-          command = null;
-          close();
+    // parse input and create command instance
+    try {
+      if(batch != null) {
+        final int bs = batch.size();
+        final Command[] cmds = new Command[bs];
+        for(int c = 0; c < bs; c++) {
+          cmds[c] = CommandParser.get(batch.get(c), context).parseSingle();
         }
+        command = new Batch(cmds);
+      } else {
+        command = CommandParser.get(cmd, context).parseSingle();
       }
-    } catch(final IOException ex) {
-      log(LogType.ERROR, Util.message(ex));
+      command.jc().tracer = QueryTracer.EVALINFO;
+      log(LogType.REQUEST, command.toString(true));
+    } catch(final QueryException ex) {
+      // log invalid command
+      final String msg = ex.getMessage();
+      log(LogType.REQUEST, cmd);
+      log(LogType.ERROR, msg);
+      // send 0 to mark end of potential result
+      out.write(0);
+      // send {INFO}0
+      out.print(msg);
+      out.write(0);
+      // send 1 to mark error
+      send(false);
+      return true;
+    }
+
+    // execute command and send {RESULT}
+    boolean ok = true;
+    String info;
+    try {
+      // run command
+      command.execute(context, new ServerOutput(out));
+      info = command.info();
+    } catch(final BaseXException ex) {
+      Util.debug(ex);
+      ok = false;
+      info = ex.getMessage();
+    }
+
+    // send 0 to mark end of result
+    out.write(0);
+    // send info
+    info(info, ok);
+    metrics(Util.className(command).toUpperCase(Locale.ENGLISH));
+
+    // stop console
+    if(command instanceof Exit) {
       command = null;
       close();
+      return false;
     }
-    command = null;
+    return true;
+  }
+
+  /**
+   * Records the execution time and the result size of a request.
+   * @param name name of request
+   */
+  private void metrics(final String name) {
+    final Metrics metrics = context.metrics;
+    metrics.record(Category.COMMAND, name, System.nanoTime() - started);
+    metrics.results(out.size() - size);
   }
 
   /**
@@ -171,18 +244,15 @@ public final class ClientListener extends Thread implements ClientInfo {
   private boolean authenticate() {
     boolean auth = false;
     try {
-      final String nonce = Long.toString(System.nanoTime());
       final byte[] address = socket.getInetAddress().getAddress();
+      if(nonce == null) greet();
 
-      // send {REALM:TIMESTAMP}0
-      out = PrintOutput.get(socket.getOutputStream());
-      out.print(Prop.NAME + ':' + nonce);
-      send(true);
-
-      // evaluate login data
+      // evaluate login data (selector mode: worker thread is blocked for a limited time)
+      if(selector != null) socket.setSoTimeout(LOGINTIMEOUT);
       in = new BufferInput(socket.getInputStream());
       // receive {USER}0{DIGEST-HASH}0
       final String name = in.readString(), hash = in.readString();
+      if(selector != null) socket.setSoTimeout(0);
       final User user = context.users.get(name);
       auth = user != null &&
           Strings.md5(user.code(Algorithm.DIGEST, Code.HASH) + nonce).equals(hash);
@@ -206,6 +276,8 @@ public final class ClientListener extends Thread implements ClientInfo {
         log(LogType.ERROR, Util.message(ex));
         auth = false;
       }
+      // release clients that have disconnected or failed to send their login data in time
+      if(selector != null) close();
     }
 
     server.remove(this);
@@ -213,6 +285,18 @@ public final class ClientListener extends Thread implements ClientInfo {
     return auth;
   }
 
+  /**
+   * Sends the login request.
+   * @throws IOException I/O exception
+   */
+  void greet() throws IOException {
+    nonce = Long.toString(System.nanoTime());
+    // send {REALM:TIMESTAMP}0
+    out = PrintOutput.get(socket.getOutputStream());
+    out.print(Prop.NAME + ':' + nonce);
+    send(true);
+  }
+
   /**
    * Closes the session.
    */
@@ -226,6 +310,8 @@ public final class ClientListener extends Thread implements ClientInfo {
       c.stop();
       do Performance.sleep(1); while(command != null);
     }
+    // close server-side cursors
+    for(final ServerQuery qp : queries.values()) qp.close();
     context.sessions.remove(this);
 
     try {
@@ -237,6 +323,14 @@ public final class ClientListener extends Thread implements ClientInfo {
     }
   }
 
+  /**
+   * Returns the socket channel of this session.
+   * @return channel
+   */
+  SocketChannel channel() {
+    return socket.getChannel();
+  }
+
   /**
    * Returns the context of this session.
    * @return user reference
@@ -329,6 +423,24 @@ public final class ClientListener extends Thread implements ClientInfo {
     execute(new Store(in.readString()));
   }
 
+  /**
+   * Enables the compression of all subsequent data.
+   * @throws IOException I/O exception
+   */
+  private void compress() throws IOException {
+    final String arg = in.readString();
+    // send empty result and info, followed by the success flag
+    out.write(0);
+    out.write(0);
+    out.write(0);
+    out.flush();
+    log(LogType.OK, ServerCmd.COMPRESS.toString() + '[' + arg + ']');
+
+    in = new BufferInput(new CompressedInput(in));
+    out = PrintOutput.get(new CompressedOutput(socket.getOutputStream(),
+        Math.max(0, Strings.toInt(arg))));
+  }
+
   /**
    * Executes the specified command.
    * @param cmd command to be executed
@@ -371,6 +483,34 @@ public final class ClientListener extends Thread implements ClientInfo {
         out.write(0);
         // write log file
         info.append(query);
+      } else if(sc == ServerCmd.STATEMENT) {
+        final Statements.Statement st = context.statements.get(arg);
+        if(st == null) throw new BaseXException("Unknown statement: %", arg);
+        qp = new ServerQuery(st, context);
+        qp.jc().tracer = QueryTracer.EVALINFO;
+        info.append(arg);
+        arg = Integer.toString(id++);
+        queries.put(arg, qp);
+        // send {ID}0
+        out.print(arg);
+        out.write(0);
+      } else if(sc == ServerCmd.PREPARE) {
+        // register statement (empty query: drop statement)
+        final String query = in.readString();
+        if(!context.user().has(Perm.ADMIN)) throw new BaseXException(PERM_REQUIRED_X, Perm.ADMIN);
+        if(query.isEmpty()) context.statements.drop(arg);
+        else context.statements.prepare(arg, query, context);
+        info.append(query);
+        // send 0 as end marker
+        out.write(0);
+      } else if(sc == ServerCmd.RESET) {
+        // close queries and opened database, restore options
+        for(final ServerQuery q : queries.values()) q.close();
+        queries.clear();
+        Close.close(context);
+        context.options.assign(options);
+        // send 0 as end marker
+        out.write(0);
       } else {
         // find query process
         qp = queries.get(arg);
@@ -392,6 +532,10 @@ public final class ClientListener extends Thread implements ClientInfo {
           if(!typ.isEmpty()) info.append(" as ").append(typ);
         } else if(sc == ServerCmd.RESULTS) {
           qp.execute(out, true, true, false);
+        } else if(sc == ServerCmd.CURSOR) {
+          final String count = in.readString();
+          qp.next(out, Strings.toInt(count));
+          info.append(count);
         } else if(sc == ServerCmd.EXEC) {
           qp.execute(out, false, true, false);
         } else if(sc == ServerCmd.FULL) {
@@ -403,7 +547,7 @@ public final class ClientListener extends Thread implements ClientInfo {
         } else if(sc == ServerCmd.UPDATING) {
           out.print(Boolean.toString(qp.updating()));
         } else if(sc == ServerCmd.CLOSE) {
-          queries.remove(arg);
+          queries.remove(arg).close();
         } else if(sc == ServerCmd.NEXT) {
           throw new Exception("Protocol for query iteration is out-of-date.");
         }
@@ -420,7 +564,11 @@ public final class ClientListener extends Thread implements ClientInfo {
       error = ex instanceof RuntimeException ? Util.bug(ex) : Util.message(ex);
       log(LogType.REQUEST, sc + "[" + arg + ']');
       log(LogType.ERROR, error);
-      queries.remove(arg);
+      // close query (not applicable to statement names)
+      if(sc != ServerCmd.PREPARE && sc != ServerCmd.STATEMENT) {
+        final ServerQuery qp = queries.remove(arg);
+        if(qp != null) qp.close();
+      }
     }
     if(error != null) {
       // send 0 as end marker, 1 as error flag, and {MSG}0
@@ -429,7 +577,7 @@ public final class ClientListener extends Thread implements ClientInfo {
       out.print(error);
       out.write(0);
     }
-    out.flush();
+    flush();
   }
 
   /**
@@ -439,7 +587,16 @@ public final class ClientListener extends Thread implements ClientInfo {
    */
   private void send(final boolean ok) throws IOException {
     out.write(ok ? 0 : 1);
-    out.flush();
+    flush();
+  }
+
+  /**
+   * Flushes the output. If the client has already sent further requests (pipelining),
+   * the responses are buffered and sent together.
+   * @throws IOException I/O exception
+   */
+  private void flush() throws IOException {
+    if(in == null || in.available() == 0) out.flush();
   }
 
   /**
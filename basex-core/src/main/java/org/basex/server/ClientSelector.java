@@ -0,0 +1,134 @@
+package org.basex.server;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.util.*;
+
+/**
+ * <p>Selector-based front end of the database server.</p>
+ *
+ * <p>Idle client sessions are registered with a selector, which is run by a single I/O thread.
+ * As soon as new input arrives, a session is handed over to a bounded pool of worker threads,
+ * which processes its requests with blocking I/O until no more input is buffered. The client
+ * protocol is not changed.</p>
+ *
+ * <p>New sessions are registered as well after the login request has been sent. A worker
+ * thread is only assigned when the login data arrives, and it is released again if the data
+ * is not completely received within a few seconds. Clients that connect without logging in
+ * can thus not block other sessions.</p>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientSelector implements Runnable {
+  /** Selector. */
+  private final Selector selector;
+  /** Worker threads. */
+  private final ExecutorService workers;
+  /** Idle sessions to be registered. */
+  private final ConcurrentLinkedQueue<ClientListener> idle = new ConcurrentLinkedQueue<>();
+  /** Indicates if the selector is running. */
+  private volatile boolean running = true;
+
+  /**
+   * Constructor.
+   * @param threads number of worker threads
+   * @throws IOException I/O exception
+   */
+  public ClientSelector(final int threads) throws IOException {
+    selector = Selector.open();
+    workers = Executors.newFixedThreadPool(threads, r -> {
+      final Thread thread = new Thread(r);
+      thread.setDaemon(true);
+      return thread;
+    });
+    final Thread thread = new Thread(this);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Processes a new session. The login request is sent, and the session is registered with
+   * the selector. Authentication takes place in a worker thread when the login data arrives.
+   * @param client client session
+   */
+  public void add(final ClientListener client) {
+    try {
+      client.greet();
+      idle(client);
+    } catch(final IOException ex) {
+      Util.debug(ex);
+      client.close();
+    }
+  }
+
+  /**
+   * Registers a session that waits for new input.
+   * @param client client session
+   * @throws IOException I/O exception
+   */
+  void idle(final ClientListener client) throws IOException {
+    client.channel().configureBlocking(false);
+    idle.add(client);
+    selector.wakeup();
+  }
+
+  /**
+   * Stops the selector and the worker threads.
+   */
+  public void close() {
+    running = false;
+    selector.wakeup();
+    workers.shutdownNow();
+  }
+
+  @Override
+  public void run() {
+    final ArrayList<ClientListener> ready = new ArrayList<>();
+    try {
+      while(running) {
+        selector.select();
+        for(ClientListener client; (client = idle.poll()) != null;) {
+          try {
+            client.channel().register(selector, SelectionKey.OP_READ, client);
+          } catch(final ClosedChannelException ex) {
+            // session has been closed in the meantime
+            Util.debug(ex);
+          }
+        }
+
+        // channels must be deregistered before they can be switched to blocking mode
+        final Set<SelectionKey> keys = selector.selectedKeys();
+        while(!keys.isEmpty()) {
+          for(final SelectionKey key : keys) {
+            key.cancel();
+            ready.add((ClientListener) key.attachment());
+          }
+          keys.clear();
+          selector.selectNow();
+        }
+        for(final ClientListener client : ready) {
+          try {
+            client.channel().configureBlocking(true);
+            workers.execute(client);
+          } catch(final IOException | RejectedExecutionException ex) {
+            Util.debug(ex);
+            client.close();
+          }
+        }
+        ready.clear();
+      }
+    } catch(final IOException ex) {
+      Util.errln(ex);
+    } finally {
+      try {
+        selector.close();
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    }
+  }
+}
@@ -4,8 +4,10 @@ import static org.basex.util.Token.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
+import org.basex.core.StaticOptions.*;
 import org.basex.core.users.*;
 import org.basex.io.*;
 import org.basex.util.*;
@@ -22,6 +24,11 @@ import org.basex.util.*;
  *   <li><b>Performance</b>: Measured time in milliseconds</li>
  * </ul>
  *
+ * Unless {@link StaticOptions#LOGBUFFER} is set to 0, entries are placed in a bounded buffer
+ * and written in batches by a background thread. If the buffer is full, new entries are handled
+ * as specified by {@link StaticOptions#LOGOVERFLOW}. Pending entries are written before a log
+ * file is returned by {@link #file(String)}.
+ *
  * @author BaseX Team 2005-18, BSD License
  * @author Christian Gruen
  */
@@ -36,11 +43,36 @@ public final class Log {
     /** OK.      */ OK
   }
 
+  /** Maximum number of entries written in a single batch. */
+  private static final int BATCH = 1024;
+  /** Sampling rate for entries that do not fit into a full buffer. */
+  private static final int SAMPLE = 10;
+  /** Maximum time (milliseconds) for waiting for entries after the log has been closed. */
+  private static final long WAIT = 10;
+
   /** Static options. */
   private final StaticOptions sopts;
+  /** Buffered entries ({@code null} if entries are written synchronously). */
+  private final ArrayBlockingQueue<Entry> buffer;
+  /** Overflow policy. */
+  private final LogOverflow overflow;
 
   /** Current log file. */
   private LogFile file;
+  /** Writer thread (started with the first buffered entry). */
+  private Writer writer;
+  /** Closed flag (entries will be written synchronously). */
+  private boolean closed;
+  /** Sequence number of the last buffered entry. */
+  private long enqueued;
+  /** Sequence number up to which all buffered entries have been written or dropped. */
+  private long done;
+  /** Sequence numbers of entries that have been written or dropped before preceding entries. */
+  private final TreeSet<Long> finished = new TreeSet<>();
+  /** Number of entries that did not fit into the full buffer. */
+  private long overflows;
+  /** Number of dropped entries that have not been reported yet. */
+  private long dropped;
 
   /**
    * Constructor.
@@ -48,14 +80,19 @@ public final class Log {
    */
   public Log(final StaticOptions sopts) {
     this.sopts = sopts;
+    final int size = sopts.get(StaticOptions.LOGBUFFER);
+    buffer = size > 0 ? new ArrayBlockingQueue<>(size) : null;
+    overflow = sopts.get(StaticOptions.LOGOVERFLOW);
   }
 
   /**
    * Returns a log file for the specified name (current or new instance).
+   * Buffered entries will be written before the file is returned.
    * @param name name of log file
    * @return log file, or {@code null} if it does not exist
    */
   public LogFile file(final String name) {
+    flush();
     LogFile lf = file;
     if(lf == null || !lf.valid(name)) lf = new LogFile(name, dir());
     return lf.exists() ? lf : null;
@@ -121,25 +158,58 @@ public final class Log {
     tb.add('\t').add(info == null ? EMPTY : chop(normalize(token(info)), ml));
     if(perf != null) tb.add('\t').add(perf.toString());
     tb.add(Prop.NL);
+    final Entry entry = new Entry(DateTime.format(date, DateTime.DATE), tb.finish());
 
-    try {
-      synchronized(sopts) {
-        // create new log file and write log entry
-        final String name = DateTime.format(date, DateTime.DATE);
-        if(file != null && !file.valid(name)) close();
-        if(file == null) file = LogFile.create(name, dir());
-        // write log entry
-        file.write(tb.finish());
+    if(buffer == null) {
+      write(entry.name, entry.line);
+    } else {
+      buffer(entry);
+    }
+  }
+
+  /**
+   * Waits until all entries that have been buffered before this call have been written.
+   * Entries that are added by concurrent calls do not delay the return.
+   */
+  public synchronized void flush() {
+    final long mark = enqueued;
+    while(done < mark) {
+      try {
+        wait();
+      } catch(final InterruptedException ex) {
+        Util.debug(ex);
+        return;
       }
-    } catch(final IOException ex) {
-      Util.stack(ex);
     }
   }
 
   /**
-   * Closes the log file.
+   * Writes all buffered entries and closes the log file.
+   * Entries that are added after this call will be written synchronously.
    */
   public void close() {
+    final Writer wr;
+    synchronized(this) {
+      closed = true;
+      wr = writer;
+      writer = null;
+    }
+    if(wr != null) {
+      // the writer stops after all buffered entries have been written or dropped
+      wr.interrupt();
+      try {
+        wr.join();
+        // write remaining entries after the writer has stopped
+        final ArrayList<Entry> entries = new ArrayList<>();
+        final int n = buffer.drainTo(entries);
+        if(n > 0) {
+          write(entries);
+          written(entries);
+        }
+      } catch(final InterruptedException ex) {
+        Util.debug(ex);
+      }
+    }
     try {
       synchronized(sopts) {
         if(file != null) {
@@ -160,6 +230,124 @@ public final class Log {
     return dir().children(".*\\" + IO.LOGSUFFIX);
   }
 
+  /**
+   * Adds an entry to the buffer.
+   * @param entry log entry
+   */
+  private void buffer(final Entry entry) {
+    final boolean sync;
+    synchronized(this) {
+      sync = closed;
+      if(!sync) {
+        if(writer == null) {
+          writer = new Writer();
+          writer.start();
+        }
+        entry.seq = ++enqueued;
+      }
+    }
+    if(sync) {
+      write(entry.name, entry.line);
+      return;
+    }
+    if(buffer.offer(entry)) return;
+
+    // buffer is full: apply overflow policy
+    final boolean block;
+    synchronized(this) {
+      block = overflow == LogOverflow.BLOCK ||
+          overflow == LogOverflow.SAMPLE && overflows % SAMPLE == 0;
+      overflows++;
+    }
+    try {
+      if(block) {
+        buffer.put(entry);
+        return;
+      }
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+    }
+    synchronized(this) {
+      dropped++;
+      written(entry.seq);
+    }
+  }
+
+  /**
+   * Writes buffered entries. If entries have been dropped, their number is logged as well.
+   * @param entries entries
+   */
+  private void write(final List<Entry> entries) {
+    final long drop;
+    synchronized(this) {
+      drop = dropped;
+      dropped = 0;
+    }
+    if(drop > 0) {
+      final Entry last = entries.get(entries.size() - 1);
+      final TokenBuilder tb = new TokenBuilder();
+      tb.add(DateTime.format(new Date(), DateTime.TIME)).add('\t').add(SERVER);
+      tb.add('\t').add(UserText.ADMIN).add('\t').add(LogType.INFO.toString());
+      tb.add('\t').addExt("% log entries were dropped.", drop).add(Prop.NL);
+      entries.add(new Entry(last.name, tb.finish()));
+    }
+
+    // write entries of the same day at once
+    final TokenBuilder tb = new TokenBuilder();
+    String name = null;
+    for(final Entry entry : entries) {
+      if(name != null && !name.equals(entry.name)) {
+        write(name, tb.next());
+      }
+      name = entry.name;
+      tb.add(entry.line);
+    }
+    write(name, tb.finish());
+  }
+
+  /**
+   * Writes data to the log file.
+   * @param name name of log file
+   * @param data data to be written
+   */
+  private void write(final String name, final byte[] data) {
+    try {
+      synchronized(sopts) {
+        // create new log file and write log entry
+        if(file != null && !file.valid(name)) {
+          file.close();
+          file = null;
+        }
+        if(file == null) file = LogFile.create(name, dir());
+        // write log entry
+        file.write(data);
+      }
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
+  /**
+   * Reports that buffered entries have been written.
+   * @param entries entries (may include entries that have not been buffered)
+   */
+  private synchronized void written(final List<Entry> entries) {
+    for(final Entry entry : entries) written(entry.seq);
+  }
+
+  /**
+   * Reports that a buffered entry has been written or dropped.
+   * Waiting threads are notified if all preceding entries have been written as well.
+   * @param seq sequence number of the entry ({@code 0}: entry has not been buffered)
+   */
+  private synchronized void written(final long seq) {
+    if(seq <= done) return;
+    finished.add(seq);
+    final long old = done;
+    while(finished.remove(done + 1)) done++;
+    if(done != old) notifyAll();
+  }
+
   /**
    * Returns a reference to the log directory.
    * @return log directory
@@ -167,4 +355,59 @@ public final class Log {
   private IOFile dir() {
     return sopts.dbPath(".").resolve(sopts.get(StaticOptions.LOGPATH));
   }
+
+  /** Log entry. */
+  private static final class Entry {
+    /** Name of log file. */
+    private final String name;
+    /** Log line. */
+    private final byte[] line;
+    /** Sequence number ({@code 0}: entry has not been buffered). */
+    private long seq;
+
+    /**
+     * Constructor.
+     * @param name name of log file
+     * @param line log line
+     */
+    private Entry(final String name, final byte[] line) {
+      this.name = name;
+      this.line = line;
+    }
+  }
+
+  /** Thread that writes buffered entries. */
+  private final class Writer extends Thread {
+    /** Constructor. */
+    private Writer() {
+      super("LogWriter");
+      setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      // after the log has been closed, the thread is stopped when all pending entries of
+      // concurrent calls have been written or dropped
+      final ArrayList<Entry> entries = new ArrayList<>();
+      while(true) {
+        final boolean stop;
+        synchronized(Log.this) {
+          if(closed && done == enqueued) break;
+          stop = closed;
+        }
+        try {
+          final Entry entry = stop ? buffer.poll(WAIT, TimeUnit.MILLISECONDS) : buffer.take();
+          if(entry != null) entries.add(entry);
+        } catch(final InterruptedException ex) {
+          Util.debug(ex);
+        }
+        buffer.drainTo(entries, BATCH);
+        if(!entries.isEmpty()) {
+          write(entries);
+          written(entries);
+          entries.clear();
+        }
+      }
+    }
+  }
 }
@@ -33,6 +33,18 @@ public enum ServerCmd {
   STORE(13),
   /** Code for binding a context value: {id}0{val}0{type}0. */
   CONTEXT(14),
+  /** Code for running database commands as a single job: {command}0...{command}00. */
+  BATCH(15),
+  /** Code for compressing all subsequent data: {threshold}0. */
+  COMPRESS(16),
+  /** Code for returning the next results of a server-side cursor: {id}0{count}0. */
+  CURSOR(17),
+  /** Code for registering a prepared statement: {name}0{query}0. */
+  PREPARE(18),
+  /** Code for creating a query process from a prepared statement: {name}0. */
+  STATEMENT(19),
+  /** Code for closing all queries and the opened database and restoring the options: 0. */
+  RESET(20),
   /** Code for returning the update flag: {id}0. */
   UPDATING(30),
   /** Code for executing a query and returning all information relevant for XQJ: {id}0. */
@@ -0,0 +1,238 @@
+package org.basex.server;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.core.jobs.*;
+import org.basex.io.out.*;
+import org.basex.io.serial.*;
+import org.basex.query.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.item.*;
+import org.basex.util.*;
+
+/**
+ * <p>Server-side cursor, which returns the results of a query in pages.</p>
+ *
+ * <p>The query is evaluated in a separate thread, which holds the locks of the query until all
+ * results have been returned, until the cursor is closed, or until no page has been requested
+ * within the idle timeout (see {@link StaticOptions#CURSORTIMEOUT}). The next page is only
+ * generated when it is requested, so memory consumption is bounded by the page size.</p>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ServerCursor extends Thread {
+  /** Query processor (parsed). */
+  private final QueryProcessor qp;
+  /** Database context. */
+  private final Context ctx;
+  /** Encode results (client/server communication). */
+  private final boolean encode;
+  /** Idle timeout (milliseconds). */
+  private final long timeout;
+  /** Requested page sizes (non-positive value: close cursor). */
+  private final LinkedBlockingQueue<Integer> requests = new LinkedBlockingQueue<>();
+  /** Generated pages ({@link ArrayOutput} or {@link IOException}). */
+  private final SynchronousQueue<Object> pages = new SynchronousQueue<>();
+
+  /** Number of results of the last page. */
+  private int size;
+  /** Indicates if no more pages can be requested. */
+  private boolean finished;
+  /** Indicates if the cursor was closed because of the idle timeout. */
+  private boolean timedOut;
+
+  /**
+   * Constructor. Evaluation starts with the first request.
+   * @param qp parsed query processor
+   * @param ctx database context
+   * @param encode encode results (client/server communication)
+   */
+  public ServerCursor(final QueryProcessor qp, final Context ctx, final boolean encode) {
+    this(qp, ctx, encode, ctx.soptions.get(StaticOptions.CURSORTIMEOUT));
+  }
+
+  /**
+   * Constructor with a custom idle timeout. Evaluation starts with the first request.
+   * @param qp parsed query processor
+   * @param ctx database context
+   * @param encode encode results (client/server communication)
+   * @param timeout idle timeout in seconds (non-positive value: no timeout)
+   */
+  public ServerCursor(final QueryProcessor qp, final Context ctx, final boolean encode,
+      final int timeout) {
+    this.qp = qp;
+    this.ctx = ctx;
+    this.encode = encode;
+    this.timeout = Math.max(0, timeout) * 1000L;
+    setDaemon(true);
+  }
+
+  /**
+   * Returns the next page.
+   * @param n maximum number of results
+   * @return page
+   * @throws IOException I/O exception
+   */
+  public ArrayOutput page(final int n) throws IOException {
+    synchronized(this) {
+      if(timedOut) throw new BaseXException("Cursor was closed after % seconds of inactivity.",
+          timeout / 1000);
+      if(finished) return new ArrayOutput();
+      if(!isAlive()) start();
+      requests.add(n);
+    }
+    final Object page;
+    try {
+      page = pages.take();
+    } catch(final InterruptedException ex) {
+      throw new BaseXException(ex);
+    }
+    if(page instanceof IOException) throw (IOException) page;
+    return (ArrayOutput) page;
+  }
+
+  /**
+   * Returns the number of results of the last page.
+   * @return number of results
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Indicates if more results may be returned.
+   * @return result of check
+   */
+  public synchronized boolean more() {
+    return !finished;
+  }
+
+  /**
+   * Closes the cursor and waits until its resources have been released.
+   */
+  public void close() {
+    synchronized(this) {
+      if(!finished) {
+        finished = true;
+        if(!isAlive()) {
+          qp.close();
+          return;
+        }
+        requests.add(0);
+      }
+    }
+    try {
+      join();
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+    }
+  }
+
+  @Override
+  public void run() {
+    // indicates if a client waits for the next page
+    boolean pending = true;
+    Object error = null;
+    try {
+      qp.register(ctx);
+      try {
+        qp.compile();
+        final QueryContext qc = qp.qc;
+        final Iter iter = qp.iter();
+        final SerializerOptions sopts = qc.serParams();
+
+        Item next = qc.next(iter);
+        for(int n; (n = request()) > 0;) {
+          // generate page and check if more results exist
+          final ArrayOutput ao = new ArrayOutput();
+          final PrintOutput po = PrintOutput.get(encode ? new ServerOutput(ao) : ao);
+          int c = 0;
+          try(Serializer ser = Serializer.get(po, sopts)) {
+            for(; next != null && c < n; c++, next = qc.next(iter)) {
+              if(encode) {
+                po.write(next.typeId().asByte());
+                ser.reset();
+              }
+              ser.serialize(next);
+              if(encode) {
+                po.flush();
+                ao.write(0);
+              }
+            }
+          }
+          size = c;
+          if(next == null) finish();
+          pending = false;
+          respond(ao);
+          if(next == null) break;
+          pending = true;
+        }
+        pending = false;
+      } finally {
+        qp.close();
+        qp.unregister(ctx);
+      }
+    } catch(final QueryException | JobException ex) {
+      error = new BaseXException(ex);
+    } catch(final IOException ex) {
+      error = ex;
+    } catch(final StackOverflowError ex) {
+      Util.debug(ex);
+      error = new BaseXException(BASEX_OVERFLOW.desc);
+    } catch(final Throwable ex) {
+      error = new BaseXException(Util.bug(ex));
+    } finally {
+      finish();
+      // a waiting client always receives a terminal page
+      if(pending) respond(error != null ? error : new BaseXException("Cursor was closed."));
+    }
+  }
+
+  /**
+   * Waits for the next request.
+   * @return requested page size (non-positive value: close cursor)
+   */
+  private int request() {
+    try {
+      Integer n = timeout > 0 ? requests.poll(timeout, TimeUnit.MILLISECONDS) : requests.take();
+      if(n == null) {
+        synchronized(this) {
+          n = requests.poll();
+          if(n == null) {
+            finished = true;
+            timedOut = true;
+            return 0;
+          }
+        }
+      }
+      return n;
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+      return 0;
+    }
+  }
+
+  /**
+   * Passes on a page or an exception to the waiting client.
+   * @param page page or exception
+   */
+  private void respond(final Object page) {
+    try {
+      pages.put(page);
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+    }
+  }
+
+  /**
+   * Marks the cursor as finished.
+   */
+  private synchronized void finish() {
+    finished = true;
+  }
+}
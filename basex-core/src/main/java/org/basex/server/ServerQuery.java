@@ -25,6 +25,8 @@ public final class ServerQuery extends Job {
   private final String query;
   /** Database context. */
   private final Context ctx;
+  /** Prepared statement (can be {@code null}). */
+  private final Statements.Statement statement;
 
   /** Query processor. */
   private QueryProcessor qp;
@@ -32,6 +34,12 @@ public final class ServerQuery extends Job {
   private boolean parsed;
   /** Query info. */
   private String info = "";
+  /** Server-side cursor (can be {@code null}). */
+  private ServerCursor cursor;
+  /** Indicates if the last page of the previous cursor was full. */
+  private boolean exhausted;
+  /** Time spent on generating the pages of the current cursor (nano seconds). */
+  private long elapsed;
 
   /**
    * Constructor.
@@ -39,8 +47,29 @@ public final class ServerQuery extends Job {
    * @param ctx database context
    */
   public ServerQuery(final String query, final Context ctx) {
+    this(query, ctx, null);
+  }
+
+  /**
+   * Constructor for prepared statements.
+   * @param statement prepared statement
+   * @param ctx database context
+   */
+  public ServerQuery(final Statements.Statement statement, final Context ctx) {
+    this(statement.query, ctx, statement);
+  }
+
+  /**
+   * Constructor.
+   * @param query query string
+   * @param ctx database context
+   * @param statement prepared statement (can be {@code null})
+   */
+  private ServerQuery(final String query, final Context ctx,
+      final Statements.Statement statement) {
     this.query = query;
     this.ctx = ctx;
+    this.statement = statement;
   }
 
   /**
@@ -51,6 +80,7 @@ public final class ServerQuery extends Job {
    * @throws IOException query exception
    */
   public void bind(final String name, final Object value, final String type) throws IOException {
+    close();
     try {
       qp().bind(name, value, type);
     } catch(final QueryException ex) {
@@ -66,6 +96,7 @@ public final class ServerQuery extends Job {
    * @throws IOException query exception
    */
   public void context(final Object value, final String type) throws IOException {
+    close();
     try {
       qp().context(value, type);
     } catch(final QueryException ex) {
@@ -112,6 +143,10 @@ public final class ServerQuery extends Job {
   public void execute(final OutputStream out, final boolean iterative, final boolean encode,
       final boolean full) throws IOException {
 
+    // a new evaluation closes an open cursor
+    close();
+    final long start = System.nanoTime();
+    boolean ok = false;
     try {
       // parses the query and registers the process
       parse();
@@ -148,6 +183,7 @@ public final class ServerQuery extends Job {
 
       // generate query info
       info = qi.toString(qp, po.size(), c, ctx.options.get(MainOptions.QUERYINFO));
+      ok = true;
 
     } catch(final QueryException | JobException ex) {
       throw new BaseXException(ex);
@@ -165,7 +201,67 @@ public final class ServerQuery extends Job {
         qp = null;
         popJob();
       }
+      if(statement != null) statement.record(System.nanoTime() - start, ok);
+    }
+  }
+
+  /**
+   * Writes the next results of a server-side cursor. The cursor is created with the first
+   * request, and it is closed when all results have been returned. If the last page was full,
+   * an empty page will be returned by the next request.
+   * @param out output stream
+   * @param n maximum number of results
+   * @throws IOException I/O Exception
+   */
+  public void next(final OutputStream out, final int n) throws IOException {
+    if(cursor == null) {
+      if(exhausted) {
+        exhausted = false;
+        return;
+      }
+      parse();
+      cursor = new ServerCursor(qp, ctx, true);
+      qp = null;
+      parsed = false;
+      elapsed = 0;
+      popJob();
+    }
+    final long start = System.nanoTime();
+    try {
+      final int count = Math.max(1, n);
+      final ArrayOutput page = cursor.page(count);
+      elapsed += System.nanoTime() - start;
+      out.write(page.buffer(), 0, (int) page.size());
+      if(!cursor.more()) {
+        final boolean full = cursor.size() == count;
+        close(true);
+        exhausted = full;
+      }
+    } catch(final IOException ex) {
+      elapsed += System.nanoTime() - start;
+      close(false);
+      throw ex;
+    }
+  }
+
+  /**
+   * Closes an open cursor.
+   */
+  public void close() {
+    close(true);
+  }
+
+  /**
+   * Closes an open cursor. The execution of a prepared statement is recorded.
+   * @param ok success flag
+   */
+  private void close(final boolean ok) {
+    if(cursor != null) {
+      cursor.close();
+      cursor = null;
+      if(statement != null) statement.record(elapsed, ok);
     }
+    exhausted = false;
   }
 
   /**
@@ -192,6 +288,7 @@ public final class ServerQuery extends Job {
   private QueryProcessor qp() {
     if(parsed || qp == null) {
       qp = pushJob(new QueryProcessor(query, ctx));
+      if(statement != null) qp.template(statement.template(ctx));
       parsed = false;
     }
     return qp;
@@ -0,0 +1,152 @@
+package org.basex.server;
+
+import static org.basex.core.Text.*;
+
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.query.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * This class organizes the prepared statements of the server. A statement is registered once
+ * with a name and can then be executed by all sessions. The query is parsed only once: each
+ * execution evaluates a copy of the parsed query (see {@link QueryTemplate}). Execution counts
+ * and latencies are recorded for each statement.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class Statements {
+  /** Registered statements. */
+  private final ConcurrentHashMap<String, Statement> statements = new ConcurrentHashMap<>();
+
+  /**
+   * Registers a statement. An existing statement with the same name will be replaced.
+   * The query is parsed, and invalid queries are rejected.
+   * @param name name of statement
+   * @param query query string
+   * @param ctx database context
+   * @throws BaseXException database exception
+   */
+  public void prepare(final String name, final String query, final Context ctx)
+      throws BaseXException {
+
+    if(name.isEmpty()) throw new BaseXException(NAME_INVALID_X, name);
+    final QueryTemplate template;
+    try {
+      template = QueryTemplate.parse(query, ctx);
+    } catch(final QueryException ex) {
+      throw new BaseXException(ex);
+    }
+    statements.put(name, new Statement(name, query, template));
+  }
+
+  /**
+   * Removes a statement.
+   * @param name name of statement
+   * @return {@code true} if the statement was found
+   */
+  public boolean drop(final String name) {
+    return statements.remove(name) != null;
+  }
+
+  /**
+   * Returns a statement.
+   * @param name name of statement
+   * @return statement, or {@code null} if it has not been registered
+   */
+  public Statement get(final String name) {
+    return statements.get(name);
+  }
+
+  /**
+   * Returns information about the registered statements.
+   * @return info string
+   */
+  public String info() {
+    final StringList sl = new StringList();
+    for(final Statement st : statements.values()) sl.add(st.toString());
+    final int size = sl.size();
+
+    final TokenBuilder tb = new TokenBuilder();
+    tb.addExt(STATEMENTS_X, size).add(size == 0 ? DOT : COL);
+    for(final String st : sl.sort()) tb.add(NL).add(LI).add(st);
+    return tb.toString();
+  }
+
+  /**
+   * Prepared statement.
+   */
+  public static final class Statement {
+    /** Name. */
+    public final String name;
+    /** Query string. */
+    public final String query;
+
+    /** Parsed query ({@code null} if the query must be parsed for each execution). */
+    private QueryTemplate template;
+    /** Number of executions. */
+    private long executions;
+    /** Number of failed executions. */
+    private long errors;
+    /** Total execution time (nano seconds). */
+    private long total;
+    /** Maximum execution time (nano seconds). */
+    private long max;
+
+    /**
+     * Constructor.
+     * @param name name
+     * @param query query string
+     * @param template parsed query (can be {@code null})
+     */
+    Statement(final String name, final String query, final QueryTemplate template) {
+      this.name = name;
+      this.query = query;
+      this.template = template;
+    }
+
+    /**
+     * Returns the parsed query. The query is parsed again if it is outdated.
+     * @param ctx database context
+     * @return parsed query, or {@code null} if the query string must be parsed
+     */
+    synchronized QueryTemplate template(final Context ctx) {
+      if(template != null && !template.valid(ctx)) {
+        try {
+          template = QueryTemplate.parse(query, ctx);
+        } catch(final QueryException ex) {
+          // error will be raised when the query string is parsed
+          Util.debug(ex);
+          template = null;
+        }
+      }
+      return template;
+    }
+
+    /**
+     * Records an execution.
+     * @param time execution time (nano seconds)
+     * @param ok success flag
+     */
+    synchronized void record(final long time, final boolean ok) {
+      executions++;
+      if(!ok) errors++;
+      total += time;
+      max = Math.max(max, time);
+    }
+
+    @Override
+    public synchronized String toString() {
+      final StringBuilder sb = new StringBuilder(name).append(COLS).append(executions);
+      sb.append(" executions, ").append(errors).append(" errors");
+      if(executions > 0) {
+        sb.append(", average: ").append(Performance.ms(total / executions, 1)).append(" ms");
+        sb.append(", maximum: ").append(Performance.ms(max, 1)).append(" ms");
+      }
+      return sb.toString();
+    }
+  }
+}
@@ -0,0 +1,216 @@
+package org.basex.util;
+
+import static java.lang.invoke.MethodType.*;
+
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * <p>Events for the JDK Flight Recorder (JFR). Each event has a duration, an info string and
+ * a numeric value. Events are created as follows:</p>
+ *
+ * <pre>
+ * final Object event = FlightEvent.DATABASE_OPEN.begin();
+ * ...
+ * FlightEvent.DATABASE_OPEN.commit(event, name, 0);</pre>
+ *
+ * <p>As the code base is compiled for Java 8, the event types are defined at runtime via
+ * {@code jdk.jfr.EventFactory}, which is available from Java 12 onwards. If the API is not
+ * available, or if no recording is running, {@link #begin()} returns {@code null}, and no
+ * further costs arise.</p>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public enum FlightEvent {
+  /** Query parsing. */
+  QUERY_PARSE("QueryParse", "Query Parse", "Query", "Query Hash", "Unused"),
+  /** Query compilation. */
+  QUERY_COMPILE("QueryCompile", "Query Compile", "Query", "Query Hash", "Unused"),
+  /** Query evaluation, including the iteration of the results. */
+  QUERY_EVALUATE("QueryEvaluate", "Query Evaluate", "Query", "Query Hash", "Unused"),
+  /** Acquisition of locks. */
+  LOCK_WAIT("LockWait", "Lock Wait", "Locking", "Job", "Locks"),
+  /** Opening of a database. */
+  DATABASE_OPEN("DatabaseOpen", "Database Open", "Storage", "Database", "Nodes"),
+  /** Closing of a database. */
+  DATABASE_CLOSE("DatabaseClose", "Database Close", "Storage", "Database", "Nodes"),
+  /** Block that was not found in the buffers and read from disk. */
+  BUFFER_MISS("BufferMiss", "Buffer Miss", "Storage", "File", "Offset"),
+  /** Index lookup. */
+  INDEX_LOOKUP("IndexLookup", "Index Lookup", "Index", "Index", "Approximate Results");
+
+  /** Event factory ({@code null} if the JFR API is not available). */
+  private final Object factory;
+  /** Event type ({@code null} if the JFR API is not available). */
+  private final Object type;
+
+  /**
+   * Constructor.
+   * @param name name
+   * @param label label
+   * @param category category
+   * @param info label of the info string
+   * @param value label of the numeric value
+   */
+  FlightEvent(final String name, final String label, final String category, final String info,
+      final String value) {
+
+    Object fct = null, tp = null;
+    if(Bridge.COMMIT != null) {
+      try {
+        final List<Object> annotations = Arrays.asList(
+          Bridge.annotation("jdk.jfr.Name", "org.basex." + name),
+          Bridge.annotation("jdk.jfr.Label", label),
+          Bridge.annotation("jdk.jfr.Category", new String[] { Prop.NAME, category }));
+        final List<Object> fields = Arrays.asList(
+          Bridge.VALUE.newInstance(String.class, "info",
+              Collections.singletonList(Bridge.annotation("jdk.jfr.Label", info))),
+          Bridge.VALUE.newInstance(long.class, "value",
+              Collections.singletonList(Bridge.annotation("jdk.jfr.Label", value))));
+        fct = Bridge.CREATE.invoke(annotations, fields);
+        tp = Bridge.EVENT_TYPE.invoke(fct);
+      } catch(final Throwable ex) {
+        Util.debug(ex);
+        fct = null;
+        tp = null;
+      }
+    }
+    factory = fct;
+    type = tp;
+  }
+
+  /**
+   * Starts an event if a recording is running.
+   * @return event, or {@code null} if no event is recorded
+   */
+  public Object begin() {
+    if(type == null) return null;
+    try {
+      if(!(boolean) Bridge.IS_ENABLED.invoke(type)) return null;
+      final Object event = Bridge.NEW_EVENT.invoke(factory);
+      Bridge.BEGIN.invoke(event);
+      return event;
+    } catch(final Throwable ex) {
+      Util.debug(ex);
+      return null;
+    }
+  }
+
+  /**
+   * Commits an event.
+   * @param event event (ignored if {@code null})
+   * @param info info string
+   * @param value numeric value
+   */
+  public void commit(final Object event, final String info, final long value) {
+    if(event == null) return;
+    try {
+      Bridge.SET.invoke(event, 0, info);
+      Bridge.SET.invoke(event, 1, value);
+      Bridge.COMMIT.invoke(event);
+    } catch(final Throwable ex) {
+      Util.debug(ex);
+    }
+  }
+
+  /**
+   * Returns a hash for the specified query string.
+   * @param query query string
+   * @return hash
+   */
+  public static String hash(final String query) {
+    return Integer.toHexString(query.hashCode());
+  }
+
+  /** Method handles and constructors of the JFR API. */
+  private static final class Bridge {
+    /** {@code EventFactory.create(List, List)}. */
+    private static final MethodHandle CREATE = handle("jdk.jfr.EventFactory", "create", true,
+        methodType(find("jdk.jfr.EventFactory"), List.class, List.class));
+    /** {@code EventFactory.getEventType()}. */
+    private static final MethodHandle EVENT_TYPE = handle("jdk.jfr.EventFactory",
+        "getEventType", false, methodType(find("jdk.jfr.EventType")));
+    /** {@code EventFactory.newEvent()}. */
+    private static final MethodHandle NEW_EVENT = handle("jdk.jfr.EventFactory", "newEvent",
+        false, methodType(find("jdk.jfr.Event")));
+    /** {@code EventType.isEnabled()}. */
+    private static final MethodHandle IS_ENABLED = handle("jdk.jfr.EventType", "isEnabled",
+        false, methodType(boolean.class));
+    /** {@code Event.begin()}. */
+    private static final MethodHandle BEGIN = handle("jdk.jfr.Event", "begin", false,
+        methodType(void.class));
+    /** {@code Event.set(int, Object)}. */
+    private static final MethodHandle SET = handle("jdk.jfr.Event", "set", false,
+        methodType(void.class, int.class, Object.class));
+    /** {@code new AnnotationElement(Class, Object)}. */
+    private static final Constructor<?> ANNOTATION = constructor("jdk.jfr.AnnotationElement",
+        Class.class, Object.class);
+    /** {@code new ValueDescriptor(Class, String, List)}. */
+    private static final Constructor<?> VALUE = constructor("jdk.jfr.ValueDescriptor",
+        Class.class, String.class, List.class);
+    /** {@code Event.commit()} (assigned last: {@code null} if any other handle is missing). */
+    private static final MethodHandle COMMIT = CREATE == null || EVENT_TYPE == null ||
+        NEW_EVENT == null || IS_ENABLED == null || BEGIN == null || SET == null ||
+        ANNOTATION == null || VALUE == null ? null :
+        handle("jdk.jfr.Event", "commit", false, methodType(void.class));
+
+    /** Private constructor. */
+    private Bridge() { }
+
+    /**
+     * Creates an annotation element.
+     * @param annotation name of annotation class
+     * @param value value
+     * @return annotation element
+     * @throws ReflectiveOperationException reflection exception
+     */
+    private static Object annotation(final String annotation, final Object value)
+        throws ReflectiveOperationException {
+      return ANNOTATION.newInstance(Class.forName(annotation), value);
+    }
+
+    /**
+     * Returns a class.
+     * @param name class name
+     * @return class, or {@code Object} if it is not available
+     */
+    private static Class<?> find(final String name) {
+      final Class<?> clazz = Reflect.find(name);
+      return clazz != null ? clazz : Object.class;
+    }
+
+    /**
+     * Returns a method handle.
+     * @param name class name
+     * @param method method name
+     * @param stat static method
+     * @param mt method type
+     * @return method handle, or {@code null} if the method is not available
+     */
+    private static MethodHandle handle(final String name, final String method,
+        final boolean stat, final MethodType mt) {
+      final Class<?> clazz = Reflect.find(name);
+      if(clazz == null) return null;
+      try {
+        final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        return stat ? lookup.findStatic(clazz, method, mt) : lookup.findVirtual(clazz, method, mt);
+      } catch(final ReflectiveOperationException ex) {
+        Util.debug(ex);
+        return null;
+      }
+    }
+
+    /**
+     * Returns a constructor.
+     * @param name class name
+     * @param types parameter types
+     * @return constructor, or {@code null} if it is not available
+     */
+    private static Constructor<?> constructor(final String name, final Class<?>... types) {
+      final Class<?> clazz = Reflect.find(name);
+      return clazz == null ? null : Reflect.find(clazz, types);
+    }
+  }
+}
@@ -3,6 +3,8 @@ package org.basex.util;
 import java.text.*;
 import java.util.*;
 
+import org.basex.util.hash.*;
+
 /**
  * <p>This class provides convenience operations for handling 'Tokens'.
  * A token is a UTF-8 encoded string. It is represented as a byte array.</p>
@@ -922,6 +924,31 @@ public final class Token {
     return Array.copyOf(tokens, tl);
   }
 
+  /**
+   * Returns the distinct trigrams of the specified token.
+   * A trigram consists of three consecutive codepoints.
+   * @param token token
+   * @return distinct trigrams, in the order of their first occurrence
+   */
+  public static byte[][] distinctTrigrams(final byte[] token) {
+    final TokenSet grams = new TokenSet();
+    final int tl = token.length;
+    if(tl != 0) {
+      int p0 = 0, p1 = cl(token, 0), p2 = p1 < tl ? p1 + cl(token, p1) : tl;
+      while(p2 < tl) {
+        final int p3 = Math.min(tl, p2 + cl(token, p2));
+        grams.add(Arrays.copyOfRange(token, p0, p3));
+        p0 = p1;
+        p1 = p2;
+        p2 = p3;
+      }
+    }
+    final int gs = grams.size();
+    final byte[][] tokens = new byte[gs][];
+    for(int g = 0; g < gs; g++) tokens[g] = grams.key(g + 1);
+    return tokens;
+  }
+
   /**
    * Checks if the specified token has only whitespaces.
    * @param token token
@@ -11,6 +11,10 @@ import static java.lang.StrictMath.*;
 public final class Scoring {
   /** Logarithmic base for calculating the score value. */
   private static final double LOG = Math.E - 1;
+  /** BM25: saturation of the term frequency. */
+  private static final double K1 = 1.2;
+  /** BM25: normalization of the text length. */
+  private static final double B = 0.75;
 
   /** Private constructor. */
   private Scoring() { }
@@ -58,4 +62,36 @@ public final class Scoring {
       final int length) {
     return max((double) number / size, log(token * number + 1) / log(length + 1));
   }
+
+  /**
+   * Calculates the inverse document frequency of a token (BM25).
+   * @param nodes number of text nodes containing the token
+   * @param total total number of indexed text nodes
+   * @return inverse document frequency
+   */
+  public static double idf(final int nodes, final int total) {
+    return log(1 + (max(total, nodes) - nodes + 0.5) / (nodes + 0.5));
+  }
+
+  /**
+   * Calculates the score of a token in a text node (BM25).
+   * @param freq frequency of the token in the text node
+   * @param idf inverse document frequency of the token
+   * @param length number of tokens of the text node
+   * @param avg average number of tokens of all indexed text nodes
+   * @return score
+   */
+  public static double bm25(final int freq, final double idf, final int length,
+      final double avg) {
+    return idf * freq * (K1 + 1) / (freq + K1 * (1 - B + B * length / avg));
+  }
+
+  /**
+   * Returns the maximum score that can be reached by a single token (BM25).
+   * @param idf inverse document frequency of the token
+   * @return maximum score
+   */
+  public static double bm25Max(final double idf) {
+    return idf * (K1 + 1);
+  }
 }
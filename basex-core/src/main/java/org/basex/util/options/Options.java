@@ -364,6 +364,19 @@ public class Options implements Iterable<Option<?>> {
     }
   }
 
+  /**
+   * Restores the values of the specified options.
+   * @param opts options
+   */
+  public final synchronized void assign(final Options opts) {
+    synchronized(opts) {
+      values.clear();
+      values.putAll(opts.values);
+      free.clear();
+      free.putAll(opts.free);
+    }
+  }
+
   /**
    * Assigns a value after casting it to the correct type. If the option is unknown,
    * it will be added as free option.
@@ -88,12 +88,13 @@ public final class Levenshtein {
       matrix = mx;
     }
 
+    // t, s: codepoint indexes; tp, sp: byte offsets
     int e2 = -1, f2 = -1;
-    for(int t = 0; t < tl; t += cl(tk, t)) {
-      final int e = noDiacritics(lc(cp(tk, t)));
+    for(int t = 0, tp = 0; t < tl; t++, tp += cl(tk, tp)) {
+      final int e = noDiacritics(lc(cp(tk, tp)));
       int d = Integer.MAX_VALUE;
-      for(int s = 0; s < sl; s += cl(sb, s)) {
-        final int f = noDiacritics(lc(cp(sb, s)));
+      for(int s = 0, sp = 0; s < sl; s++, sp += cl(sb, sp)) {
+        final int f = noDiacritics(lc(cp(sb, sp)));
         int c = m(mx[t][s + 1] + 1, mx[t + 1][s] + 1, mx[t][s] + (e == f ? 0 : 1));
         if(e == f2 && f == e2) c = mx[t][s];
         mx[t + 1][s + 1] = c;
@@ -160,7 +161,7 @@ public final class Levenshtein {
   private static boolean same(final byte[] tk, final byte[] sb) {
     final int tl = tk.length, sl = sb.length;
     for(int s = 0, t = 0; t < tl && s < sl; t += cl(tk, t), s += cl(sb, s)) {
-      if(lc(noDiacritics(cp(tk, t))) != lc(noDiacritics(cp(sb, t)))) return false;
+      if(lc(noDiacritics(cp(tk, t))) != lc(noDiacritics(cp(sb, s)))) return false;
     }
     return true;
   }
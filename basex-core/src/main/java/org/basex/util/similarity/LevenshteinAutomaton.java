@@ -0,0 +1,109 @@
+package org.basex.util.similarity;
+
+import static org.basex.util.FTToken.*;
+import static org.basex.util.Token.*;
+
+import java.util.*;
+
+import org.basex.util.*;
+
+/**
+ * <p>Levenshtein automaton for a single query token. The states of the automaton are the
+ * rows of the distance matrix computed by {@link Levenshtein}: a state is rejecting if all
+ * distances of its row exceed the maximum number of errors. As all tokens starting with the
+ * prefix of a rejecting state will be rejected as well, they can be skipped when traversing
+ * a sorted vocabulary.</p>
+ *
+ * <p>If tokens are supplied in ascending order, the states of common prefixes are reused.</p>
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class LevenshteinAutomaton {
+  /** Normalized codepoints of the query token. */
+  private final int[] query;
+  /** Maximum number of errors. */
+  private final int k;
+
+  /** States: distances for each prefix of the current token (first entry: empty prefix). */
+  private int[][] rows;
+  /** Normalized codepoints of the current token. */
+  private int[] cps;
+  /** Byte offsets behind the codepoints of the current token. */
+  private int[] ends;
+  /** Current token. */
+  private byte[] token = EMPTY;
+  /** Number of valid states for the current token (excluding the initial state). */
+  private int size;
+
+  /**
+   * Constructor.
+   * @param token query token
+   * @param err number of allowed errors; dynamic calculation if value is 0
+   */
+  public LevenshteinAutomaton(final byte[] token, final int err) {
+    query = cps(token);
+    final int ql = query.length;
+    for(int q = 0; q < ql; q++) query[q] = noDiacritics(lc(query[q]));
+    k = err != 0 ? err : ql < 4 ? 0 : Math.max(1, ql >> 2);
+    rows = new int[8][];
+    final int[] row = new int[ql + 1];
+    for(int q = 0; q <= ql; q++) row[q] = q;
+    rows[0] = row;
+    cps = new int[8];
+    ends = new int[8];
+  }
+
+  /**
+   * Returns the length of the shortest prefix of the specified token that cannot be
+   * extended to a similar token.
+   * @param tok token
+   * @return length of the prefix in bytes, or {@code -1} if the token may be similar
+   */
+  public int prefix(final byte[] tok) {
+    // reuse the states of the common prefix
+    final int tl = tok.length, ml = Math.min(tl, token.length);
+    int c = 0;
+    while(c < ml && tok[c] == token[c]) c++;
+    int t = 0;
+    while(t < size && ends[t] <= c) t++;
+    token = tok;
+    size = t;
+
+    final int[] qu = query;
+    final int ql = qu.length;
+    for(int b = t == 0 ? 0 : ends[t - 1]; b < tl; b += cl(tok, b)) {
+      if(t + 1 == rows.length) {
+        final int s = Array.newSize(rows.length);
+        rows = Array.copyOf(rows, s);
+        cps = Arrays.copyOf(cps, s);
+        ends = Arrays.copyOf(ends, s);
+      }
+      int[] row = rows[t + 1];
+      if(row == null) {
+        row = new int[ql + 1];
+        rows[t + 1] = row;
+      }
+      final int[] prev = rows[t];
+      final int e = noDiacritics(lc(cp(tok, b))), e2 = t == 0 ? -1 : cps[t - 1];
+      row[0] = t + 1;
+
+      // compute distances (see Levenshtein#ls)
+      int f2 = t == 0 || ql == 0 ? -1 : qu[ql - 1], d = Integer.MAX_VALUE;
+      for(int q = 0; q < ql; q++) {
+        final int f = qu[q];
+        int dist = Math.min(Math.min(prev[q + 1] + 1, row[q] + 1), prev[q] + (e == f ? 0 : 1));
+        if(e == f2 && f == e2) dist = prev[q];
+        row[q + 1] = dist;
+        if(dist < d) d = dist;
+        f2 = f;
+      }
+      cps[t] = e;
+      ends[t] = b + cl(tok, b);
+      // rejecting state: no token with this prefix will be similar
+      if(d > k) return ends[t];
+      size = ++t;
+    }
+    return -1;
+  }
+}
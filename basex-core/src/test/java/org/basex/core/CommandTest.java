@@ -12,6 +12,7 @@ import org.basex.core.cmd.*;
 import org.basex.core.parse.Commands.CmdIndex;
 import org.basex.core.users.*;
 import org.basex.io.*;
+import org.basex.query.*;
 import org.basex.util.*;
 import org.junit.*;
 import org.junit.Test;
@@ -627,6 +628,55 @@ public class CommandTest extends SandboxTest {
     no(new XQuery("1+"));
   }
 
+  /**
+   * Command test: cached query plans.
+   * @throws Exception exception
+   */
+  @Test
+  public final void xqueryPlans() throws Exception {
+    context.soptions.set(StaticOptions.PLANCACHE, 10);
+    try {
+      execute(new CreateDB(NAME, FILE));
+      final String query = "count(//text()[. = 'x'])";
+      assertEquals("0", execute(new XQuery(query)));
+      assertEquals("0", execute(new XQuery(query)));
+      assertTrue(context.plans.toString().startsWith("1 plans, 1 hits"));
+      assertTrue(execute(new Info()).contains(context.plans.toString()));
+
+      // updates and index changes invalidate plans
+      execute(new XQuery("insert node <x>x</x> into /*"));
+      assertEquals("1", execute(new XQuery(query)));
+      execute(new CreateIndex(CmdIndex.TEXT));
+      assertEquals("1", execute(new XQuery(query)));
+      assertEquals("1", execute(new XQuery(query)));
+      execute(new DropIndex(CmdIndex.TEXT));
+      assertEquals("1", execute(new XQuery(query)));
+
+      // different options and external variables are considered
+      execute(new Set(MainOptions.BINDINGS, "x=1"));
+      assertEquals("1", execute(new XQuery("declare variable $x external; $x")));
+      execute(new Set(MainOptions.BINDINGS, "x=2"));
+      assertEquals("2", execute(new XQuery("declare variable $x external; $x")));
+      execute(new Set(MainOptions.BINDINGS, ""));
+
+      // parsed queries with bound values are shared
+      final String hits = context.plans.toString().replaceAll(".*, (\\d+) hits.*", "$1");
+      for(int i = 0; i < 2; i++) {
+        try(QueryProcessor qp = new QueryProcessor("declare variable $x external; $x", context)) {
+          assertEquals(Integer.toString(i), qp.bind("x", i).value().serialize().toString());
+        }
+      }
+      assertTrue(context.plans.toString().contains(", " + (Long.parseLong(hits) + 1) + " hits"));
+
+      // cached databases can be dropped
+      execute(new DropDB(NAME));
+      assertFalse(context.soptions.dbPath(NAME).exists());
+    } finally {
+      context.soptions.set(StaticOptions.PLANCACHE, 0);
+      context.plans.close();
+    }
+  }
+
   /** Command test. */
   @Test
   public final void test() {
@@ -127,6 +127,8 @@ public final class XMLCommandTest extends SandboxTest {
     ok("<show-backups/>");
 
     ok("<show-sessions/>");
+    ok("<show-statements/>");
+    ok("<show-metrics/>");
 
     ok("<show-users/>");
     ok("<show-users database='X'/>");
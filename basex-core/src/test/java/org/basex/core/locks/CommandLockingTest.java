@@ -59,6 +59,8 @@ public final class CommandLockingTest extends SandboxTest {
     ckDBs(new AlterDB(NAME, NAME2), true, new LockList().add(NAME).add(NAME2));
     ckDBs(new AlterPassword(NAME, NAME), true, USER_LIST);
     ckDBs(new AlterUser(NAME, NAME), true, USER_LIST);
+    ckDBs(new Batch(new List(NAME), new Store(FILE)), NAME_LIST, CTX_LIST);
+    ckDBs(new Batch(new Open(NAME), new Store(FILE)), NONE, null);
     ckDBs(new Check(NAME), false, NAME_CTX);
     ckDBs(new Close(), false, CTX_LIST);
     ckDBs(new Copy(NAME2, NAME), new LockList().add(NAME2), NAME_LIST);
@@ -106,7 +108,9 @@ public final class CommandLockingTest extends SandboxTest {
     ckDBs(new Run(FILE), false, null);
     ckDBs(new Set(NAME, NAME), false, NONE);
     ckDBs(new ShowBackups(), false, BACKUP_LIST);
+    ckDBs(new ShowMetrics(), false, NONE);
     ckDBs(new ShowSessions(), false, NONE);
+    ckDBs(new ShowStatements(), false, NONE);
     ckDBs(new ShowUsers(), false, NONE);
     ckDBs(new ShowUsers(NAME), false, NONE);
     ckDBs(new Store(FILE), true, CTX_LIST);
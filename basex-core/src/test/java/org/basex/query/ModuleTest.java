@@ -3,6 +3,7 @@ package org.basex.query;
 import static org.junit.Assert.*;
 
 import org.basex.*;
+import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.io.*;
 import org.basex.util.*;
@@ -93,6 +94,49 @@ public final class ModuleTest extends SandboxTest {
     }
   }
 
+  /**
+   * Adopts cached library modules.
+   * @throws Exception exception
+   */
+  @Test
+  public void moduleCache() throws Exception {
+    context.soptions.set(StaticOptions.MODULECACHE, true);
+    try {
+      final IOFile sandbox = sandbox();
+      final IOFile a = new IOFile(sandbox, "a.xqm"), b = new IOFile(sandbox, "b.xqm");
+      write(a, "module namespace a='a'; import module namespace b='b' at 'b.xqm';"
+          + "declare variable $a:x := b:b(1) + $a:y; declare variable $a:y := 10;"
+          + "declare %private function a:p($n) { $n * 2 };"
+          + "declare function a:a($n) { a:p($n) + $a:x + sum(b:b#1(2)) };"
+          + "declare function a:f() { function($n) { a:p($n) } };");
+      write(b, "module namespace b='b'; import module namespace a='a' at 'a.xqm';"
+          + "declare function b:b($n) { $n + 1 }; declare function b:c() { a:a(1) };");
+
+      final String query = "import module namespace a='a' at '" + a.path() + "'; ";
+      final String query2 = "import module namespace b='b' at '" + b.path() + "';" + query;
+      for(int i = 0; i < 2; i++) {
+        assertEquals("19", execute(new XQuery(query + "a:a(2)")));
+        assertEquals("6", execute(new XQuery(query + "a:f()(3)")));
+        assertEquals("17 2", execute(new XQuery(query2 + "(b:c(), b:b(1)) => string-join(' ')")));
+      }
+      assertTrue(context.modules.toString().contains("4 hits"));
+
+      // private functions are not visible
+      try(QueryContext qc = new QueryContext(context)) {
+        qc.parseMain(query + "a:p(1)", null, null);
+        fail("Private function was found.");
+      } catch(final QueryException ex) {
+        assertSame(QueryError.FUNCPRIVATE_X, ex.error());
+      }
+      // modified modules are parsed again
+      write(b, "module namespace b='b'; declare function b:b($n) { $n + 2 };");
+      b.file().setLastModified(b.timeStamp() + 2000);
+      assertEquals("21", execute(new XQuery(query + "a:a(2)")));
+    } finally {
+      context.soptions.set(StaticOptions.MODULECACHE, false);
+    }
+  }
+
   /**
    * Uses a URI resolver.
    * @throws Exception exception
@@ -104,6 +104,31 @@ public final class RewritingsTest extends QueryPlanTest {
     execute(new DropDB(NAME));
   }
 
+  /** Checks if paths with large intermediate results are evaluated as structural joins. */
+  @Test public void joinPath() {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 1000; i++) sb.append("<s><p><f/></p><s a='").append(i).append(
+        "'><p><s><f/></s></p><f/></s></s>");
+    execute(new CreateDB(NAME, sb.append("</x>").toString()));
+
+    check("count(//s//p//f[not(*)])", 2000, exists(JoinPath.class));
+    check("count(//s//f[not(*)])", 3000, exists(JoinPath.class));
+    check("count(//s/descendant-or-self::s/p[*])", 2000, exists(JoinPath.class));
+    check("count(//s//s[@a]//f[not(*)])", 2000, exists(JoinPath.class));
+    check("count(//s//@a[. != ''])", 1000, exists(JoinPath.class));
+    check("(//s//p//f)[1] ! name()", "f", exists(JoinPath.class));
+    check("deep-equal(//s//p//f, //f[ancestor::p[ancestor::s]])", true, exists(JoinPath.class));
+    check("deep-equal(//s/descendant::p/f, //f[parent::p[ancestor::s]])", true);
+
+    check("count(//s//f[1])", 3000, exists(JoinPath.class));
+
+    // positional access in descendant step
+    check("count(//s/descendant::f[1])", 2000, empty(JoinPath.class));
+    // small intermediate results
+    check("count(/x/s[1]//f[not(*)])", 3, empty(JoinPath.class));
+    execute(new DropDB(NAME));
+  }
+
   /** Checks OR optimizations. */
   @Test public void or() {
     check("('' or '')", false, empty(Or.class));
@@ -4,6 +4,7 @@ import static org.basex.query.QueryError.*;
 import static org.basex.query.func.Function.*;
 import static org.junit.Assert.*;
 
+import org.basex.core.*;
 import org.basex.query.ast.*;
 import org.basex.query.expr.gflwor.*;
 import org.basex.query.up.expr.*;
@@ -336,4 +337,146 @@ public final class GFLWORTest extends QueryPlanTest {
         1, count(Let.class, 1));
     error("let $x := <x>false</x> let $b as xs:boolean := $x/text() return $b", INVTYPE_X_X_X);
   }
+
+  /** Tests hash joins. */
+  @Test public void hashJoin() {
+    final String doc = "let $d := <x><o c='1'/><o c='2'/><o c='3'/><o c='2'/>"
+        + "<c i='2' n='b'/><c i='1' n='a'/><c i='1' n='A'/></x> ";
+    check(doc + "for $o in $d/o for $c in $d/c where $o/@c = $c/@i return $c/@n || $o/@c",
+        "a1\nA1\nb2\nb2", exists(Join.class));
+    check(doc + "for $o in $d/o, $c in $d/c[@i = $o/@c] return string($c/@n)",
+        "a\nA\nb\nb", exists(Join.class));
+    check(doc + "for $o in $d/o, $c in $d/c where $c/@i = $o/@c and $c/@n = 'A' "
+        + "return string($c/@n)", "A", exists(Join.class));
+    // multiple probe values
+    check(doc + "for $s in ('1 2', '3') for $c in $d/c[@i = tokenize($s)] return string($c/@n)",
+        "b\na\nA", exists(Join.class));
+    // multiple keys per item
+    check("let $d := <x><c k='1 2' n='a'/><c k='2 2' n='b'/></x> for $i in ('2', '1', '3') "
+        + "for $c in $d/c[tokenize(@k) = $i] return string($c/@n)", "a\nb\na",
+        exists(Join.class));
+    // expressions bound in the loop
+    check(doc + "for $o in $d/o let $c := $o/@c for $c in $d/c[@i = $c] return string($c/@n)",
+        "a\nA\nb\nb", exists(Join.class));
+
+    // no rewrite: positional predicates, incompatible types, input depending on the loop
+    check(doc + "for $o in $d/o for $c in $d/c[@i = $o/@c][1] return string($c/@n)",
+        "a\nb\nb", empty(Join.class));
+    check(doc + "for $i in (1, 2) for $c in $d/c[@i = $i] return string($c/@n)",
+        "a\nA\nb", empty(Join.class));
+    check(doc + "for $o in $d/o for $c in $o/../c[@i = $o/@c] return string($c/@n)",
+        "a\nA\nb\nb", empty(Join.class));
+    check("for $i in 1 to 2 for $c in $i[. = $i] return $c", "1\n2", empty(Join.class));
+  }
+
+  /** Tests the external sorting of order by clauses. */
+  @Test public void externalSort() {
+    set(MainOptions.SORTLIMIT, 2);
+    try {
+      query("for $i in (3, 1, 4, 1, 5, 9, 2, 6) order by $i descending return $i",
+          "9\n6\n5\n4\n3\n2\n1\n1");
+      // stability, multiple keys, empty keys
+      query("for $i in (1 to 9) stable order by $i mod 3, () return $i",
+          "3\n6\n9\n1\n4\n7\n2\n5\n8");
+      query("for $s in ('b', 'a', 'c', (), 'a') order by $s empty least, string-length($s) "
+          + "return $s", "a\na\nb\nc");
+      query("for $i in (2.5, 1e0, xs:float(3), true(), false()) "
+          + "order by string($i) return $i", "1\n2.5\n3\nfalse\ntrue");
+      // nodes and functions are kept in main memory
+      query("for $n in (<a>3</a>, <b>1</b>, <c>2</c>) let $f := function() { name($n) } "
+          + "order by number($n) return $f()", "b\nc\na");
+      query("for $i in 1 to 5 order by -$i count $c where $c = 2 return $i", 4);
+      // intermediate merge passes
+      query("deep-equal(for $i in 1 to 1000 stable order by $i mod 7 return $i, "
+          + "for $m in 0 to 6 return (1 to 1000)[. mod 7 = $m])", true);
+    } finally {
+      set(MainOptions.SORTLIMIT, MainOptions.SORTLIMIT.value());
+    }
+  }
+
+  /** Tests the top-k evaluation of order by clauses. */
+  @Test public void topK() {
+    final String seq = "(5, 3, 8, 1, 3, 9, 2) ! xs:integer(.)";
+    check("(for $i in " + seq + " order by $i descending return $i)[position() <= 3]",
+        "9\n8\n5", exists("OrderBy[@max = 3]"));
+    check("head(for $i in " + seq + " order by $i return $i)", 1, exists("OrderBy[@max = 1]"));
+    check("subsequence(for $i in " + seq + " order by $i return $i, 2, 3)", "2\n3\n3",
+        exists("OrderBy[@max = 4]"));
+    check("(for $i in " + seq + " order by $i return $i)[3]", 3, exists("OrderBy[@max = 3]"));
+    // stability and empty order
+    check("(for $a in (<a k='2'>x</a>, <a>y</a>, <a k='1'>z</a>, <a>w</a>) "
+        + "stable order by $a/@k empty greatest return string($a))[position() = 2 to 3]",
+        "x\ny", exists("OrderBy[@max = 3]"));
+    check("(for $i in 1 to 10 order by $i mod 3 let $j := $i * 2 count $c "
+        + "return $j + $c)[position() < 3]", "7\n14", exists("OrderBy[@max = 2]"));
+
+    // no rewrite: tuples may yield no results, clauses may filter tuples
+    check("(for $i in 1 to 10 order by -$i return $i[. > 8])[1]", 10, exists("OrderBy[not(@max)]"));
+    check("(for $i in 1 to 10 order by -$i count $c where $c > 2 return $i)[1]", 8,
+        exists("OrderBy[not(@max)]"));
+  }
+
+  /** Tests the aggregation of post-grouping variables. */
+  @Test public void groupByAggregate() {
+    final String query = "for $i in 1 to 20 group by $k := $i mod 3 "
+        + "let $c := count($i) let $s := sum($i) let $a := avg($i) "
+        + "let $min := min($i) let $max := max($i) order by $k "
+        + "return string-join(($k, $c, $s, $a, $min, $max), ' ')";
+    final String result = "0 6 63 10.5 3 18\n1 7 70 10 1 19\n2 7 77 11 2 20";
+    check(query, result, count("GroupBy/*[starts-with(name(), 'Fn')]", 5), empty(Let.class));
+    check("for $s in ('a', 'b', 'c', 'a', 'B') group by $k := lower-case($s) "
+        + "let $min := min($s) let $max := max($s) order by $k "
+        + "return $min || $max", "aa\nBb\ncc", exists("GroupBy/FnMin"),
+        exists("GroupBy/FnMax"));
+    // variable is referenced by other expressions: no rewrite
+    check("for $s in ('a', 'b', 'c', 'a', 'B') group by $k := lower-case($s) "
+        + "let $min := min($s) let $max := max($s) let $s := $s order by $k "
+        + "return $min || $max || count($s)", "aa2\nBb2\ncc1", empty("GroupBy/FnMin"));
+    check("for $i in 1 to 6 group by $k := $i mod 2 let $c := count($i) "
+        + "return $c + sum($i)", "12\n15", empty("GroupBy/FnCount"));
+    query("for $i in (1, 2.5, 3e0, <a>4</a>) group by $k := 1 "
+        + "let $s := sum($i) let $a := avg($i) let $m := max($i) return ($s, $a, $m)",
+        "10.5\n2.625\n4");
+    query("for $i in 1 to 3 group by $k := 1 let $s := sum(()[$i > 5]) return $s", 0);
+    error("for $i in (1, 'a') group by $k := 1 let $s := sum($i) return $s", CMP_X_X_X);
+
+    // spill groups to disk
+    set(MainOptions.GROUPLIMIT, 2);
+    try {
+      query(query, result);
+      query("for $i in 1 to 100 group by $k := $i mod 10, $l := string($i mod 2) "
+          + "let $s := sum($i) let $i := $i order by $k "
+          + "return $k || ':' || $l || ':' || $s || ':' || count($i)",
+          "0:0:550:10\n1:1:460:10\n2:0:470:10\n3:1:480:10\n4:0:490:10\n"
+          + "5:1:500:10\n6:0:510:10\n7:1:520:10\n8:0:530:10\n9:1:540:10");
+    } finally {
+      set(MainOptions.GROUPLIMIT, MainOptions.GROUPLIMIT.value());
+    }
+  }
+
+  /** Tests the parallel evaluation of iterations. */
+  @Test public void forkJoin() {
+    set(MainOptions.FORKJOIN, 4);
+    try {
+      query("sum(for $i in 1 to 100000 return $i * 2)", 10000100000L);
+      query("string-join(for $i at $p in 11 to 20 where $p mod 2 = 0 return $i - $p, ',')",
+          "10,10,10,10,10");
+      query("let $n := 3 return <a>{ for $i in 1 to 5 let $j := $i * $n return $j }</a>",
+          "<a>3 6 9 12 15</a>");
+      query("count(for $i in 1 to 20 for $j in 1 to $i return <a>{ $j }</a>)", 210);
+      query("<x><a>1</a><a>2</a></x>/(for $a in a return (., $a) ! name())", "x\na\nx\na");
+      query("declare function local:f($i) { $i * $i }; for $i in 1 to 1000 "
+          + "let $s := local:f($i) where $s > 998000 and $s < 999000 return $s", 998001);
+      error("for $i in 0 to 100 return 1 idiv $i", DIVZERO_X);
+      // non-deterministic expressions are evaluated sequentially
+      query("count(for $i in 1 to 10 return random:integer(5))", 10);
+      // namespaces of enclosing constructors
+      query("count(<a xmlns:p='u'>{ for $i in 1 to 100 return element { 'p:x' } {} }</a>"
+          + "/*[namespace-uri() = 'u'])", 100);
+    } finally {
+      set(MainOptions.FORKJOIN, MainOptions.FORKJOIN.value());
+    }
+    // opt-in for single expressions
+    query("(# db:forkjoin 4 #) { sum(for $i in 1 to 1000 return $i * 2) }", 1001000);
+  }
 }
@@ -73,6 +73,21 @@ public final class SimpleMapTest extends QueryPlanTest {
     error("(1 + 'a') ! 2", NONUMBER_X_X);
   }
 
+  /** Batch evaluation. */
+  @Test public void batch() {
+    check("sum((1 to 1000) ! (. * 2))", 1001000, exists(IterMap.class));
+    check("sum((1 to 1000) ! (1000 - .))", 499500, exists(IterMap.class));
+    query("count((1 to 1000) ! (. * 2))", 1000);
+    query("head((1 to 1000) ! (. + 1))", 2);
+    query("max((1 to 1000) ! (. div 4))", 250);
+    query("count((1, [], <a>2</a>, [3]) ! (. + 1))", 3);
+    query("((1 to 1000)[. mod 3 = 0] ! (. * 2))[last()]", 1998);
+    query("count(<x>{ (1 to 1000) ! <a/> }</x>/a[position() mod 2 = 0])", 500);
+    query("count((1 to 1000) ! <a>{ . }</a> ! a)", 0);
+    query("(1 to 1000) ! (. * 2) = 2000", true);
+    error("sum((1 to 200) ! (. idiv 0))", DIVZERO_X);
+  }
+
   /** Replicate results. */
   @Test public void replicate() {
     check("<x/> ! 2[. = 2]", "2", empty(CElem.class));
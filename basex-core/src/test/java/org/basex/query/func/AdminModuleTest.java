@@ -46,6 +46,16 @@ public final class AdminModuleTest extends AdvancedQueryTest {
     error(_ADMIN_LOGS.args("2001-01-01"), WHICHRES_X);
   }
 
+  /** Test method. */
+  @Test
+  public void metrics() {
+    execute(new XQuery("1"));
+    query("count(" + _ADMIN_METRICS.args() + "[self::counter])", 3);
+    query("exists(" + _ADMIN_METRICS.args() + "[@category = 'job'][@name = 'XQuery'])", true);
+    query(_ADMIN_METRICS.args() + "[@category = 'job'][@name = 'XQuery'] ! (@count > 0)",
+        true);
+  }
+
   /** Test method. */
   @Test
   public void deleteLogs() {
@@ -3,6 +3,7 @@ package org.basex.query.func;
 import static org.basex.core.users.UserText.*;
 import static org.basex.query.QueryError.*;
 import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
 
 import java.io.*;
 
@@ -117,6 +118,62 @@ public final class ClientModuleTest extends AdvancedQueryTest {
     }
   }
 
+  /** Test method. */
+  @Test
+  public void scatter() {
+    final String ids = "(1 to 3) ! " + conn();
+    final String query = "declare variable $a external := 0; $a, $a * 10";
+    query(_CLIENT_SCATTER.args(" " + ids, query), "0\n0\n0\n0\n0\n0");
+    query(_CLIENT_SCATTER.args(" " + ids, query, " map { 'a': 2 }"), "2\n20\n2\n20\n2\n20");
+    query(_CLIENT_SCATTER.args(" " + ids, query, " (1 to 3) ! map { 'a': . }"),
+        "1\n10\n2\n20\n3\n30");
+    query(_CLIENT_SCATTER.args(" " + ids, "declare context item external; . * 2",
+        " (1 to 3) ! map { '': . }"), "2\n4\n6");
+    query(_CLIENT_SCATTER.args(" ()", query), "");
+
+    // unordered: results of each session are returned in a row
+    query("sort(" + _CLIENT_SCATTER.args(" " + ids, query, " (1 to 3) ! map { 'a': . }",
+        " map { 'ordered': false() }") + ')', "1\n2\n3\n10\n20\n30");
+    query("count(" + _CLIENT_SCATTER.args(" " + ids, "1 to 5", " ()",
+        " map { 'ordered': false() }") + ')', 15);
+
+    // aggregations
+    final String range = "declare variable $n external; 1 to $n";
+    final String binds = " (1 to 3) ! map { 'n': . }";
+    query(_CLIENT_SCATTER.args(" " + ids, range, binds, " map { 'aggregate': 'count' }"), 6);
+    query(_CLIENT_SCATTER.args(" " + ids, range, binds, " map { 'aggregate': 'sum' }"), 10);
+    query(_CLIENT_SCATTER.args(" " + ids, range, binds, " map { 'aggregate': 'min' }"), 1);
+    query(_CLIENT_SCATTER.args(" " + ids, range, binds, " map { 'aggregate': 'max' }"), 3);
+    query(_CLIENT_SCATTER.args(" " + ids, "()", " ()", " map { 'aggregate': 'count' }"), 0);
+    query(_CLIENT_SCATTER.args(" " + ids, "()", " ()", " map { 'aggregate': 'max' }"), "");
+
+    // errors
+    error(_CLIENT_SCATTER.args(" " + ids, "x"), NOCTX_X);
+    error(_CLIENT_SCATTER.args(" " + ids, "map {}"), CLIENT_FITEM_X);
+    error(_CLIENT_SCATTER.args(" " + ids, query, " (1 to 2) ! map { 'a': . }"),
+        CLIENT_BINDINGS_X_X);
+    error("let $id := " + conn() + " return " + _CLIENT_SCATTER.args(" ($id, $id)", "1"),
+        CLIENT_DUPLICATE_X);
+    error(_CLIENT_SCATTER.args(" xs:anyURI('unknown')", "1"), CLIENT_ID_X);
+
+    // running queries are aborted when the sessions are closed
+    query("head(" + _CLIENT_SCATTER.args(" (1 to 2) ! " + conn(), "declare variable $n " +
+        "external; if($n = 1) then " + _PROF_SLEEP.args(60000) + " else $n",
+        " (1 to 2) ! map { 'n': . }", " map { 'ordered': false() }") + ')', 2);
+    for(final Thread thread : Thread.getAllStackTraces().keySet()) {
+      assertFalse(thread.getClass().getName().endsWith("ClientScatter$Shard"));
+    }
+  }
+
+  /** Test method. */
+  @Test
+  public void pool() {
+    // closed sessions are reused
+    final int size = context.clients.size();
+    query("(1 to 10) ! " + _CLIENT_CLOSE.args(" " + conn()));
+    assertTrue(context.clients.size() <= size + 1);
+  }
+
   /** Test method. */
   @Test
   public void close() {
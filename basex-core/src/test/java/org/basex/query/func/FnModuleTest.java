@@ -3,6 +3,7 @@ package org.basex.query.func;
 import static org.basex.query.QueryError.*;
 import static org.junit.Assert.*;
 
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.ast.*;
 import org.basex.query.expr.*;
@@ -568,6 +569,21 @@ public final class FnModuleTest extends QueryPlanTest {
 
     error(func.args(" true#0"), FIATOM_X);
     error(func.args(" (1 to 2) ! true#0"), FIATOM_X);
+
+    // external sort
+    set(MainOptions.SORTLIMIT, 3);
+    try {
+      query(func.args(" (1, 4, 6, 5, 3, 2, 8, 7)"), "1\n2\n3\n4\n5\n6\n7\n8");
+      query(func.args(" (1,-2,5,10,-10,10,8)", " ()", " abs#1"), "1\n-2\n5\n8\n10\n-10\n10");
+      query(func.args(" ((1,0), (1,1), (0,1), (0,0))"), "0\n0\n0\n0\n1\n1\n1\n1");
+      query(func.args(" ('b', 'a', 'd', 'c', 'e')", " ()", " function($s) { ($s, 1.5, true()) }"),
+          "a\nb\nc\nd\ne");
+      query(func.args(" (<a>b</a>, <a>a</a>, <a>d</a>, <a>c</a>)") + " ! name()", "a\na\na\na");
+      query(func.args(" 1 to 10", " ()", " function($i) { $i mod 2 }") + "[3]", 6);
+      error(func.args(" (1, 'a', 2, 3)"), CMPTYPES_X_X);
+    } finally {
+      set(MainOptions.SORTLIMIT, MainOptions.SORTLIMIT.value());
+    }
   }
 
   /** Test method. */
@@ -113,6 +113,51 @@ public final class FtModuleTest extends AdvancedQueryTest {
     error(_FT_SEARCH.args(NAME, "x", " 1"), MAP_X_X);
   }
 
+  /** Test method. */
+  @Test
+  public void searchFuzzy() {
+    execute(new CreateDB(NAME, "<x><t>house</t><t>mouse</t><t>horse</t><t>hose</t>" +
+        "<t>houses</t><t>hotel</t><t>h\u00f6use</t><t>ouse</t><t>xylophone</t><t>hous</t></x>"));
+    execute(new CreateIndex(CmdIndex.FULLTEXT));
+
+    final String fuzzy = " map { 'fuzzy':true() }";
+    query(_FT_SEARCH.args(NAME, "house", fuzzy) + " ! string()",
+        "house\nmouse\nhorse\nhose\nhouses\nh\u00f6use\nouse\nhous");
+    query(_FT_SEARCH.args(NAME, "xylophon", fuzzy) + " ! string()", "xylophone");
+    query(_FT_SEARCH.args(NAME, "hotle", fuzzy) + " ! string()", "hotel");
+    query(_FT_SEARCH.args(NAME, "zzzzz", fuzzy), "");
+  }
+
+  /** Test method. */
+  @Test
+  public void searchRanking() {
+    execute(new CreateDB(NAME, "<x><t>apple</t><t>apple apple banana</t>" +
+        "<t>banana cherry cherry cherry</t><t>apple pie with cherry</t><t>banana</t></x>"));
+    execute(new CreateIndex(CmdIndex.FULLTEXT));
+
+    final String bm25 = " map { 'scoring':'bm25' }";
+    // results in document order
+    query(_FT_SEARCH.args(NAME, "apple", bm25), "apple\napple apple banana\napple pie with cherry");
+    // repeated and short matches are ranked higher
+    query("for $t score $s in " + _FT_SEARCH.args(NAME, " ('apple', 'banana')", bm25) +
+        " order by $s descending return string($t)",
+        "apple apple banana\napple\nbanana\nbanana cherry cherry cherry\napple pie with cherry");
+
+    // best results
+    final String top = " map { 'scoring':'bm25', 'top':2 }";
+    query(_FT_SEARCH.args(NAME, " ('apple', 'banana')", top), "apple apple banana\napple");
+    query(_FT_SEARCH.args(NAME, "cherry", top),
+        "banana cherry cherry cherry\napple pie with cherry");
+    query(_FT_SEARCH.args(NAME, "apple banana",
+        " map { 'scoring':'bm25', 'top':1, 'mode':'all words' }"), "apple apple banana");
+    query(_FT_SEARCH.args(NAME, "apple", " map { 'top':1 }"), "apple");
+    query("let $r := " + _FT_SEARCH.args(NAME, " ('apple', 'banana', 'cherry')", top) +
+        " return " + _FT_SCORE.args(" $r") + "[1] >= " + _FT_SCORE.args(" $r") + "[2]", true);
+    query(_FT_SEARCH.args(NAME, "XXX", top), "");
+
+    error(_FT_SEARCH.args(NAME, "x", " map { 'scoring':'x' }"), INVALIDOPT_X);
+  }
+
   /** Test method. */
   @Test
   public void count() {
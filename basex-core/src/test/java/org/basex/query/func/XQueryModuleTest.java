@@ -79,6 +79,49 @@ public final class XQueryModuleTest extends AdvancedQueryTest {
     error(_XQUERY_INVOKE_UPDATE.args("src/test/resources/xxx.xq"), WHICHRES_X);
   }
 
+  /** Test method. */
+  @Test
+  public void filter() {
+    query(_XQUERY_FILTER.args(" 1 to 10", " function($i) { $i mod 3 = 0 }"), "3\n6\n9");
+    query("count(" + _XQUERY_FILTER.args(" 1 to 100000", " function($i) { $i mod 2 = 0 }") +
+        ')', 50000);
+    query(_XQUERY_FILTER.args(" ()", " boolean#1"), "");
+    error(_XQUERY_FILTER.args(" 1 to 10", " true#0"), FUNARITY_X_X);
+  }
+
+  /** Test method. */
+  @Test
+  public void fold() {
+    query(_XQUERY_FOLD.args(" 1 to 100000", 0, " function($a, $b) { $a + $b }"), 5000050000L);
+    query(_XQUERY_FOLD.args(" 1 to 10", "", " concat#2"), "12345678910");
+    query(_XQUERY_FOLD.args(" 1", 0, " function($a, $b) { $a + $b }"), 1);
+    query(_XQUERY_FOLD.args(" ()", 0, " function($a, $b) { $a + $b }"), 0);
+    error(_XQUERY_FOLD.args(" 1 to 10", 0, " function($a, $b) { $a idiv ($b - 5) }"),
+        DIVZERO_X);
+  }
+
+  /** Test method. */
+  @Test
+  public void forEach() {
+    query(_XQUERY_FOR_EACH.args(" 1 to 5", " function($i) { $i * $i }"), "1\n4\n9\n16\n25");
+    query("sum(" + _XQUERY_FOR_EACH.args(" 1 to 100000", " function($i) { $i * 2 }") + ')',
+        10000100000L);
+    query("let $n := 10 return " + _XQUERY_FOR_EACH.args(" (1, 2)",
+        " function($i) { ($i, $i + $n) }"), "1\n11\n2\n12");
+    query(_XQUERY_FOR_EACH.args(" ()", " string#1"), "");
+    query("count(" + _XQUERY_FOR_EACH.args(" 1 to 100",
+        " function($i) { " + _XQUERY_FORK_JOIN.args(" (true#0, false#0)") + " }") + ')', 200);
+    error(_XQUERY_FOR_EACH.args(" 1 to 10", " function($i) { 1 idiv ($i - 5) }"), DIVZERO_X);
+
+    // namespaces of enclosing constructors
+    query("<a xmlns:p='u'>{ " + _XQUERY_FOR_EACH.args(" 1 to 8",
+        " function($i) { element { 'p:x' } {} }") + " }</a>/* ! namespace-uri()",
+        "u\nu\nu\nu\nu\nu\nu\nu");
+    query("count(<a xmlns:p='u'>{ " + _XQUERY_FOR_EACH.args(" 1 to 100",
+        " function($i) { <b xmlns:q='v'>{ element { 'q:x' } {}, element { 'p:y' } {} }</b> }")
+        + " }</a>//(*:x, *:y)[namespace-uri()])", 200);
+  }
+
   /** Test method. */
   @Test
   public void forkJoin() {
@@ -93,6 +136,12 @@ public final class XQueryModuleTest extends AdvancedQueryTest {
     query(_XQUERY_FORK_JOIN.args(" (true#0, function() { (1 to 10000000)[.=1] })"), "true\n1");
     query(_XQUERY_FORK_JOIN.args(" ()"), "");
 
+    // namespaces of enclosing constructors
+    query("count(<a xmlns:p='u'>{ " + _XQUERY_FORK_JOIN.args(" for $i in 1 to 8 return "
+        + "function() { element { 'p:x' } {} }") + " }</a>/*)", 8);
+    query("<a xmlns:p='u'>{ " + _XQUERY_FORK_JOIN.args(" (1 to 2) ! "
+        + "function() { element { 'p:x' } {} }") + " }</a>/* ! namespace-uri()", "u\nu");
+
     // errors
     error(_XQUERY_FORK_JOIN.args(" count#1"), ZEROFUNCS_X_X);
     error(_XQUERY_FORK_JOIN.args(" 123"), ZEROFUNCS_X_X);
@@ -4,9 +4,12 @@ import static org.basex.query.func.Function.*;
 
 import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.*;
+import org.basex.query.*;
 import org.basex.query.ast.*;
 import org.basex.query.expr.ft.*;
 import org.basex.query.expr.index.*;
+import org.basex.query.expr.path.*;
 import org.basex.util.*;
 import org.junit.*;
 import org.junit.Test;
@@ -123,6 +126,54 @@ public final class IndexOptimizeTest extends QueryPlanTest {
     check("for $s in ('id2', 'id3') return data(//@*[contains-token(., $s)])", "id1 id2");
   }
 
+  /** Checks substring and regex requests. */
+  @Test public void trigramTest() {
+    execute(new CreateDB(NAME, "<xml><a x='abcdef'>abcdef</a><a>bcdxyz</a><a x='xyz'/></xml>"));
+    execute(new CreateIndex(CmdIndex.TRIGRAM));
+    execute(new Close());
+    execute(new Open(NAME));
+
+    check("//a[contains(text(), 'bcd')] ! string()", "abcdef\nbcdxyz",
+        exists(TrigramAccess.class));
+    check("//a[starts-with(text(), 'bcd')] ! string()", "bcdxyz", exists(TrigramAccess.class));
+    check("//a[ends-with(text(), 'def')] ! string()", "abcdef", exists(TrigramAccess.class));
+    check("//a[contains(text(), 'cdx')] ! string()", "bcdxyz", exists(TrigramAccess.class));
+    check("//a[contains(text(), 'xyzabc')]", "", empty(TrigramAccess.class));
+    check("//a[contains(@x, 'xyz')] ! string(@x)", "xyz", exists(TrigramAccess.class));
+    check("data(//@x[ends-with(., 'def')])", "abcdef", exists(TrigramAccess.class));
+
+    check("//a[matches(text(), '^abc.*f$')] ! string()", "abcdef", exists(TrigramAccess.class));
+    check("//a[matches(text(), 'bcd(e|x)yz?')] ! string()", "bcdxyz",
+        exists(TrigramAccess.class));
+    check("//a[matches(text(), 'cd.', 'q')]", "", empty(TrigramAccess.class));
+    check("//a[matches(text(), 'ab+cde')] ! string()", "abcdef", exists(TrigramAccess.class));
+
+    // no rewrite: short strings, branches, unsupported modifiers, dynamic arguments
+    check("//a[contains(text(), 'bc')] ! string()", "abcdef\nbcdxyz",
+        empty(TrigramAccess.class));
+    check("//a[matches(text(), 'abc|xyz')] ! string()", "abcdef\nbcdxyz",
+        empty(TrigramAccess.class));
+    check("//a[matches(text(), 'ABC', 'i')] ! string()", "abcdef", empty(TrigramAccess.class));
+    check("for $s in ('bcd', 'xyz') return //a[contains(text(), $s)] ! string()",
+        "abcdef\nbcdxyz\nbcdxyz", empty(TrigramAccess.class));
+    error("//a[matches(text(), '(abc')]", QueryError.REGPAT_X);
+
+    // no rewrite if a default collation is declared
+    final String coll = "declare default collation " +
+        "'http://basex.org/collation?lang=en;strength=primary'; ";
+    check(coll + "//a[contains(text(), 'BCD')] ! string()", "abcdef\nbcdxyz",
+        empty(TrigramAccess.class));
+    check(coll + "//a[starts-with(text(), 'BCD')] ! string()", "bcdxyz",
+        empty(TrigramAccess.class));
+    check(coll + "//a[ends-with(text(), 'DEF')] ! string()", "abcdef",
+        empty(TrigramAccess.class));
+
+    // index is invalidated by updates
+    execute(new XQuery("insert node <a>bcd</a> into /xml"));
+    check("//a[contains(text(), 'bcd')] ! string()", "abcdef\nbcdxyz\nbcd",
+        empty(TrigramAccess.class));
+  }
+
   /** Checks full-text requests. */
   @Test public void ftTest() {
     createDoc();
@@ -205,6 +256,52 @@ public final class IndexOptimizeTest extends QueryPlanTest {
     }
   }
 
+  /** Checks if count, exists and distinct-values are evaluated without accessing the nodes. */
+  @Test public void indexOnly() {
+    try {
+      set(MainOptions.TEXTINCLUDE, "a");
+      set(MainOptions.ATTRINCLUDE, "x");
+      // skip distinct values in the database statistics
+      set(MainOptions.MAXCATS, 1);
+      execute(new CreateDB(NAME,
+          "<xml><a x='1'>1</a><a x='2'>1</a><a x='1'>2</a><b>1</b><b>2</b></xml>"));
+      final String path = empty("*[ends-with(name(), 'Path')]");
+
+      // counts are retrieved from the index at compile time
+      check("count(//a[text() = '1'])", 2, empty(ValueAccess.class));
+      check("count(//a[@x = '1'])", 2, empty(ValueAccess.class));
+      check("exists(//a[. = '2'])", true, empty(ValueAccess.class));
+      check("empty(//@x[. = '3'])", true, empty(ValueAccess.class));
+      // counts are retrieved from the index at runtime
+      check("for $s in ('1', '3') return count(//a[text() = $s])", "2\n0",
+          exists(ValueAccess.class), path);
+      check("for $s in ('1', '3') return exists(//a[@x = $s])", "true\nfalse",
+          exists(ValueAccess.class), path);
+      // nodes need to be accessed
+      check("count(//xml[a = '1'])", 1, exists(ValueAccess.class));
+      check("count(//*[@x = '1']/text())", 2, exists(ValueAccess.class));
+
+      // distinct values are retrieved from the index keys
+      check("distinct-values(//a)", "1\n2", path);
+      check("distinct-values(//@x)", "1\n2", path);
+      check("distinct-values(//b)", "1\n2", exists(IterPath.class));
+
+      // no index and statistics access if a default collation is declared
+      final String coll = "declare default collation " +
+          "'http://basex.org/collation?lang=en;strength=primary'; ";
+      execute(new CreateDB(NAME, "<xml><a x='A'>A</a><a x='a'>a</a></xml>"));
+      check(coll + "count(distinct-values(//a))", 1, exists(IterPath.class));
+      check(coll + "count(distinct-values(//@x))", 1, exists(IterPath.class));
+      set(MainOptions.MAXCATS, MainOptions.MAXCATS.value());
+      execute(new CreateDB(NAME, "<xml><b>A</b><b>a</b></xml>"));
+      check(coll + "count(distinct-values(//b))", 1, exists(IterPath.class));
+    } finally {
+      set(MainOptions.TEXTINCLUDE, "");
+      set(MainOptions.ATTRINCLUDE, "");
+      set(MainOptions.MAXCATS, MainOptions.MAXCATS.value());
+    }
+  }
+
   /** Checks mixed downward and upward axes. */
   @Test public void upAndDown() {
     createDoc();
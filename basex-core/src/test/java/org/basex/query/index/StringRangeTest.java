@@ -54,7 +54,7 @@ public final class StringRangeTest extends QueryPlanTest {
    */
   @Test
   public void geLe() {
-    test("exists(//*[text() >= '999' and text() <= '999'])", true, ValueAccess.class);
+    test("data(//*[text() >= '999' and text() <= '999'])", 999, ValueAccess.class);
     final Class<? extends Expr> clz = StringRangeAccess.class;
     test("count(//*[text() >= '990' and text() <= '999'])", 10, clz);
     test("count(//*[text() >= '900' and text() <= '999'])", 100, clz);
@@ -69,7 +69,7 @@ public final class StringRangeTest extends QueryPlanTest {
    */
   @Test
   public void leGe() {
-    test("exists(//*[text() <= '999' and text() >= '999'])", true, ValueAccess.class);
+    test("data(//*[text() <= '999' and text() >= '999'])", 999, ValueAccess.class);
     final Class<? extends Expr> clz = StringRangeAccess.class;
     test("count(//*[text() <= '999' and text() >= '990'])", 10, clz);
     test("count(//*[text() <= '999' and text() >= '900'])", 100, clz);
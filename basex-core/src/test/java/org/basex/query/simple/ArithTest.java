@@ -94,4 +94,29 @@ public final class ArithTest extends QueryPlanTest {
     error("for $i in (1, xs:double('NaN')) return $i idiv $i", DIVFLOW_X);
     check("for $i in (2,4) return $i idiv $i", "1\n1", empty(Arith.class), empty(GFLWOR.class));
   }
+
+  /** Primitive integer and double arithmetics. */
+  @Test public void primitive() {
+    query("sum(for $i in 1 to 10000 return $i * $i mod 7)", 20001);
+    query("sum(for $i in 1 to 10 return $i * 1.5e0)", 82.5);
+    query("sum(for $i in 1 to 10 return $i idiv 3 - 1)", 5);
+    query("sum(for $i in 1 to 3 return xs:byte($i) + 1)", 9);
+    query("sum(for $i in 1 to 3 where $i > 5 return $i * 2)", 0);
+    query("for $i in 1 to 3 let $x := $i div 2 return $x + $x", "1\n2\n3");
+    query("for $i in 1 to 10 where $i * 3 mod 7 = 1 return $i", "5");
+    query("for $i in 1 to 4 where $i div 2e0 >= 1 return $i", "2\n3\n4");
+    query("for $d in (0e0, 1e0) return $d div 0e0 = $d div 0e0", "false\ntrue");
+    query("for $d in (0e0, 1e0) return $d div 0e0 != 1", "true\ntrue");
+
+    error("for $i in (0, 1) return 5 mod $i", DIVZERO_X);
+    error("for $i in (0, 1) return 5 idiv $i", DIVZERO_X);
+    error("let $x := 9223372036854775807 return sum(for $i in 1 to 2 return $x - 1 + $i)",
+        RANGE_X);
+    // integer division: boundaries
+    query("for $i in (-2147483647 - 1, -9223372036854775807) return $i idiv -1",
+        "2147483648\n9223372036854775807");
+    error("for $i in (1, -9223372036854775807 - 1) return $i idiv -1", RANGE_X);
+    error("(-9223372036854775807 - 1) idiv -1", RANGE_X);
+    error("sum(for $i in (9223372036854775807, 1) return $i * 1)", RANGE_X);
+  }
 }
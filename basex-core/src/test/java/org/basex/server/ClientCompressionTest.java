@@ -0,0 +1,114 @@
+package org.basex.server;
+
+import static org.basex.core.Text.*;
+import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.basex.api.client.*;
+import org.basex.core.users.*;
+import org.basex.io.in.*;
+import org.basex.io.out.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests the client/server session API with compressed data transfer.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientCompressionTest extends ClientSessionTest {
+  /** Initializes the test. */
+  @Override
+  @Before
+  public void startSession() {
+    try {
+      session = new ClientSession(S_LOCALHOST, DB_PORT, UserText.ADMIN, UserText.ADMIN, null,
+          1024);
+      session.setOutputStream(out);
+    } catch(final IOException ex) {
+      fail(Util.message(ex));
+    }
+  }
+
+  /**
+   * Transfers large documents and results.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void largeData() throws IOException {
+    final StringBuilder sb = new StringBuilder("<X>");
+    for(int i = 0; i < 100000; i++) sb.append("<Y>").append(i).append("</Y>");
+    final String doc = sb.append("</X>").toString();
+
+    session.create(NAME, new ArrayInput(doc));
+    final String query = SERIALIZE.args(_DB_OPEN.args(NAME), " map { 'indent': 'no' }");
+    assertEqual(doc, session.query(query).execute());
+    assertEqual("100000", session.execute("xquery count(" + _DB_OPEN.args(NAME) + "//Y)"));
+  }
+
+  /**
+   * Sends each block in a single write operation.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void blocks() throws IOException {
+    final int[] writes = { 0 };
+    final ByteArrayOutputStream bos = new ByteArrayOutputStream() {
+      @Override
+      public synchronized void write(final byte[] b, final int off, final int len) {
+        writes[0]++;
+        super.write(b, off, len);
+      }
+      @Override
+      public synchronized void write(final int b) {
+        writes[0]++;
+        super.write(b);
+      }
+    };
+    final byte[] data = new byte[200000];
+    for(int d = 0; d < data.length; d++) data[d] = (byte) (d % 7 == 0 ? d : 'a');
+    try(CompressedOutput co = new CompressedOutput(bos, 1024)) {
+      co.write(data);
+      co.flush();
+      // small block is sent uncompressed
+      co.write('x');
+      co.flush();
+    }
+    // three full blocks, one partial block, one small block
+    assertEquals(5, writes[0]);
+
+    final BufferInput bi = new BufferInput(new CompressedInput(new ArrayInput(bos.toByteArray())));
+    for(final byte d : data) assertEquals(d & 0xFF, bi.read());
+    assertEquals('x', bi.read());
+    assertEquals(-1, bi.read());
+  }
+
+  /**
+   * Rejects invalid block lengths.
+   */
+  @Test
+  public void invalidBlocks() {
+    final int max = CompressedOutput.BLOCKSIZE;
+    // uncompressed block, compressed block, size of decompressed block
+    for(final int[] block : new int[][] {
+      { 0, max + 1 }, { 0, -1 }, { 1, max + 1, 1 }, { 1, -1, 1 }, { 1, 1, max + 1 },
+      { 1, 1, Integer.MAX_VALUE }
+    }) {
+      final ArrayOutput ao = new ArrayOutput();
+      ao.write(block[0]);
+      for(int b = 1; b < block.length; b++) {
+        for(int s = 24; s >= 0; s -= 8) ao.write(block[b] >>> s);
+      }
+      try(CompressedInput ci = new CompressedInput(new ArrayInput(ao.finish()))) {
+        ci.read();
+        fail("Error expected.");
+      } catch(final IOException ex) {
+        assertTrue(ex.getMessage(), ex.getMessage().startsWith("Invalid block length"));
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package org.basex.server;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.*;
+
+import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests the client/server session API with the selector-based front end.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientSelectorTest extends ClientSessionTest {
+  /** Server reference. */
+  private static BaseXServer server;
+
+  /**
+   * Starts the server.
+   * @throws IOException I/O exception
+   */
+  @BeforeClass
+  public static void startServer() throws IOException {
+    final Context ctx = new Context();
+    ctx.soptions.set(StaticOptions.SERVERTHREADS, 2);
+    ctx.soptions.set(StaticOptions.DBPATH, sandbox().path());
+    server = new BaseXServer(ctx, "-z", "-p" + DB_PORT, "-q");
+  }
+
+  /**
+   * Stops the server.
+   */
+  @AfterClass
+  public static void stop() {
+    stopServer(server);
+  }
+
+  /**
+   * Runs requests of more sessions than worker threads.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void idleSessions() throws IOException {
+    final int sl = 20;
+    final ClientSession[] sessions = new ClientSession[sl];
+    try {
+      for(int s = 0; s < sl; s++) sessions[s] = createClient();
+      for(int i = 0; i < 3; i++) {
+        for(int s = 0; s < sl; s++) {
+          try(ClientQuery query = sessions[s].query(s + " + " + i)) {
+            assertEquals(Integer.toString(s + i), query.execute());
+          }
+        }
+      }
+    } finally {
+      for(final ClientSession cs : sessions) {
+        if(cs != null) cs.close();
+      }
+    }
+  }
+
+  /**
+   * Runs requests while more clients than worker threads are connected without logging in.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void silentClients() throws IOException {
+    final int sl = 4;
+    final Socket[] sockets = new Socket[sl];
+    try {
+      for(int s = 0; s < sl; s++) sockets[s] = new Socket(Text.S_LOCALHOST, DB_PORT);
+      try(ClientSession cs = createClient()) {
+        assertEquals("1", cs.execute(new XQuery("1")));
+      }
+    } finally {
+      for(final Socket socket : sockets) {
+        if(socket != null) socket.close();
+      }
+    }
+  }
+}
@@ -3,10 +3,19 @@ package org.basex.server;
 import static org.junit.Assert.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.api.client.ClientPipeline.Response;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.cmd.Set;
+import org.basex.core.users.*;
+import org.basex.io.*;
 import org.basex.util.*;
 import org.junit.*;
+import org.junit.Test;
 
 /**
  * This class tests the client/server session API.
@@ -45,4 +54,281 @@ public class ClientSessionTest extends SessionTest {
       fail(Util.message(ex));
     }
   }
+
+  /**
+   * Runs pipelined commands.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void pipeline() throws IOException {
+    final int rs = 200;
+    final ArrayList<Response> responses;
+    try(ClientPipeline pipeline = ((ClientSession) session).pipeline()) {
+      for(int r = 0; r < rs; r++) pipeline.execute(new XQuery(Integer.toString(r)));
+      pipeline.execute("xquery (");
+      pipeline.batch("xquery 1", "xquery 2");
+      responses = pipeline.results();
+    }
+    assertEquals(rs + 2, responses.size());
+    for(int r = 0; r < rs; r++) {
+      assertTrue(responses.get(r).ok);
+      assertEquals(Integer.toString(r), responses.get(r).result);
+    }
+    assertFalse(responses.get(rs).ok);
+    assertEquals("12", responses.get(rs + 1).result);
+    // session is in sync again
+    assertEqual("A", session.execute("xquery 'A'"));
+  }
+
+  /**
+   * Closes queries without waiting for the responses.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void pipelineQuery() throws IOException {
+    try(Query query = session.query("declare variable $a external; declare variable $b " +
+        "external; declare context item external; $a + $b + .")) {
+      for(int i = 0; i < 100; i++) {
+        query.bind("$a", Integer.toString(i), "xs:integer");
+        query.bind("$b", "1", "xs:integer");
+        query.context("2", "xs:integer");
+        assertEqual(Integer.toString(i + 3), query.execute());
+      }
+    }
+    for(int i = 0; i < 100; i++) session.query(Integer.toString(i)).close();
+
+    // errors are raised by the request that caused them
+    final Query query = session.query("declare variable $a external; $a");
+    try {
+      query.bind("$a", "X", "xs:integer");
+      fail("Error expected.");
+    } catch(final BaseXException ex) {
+      Util.debug(ex);
+    }
+    query.close();
+    assertEqual("A", session.execute("xquery 'A'"));
+    query.close();
+    assertEqual("B", session.execute("xquery 'B'"));
+  }
+
+  /**
+   * Runs a batch of commands.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void batch() throws IOException {
+    final ClientSession cs = (ClientSession) session;
+    assertEqual("1", cs.batch(new CreateDB(NAME, "<X/>"), new XQuery("count(//X)")));
+    try {
+      cs.batch(new Add("X", "<X/>"), new XQuery("("), new Add("X", "<X/>"));
+      fail("Error expected.");
+    } catch(final BaseXException ex) {
+      Util.debug(ex);
+    }
+    assertEqual("2", cs.batch("xquery count(//X)"));
+  }
+
+  /**
+   * Retrieves query results in pages.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void cursor() throws IOException {
+    // last page is incomplete
+    try(ClientQuery query = (ClientQuery) session.query("1 to 1000")) {
+      query.pageSize(7);
+      for(int i = 1; i <= 1000; i++) {
+        assertTrue(query.more());
+        assertEqual(Integer.toString(i), query.next());
+      }
+      assertFalse(query.more());
+      // results can be retrieved again
+      assertEqual("1", query.next());
+    }
+    // last page is complete
+    try(ClientQuery query = (ClientQuery) session.query("1 to 20")) {
+      query.pageSize(10);
+      for(int r = 0; r < 2; r++) {
+        int c = 0;
+        while(query.more()) assertEqual(Integer.toString(++c), query.next());
+        assertEquals(20, c);
+      }
+    }
+    // closed cursor releases its locks
+    session.execute(new CreateDB(NAME, "<X><Y/><Y/></X>"));
+    try(ClientQuery query = (ClientQuery) session.query("//Y")) {
+      query.pageSize(1);
+      assertEqual("<Y/>", query.next());
+    }
+    // cursor is closed before the client proceeds, even if no further request is sent
+    try(Session session2 = createClient()) {
+      session2.setOutputStream(out);
+      assertEqual("1", session2.execute("xquery count(jobs:list())"));
+    }
+    session.execute(new DropDB(NAME));
+    // errors are reported
+    try(ClientQuery query = (ClientQuery) session.query("1, error()")) {
+      query.pageSize(1);
+      query.next();
+      fail("Error expected.");
+    } catch(final BaseXException ex) {
+      Util.debug(ex);
+    }
+  }
+
+  /**
+   * Executes prepared statements.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void statements() throws IOException {
+    final ClientSession cs = (ClientSession) session;
+    cs.prepare(NAME, "declare variable $x external; $x * 2");
+    try(Session session2 = createClient()) {
+      session2.setOutputStream(out);
+      for(int i = 0; i < 3; i++) {
+        try(ClientQuery query = ((ClientSession) session2).statement(NAME)) {
+          query.bind("x", i, "xs:integer");
+          assertEqual(Integer.toString(i * 2), query.execute());
+        }
+      }
+      // executions with cursors are recorded as well
+      for(int i = 0; i < 2; i++) {
+        try(ClientQuery query = ((ClientSession) session2).statement(NAME)) {
+          query.bind("x", i, "xs:integer");
+          query.pageSize(1);
+          assertEqual(Integer.toString(i * 2), query.next());
+        }
+      }
+      try(ClientQuery query = ((ClientSession) session2).statement(NAME)) {
+        query.bind("x", "X");
+        query.pageSize(1);
+        query.next();
+        fail("Error expected.");
+      } catch(final BaseXException ex) {
+        Util.debug(ex);
+      }
+    }
+    final String info = session.execute(new ShowStatements());
+    assertTrue((out != null ? out.toString() : info).contains(NAME + ": 6 executions, 1 errors"));
+    if(out != null) out.reset();
+
+    // invalid statements are rejected, unknown statements are reported
+    try {
+      cs.prepare(NAME, "(");
+      fail("Error expected.");
+    } catch(final BaseXException ex) {
+      Util.debug(ex);
+    }
+    cs.prepare(NAME, "");
+    try {
+      cs.statement(NAME);
+      fail("Error expected.");
+    } catch(final BaseXException ex) {
+      Util.debug(ex);
+    }
+  }
+
+  /**
+   * Executes copies of parsed statements.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void statementTemplates() throws IOException {
+    final IOFile module = new IOFile(sandbox(), "m.xqm");
+    write(module, "module namespace m='m'; declare function m:f($n) { $n + 1 };");
+    final ClientSession cs = (ClientSession) session;
+    cs.prepare(NAME, "import module namespace m='m' at '" + module.path() + "';" +
+        "declare namespace p='p'; declare option output:method 'text';" +
+        "declare variable $x external; declare variable $y := $x * 2;" +
+        "declare function local:f($n) { m:f($n) + $y };" +
+        "for $i in 1 to $x return <p:e>{ local:f($i) }</p:e>");
+    try(Session session2 = createClient()) {
+      session2.setOutputStream(out);
+      for(int i = 1; i <= 3; i++) {
+        for(final Session s : new Session[] { session, session2 }) {
+          try(ClientQuery query = ((ClientSession) s).statement(NAME)) {
+            query.bind("x", i, "xs:integer");
+            final StringBuilder sb = new StringBuilder();
+            for(int j = 1; j <= i; j++) sb.append(j + 1 + i * 2);
+            assertEqual(sb.toString(), query.execute());
+          }
+        }
+      }
+    }
+    // modified modules are parsed again
+    write(module, "module namespace m='m'; declare function m:f($n) { $n + 2 };");
+    module.file().setLastModified(module.timeStamp() + 2000);
+    try(ClientQuery query = cs.statement(NAME)) {
+      query.bind("x", 1, "xs:integer");
+      assertEqual("5", query.execute());
+    }
+    cs.prepare(NAME, "");
+    module.delete();
+  }
+
+  /**
+   * Records metrics.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void metrics() throws IOException {
+    session.execute(new XQuery("1"));
+    session.query("2").execute();
+    final String info = session.execute(new ShowMetrics());
+    final String metrics = out != null ? out.toString() : info;
+    assertTrue(metrics.contains("XQUERY: "));
+    assertTrue(metrics.contains("EXEC: "));
+    assertTrue(metrics.contains("XQuery: "));
+    if(out != null) out.reset();
+  }
+
+  /**
+   * Pools sessions.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void pool() throws IOException {
+    final String host = Text.S_LOCALHOST, admin = UserText.ADMIN;
+    try(ClientPool pool = new ClientPool(1, 2, 0)) {
+      final ClientSession cs1 = pool.get(host, DB_PORT, admin, admin);
+      cs1.execute(new CreateDB(NAME));
+      cs1.close();
+      // closed session is reused, opened database has been closed
+      final ClientSession cs2 = pool.get(host, DB_PORT, admin, admin);
+      assertSame(cs1, cs2);
+      try {
+        cs2.execute(new InfoDB());
+        fail("Error expected.");
+      } catch(final BaseXException ex) {
+        Util.debug(ex);
+      }
+      // options are restored, open queries are closed
+      cs2.execute(new Set(MainOptions.CHOP, false));
+      final Query query = cs2.query("1");
+      cs2.close();
+      assertSame(cs2, pool.get(host, DB_PORT, admin, admin));
+      assertEquals("CHOP: true", cs2.execute(new Get(MainOptions.CHOP)).trim());
+      try {
+        query.execute();
+        fail("Error expected.");
+      } catch(final BaseXException ex) {
+        Util.debug(ex);
+      }
+      // deferred requests are answered before the session is reused
+      cs2.query("1").close();
+      cs2.close();
+      assertSame(cs2, pool.get(host, DB_PORT, admin, admin));
+      assertEquals("1", cs2.execute(new XQuery("1")));
+
+      // new session is opened
+      final ClientSession cs3 = pool.get(host, DB_PORT, admin, admin);
+      assertNotSame(cs2, cs3);
+      assertEquals(2, pool.size());
+      cs2.close();
+      cs3.close();
+      // only one idle session is kept
+      assertEquals(1, pool.size());
+    }
+  }
 }
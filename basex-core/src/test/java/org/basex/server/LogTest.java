@@ -0,0 +1,193 @@
+package org.basex.server;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.StaticOptions.*;
+import org.basex.server.Log.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests the server log.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class LogTest extends SandboxTest {
+  /** Number of written entries. */
+  private static final int ENTRIES = 1000;
+
+  /** Resets the log options. */
+  @After
+  public void reset() {
+    final StaticOptions sopts = context.soptions;
+    sopts.set(StaticOptions.LOGBUFFER, StaticOptions.LOGBUFFER.value());
+    sopts.set(StaticOptions.LOGOVERFLOW, StaticOptions.LOGOVERFLOW.value());
+  }
+
+  /**
+   * Synchronous logging.
+   * @throws Exception exception
+   */
+  @Test
+  public void sync() throws Exception {
+    context.soptions.set(StaticOptions.LOGBUFFER, 0);
+    assertEquals(ENTRIES, write(false).size());
+  }
+
+  /**
+   * Buffered logging.
+   * @throws Exception exception
+   */
+  @Test
+  public void buffered() throws Exception {
+    final StringList lines = write(false);
+    assertEquals(ENTRIES, lines.size());
+    for(int e = 0; e < ENTRIES; e++) assertTrue(lines.get(e).endsWith("\tentry" + e));
+  }
+
+  /**
+   * Buffered logging, small buffer, blocking.
+   * @throws Exception exception
+   */
+  @Test
+  public void block() throws Exception {
+    context.soptions.set(StaticOptions.LOGBUFFER, 1);
+    assertEquals(ENTRIES, write(false).size());
+  }
+
+  /**
+   * Buffered logging, small buffer, dropped entries.
+   * @throws Exception exception
+   */
+  @Test
+  public void drop() throws Exception {
+    context.soptions.set(StaticOptions.LOGBUFFER, 1);
+    context.soptions.set(StaticOptions.LOGOVERFLOW, LogOverflow.DROP);
+    // first entry is taken by the paused writer, second entry is buffered, others are dropped
+    final StringList lines = write(true);
+    assertEquals(3, lines.size());
+    assertTrue(lines.get(0).endsWith("\tentry0"));
+    assertTrue(lines.get(1).endsWith("\tentry1"));
+    assertEquals(ENTRIES - 2, dropped(lines.get(2)));
+  }
+
+  /**
+   * Buffered logging, small buffer, sampled entries.
+   * @throws Exception exception
+   */
+  @Test
+  public void sample() throws Exception {
+    context.soptions.set(StaticOptions.LOGBUFFER, 1);
+    context.soptions.set(StaticOptions.LOGOVERFLOW, LogOverflow.SAMPLE);
+    // each entry is either kept (in the original order) or counted as dropped
+    int kept = 0, dropped = 0, last = -1;
+    for(final String line : write(false)) {
+      final int e = line.indexOf("\tentry");
+      if(e == -1) {
+        dropped += dropped(line);
+      } else {
+        final int entry = Integer.parseInt(line.substring(e + 6));
+        assertTrue(line, entry > last);
+        last = entry;
+        kept++;
+      }
+    }
+    assertEquals(ENTRIES, kept + dropped);
+    // at most nine out of ten entries that do not fit into the buffer are dropped
+    assertTrue(dropped <= (ENTRIES - 1) * 9 / 10);
+  }
+
+  /**
+   * Waits for entries that have been written before, while entries are concurrently added.
+   * @throws Exception exception
+   */
+  @Test
+  public void flush() throws Exception {
+    context.soptions.set(StaticOptions.LOGBUFFER, 1);
+    final Log log = new Log(context.soptions);
+    final String name = DateTime.format(new Date(), DateTime.DATE);
+    final AtomicBoolean stop = new AtomicBoolean();
+    final Thread thread = new Thread(() -> {
+      while(!stop.get()) log.writeServer(LogType.INFO, "concurrent");
+    });
+    try {
+      thread.start();
+      for(int e = 0; e < ENTRIES; e++) {
+        log.writeServer(LogType.INFO, "entry" + e);
+        log.flush();
+      }
+      stop.set(true);
+      thread.join();
+      int e = 0;
+      for(final String line : log.file(name).read()) {
+        if(line.endsWith("\tentry" + e)) e++;
+      }
+      assertEquals(ENTRIES, e);
+    } finally {
+      stop.set(true);
+      thread.join();
+      log.close();
+      final LogFile file = log.file(name);
+      if(file != null) file.delete();
+    }
+  }
+
+  /**
+   * Writes log entries and returns the lines of the log file.
+   * @param pause pause the writer thread after the first entry until all entries have been added
+   * @return lines
+   * @throws Exception exception
+   */
+  private static StringList write(final boolean pause) throws Exception {
+    final Log log = new Log(context.soptions);
+    final String name = DateTime.format(new Date(), DateTime.DATE);
+    try {
+      if(pause) {
+        // the writer thread cannot write entries as long as the options are locked
+        synchronized(context.soptions) {
+          log.writeServer(LogType.INFO, "entry0");
+          while(!blocked()) Performance.sleep(1);
+          for(int e = 1; e < ENTRIES; e++) log.writeServer(LogType.INFO, "entry" + e);
+        }
+      } else {
+        for(int e = 0; e < ENTRIES; e++) log.writeServer(LogType.INFO, "entry" + e);
+      }
+      return log.file(name).read();
+    } finally {
+      log.close();
+      final LogFile file = log.file(name);
+      if(file != null) file.delete();
+    }
+  }
+
+  /**
+   * Checks if a writer thread is waiting for a lock.
+   * @return result of check
+   */
+  private static boolean blocked() {
+    for(final Thread thread : Thread.getAllStackTraces().keySet()) {
+      if(thread.getName().equals("LogWriter") && thread.getState() == Thread.State.BLOCKED) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the number of dropped entries reported by a log line.
+   * @param line log line
+   * @return number of dropped entries
+   */
+  private static int dropped(final String line) {
+    assertTrue(line, line.endsWith(" log entries were dropped."));
+    return Integer.parseInt(line.replaceAll(".*\t(\\d+) log entries were dropped\\.$", "$1"));
+  }
+}
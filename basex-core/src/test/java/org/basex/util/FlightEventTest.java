@@ -0,0 +1,98 @@
+package org.basex.util;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.*;
+import java.time.*;
+import java.util.*;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.query.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for flight recorder events.
+ *
+ * @author BaseX Team 2005-18, BSD License
+ * @author Christian Gruen
+ */
+public final class FlightEventTest extends SandboxTest {
+  /** Query that is evaluated with a query processor. */
+  private static final String QUERY = "sum(1 to 100000)";
+  /** Names of the recorded events. */
+  private static final String[] EVENTS = { "QueryParse", "QueryCompile", "QueryEvaluate",
+    "LockWait", "DatabaseOpen", "DatabaseClose", "BufferMiss", "IndexLookup" };
+
+  /** No events are created if no recording is running. */
+  @Test
+  public void off() {
+    for(final FlightEvent event : FlightEvent.values()) {
+      final Object ev = event.begin();
+      assertNull(ev);
+      event.commit(ev, "", 0);
+    }
+  }
+
+  /**
+   * Records events (requires Java 12 or later).
+   * @throws Exception exception
+   */
+  @Test
+  public void recording() throws Exception {
+    final Class<?> recording = Reflect.find("jdk.jfr.Recording");
+    final Class<?> file = Reflect.find("jdk.jfr.consumer.RecordingFile");
+    Assume.assumeTrue(recording != null && file != null);
+
+    final Object rec = recording.getConstructor().newInstance();
+    final IOFile dump = new IOFile(sandbox(), NAME + ".jfr");
+    try {
+      for(final String event : EVENTS) {
+        recording.getMethod("enable", String.class).invoke(rec, "org.basex." + event);
+      }
+      recording.getMethod("start").invoke(rec);
+      execute(new CreateDB(NAME, "<a><b>x</b></a>"));
+      execute(new Close());
+      execute(new Open(NAME));
+      execute(new XQuery("//b[text() = 'x']"));
+      execute(new Close());
+      // query is implicitly compiled before it is evaluated
+      try(QueryProcessor qp = new QueryProcessor(QUERY, context)) {
+        qp.value();
+      }
+      recording.getMethod("stop").invoke(rec);
+      recording.getMethod("dump", java.nio.file.Path.class).invoke(rec, dump.file().toPath());
+    } finally {
+      recording.getMethod("close").invoke(rec);
+      execute(new DropDB(NAME));
+    }
+
+    final HashSet<String> names = new HashSet<>();
+    Instant end = null, start = null;
+    final Method read = file.getMethod("readAllEvents", java.nio.file.Path.class);
+    for(final Object event : (Iterable<?>) read.invoke(null, dump.file().toPath())) {
+      final Class<?> clz = event.getClass();
+      final Object type = clz.getMethod("getEventType").invoke(event);
+      final String name = (String) type.getClass().getMethod("getName").invoke(type);
+      names.add(name);
+      final Object info = clz.getMethod("getString", String.class).invoke(event, "info");
+      if(FlightEvent.hash(QUERY).equals(info)) {
+        if(name.equals("org.basex.QueryCompile")) {
+          end = (Instant) clz.getMethod("getEndTime").invoke(event);
+        } else if(name.equals("org.basex.QueryEvaluate")) {
+          start = (Instant) clz.getMethod("getStartTime").invoke(event);
+        }
+      }
+    }
+    dump.delete();
+    for(final String event : EVENTS) {
+      assertTrue("Event not recorded: " + event, names.contains("org.basex." + event));
+    }
+    // evaluation starts after compilation
+    assertNotNull(end);
+    assertNotNull(start);
+    assertFalse(start.isBefore(end));
+  }
+}